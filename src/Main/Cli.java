@@ -0,0 +1,311 @@
+package Main;
+
+import model.AppointmentRepository;
+import model.ClinicianRepository;
+import model.CsvStorageEngine;
+import model.FacilityRepository;
+import model.PatientRepository;
+import model.PrescriptionRepository;
+import model.RecordExporter;
+import model.ReferralManager;
+import model.ReferralRepository;
+import model.StaffRepository;
+import model.StorageEngine;
+import model.TableSchema;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Runs reports and maintenance on the data files without the Swing window, e.g. from cron.
+// Only the model layer is loaded, so no display is needed and start-up takes milliseconds.
+// Usage: java -cp <classes> Main.Cli [--data <dir>] <command> [args...]
+//        java -cp <classes> Main.Cli [--data <dir>] --script <file>   (- reads standard input)
+// A script holds one command per line; blank lines and lines starting with # are skipped.
+// The storage engine is chosen with -Dhms.storage as for the window. Exits 1 if any command failed,
+// 2 on bad usage or a storage engine that cannot be opened.
+public class Cli {
+
+    private static final String DEFAULT_DATA = "src/data";
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp <classes> Main.Cli [--data <dir>] <command> [args...]",
+            "       java -cp <classes> Main.Cli [--data <dir>] --script <file|->",
+            "Commands:",
+            "  export <table> <file> [csv|jsonl]  write every record of patients, clinicians, appointments,",
+            "                                     prescriptions, referrals or staff",
+            "  referral-report <file> [status]    write the text summary of every referral, or those with a status",
+            "  summary                            print record counts per table and status",
+            "  compact                            rewrite the data files without superseded or deleted records",
+            "  partition                          split the CSV tables by facility into <table>/ directories,",
+            "                                     keeping each CSV file as <table>.csv.bak (csv engine only)",
+            "  help                               print this text");
+
+    private final String dataDir;
+    private final StorageEngine engine;
+    // Opened on first use so a command reads only the tables it needs
+    private PatientRepository patients;
+    private ClinicianRepository clinicians;
+    private AppointmentRepository appointments;
+    private PrescriptionRepository prescriptions;
+    private ReferralRepository referrals;
+    private StaffRepository staff;
+    private ReferralManager referralManager;
+
+    Cli(String dataDir) {
+        this.dataDir = dataDir;
+        this.engine = StorageEngine.configure(dataDir);
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        String dataDir = DEFAULT_DATA;
+        String script = null;
+        while (!rest.isEmpty() && rest.get(0).startsWith("--")) {
+            String option = rest.remove(0);
+            if (rest.isEmpty()) {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+            if (option.equals("--data")) dataDir = rest.remove(0);
+            else if (option.equals("--script")) script = rest.remove(0);
+            else {
+                System.err.println("Unknown option " + option);
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+        }
+        if (script == null && rest.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Cli cli;
+        try {
+            cli = new Cli(dataDir);
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(2);
+            return;
+        }
+        boolean ok;
+        try {
+            ok = script == null ? cli.run(rest) : cli.runScript(script);
+        } finally {
+            cli.engine.close();
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Runs each line of a script, carrying on after a failed command
+    boolean runScript(String script) throws IOException {
+        boolean ok = true;
+        try (Reader source = script.equals("-") ? new InputStreamReader(System.in) : new FileReader(script);
+             BufferedReader br = new BufferedReader(source)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                ok &= run(Arrays.asList(line.split("\\s+")));
+            }
+        }
+        return ok;
+    }
+
+    // Runs one command and prints how long it took, returns false if it failed
+    boolean run(List<String> command) {
+        long start = System.nanoTime();
+        try {
+            String result = execute(command.get(0), command.subList(1, command.size()));
+            System.out.printf("%s: %s (%d ms)%n", command.get(0), result, (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            System.err.println(command.get(0) + ": " + ex.getMessage());
+            return false;
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Failed to run " + String.join(" ", command) + ": " + ex.getMessage());
+            return false;
+        }
+    }
+
+    private String execute(String name, List<String> args) throws IOException {
+        switch (name) {
+            case "export":
+                expectArgs(args, 2, 3, "export <table> <file> [csv|jsonl]");
+                return export(args.get(0), args.get(1), args.size() > 2 ? args.get(2) : null);
+            case "referral-report":
+                expectArgs(args, 1, 2, "referral-report <file> [status]");
+                String status = args.size() > 1 ? args.get(1) : null;
+                int written = referralManager().writeReport(args.get(0),
+                        status == null ? null : r -> status.equalsIgnoreCase(r.getStatus()));
+                return written + " referrals written to " + args.get(0);
+            case "summary":
+                expectArgs(args, 0, 0, "summary");
+                return summary();
+            case "compact":
+                expectArgs(args, 0, 0, "compact");
+                return compact();
+            case "partition":
+                expectArgs(args, 0, 0, "partition");
+                return partition();
+            case "help":
+                System.out.println(USAGE);
+                return "done";
+            default:
+                throw new IllegalArgumentException("unknown command, try help");
+        }
+    }
+
+    private static void expectArgs(List<String> args, int min, int max, String usage) {
+        if (args.size() < min || args.size() > max) throw new IllegalArgumentException("usage: " + usage);
+    }
+
+    private String export(String table, String path, String formatName) throws IOException {
+        RecordExporter.Format format = format(formatName, path);
+        int count;
+        switch (table) {
+            case "patients":
+                count = patients().export(path, format, null);
+                break;
+            case "clinicians":
+                count = clinicians().export(path, format, null);
+                break;
+            case "appointments":
+                count = appointments().export(path, format, null);
+                break;
+            case "prescriptions":
+                count = prescriptions().export(path, format, null);
+                break;
+            case "referrals":
+                count = referralManager().export(path, format, null);
+                break;
+            case "staff":
+                count = staff().export(path, format, null);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown table " + table);
+        }
+        return count + " " + table + " written to " + path;
+    }
+
+    // Format named on the command line, otherwise the one the file extension suggests
+    private static RecordExporter.Format format(String name, String path) {
+        if (name == null) {
+            return path.toLowerCase().endsWith(".jsonl") ? RecordExporter.Format.JSONL : RecordExporter.Format.CSV;
+        }
+        try {
+            return RecordExporter.Format.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("unknown format " + name + ", use csv or jsonl");
+        }
+    }
+
+    private String summary() {
+        Map<String, Integer> byStatus = new TreeMap<>();
+        appointments().getAll().forEach(a -> byStatus.merge(a.getStatus(), 1, Integer::sum));
+        Map<String, Integer> referralsByStatus = new TreeMap<>();
+        referrals().getAll().forEach(r -> referralsByStatus.merge(r.getStatus(), 1, Integer::sum));
+        System.out.printf("%-14s %8s%n", "table", "records");
+        System.out.printf("%-14s %8d%n", "patients", patients().getAll().size());
+        System.out.printf("%-14s %8d%n", "clinicians", clinicians().getAll().size());
+        System.out.printf("%-14s %8d  %s%n", "appointments", byStatus.values().stream().mapToInt(i -> i).sum(), byStatus);
+        System.out.printf("%-14s %8d%n", "prescriptions", prescriptions().getAll().size());
+        System.out.printf("%-14s %8d  %s%n", "referrals", referralsByStatus.values().stream().mapToInt(i -> i).sum(),
+                referralsByStatus);
+        System.out.printf("%-14s %8d%n", "staff", staff().getAll().size());
+        return "done";
+    }
+
+    // Every table is opened first, since the engine only compacts the tables it has open
+    private String compact() throws IOException {
+        patients();
+        clinicians();
+        appointments();
+        prescriptions();
+        referrals();
+        staff();
+        long before = size(new File(dataDir));
+        engine.compact();
+        long after = size(new File(dataDir));
+        return engine.getName() + " data " + before / 1024 + " KB -> " + after / 1024 + " KB";
+    }
+
+    // Splits each facility table not split yet. Tables an earlier command of this run opened
+    // are skipped, since their CSV file moves aside; running partition again splits them.
+    private String partition() throws IOException {
+        if (!"csv".equals(engine.getName())) throw new IllegalArgumentException("only CSV data is split by facility");
+        Map<TableSchema<?>, Object> tables = new LinkedHashMap<>();
+        tables.put(PatientRepository.SCHEMA, patients);
+        tables.put(ClinicianRepository.SCHEMA, clinicians);
+        tables.put(AppointmentRepository.SCHEMA, appointments);
+        tables.put(PrescriptionRepository.SCHEMA, prescriptions);
+        tables.put(ReferralRepository.SCHEMA, referrals);
+        tables.put(StaffRepository.SCHEMA, staff);
+        List<String> split = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+        for (Map.Entry<TableSchema<?>, Object> e : tables.entrySet()) {
+            if (e.getValue() != null) {
+                skipped.add(e.getKey().getName());
+                continue;
+            }
+            int segments = CsvStorageEngine.partition(dataDir, e.getKey());
+            if (segments > 0) split.add(e.getKey().getName() + " (" + segments + " facilities)");
+        }
+        String result = split.isEmpty() ? "nothing to split" : "split " + String.join(", ", split);
+        return skipped.isEmpty() ? result : result + "; skipped " + String.join(", ", skipped) + ", open in this run";
+    }
+
+    private static long size(File file) {
+        File[] children = file.listFiles();
+        if (children == null) return file.length();
+        long total = 0;
+        for (File child : children) total += size(child);
+        return total;
+    }
+
+    private PatientRepository patients() {
+        if (patients == null) patients = new PatientRepository(engine);
+        return patients;
+    }
+
+    private ClinicianRepository clinicians() {
+        if (clinicians == null) clinicians = new ClinicianRepository(engine);
+        return clinicians;
+    }
+
+    private AppointmentRepository appointments() {
+        if (appointments == null) appointments = new AppointmentRepository(engine);
+        return appointments;
+    }
+
+    private PrescriptionRepository prescriptions() {
+        if (prescriptions == null) prescriptions = new PrescriptionRepository(engine);
+        return prescriptions;
+    }
+
+    private ReferralRepository referrals() {
+        if (referrals == null) referrals = new ReferralRepository(engine);
+        return referrals;
+    }
+
+    private StaffRepository staff() {
+        if (staff == null) staff = new StaffRepository(engine);
+        return staff;
+    }
+
+    private ReferralManager referralManager() {
+        if (referralManager == null) {
+            FacilityRepository facilities = new FacilityRepository(new File(dataDir, "facilities.csv").getPath());
+            referralManager = ReferralManager.getInstance(referrals(), patients(), clinicians(), facilities,
+                    new File(dataDir, "referrals_output.txt").getPath());
+        }
+        return referralManager;
+    }
+}
\ No newline at end of file
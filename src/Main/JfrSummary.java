@@ -0,0 +1,116 @@
+package Main;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Summarises the HMS events of a flight recording: the operations that took the most time
+// in total and the slowest single calls.
+// Record with: java -XX:StartFlightRecording=filename=hms.jfr,maxage=1d -cp <classes> Main.Main
+// Usage: java -cp <classes> Main.JfrSummary <recording.jfr> [top]
+public class JfrSummary {
+
+    private static final String PREFIX = "hms.";
+    // Fields that name what an event was about, in the order they are shown
+    private static final String[] KEY_FIELDS = {"service", "table", "operation", "name", "path"};
+    private static final int DEFAULT_TOP = 20;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java -cp <classes> Main.JfrSummary <recording.jfr> [top]");
+            System.exit(2);
+        }
+        Path recording = Paths.get(args[0]);
+        int top = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TOP;
+
+        Map<String, Totals> byOperation = new HashMap<>();
+        List<RecordedEvent> slowest = new ArrayList<>();
+        Comparator<RecordedEvent> byDuration = Comparator.comparing(RecordedEvent::getDuration);
+        long events = 0;
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (!event.getEventType().getName().startsWith(PREFIX)) continue;
+                events++;
+                byOperation.computeIfAbsent(describe(event), k -> new Totals()).add(event.getDuration());
+                // Keeps only the slowest calls seen so far
+                slowest.add(event);
+                if (slowest.size() > 4 * top) {
+                    slowest.sort(byDuration.reversed());
+                    slowest.subList(top, slowest.size()).clear();
+                }
+            }
+        }
+        slowest.sort(byDuration.reversed());
+        if (slowest.size() > top) slowest.subList(top, slowest.size()).clear();
+
+        System.out.println(events + " HMS events in " + recording);
+        System.out.println();
+        System.out.println("Operations by total time");
+        System.out.printf("%10s %8s %10s %10s  %s%n", "total ms", "count", "mean ms", "max ms", "operation");
+        List<Map.Entry<String, Totals>> operations = new ArrayList<>(byOperation.entrySet());
+        operations.sort((a, b) -> Long.compare(b.getValue().totalNanos, a.getValue().totalNanos));
+        for (Map.Entry<String, Totals> e : operations.subList(0, Math.min(top, operations.size()))) {
+            Totals t = e.getValue();
+            System.out.printf("%10.1f %8d %10.2f %10.1f  %s%n", ms(t.totalNanos), t.count,
+                    ms(t.totalNanos) / t.count, ms(t.maxNanos), e.getKey());
+        }
+
+        System.out.println();
+        System.out.println("Slowest calls");
+        System.out.printf("%10s  %-24s %-20s %s%n", "ms", "thread", "start", "operation");
+        for (RecordedEvent event : slowest) {
+            String thread = event.getThread() == null ? "" : event.getThread().getJavaName();
+            System.out.printf("%10.1f  %-24s %-20s %s%s%n", ms(event.getDuration().toNanos()), thread,
+                    event.getStartTime().toString().replace('T', ' ').substring(0, 19),
+                    describe(event), details(event));
+        }
+    }
+
+    // Event label and what it was about, e.g. "Repository Storage Call appointments load"
+    private static String describe(RecordedEvent event) {
+        StringBuilder sb = new StringBuilder(event.getEventType().getLabel());
+        for (String field : KEY_FIELDS) {
+            if (!event.hasField(field)) continue;
+            Object value = event.getValue(field);
+            if (value != null) sb.append(' ').append(value);
+        }
+        return sb.toString();
+    }
+
+    // Per-call values left out of the grouping
+    private static String details(RecordedEvent event) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : new String[]{"key", "subject", "rows", "records", "bytes", "succeeded"}) {
+            Object value = event.hasField(field) ? event.getValue(field) : null;
+            if (value != null) sb.append(sb.length() == 0 ? " (" : ", ").append(field).append('=').append(value);
+        }
+        return sb.length() == 0 ? "" : sb.append(')').toString();
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    // Count, total and longest duration of one operation
+    private static final class Totals {
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        void add(Duration duration) {
+            long nanos = duration.toNanos();
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+}
\ No newline at end of file
@@ -1,59 +1,107 @@
-package Main;
-
-import controller.*;
-import model.*;
-import view.*;
-import javax.swing.SwingUtilities;
-
-public class Main {
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            //Made By Misbah Al Rehman. SRN: 24173647
-            // Initialize all data repositories
-            PatientRepository pr = new PatientRepository("src/data/patients.csv");
-            ClinicianRepository cr = new ClinicianRepository("src/data/clinicians.csv");
-            FacilityRepository fr = new FacilityRepository("src/data/facilities.csv");
-            AppointmentRepository ar = new AppointmentRepository("src/data/appointments.csv");
-            PrescriptionRepository pResR = new PrescriptionRepository("src/data/prescriptions.csv");
-            ReferralRepository rR = new ReferralRepository("src/data/referrals.csv");
-            StaffRepository sR = new StaffRepository("src/data/staff.csv");
-            
-            // Login repository integrates user data
-            LoginRepository logR = new LoginRepository(pr, cr, sR);
-            
-            // Singleton manager handles referral workflows
-            ReferralManager rm = ReferralManager.getInstance(rR, pr, cr, fr, "src/data/referrals_output.txt");
-            
-            // Initialize all view components
-            PatientView pv = new PatientView();
-            ClinicianView cv = new ClinicianView();
-            AppointmentView av = new AppointmentView();
-            PrescriptionView presV = new PrescriptionView();
-            ReferralView rv = new ReferralView();
-            StaffView sv = new StaffView();
-            LoginView logview = new LoginView();
-            
-            // Initialize controllers with their dependencies
-            PatientController pc = new PatientController(pr, ar, pv);
-            ClinicianController cc = new ClinicianController(cr, cv);
-            StaffController sc = new StaffController(sR, sv);
-            
-            AppointmentController ac = new AppointmentController(ar, pr, cr, fr, av);
-            PrescriptionController prc = new PrescriptionController(pResR, pr, cr, ar, presV);
-            
-            ReferralController rc = new ReferralController(rm, pr, cr, fr, ar, rv);
-            LoginController lc = new LoginController(logview, logR);
-            
-            // Connect login controller to main controllers
-            lc.setMainControllers(pc, cc, ac, prc, rc, sc);
-            
-            // Create and display login window
-            javax.swing.JFrame loginWindow = new javax.swing.JFrame("Healthcare Management System - Login");
-            loginWindow.setDefaultCloseOperation(javax.swing.JFrame.EXIT_ON_CLOSE);
-            loginWindow.setContentPane(logview);
-            loginWindow.pack();
-            loginWindow.setLocationRelativeTo(null);
-            loginWindow.setVisible(true);
-        });
-    }
+package Main;
+
+import controller.*;
+import model.*;
+import view.*;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import java.util.function.Supplier;
+
+public class Main {
+    public static void main(String[] args) {
+        // Times every event on the Swing thread and reports stalls (-Dhms.edt.watchdog=false to turn off)
+        EdtWatchdog.install("src/data");
+        SwingUtilities.invokeLater(() -> {
+            //Made By Misbah Al Rehman. SRN: 24173647
+            // Storage engine chosen by -Dhms.storage (CSV files unless set to log or jdbc);
+            // one asked for that cannot be opened stops the application
+            StorageEngine engine;
+            try {
+                engine = StorageEngine.configure("src/data");
+            } catch (IllegalArgumentException | IllegalStateException ex) {
+                JOptionPane.showMessageDialog(null, ex.getMessage(), "Storage Error", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+                return;
+            }
+            // Closing on exit writes every save still running or queued on the worker pool,
+            // then any changes still waiting in the background flusher
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                CommandExecutor.shared().finish(CommandExecutor.FINISH_MS);
+                engine.close();
+            }));
+            
+            // Initialize all data repositories; a table the engine cannot open stops the application
+            PatientRepository pr;
+            ClinicianRepository cr;
+            AppointmentRepository ar;
+            PrescriptionRepository pResR;
+            ReferralRepository rR;
+            StaffRepository sR;
+            try {
+                pr = new PatientRepository(engine);
+                cr = new ClinicianRepository(engine);
+                ar = new AppointmentRepository(engine);
+                pResR = new PrescriptionRepository(engine);
+                rR = new ReferralRepository(engine);
+                sR = new StaffRepository(engine);
+            } catch (IllegalStateException ex) {
+                JOptionPane.showMessageDialog(null, ex.getMessage(), "Storage Error", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+                return;
+            }
+            FacilityRepository fr = new FacilityRepository("src/data/facilities.csv");
+            // Files other programs drop into the data directory are applied on the event thread
+            pr.watchExternalChanges(SwingUtilities::invokeLater);
+            ar.watchExternalChanges(SwingUtilities::invokeLater);
+            
+            // Login repository integrates user data
+            LoginRepository logR = new LoginRepository(pr, cr, sR);
+            
+            // Singleton manager handles referral workflows
+            ReferralManager rm = ReferralManager.getInstance(rR, pr, cr, fr, "src/data/referrals_output.txt");
+            
+            // Each read a tab makes is scoped to the session that asks for it
+            SessionViews views = new SessionViews(pr, cr, ar, pResR, rR, sR);
+            
+            // Only the login screen is built now; each module's view and controller are built
+            // when its tab is first opened, and its data can be read ahead in the background.
+            // They look the logged-in user up from the login controller on every call.
+            LoginView logview = new LoginView();
+            LoginController lc = new LoginController(logview, logR);
+            Supplier<Session> session = lc::getSession;
+            LazyController<PatientController> pc = new LazyController<>(
+                    () -> new PatientController(pr, ar, views, session, new PatientView()), pr::prefetch);
+            LazyController<ClinicianController> cc = new LazyController<>(
+                    () -> new ClinicianController(cr, views, session, new ClinicianView()), cr::prefetch);
+            LazyController<StaffController> sc = new LazyController<>(
+                    () -> new StaffController(sR, views, session, new StaffView()), sR::prefetch);
+            
+            LazyController<AppointmentController> ac = new LazyController<>(
+                    () -> new AppointmentController(ar, pr, cr, fr, views, session, new AppointmentView()),
+                    ar::prefetch);
+            LazyController<PrescriptionController> prc = new LazyController<>(
+                    () -> new PrescriptionController(pResR, pr, cr, ar, views, session, new PrescriptionView()),
+                    facilityId -> pResR.prefetch());
+            
+            LazyController<ReferralController> rc = new LazyController<>(
+                    () -> new ReferralController(rm, pr, cr, fr, ar, views, session, new ReferralView()),
+                    facilityId -> rR.prefetch());
+            
+            LazyController<OccupancyController> oc = new LazyController<>(
+                    () -> new OccupancyController(ar, fr, session, new OccupancyView()), ar::prefetch);
+            
+            // Connect login controller to main controllers
+            lc.setMainControllers(pc, cc, ac, prc, rc, sc, oc);
+            lc.setStorageEngine(engine);
+            CommandExecutor.shared().setStorageEngine(engine);
+            
+            // Create and display login window
+            javax.swing.JFrame loginWindow = new javax.swing.JFrame("Healthcare Management System - Login");
+            loginWindow.setDefaultCloseOperation(javax.swing.JFrame.EXIT_ON_CLOSE);
+            loginWindow.setContentPane(logview);
+            loginWindow.pack();
+            loginWindow.setLocationRelativeTo(null);
+            loginWindow.setVisible(true);
+        });
+    }
 }
\ No newline at end of file
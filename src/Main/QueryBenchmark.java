@@ -0,0 +1,133 @@
+package Main;
+
+import model.Appointment;
+import model.AppointmentRepository;
+import model.Query;
+import model.RecordIndex;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+// Shows how the query planner's latency follows selectivity, against a full scan of the same
+// records, on synthetic appointments held in memory. Each query reports the rows it matched,
+// the plan chosen and the median time of both ways over several runs.
+// Usage: java -Xmx4g -cp <classes> Main.QueryBenchmark [rows...]
+public class QueryBenchmark {
+
+    private static final int[] DEFAULT_SIZES = {100_000, 1_000_000};
+    private static final int FACILITIES = 50;
+    private static final int CLINICIANS = 500;
+    // Appointment dates fall over two years
+    private static final int DAYS = 730;
+    private static final String[] STATUSES = {"Scheduled", "Completed", "Cancelled", "No-show"};
+    private static final String[] TYPES = {"Routine", "Follow-up", "Emergency", "Telephone"};
+    // Timed runs per query, after untimed ones to warm up
+    private static final int WARMUP = 5;
+    private static final int RUNS = 21;
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+        for (int rows : sizes) run(rows);
+    }
+
+    private static void run(int rows) {
+        List<Appointment> appointments = new ArrayList<>(rows);
+        RecordIndex<Appointment> index = new RecordIndex<>(() -> appointments)
+                .hashed(AppointmentRepository.PATIENT).hashed(AppointmentRepository.CLINICIAN)
+                .hashed(AppointmentRepository.FACILITY).hashed(AppointmentRepository.STATUS)
+                .sorted(AppointmentRepository.DATE);
+        Random random = new Random(42);
+        int patients = Math.max(1, rows / 20);
+        for (int i = 1; i <= rows; i++) {
+            Appointment a = appointment(i, patients, random);
+            appointments.add(a);
+            index.add(a);
+        }
+
+        System.out.printf("%n%,d appointments%n", rows);
+        System.out.printf("%-58s %9s %10s %10s %8s  %s%n", "query", "rows", "index us", "scan us", "speedup", "plan");
+        for (Query<Appointment> query : queries()) {
+            List<Appointment> found = index.find(query);
+            long indexNanos = median(() -> index.find(query));
+            long scanNanos = median(() -> scan(appointments, query));
+            System.out.printf("%-58s %9d %10.1f %10.1f %7.0fx  %s%n", query, found.size(),
+                    indexNanos / 1000.0, scanNanos / 1000.0, (double) scanNanos / Math.max(1, indexNanos),
+                    index.explain(query));
+        }
+    }
+
+    // From one row in a million to half the table, then combinations and an unindexed field
+    private static List<Query<Appointment>> queries() {
+        return Arrays.asList(
+                Query.where(AppointmentRepository.PATIENT.is(patientId(1))),
+                Query.where(AppointmentRepository.DATE.between(date(100), date(100))),
+                Query.where(AppointmentRepository.CLINICIAN.is(clinicianId(1))),
+                Query.where(AppointmentRepository.FACILITY.is(facilityId(1))),
+                Query.where(AppointmentRepository.DATE.between(date(100), date(129))),
+                Query.where(AppointmentRepository.STATUS.is("Scheduled")),
+                Query.where(AppointmentRepository.DATE.between(date(0), date(364))),
+                Query.where(AppointmentRepository.STATUS.is("Scheduled"))
+                        .and(AppointmentRepository.DATE.between(date(100), date(129)))
+                        .and(AppointmentRepository.CLINICIAN.is(clinicianId(1))),
+                Query.where(AppointmentRepository.STATUS.is("Cancelled"))
+                        .and(AppointmentRepository.FACILITY.is(facilityId(1))),
+                Query.where(AppointmentRepository.TYPE.is("Emergency")),
+                Query.where(AppointmentRepository.TYPE.is("Emergency"))
+                        .and(AppointmentRepository.FACILITY.is(facilityId(1))));
+    }
+
+    private static List<Appointment> scan(List<Appointment> appointments, Query<Appointment> query) {
+        List<Appointment> result = new ArrayList<>();
+        for (Appointment a : appointments) {
+            if (query.test(a)) result.add(a);
+        }
+        return result;
+    }
+
+    // Median time of one run, the result kept so the work is not optimized away
+    private static long median(Supplier<List<Appointment>> work) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) sink += work.get().size();
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            sink += work.get().size();
+            times[i] = System.nanoTime() - start;
+        }
+        if (sink < 0) System.out.println(sink);
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    private static Appointment appointment(int i, int patients, Random random) {
+        String date = date(random.nextInt(DAYS));
+        return new Appointment(String.format("A%07d", i), patientId(1 + random.nextInt(patients)),
+                clinicianId(1 + random.nextInt(CLINICIANS)), facilityId(1 + random.nextInt(FACILITIES)),
+                date, "09:00", "15", TYPES[random.nextInt(TYPES.length)], STATUSES[random.nextInt(STATUSES.length)],
+                "Check-up", "", date, date);
+    }
+
+    private static String patientId(int n) {
+        return String.format("P%06d", n);
+    }
+
+    private static String clinicianId(int n) {
+        return String.format("C%03d", n);
+    }
+
+    private static String facilityId(int n) {
+        return String.format("F%02d", n);
+    }
+
+    // Day n of the two years the appointments fall in
+    private static String date(int day) {
+        return LocalDate.of(2024, 1, 1).plusDays(day).toString();
+    }
+}
\ No newline at end of file
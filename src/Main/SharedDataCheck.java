@@ -0,0 +1,243 @@
+package Main;
+
+import model.Appointment;
+import model.AppointmentRepository;
+import model.RecordStore;
+import model.StorageEngine;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs several desks as separate JVMs against one CSV data directory and checks that no
+// desk's saves are lost and that every desk's memory ends up matching the files.
+// Usage: java -cp <classes> Main.SharedDataCheck [desks] [rounds]
+// Each round a desk edits its own appointments, adds one under a generated ID, and edits one
+// appointment every desk edits, so the last of these is settled as a conflict. Generated IDs
+// must be unique across desks.
+public class SharedDataCheck {
+
+    private static final String FACILITY = "S001";
+    private static final int SEEDED = 200;
+    // Appointment every desk edits in every round
+    private static final String SHARED_ID = appointmentId(1);
+    // How long desks wait for each other and then for their memory to catch up
+    private static final long WAIT_MS = 60_000;
+    private static final long CONVERGE_MS = 15_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--desk")) {
+            System.exit(desk(new File(args[1]), Integer.parseInt(args[2]),
+                    Integer.parseInt(args[3]), Integer.parseInt(args[4])) ? 0 : 1);
+        }
+        int desks = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        File dir = Files.createTempDirectory("hms-shared-").toFile();
+        try {
+            seed(dir);
+            long start = System.nanoTime();
+            List<Process> running = new ArrayList<>();
+            for (int i = 0; i < desks; i++) {
+                running.add(new ProcessBuilder(
+                        new File(System.getProperty("java.home"), "bin/java").getPath(),
+                        "-cp", System.getProperty("java.class.path"),
+                        "-Dhms.writeBehind.ms=50",
+                        SharedDataCheck.class.getName(), "--desk", dir.getPath(),
+                        String.valueOf(i), String.valueOf(desks), String.valueOf(rounds))
+                        .inheritIO().start());
+            }
+            int failedDesks = 0;
+            for (Process p : running) {
+                if (p.waitFor() != 0) failedDesks++;
+            }
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            int lost = verify(dir, desks, rounds);
+            int duplicates = duplicateIds(dir);
+            System.out.printf("%d desks x %d rounds in %d ms: %d lost saves, %d duplicate IDs, %d desks not converged%n",
+                    desks, rounds, ms, lost, duplicates, failedDesks);
+            if (lost > 0 || duplicates > 0 || failedDesks > 0) System.exit(1);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    // Two facilities of appointments, only the first is edited
+    private static void seed(File dir) throws IOException {
+        StorageEngine engine = StorageEngine.create("csv", dir.getPath());
+        try {
+            RecordStore<Appointment> store = engine.open(AppointmentRepository.SCHEMA, a -> a);
+            List<Appointment> rows = new ArrayList<>();
+            for (int n = 1; n <= 2 * SEEDED; n++) {
+                rows.add(appointment(appointmentId(n), n <= SEEDED ? FACILITY : "S002", "Seeded"));
+            }
+            store.appendAll(rows);
+        } finally {
+            engine.close();
+        }
+    }
+
+    // One desk: edits through the repository on a single thread, as the Swing event thread would
+    private static boolean desk(File dir, int desk, int desks, int rounds) throws Exception {
+        StorageEngine engine = StorageEngine.create("csv", dir.getPath());
+        AppointmentRepository repo = new AppointmentRepository(engine);
+        ExecutorService eventThread = Executors.newSingleThreadExecutor();
+        AtomicInteger conflicts = new AtomicInteger();
+        repo.addChangeListener(delta -> conflicts.addAndGet(delta.getConflicts().size()));
+        Random random = new Random(desk);
+        List<String> added = new ArrayList<>();
+        try {
+            onEventThread(eventThread, () -> {
+                repo.loadFacility(FACILITY);
+                repo.watchExternalChanges(eventThread);
+            });
+            for (int round = 0; round < rounds; round++) {
+                String notes = "Desk " + desk + " round " + round;
+                onEventThread(eventThread, () -> {
+                    for (int n = 2 + desk; n <= SEEDED; n += desks) {
+                        repo.update(withNotes(repo.findById(appointmentId(n)), notes));
+                    }
+                    repo.update(withNotes(repo.findById(SHARED_ID), notes));
+                    String id = repo.generateNewId();
+                    repo.addAndAppend(appointment(id, FACILITY, notes));
+                    added.add(id);
+                });
+                Thread.sleep(10 + random.nextInt(50));
+            }
+            engine.flush();
+            Files.write(new File(dir, "desk-" + desk + ".added").toPath(), added);
+
+            // Once every desk has saved, this desk's memory should match the files without a reload
+            File done = new File(dir, "desk-" + desk + ".done");
+            if (!done.createNewFile()) System.err.println("Failed to mark " + done.getPath());
+            long deadline = System.currentTimeMillis() + WAIT_MS;
+            while (countDone(dir) < desks && System.currentTimeMillis() < deadline) Thread.sleep(50);
+            long start = System.currentTimeMillis();
+            boolean converged = false;
+            while (!converged && System.currentTimeMillis() - start < CONVERGE_MS) {
+                Thread.sleep(100);
+                List<String> held = new ArrayList<>();
+                onEventThread(eventThread, () -> held.addAll(rows(repo.findByFacilityId(FACILITY))));
+                List<String> saved = rows(stored(dir));
+                converged = held.size() == saved.size() && new HashSet<>(held).equals(new HashSet<>(saved));
+            }
+            System.out.printf("desk %d: %s after %d ms, %d conflicts reported%n", desk,
+                    converged ? "converged" : "NOT converged", System.currentTimeMillis() - start, conflicts.get());
+            return converged;
+        } finally {
+            eventThread.shutdown();
+            engine.close();
+        }
+    }
+
+    private static void onEventThread(ExecutorService eventThread, Runnable work) throws InterruptedException {
+        try {
+            eventThread.submit(work).get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // Counts saves missing from the files: each desk's last edit of its own appointments and every appointment it added
+    private static int verify(File dir, int desks, int rounds) {
+        Map<String, Appointment> byId = new HashMap<>();
+        List<Appointment> stored = stored(dir);
+        for (Appointment a : stored) byId.put(a.getId(), a);
+        int lost = stored.size() - byId.size();
+        for (int desk = 0; desk < desks; desk++) {
+            String last = "Desk " + desk + " round " + (rounds - 1);
+            for (int n = 2 + desk; n <= SEEDED; n += desks) {
+                Appointment a = byId.get(appointmentId(n));
+                if (a == null || !last.equals(a.getNotes())) lost++;
+            }
+            for (String id : addedIds(dir, desk)) {
+                if (!byId.containsKey(id)) lost++;
+            }
+        }
+        Appointment shared = byId.get(SHARED_ID);
+        if (shared == null || !shared.getNotes().startsWith("Desk ")) lost++;
+        return lost;
+    }
+
+    // The edited facility as the files hold it now, read by a fresh engine
+    private static List<Appointment> stored(File dir) {
+        StorageEngine engine = StorageEngine.create("csv", dir.getPath());
+        try {
+            return new ArrayList<>(engine.open(AppointmentRepository.SCHEMA, a -> a).get(FACILITY));
+        } finally {
+            engine.close();
+        }
+    }
+
+    private static List<String> rows(List<Appointment> appointments) {
+        List<String> rows = new ArrayList<>();
+        for (Appointment a : appointments) rows.add(String.join(",", AppointmentRepository.toRow(a)));
+        return rows;
+    }
+
+    private static int countDone(File dir) {
+        String[] done = dir.list((d, f) -> f.endsWith(".done"));
+        return done == null ? 0 : done.length;
+    }
+
+    private static Appointment appointment(String id, String facility, String notes) {
+        return new Appointment(id, "P000001", "C00001", facility, "2025-10-01", "09:00", "15",
+                "Routine Consultation", "Scheduled", "Shared data check", notes,
+                "2025-01-01", "2025-01-01");
+    }
+
+    // The same appointment with new notes, stamped today as the appointment screen does
+    private static Appointment withNotes(Appointment a, String notes) {
+        return new Appointment(a.getId(), a.getPatientId(), a.getClinicianId(), a.getFacilityId(),
+                a.getAppointmentDate(), a.getAppointmentTime(), a.getDurationMinutes(),
+                a.getAppointmentType(), a.getStatus(), a.getReasonForVisit(), notes,
+                a.getCreatedDate(), LocalDate.now().toString());
+    }
+
+    private static String appointmentId(int n) {
+        return String.format("A%07d", n);
+    }
+
+    // IDs a desk generated for the appointments it added
+    private static List<String> addedIds(File dir, int desk) {
+        try {
+            return Files.readAllLines(new File(dir, "desk-" + desk + ".added").toPath());
+        } catch (IOException ex) {
+            System.err.println("Failed to read desk " + desk + " IDs: " + ex.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    // Generated IDs handed to more than one added appointment, across every desk
+    private static int duplicateIds(File dir) {
+        String[] files = dir.list((d, f) -> f.endsWith(".added"));
+        Set<String> seen = new HashSet<>();
+        int duplicates = 0;
+        for (String f : files == null ? new String[0] : files) {
+            int desk = Integer.parseInt(f.substring("desk-".length(), f.length() - ".added".length()));
+            for (String id : addedIds(dir, desk)) {
+                if (!seen.add(id)) duplicates++;
+            }
+        }
+        return duplicates;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        if (!file.delete()) System.err.println("Failed to delete " + file.getPath());
+    }
+}
\ No newline at end of file
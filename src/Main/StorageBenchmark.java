@@ -0,0 +1,183 @@
+package Main;
+
+import model.Appointment;
+import model.AppointmentRepository;
+import model.RecordStore;
+import model.StorageEngine;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Compares storage engines on synthetic appointment tables.
+// Usage: java -Xmx4g -cp <classes>:<jdbc driver jar> Main.StorageBenchmark [rows...]
+//        ant benchmark [-Dbench.rows="10000 100000"]   (fetches lib/h2.jar first)
+// The JDBC engine uses -Dhms.jdbc.url (default embedded H2). Engines run are chosen with
+// -Dhms.bench.engines (default csv,log,jdbc); one that cannot be opened stops the run
+// before anything is timed, e.g. jdbc without its driver on the classpath.
+public class StorageBenchmark {
+
+    private static final String ENGINES = System.getProperty("hms.bench.engines", "csv,log,jdbc");
+
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int FACILITIES = 50;
+    private static final int CLINICIANS = 500;
+    // Keyed reads and updates timed per run
+    private static final int LOOKUPS = 200;
+    private static final int UPDATES = 100;
+    // Records generated and written per batch
+    private static final int CHUNK = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i].replace("_", ""));
+        }
+
+        String[] kinds = ENGINES.split("\\s*,\\s*");
+        for (String kind : kinds) {
+            String problem = unavailable(kind);
+            if (problem != null) {
+                System.err.println(kind + ": " + problem);
+                System.err.println("Put the engine's driver on the classpath, or leave it out with -Dhms.bench.engines");
+                System.exit(1);
+            }
+        }
+
+        System.out.printf("%-6s %10s %10s %12s %12s %12s %12s %10s%n",
+                "engine", "rows", "write ms", "patient us", "id us", "facility ms", "update us", "scan ms");
+        for (int rows : sizes) {
+            for (String kind : kinds) {
+                File dir = Files.createTempDirectory("hms-bench-" + kind + "-").toFile();
+                try {
+                    run(kind, rows, dir);
+                } finally {
+                    delete(dir);
+                }
+            }
+        }
+    }
+
+    // Why the engine cannot be opened, null if it can
+    private static String unavailable(String kind) throws IOException {
+        File dir = Files.createTempDirectory("hms-bench-" + kind + "-").toFile();
+        try {
+            StorageEngine.create(kind, dir.getPath()).close();
+            return null;
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            return ex.getMessage();
+        } finally {
+            delete(dir);
+        }
+    }
+
+    // One engine at one table size, each read phase on a cold store
+    private static void run(String kind, int rows, File dir) throws IOException {
+        StorageEngine engine = StorageEngine.create(kind, dir.getPath());
+        int patients = Math.max(1, rows / 20);
+        Random random = new Random(42);
+        try {
+            // Batched bulk write
+            long start = System.nanoTime();
+            RecordStore<Appointment> writer = engine.open(AppointmentRepository.SCHEMA, a -> a);
+            List<Appointment> chunk = new ArrayList<>(CHUNK);
+            for (int i = 1; i <= rows; i++) {
+                chunk.add(appointment(i, patients, random));
+                if (chunk.size() == CHUNK || i == rows) {
+                    writer.appendAll(chunk);
+                    chunk.clear();
+                }
+            }
+            long writeMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Per-patient reads through the patient_id index
+            RecordStore<Appointment> store = engine.open(AppointmentRepository.SCHEMA, a -> a);
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                store.loadMatching(1, patientId(1 + random.nextInt(patients)));
+            }
+            long patientUs = (System.nanoTime() - start) / 1_000 / LOOKUPS;
+
+            // Point reads by identifier
+            store = engine.open(AppointmentRepository.SCHEMA, a -> a);
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                store.loadContaining(appointmentId(1 + random.nextInt(rows)));
+            }
+            long idUs = (System.nanoTime() - start) / 1_000 / LOOKUPS;
+
+            // One facility read in full
+            store = engine.open(AppointmentRepository.SCHEMA, a -> a);
+            start = System.nanoTime();
+            store.load(facilityId(1));
+            long facilityMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Single-record updates, CSV rewrites the facility segment each time
+            store = engine.open(AppointmentRepository.SCHEMA, a -> a);
+            start = System.nanoTime();
+            for (int i = 0; i < UPDATES; i++) {
+                String facility = facilityId(1 + random.nextInt(FACILITIES));
+                List<Appointment> held = store.get(facility);
+                if (held.isEmpty()) continue;
+                Appointment old = held.get(random.nextInt(held.size()));
+                store.replace(old, withStatus(old, i % 2 == 0 ? "Completed" : "Scheduled"));
+            }
+            long updateUs = (System.nanoTime() - start) / 1_000 / UPDATES;
+
+            // Full table scan
+            store = engine.open(AppointmentRepository.SCHEMA, a -> a);
+            start = System.nanoTime();
+            store.loadAll();
+            long scanMs = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf("%-6s %10d %10d %12d %12d %12d %12d %10d%n",
+                    kind, rows, writeMs, patientUs, idUs, facilityMs, updateUs, scanMs);
+        } finally {
+            engine.close();
+        }
+    }
+
+    private static Appointment appointment(int n, int patients, Random random) {
+        int day = 1 + random.nextInt(28);
+        int month = 1 + random.nextInt(12);
+        return new Appointment(
+                appointmentId(n),
+                patientId(1 + random.nextInt(patients)),
+                String.format("C%05d", 1 + random.nextInt(CLINICIANS)),
+                facilityId(1 + random.nextInt(FACILITIES)),
+                String.format("2025-%02d-%02d", month, day),
+                String.format("%02d:%02d", 8 + random.nextInt(10), random.nextBoolean() ? 0 : 30),
+                "15", "Routine Consultation", "Scheduled", "Benchmark visit", "",
+                "2025-01-01", "2025-01-01");
+    }
+
+    private static Appointment withStatus(Appointment a, String status) {
+        return new Appointment(a.getId(), a.getPatientId(), a.getClinicianId(), a.getFacilityId(),
+                a.getAppointmentDate(), a.getAppointmentTime(), a.getDurationMinutes(),
+                a.getAppointmentType(), status, a.getReasonForVisit(), a.getNotes(),
+                a.getCreatedDate(), a.getLastModified());
+    }
+
+    private static String appointmentId(int n) {
+        return String.format("A%07d", n);
+    }
+
+    private static String patientId(int n) {
+        return String.format("P%06d", n);
+    }
+
+    private static String facilityId(int n) {
+        return String.format("S%03d", n);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        if (!file.delete()) System.err.println("Failed to delete " + file.getPath());
+    }
+}
\ No newline at end of file
@@ -1,385 +1,440 @@
-package controller;
-
-import model.*;
-import view.*;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.ArrayList;
-import javax.swing.JOptionPane;
-
-public class AppointmentController {
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Core dependencies for managing appointment data
-    private final AppointmentRepository repo;
-    private final PatientRepository patientRepo;
-    private final ClinicianRepository clinicianRepo;
-    private final FacilityRepository facilityRepo;
-    private final AppointmentView view;
-    
-    // Formatter for consistent date handling
-    private final DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    
-    // User context for filtering and permissions
-    private String currentPatientId;
-    private String currentClinicianId;
-    private String currentUserRole;
-
-    // Initializes controller with all required repositories
-    public AppointmentController(AppointmentRepository repo,
-                                 PatientRepository patientRepo,
-                                 ClinicianRepository clinicianRepo,
-                                 FacilityRepository facilityRepo,
-                                 AppointmentView view) {
-
-        // Set up repository connections for data access
-        this.repo = repo;
-        this.patientRepo = patientRepo;
-        this.clinicianRepo = clinicianRepo;
-        this.facilityRepo = facilityRepo;
-        this.view = view;
-
-        // Connect controller to view and initialize UI
-        view.setController(this);
-        setupForUserRole();
-        refreshAppointments();
-        view.loadDropdowns(getPatientIds(), getClinicianIds(), getFacilityIds());
-    }
-    
-    // Configures UI for default user role on startup
-    private void setupForUserRole() {
-        // Start with read-only patient view for security
-        view.setReadOnlyMode(true);
-        view.hideAddDeleteButtons();
-        view.setTitle("My Appointments");
-        refreshAppointments();
-    }
-    
-    // Sets user identity and permissions after login
-    public void setUserContext(String userId, String role) {
-        this.currentUserRole = role;
-        
-        // Route to appropriate view based on user type
-        if ("PATIENT".equals(role)) {
-            setCurrentPatientId(userId);
-        } else if ("CLINICIAN".equals(role)) {
-            setCurrentClinicianId(userId);
-        } else {
-            // Staff or admin users get full access
-            setStaffView();
-        }
-    }
-    
-    // Enables full system access for staff members
-    public void setStaffView() {
-        this.currentPatientId = null;
-        this.currentClinicianId = null;
-        this.currentUserRole = "STAFF";
-        
-        // Grant edit permissions and show all controls
-        view.setReadOnlyMode(false);
-        view.showAllButtons();
-        view.setTitle("Appointment Management");
-        refreshAppointments();
-    }
-    
-    // Administrative view with complete system control
-    public void setAdminView() {
-        this.currentPatientId = null;
-        this.currentClinicianId = null;
-        this.currentUserRole = "ADMIN";
-        
-        // Enable all administrative functions
-        view.setReadOnlyMode(false);
-        view.showAllButtons();
-        view.setTitle("Appointment Management (Admin View)");
-        refreshAppointments();
-    }
-
-    // Restricts view to only show appointments for this patient
-    public void setCurrentPatientId(String patientId) {
-        this.currentPatientId = patientId;
-        this.currentClinicianId = null;
-        this.currentUserRole = "PATIENT";
-        
-        // Patients can book new appointments but not edit others
-        view.setReadOnlyMode(false);
-        view.hideUpdateButton();
-        view.setTitle("My Appointments");
-        
-        refreshAppointments();
-        view.loadDropdowns(getPatientIds(), getClinicianIds(), getFacilityIds());
-    }
-    
-    // Filters view to appointments assigned to this clinician
-    public void setCurrentClinicianId(String clinicianId) {
-        this.currentClinicianId = clinicianId;
-        this.currentPatientId = null;
-        this.currentUserRole = "CLINICIAN";
-        
-        // Clinicians can manage but not create/delete appointments
-        view.setReadOnlyMode(false);
-        view.hideAddDeleteButtons();
-        view.setTitle("My Clinic Appointments");
-        
-        refreshAppointments();
-        view.loadDropdowns(getPatientIds(), getClinicianIds(), getFacilityIds());
-    }
-
-    // Returns the view component for UI display
-    public AppointmentView getView() {
-        return view;
-    }
-
-    // Updates appointment display based on user permissions
-    public void refreshAppointments() {
-        List<Appointment> appointmentsToShow;
-        
-        // Filter appointments based on user role
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            appointmentsToShow = getAppointmentsForPatient(currentPatientId);
-        } else if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            appointmentsToShow = getAppointmentsForClinician(currentClinicianId);
-        } else {
-            // Staff/admin see all appointments
-            appointmentsToShow = repo.getAll();
-        }
-        
-        view.showAppointments(appointmentsToShow);
-    }
-
-    // Generates unique ID for new appointment records
-    public String generateId() {
-        return repo.generateNewId();
-    }
-
-    // Provides patient IDs appropriate for current user context
-    public List<String> getPatientIds() {
-        List<String> ids = new ArrayList<>();
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            // Patients only see their own ID
-            ids.add(currentPatientId);
-        } else if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            // Clinicians can see all patient IDs
-            ids = patientRepo.getAllIds();
-        } else {
-            // Staff/admin can see all patient IDs
-            ids = patientRepo.getAllIds();
-        }
-        return ids;
-    }
-
-    // Provides clinician IDs appropriate for current user context
-    public List<String> getClinicianIds() {
-        List<String> ids = new ArrayList<>();
-        
-        if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            // Clinicians only see their own ID
-            ids.add(currentClinicianId);
-        } else if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            // Patients can see all clinician IDs
-            ids = clinicianRepo.getAllIds();
-        } else {
-            // Staff/admin can see all clinician IDs
-            ids = clinicianRepo.getAllIds();
-        }
-        return ids;
-    }
-
-    // Returns all facility IDs available in the system
-    public List<String> getFacilityIds() {
-        return facilityRepo.getAllIds();
-    }
-
-    // Adds new appointment with proper permission validation
-    public void addAppointment(Appointment a) {
-        // Patient-specific security checks
-        if ("PATIENT".equals(currentUserRole)) {
-            // Patients can only book appointments for themselves
-            if (!a.getPatientId().equals(currentPatientId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only book appointments for yourself.", 
-                    "Access Denied", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            // Patients cannot book appointments in the past
-            LocalDate appointmentDate = LocalDate.parse(a.getAppointmentDate(), fmt);
-            if (appointmentDate.isBefore(LocalDate.now())) {
-                JOptionPane.showMessageDialog(view, 
-                    "Cannot book appointments in the past.", 
-                    "Invalid Date", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-        } else if ("CLINICIAN".equals(currentUserRole)) {
-            // Clinicians can only create their own appointments
-            if (!a.getClinicianId().equals(currentClinicianId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only create appointments for yourself.", 
-                    "Access Denied", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-        }
-        
-        // Save appointment to repository and update UI
-        repo.addAndAppend(a);
-        refreshAppointments();
-        
-        JOptionPane.showMessageDialog(view, 
-            "Appointment added successfully!", 
-            "Success", 
-            JOptionPane.INFORMATION_MESSAGE);
-    }
-    
-    // Updates existing appointment with permission checks
-    public void updateAppointment(Appointment a) {
-        // Retrieve original appointment for permission validation
-        Appointment original = repo.findById(a.getId());
-        
-        if (original == null) {
-            JOptionPane.showMessageDialog(view, 
-                "Appointment not found.", 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        // Patient-specific update permissions
-        if ("PATIENT".equals(currentUserRole)) {
-            if (!original.getPatientId().equals(currentPatientId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only update your own appointments.", 
-                    "Access Denied", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            repo.update(a);
-            JOptionPane.showMessageDialog(view, 
-                "Your appointment has been updated!", 
-                "Success", 
-                JOptionPane.INFORMATION_MESSAGE);
-            
-        } else if ("CLINICIAN".equals(currentUserRole)) {
-            // Clinician-specific update permissions
-            if (!original.getClinicianId().equals(currentClinicianId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only update appointments you are assigned to.", 
-                    "Access Denied", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            repo.update(a);
-            JOptionPane.showMessageDialog(view, 
-                "Appointment updated successfully!", 
-                "Success", 
-                JOptionPane.INFORMATION_MESSAGE);
-            
-        } else {
-            // Staff/admin can update any appointment
-            repo.update(a);
-            JOptionPane.showMessageDialog(view, 
-                "Appointment updated successfully!", 
-                "Success", 
-                JOptionPane.INFORMATION_MESSAGE);
-        }
-        
-        refreshAppointments();
-    }
-
-    // Deletes appointment with comprehensive permission validation
-    public void deleteById(String id) {
-        Appointment a = repo.findById(id);
-        if (a != null) {
-            // Patient-specific deletion rules
-            if ("PATIENT".equals(currentUserRole)) {
-                if (!a.getPatientId().equals(currentPatientId)) {
-                    JOptionPane.showMessageDialog(view, 
-                        "You can only cancel your own appointments.", 
-                        "Access Denied", 
-                        JOptionPane.WARNING_MESSAGE);
-                    return;
-                }
-                
-                // Patients cannot cancel past appointments
-                LocalDate appointmentDate = LocalDate.parse(a.getAppointmentDate(), fmt);
-                if (appointmentDate.isBefore(LocalDate.now())) {
-                    JOptionPane.showMessageDialog(view, 
-                        "Cannot cancel past appointments.", 
-                        "Invalid Action", 
-                        JOptionPane.WARNING_MESSAGE);
-                    return;
-                }
-                
-            } else if ("CLINICIAN".equals(currentUserRole)) {
-                // Clinician-specific deletion rules
-                if (!a.getClinicianId().equals(currentClinicianId)) {
-                    JOptionPane.showMessageDialog(view, 
-                        "You can only cancel appointments you are assigned to.", 
-                        "Access Denied", 
-                        JOptionPane.WARNING_MESSAGE);
-                    return;
-                }
-            }
-            
-            // Confirm deletion with user to prevent accidental removal
-            int confirm = JOptionPane.showConfirmDialog(view,
-                "Are you sure you want to delete appointment " + id + "?",
-                "Confirm Delete",
-                JOptionPane.YES_NO_OPTION,
-                JOptionPane.WARNING_MESSAGE);
-                
-            if (confirm == JOptionPane.YES_OPTION) {
-                repo.remove(a);
-                JOptionPane.showMessageDialog(view, 
-                    "Appointment deleted successfully!", 
-                    "Success", 
-                    JOptionPane.INFORMATION_MESSAGE);
-            }
-        }
-        refreshAppointments();
-    }
-    
-    // Retrieves all appointments for a specific patient
-    public List<Appointment> getAppointmentsForPatient(String patientId) {
-        List<Appointment> patientAppointments = new ArrayList<>();
-        for (Appointment a : repo.getAll()) {
-            if (a.getPatientId().equals(patientId)) {
-                patientAppointments.add(a);
-            }
-        }
-        return patientAppointments;
-    }
-    
-    // Retrieves all appointments for a specific clinician
-    public List<Appointment> getAppointmentsForClinician(String clinicianId) {
-        List<Appointment> clinicianAppointments = new ArrayList<>();
-        for (Appointment a : repo.getAll()) {
-            if (a.getClinicianId().equals(clinicianId)) {
-                clinicianAppointments.add(a);
-            }
-        }
-        return clinicianAppointments;
-    }
-    
-    // Returns current clinician ID for permission checks
-    public String getCurrentClinicianId() {
-        return currentClinicianId;
-    }
-    
-    // Returns current patient ID for permission checks
-    public String getCurrentPatientId() {
-        return currentPatientId;
-    }
-    
-    // Returns current user role for permission checks
-    public String getCurrentUserRole() {
-        return currentUserRole;
-    }
+package controller;
+
+import model.*;
+import view.*;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+public class AppointmentController {
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Core dependencies for managing appointment data
+    private final AppointmentRepository repo;
+    private final PatientRepository patientRepo;
+    private final ClinicianRepository clinicianRepo;
+    private final FacilityRepository facilityRepo;
+    private final AppointmentView view;
+    
+    // Formatter for consistent date handling
+    private final DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    
+    // Rows each role may see, asked for with the window's session on every read
+    private final SessionViews views;
+    // Who is using the window, looked up on each call since logging in again replaces it
+    private final Supplier<Session> session;
+    // Folds the reloads each context change asks for into one per event
+    private final RefreshScheduler refreshes = RefreshScheduler.shared();
+    // Runs storage writes off the event thread, in order per appointment
+    private final CommandExecutor commands = CommandExecutor.shared();
+
+    // Initializes controller with all required repositories; built once a user has logged
+    // in, so the view is set up for the session's role straight away
+    public AppointmentController(AppointmentRepository repo,
+                                 PatientRepository patientRepo,
+                                 ClinicianRepository clinicianRepo,
+                                 FacilityRepository facilityRepo,
+                                 SessionViews views,
+                                 Supplier<Session> session,
+                                 AppointmentView view) {
+
+        // Set up repository connections for data access
+        this.repo = repo;
+        this.patientRepo = patientRepo;
+        this.clinicianRepo = clinicianRepo;
+        this.facilityRepo = facilityRepo;
+        this.views = views;
+        this.session = session;
+        this.view = view;
+
+        // Connect controller to view and initialize UI
+        view.setController(this);
+        setupForUserRole(session.get());
+        repo.addChangeListener(this::showExternalChanges);
+        refreshAppointmentsLater();
+        refreshDropdownsLater();
+    }
+    
+    // Configures the UI for the logged-in user's role
+    private void setupForUserRole(Session user) {
+        view.setReadOnlyMode(false);
+        if (user.isPatient()) {
+            // Patients can book new appointments but not edit others
+            view.hideUpdateButton();
+            view.setTitle("My Appointments");
+        } else if (user.isClinician()) {
+            // Clinicians can manage but not create/delete appointments
+            view.hideAddDeleteButtons();
+            view.setTitle("My Clinic Appointments");
+        } else {
+            // Staff and administrators get every control
+            view.showAllButtons();
+            view.setTitle(user.isAdmin() ? "Appointment Management (Admin View)" : "Appointment Management");
+        }
+        // Staff read their own facility up front and are scoped to it
+        if (user.getSiteFacilityId() != null) repo.loadFacility(user.getSiteFacilityId());
+    }
+    
+    // Logged-in patient and clinician, null for other roles
+    private String currentPatientId() {
+        return session.get().getPatientId();
+    }
+    
+    private String currentClinicianId() {
+        return session.get().getClinicianId();
+    }
+    
+    // Facility a staff session is scoped to, null for everyone else
+    private String homeFacilityId() {
+        return session.get().getSiteFacilityId();
+    }
+
+    // Shows appointment rows another program changed, touching only the affected table rows
+    private void showExternalChanges(RecordDelta<Appointment> delta) {
+        // Told once the table shows the saved versions
+        if (!delta.getConflicts().isEmpty()) SwingUtilities.invokeLater(() -> warnOfConflicts(delta.getConflicts()));
+        if (view.isPaged()) {
+            // Pages are read from the indexes, which already hold the change
+            refreshAppointmentsLater();
+            return;
+        }
+        List<Appointment> changed = new ArrayList<>();
+        Set<String> removed = new HashSet<>();
+        for (Appointment a : delta.getDeleted()) removed.add(a.getId());
+        for (Appointment a : delta.getUpdatedTo()) {
+            // An appointment moved to another patient, clinician or site leaves this list
+            if (isShown(a)) changed.add(a);
+            else removed.add(a.getId());
+        }
+        for (Appointment a : delta.getInserted()) {
+            if (isShown(a)) changed.add(a);
+        }
+        view.applyAppointmentChanges(changed, removed);
+    }
+
+    // Explains that another desk's earlier save of the same fields was kept over this one
+    private void warnOfConflicts(List<Appointment> overruled) {
+        Set<String> ids = new TreeSet<>();
+        for (Appointment a : overruled) ids.add(a.getId());
+        JOptionPane.showMessageDialog(view,
+            "Another desk saved changes to appointment " + String.join(", ", ids)
+                + " first, so your changes to the same details were not kept.\n"
+                + "The list shows the saved version.",
+            "Changed Elsewhere",
+            JOptionPane.WARNING_MESSAGE);
+    }
+
+    // True when the appointment belongs in the current user's list
+    private boolean isShown(Appointment a) {
+        if (currentPatientId() != null) return currentPatientId().equals(a.getPatientId());
+        if (currentClinicianId() != null) return currentClinicianId().equals(a.getClinicianId());
+        if (homeFacilityId() != null) return homeFacilityId().equals(a.getFacilityId());
+        return true;
+    }
+
+    // Returns the view component for UI display
+    public AppointmentView getView() {
+        return view;
+    }
+
+    // Reloads the table once the current event is done, however many changes ask for it
+    private void refreshAppointmentsLater() {
+        refreshes.request("appointments.table", this::refreshAppointments);
+    }
+
+    // Reloads the booking dropdowns once the current event is done
+    private void refreshDropdownsLater() {
+        refreshes.request("appointments.dropdowns",
+            () -> view.loadDropdowns(getPatientIds(), getClinicianIds(), getFacilityIds()));
+    }
+
+    // Updates appointment display based on user permissions
+    public void refreshAppointments() {
+        // The (date, id) page index matching the user's role
+        PageSource<Appointment> pages = views.appointments(session.get());
+        
+        // Large results are fetched a page at a time as the user scrolls
+        if (PageSource.shouldPage(pages.size())) {
+            view.showAppointmentPages(pages);
+        } else {
+            view.showAppointments(pages.after(null, pages.size()));
+        }
+    }
+
+    // Generates unique ID for new appointment records
+    public String generateId() {
+        return repo.generateNewId();
+    }
+
+    // Provides patient IDs appropriate for current user context
+    public NavigableSet<String> getPatientIds() {
+        NavigableSet<String> ids = new TreeSet<>();
+        
+        if (currentPatientId() != null) {
+            // Patients only see their own ID
+            ids.add(currentPatientId());
+        } else if (currentClinicianId() != null) {
+            // Clinicians book for patients on their own caseload
+            ids.addAll(repo.getPatientIdsForClinician(currentClinicianId()));
+        } else {
+            // Staff/admin search the full patient index
+            ids = patientRepo.getIdIndex();
+        }
+        return ids;
+    }
+
+    // Provides clinician IDs appropriate for current user context
+    public NavigableSet<String> getClinicianIds() {
+        NavigableSet<String> ids = new TreeSet<>();
+        
+        if (currentClinicianId() != null) {
+            // Clinicians only see their own ID
+            ids.add(currentClinicianId());
+        } else if (currentPatientId() != null) {
+            // Patients book with clinicians at their registered surgery
+            Patient patient = patientRepo.findById(currentPatientId());
+            String surgeryId = patient != null ? patient.getGpSurgeryId() : null;
+            if (surgeryId == null || surgeryId.isBlank()) return clinicianRepo.getIdIndex();
+            for (Clinician c : clinicianRepo.findByFacilityId(surgeryId)) ids.add(c.getId());
+        } else if (homeFacilityId() != null) {
+            // Staff book with clinicians at their own facility
+            for (Clinician c : clinicianRepo.findByFacilityId(homeFacilityId())) ids.add(c.getId());
+        } else {
+            // Admin searches the full clinician index
+            ids = clinicianRepo.getIdIndex();
+        }
+        return ids;
+    }
+
+    // Returns all facility IDs available in the system
+    public List<String> getFacilityIds() {
+        return facilityRepo.getAllIds();
+    }
+
+    // Adds new appointment with proper permission validation
+    public void addAppointment(Appointment a) {
+        // Patient-specific security checks
+        if (session.get().isPatient()) {
+            // Patients can only book appointments for themselves
+            if (!a.getPatientId().equals(currentPatientId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only book appointments for yourself.", 
+                    "Access Denied", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            // Patients cannot book appointments in the past
+            LocalDate appointmentDate = LocalDate.parse(a.getAppointmentDate(), fmt);
+            if (appointmentDate.isBefore(LocalDate.now())) {
+                JOptionPane.showMessageDialog(view, 
+                    "Cannot book appointments in the past.", 
+                    "Invalid Date", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+        } else if (session.get().isClinician()) {
+            // Clinicians can only create their own appointments
+            if (!a.getClinicianId().equals(currentClinicianId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only create appointments for yourself.", 
+                    "Access Denied", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+        }
+        
+        if (!confirmCapacity(a, null)) return;
+        // Show the appointment at once and write it to storage on a worker thread
+        commands.save("Appointment", a.getId(), repo.addAndAppendDeferred(a), this::refreshAppointmentsLater, null,
+                "Appointment added successfully!", view);
+    }
+    
+    // Updates existing appointment with permission checks
+    public void updateAppointment(Appointment a) {
+        // Retrieve original appointment for permission validation
+        Appointment original = repo.findById(a.getId());
+        
+        if (original == null) {
+            JOptionPane.showMessageDialog(view, 
+                "Appointment not found.", 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        // Patient-specific update permissions
+        if (session.get().isPatient()) {
+            if (!original.getPatientId().equals(currentPatientId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only update your own appointments.", 
+                    "Access Denied", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            saveUpdate(a, original, "Your appointment has been updated!");
+            
+        } else if (session.get().isClinician()) {
+            // Clinician-specific update permissions
+            if (!original.getClinicianId().equals(currentClinicianId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only update appointments you are assigned to.", 
+                    "Access Denied", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            saveUpdate(a, original, "Appointment updated successfully!");
+            
+        } else {
+            // Staff/admin can update any appointment
+            saveUpdate(a, original, "Appointment updated successfully!");
+        }
+        
+        refreshAppointmentsLater();
+    }
+
+    // Saves a change to an appointment once any capacity warning has been accepted
+    private void saveUpdate(Appointment a, Appointment original, String message) {
+        if (!confirmCapacity(a, original)) return;
+        commands.save("Appointment", a.getId(), repo.updateDeferred(a), this::refreshAppointmentsLater, null,
+                message, view);
+    }
+
+    // Asks before a booking takes a facility past its daily capacity. The count comes from the
+    // occupancy counters, so this never scans appointments; true if the booking should go ahead.
+    private boolean confirmCapacity(Appointment a, Appointment replacing) {
+        Facility facility = facilityRepo.findById(a.getFacilityId());
+        if (facility == null || facility.getCapacity() <= 0 || !FacilityOccupancy.counts(a)) return true;
+        FacilityOccupancy.Day day = repo.getOccupancy(a.getFacilityId(), a.getAppointmentDate());
+        int booked = day.getAppointments();
+        long minutes = day.getMinutes();
+        // An edit that keeps its facility and day already holds one of the booked slots
+        if (replacing != null && FacilityOccupancy.counts(replacing)
+                && replacing.getFacilityId().equals(a.getFacilityId())
+                && replacing.getAppointmentDate().equals(a.getAppointmentDate())) {
+            booked--;
+            minutes -= FacilityOccupancy.minutes(replacing);
+        }
+        if (booked < facility.getCapacity()) return true;
+        int confirm = JOptionPane.showConfirmDialog(view,
+            facility.getName() + " is fully booked on " + a.getAppointmentDate() + ":\n" +
+            booked + " of " + facility.getCapacity() + " appointments, " + minutes + " minutes booked.\n\n" +
+            "Book this appointment anyway?",
+            "Over Capacity",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.WARNING_MESSAGE);
+        return confirm == JOptionPane.YES_OPTION;
+    }
+
+    // Deletes appointment with comprehensive permission validation
+    public void deleteById(String id) {
+        Appointment a = repo.findById(id);
+        if (a != null) {
+            // Patient-specific deletion rules
+            if (session.get().isPatient()) {
+                if (!a.getPatientId().equals(currentPatientId())) {
+                    JOptionPane.showMessageDialog(view, 
+                        "You can only cancel your own appointments.", 
+                        "Access Denied", 
+                        JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                
+                // Patients cannot cancel past appointments
+                LocalDate appointmentDate = LocalDate.parse(a.getAppointmentDate(), fmt);
+                if (appointmentDate.isBefore(LocalDate.now())) {
+                    JOptionPane.showMessageDialog(view, 
+                        "Cannot cancel past appointments.", 
+                        "Invalid Action", 
+                        JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+                
+            } else if (session.get().isClinician()) {
+                // Clinician-specific deletion rules
+                if (!a.getClinicianId().equals(currentClinicianId())) {
+                    JOptionPane.showMessageDialog(view, 
+                        "You can only cancel appointments you are assigned to.", 
+                        "Access Denied", 
+                        JOptionPane.WARNING_MESSAGE);
+                    return;
+                }
+            }
+            
+            // Confirm deletion with user to prevent accidental removal
+            int confirm = JOptionPane.showConfirmDialog(view,
+                "Are you sure you want to delete appointment " + id + "?",
+                "Confirm Delete",
+                JOptionPane.YES_NO_OPTION,
+                JOptionPane.WARNING_MESSAGE);
+                
+            if (confirm == JOptionPane.YES_OPTION) {
+                commands.save("Appointment", id, repo.removeDeferred(a), this::refreshAppointmentsLater, null,
+                        "Appointment deleted successfully!", view);
+            }
+        }
+        refreshAppointmentsLater();
+    }
+    
+    // Retrieves all appointments for a specific patient
+    public List<Appointment> getAppointmentsForPatient(String patientId) {
+        return repo.findByPatientId(patientId);
+    }
+    
+    // Retrieves all appointments for a specific clinician
+    public List<Appointment> getAppointmentsForClinician(String clinicianId) {
+        return repo.findByClinicianId(clinicianId);
+    }
+    
+    // Returns current clinician ID for permission checks
+    public String getCurrentClinicianId() {
+        return currentClinicianId();
+    }
+    
+    // Returns current patient ID for permission checks
+    public String getCurrentPatientId() {
+        return currentPatientId();
+    }
+    
+    // Returns current user role for permission checks
+    public String getCurrentUserRole() {
+        return session.get().getRole().toUpperCase();
+    }
+
+    // Exports appointments visible to the current user
+    public void exportAppointments(String path, RecordExporter.Format format) {
+        Predicate<Appointment> filter = null;
+        if (currentPatientId() != null) {
+            String patientId = currentPatientId();
+            filter = a -> patientId.equals(a.getPatientId());
+        } else if (currentClinicianId() != null) {
+            String clinicianId = currentClinicianId();
+            filter = a -> clinicianId.equals(a.getClinicianId());
+        }
+
+        try {
+            int count = repo.export(path, format, filter);
+            JOptionPane.showMessageDialog(view,
+                "Exported " + count + " appointments to:\n" + path,
+                "Export Complete",
+                JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(view,
+                "Failed to export appointments: " + ex.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
 }
\ No newline at end of file
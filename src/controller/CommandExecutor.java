@@ -0,0 +1,335 @@
+package controller;
+
+import model.PendingWrite;
+import model.StorageEngine;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Cursor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.swing.AbstractButton;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
+
+// Runs storage writes on a worker pool so a save never freezes the window. The change is
+// already in memory when a command is submitted; the worker only writes it, and the result
+// is handed back on the event thread, where a failed write's change is taken back out of memory.
+// Commands for the same entity run one after another in the order they were submitted,
+// commands for different entities side by side. Submit on the event thread.
+public class CommandExecutor {
+
+    // Worker threads shared by every screen (-Dhms.commands.workers)
+    private static final int WORKERS = Integer.getInteger("hms.commands.workers", 4);
+    // How long exit waits for running writes (-Dhms.commands.finishMs)
+    public static final long FINISH_MS = Long.getLong("hms.commands.finishMs", 10_000L);
+
+    // Shared by every controller so one progress indicator covers all saves
+    private static final CommandExecutor SHARED = new CommandExecutor(newWorkerPool(WORKERS));
+
+    // Background part of a command, its result is handed to the event thread
+    public interface Work<R> {
+        R run() throws Exception;
+    }
+
+    private final ExecutorService workers;
+    // Each entity's running command followed by those waiting behind it, by entity key. A command
+    // run after all others sits in every lane there was when it was submitted, and in its own.
+    // Guarded by itself: workers start the next command in a lane as soon as one finishes.
+    private final Map<String, ArrayDeque<Command<?>>> lanes = new HashMap<>();
+    // Waited on after each write, so a save is only reported once the data is written
+    private volatile StorageEngine storage;
+    // Set once exit has begun; queued commands are then left for finish() to run
+    private boolean finishing;
+    // Buttons disabled here and how many running commands need them disabled
+    private final Map<AbstractButton, Integer> disabled = new IdentityHashMap<>();
+    private final Map<Container, Integer> waiting = new IdentityHashMap<>();
+    // Told how many commands are queued or running whenever that changes
+    private final List<IntConsumer> progressListeners = new CopyOnWriteArrayList<>();
+    private int inProgress;
+
+    public CommandExecutor(ExecutorService workers) {
+        this.workers = workers;
+    }
+
+    // The executor the controllers share
+    public static CommandExecutor shared() {
+        return SHARED;
+    }
+
+    // Receives the storage engine whose background flusher each write waits for
+    public void setStorageEngine(StorageEngine storage) {
+        this.storage = storage;
+    }
+
+    private static ExecutorService newWorkerPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "storage-command-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Writes one record's change already made in memory, keeping the view's buttons disabled until
+    // it is stored. Once stored, the screen is refreshed, onStored runs and the success message, if
+    // any, is shown; if the write fails the change is taken back out of memory and the error shown.
+    public void save(String kind, String id, PendingWrite write, Runnable refresh, Runnable onStored,
+                     String success, Container view) {
+        refresh.run();
+        submit(kind.toLowerCase(Locale.ROOT) + " " + id, write, () -> {
+            refresh.run();
+            if (onStored != null) onStored.run();
+            if (success != null) {
+                JOptionPane.showMessageDialog(view, success, "Success", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }, ex -> {
+            refresh.run();
+            JOptionPane.showMessageDialog(view,
+                kind + " " + id + " could not be saved: " + ex.getMessage(),
+                "Save Failed",
+                JOptionPane.ERROR_MESSAGE);
+        }, view);
+    }
+
+    // Writes a change already made in memory, then runs onDone or onFailed on the event thread.
+    // A failed write's change is taken back out of memory before onFailed runs.
+    // The buttons inside the affected view stay disabled until the write has finished, which
+    // includes the engine's background flusher writing it out.
+    public void submit(String entity, PendingWrite write, Runnable onDone,
+                       Consumer<Exception> onFailed, Container affected) {
+        submit(entity, () -> {
+            write.run();
+            // A change the flusher has yet to write is not reported as saved; it is not taken
+            // back either way, since the flusher keeps retrying it
+            StorageEngine engine = storage;
+            if (engine != null) engine.awaitWritten();
+            return null;
+        }, result -> onDone.run(), ex -> {
+            write.undo();
+            if (onFailed != null) onFailed.accept(ex);
+            else System.err.println("Failed to save " + entity + ": " + ex.getMessage());
+        }, affected);
+    }
+
+    // Runs work for an entity after that entity's earlier commands, then hands the result back
+    public <R> void submit(String entity, Work<R> work, Consumer<R> onDone,
+                           Consumer<Exception> onFailed, Container affected) {
+        Command<R> command = new Command<>(entity, work, onDone, onFailed, affected);
+        inProgress++;
+        fireProgress();
+        setBusy(affected, true);
+        synchronized (lanes) {
+            enqueue(command, Collections.singletonList(entity));
+        }
+    }
+
+    // Runs work once every command submitted before it has finished, whatever its entity,
+    // e.g. a save that must not report success while earlier writes are still on their way.
+    // It joins the end of every lane and of its own, named lane, so commands submitted after it
+    // for those entities, and a second one of the same name, wait for it in turn.
+    public <R> void submitAfterAll(String name, Work<R> work, Consumer<R> onDone,
+                                   Consumer<Exception> onFailed, Container affected) {
+        Command<R> command = new Command<>(name, work, onDone, onFailed, affected);
+        inProgress++;
+        fireProgress();
+        setBusy(affected, true);
+        synchronized (lanes) {
+            Set<String> keys = new LinkedHashSet<>(lanes.keySet());
+            keys.add(name);
+            enqueue(command, keys);
+        }
+    }
+
+    // Adds a command to the end of each lane; only a command heading every lane it is in runs,
+    // the rest start as the ones before them finish. Call holding the lanes lock.
+    private void enqueue(Command<?> command, Collection<String> keys) {
+        for (String key : keys) {
+            ArrayDeque<Command<?>> lane = lanes.computeIfAbsent(key, k -> new ArrayDeque<>());
+            lane.add(command);
+            command.laneKeys.add(key);
+            if (lane.size() > 1) command.waitingFor++;
+        }
+        if (command.waitingFor == 0) start(command);
+    }
+
+    // Hands a command to the pool, unless exit has begun and finish() will run it instead
+    private void start(Command<?> command) {
+        if (!finishing) workers.execute(command);
+    }
+
+    // Takes a finished command off its lanes and starts whatever now heads all of its own
+    private void finished(Command<?> command) {
+        synchronized (lanes) {
+            for (String key : command.laneKeys) {
+                ArrayDeque<Command<?>> lane = lanes.get(key);
+                if (lane == null || lane.peek() != command) continue;
+                lane.poll();
+                if (lane.isEmpty()) lanes.remove(key);
+                else if (--lane.peek().waitingFor == 0) start(lane.peek());
+            }
+        }
+    }
+
+    // Stops taking commands, waits for the running ones, then runs every command still queued,
+    // including those run after all others, in the order the lanes allow, on the calling thread.
+    // Used on exit, while the event thread may be blocked, so results are not handed back.
+    // Call off the event thread.
+    public void finish(long timeoutMs) {
+        synchronized (lanes) {
+            finishing = true;
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                System.err.println("Failed to finish saving: writes still running after " + timeoutMs + " ms");
+                return;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        while (true) {
+            Command<?> next = null;
+            synchronized (lanes) {
+                for (ArrayDeque<Command<?>> lane : lanes.values()) {
+                    if (lane.peek().waitingFor == 0) {
+                        next = lane.peek();
+                        break;
+                    }
+                }
+            }
+            if (next == null) return;
+            try {
+                next.work.run();
+            } catch (Exception ex) {
+                System.err.println("Failed to save " + next.entity + ": " + ex.getMessage());
+            }
+            finished(next);
+        }
+    }
+
+    // Registers a listener for the number of commands queued or running, e.g. a progress bar
+    public void addProgressListener(IntConsumer listener) {
+        progressListeners.add(listener);
+        listener.accept(inProgress);
+    }
+
+    // Commands queued or running
+    public int getInProgress() {
+        return inProgress;
+    }
+
+    private void fireProgress() {
+        for (IntConsumer listener : progressListeners) listener.accept(inProgress);
+    }
+
+    // Disables the enabled buttons inside a view while commands for it run, then restores them
+    private void setBusy(Container affected, boolean busy) {
+        if (affected == null) return;
+        int waits = waiting.merge(affected, busy ? 1 : -1, Integer::sum);
+        if (waits <= 0) waiting.remove(affected);
+        if (busy && waits == 1) affected.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        if (!busy && waits <= 0) affected.setCursor(null);
+        if (busy) {
+            List<AbstractButton> buttons = new ArrayList<>();
+            collectButtons(affected, buttons);
+            for (AbstractButton b : buttons) {
+                if (disabled.containsKey(b)) disabled.merge(b, 1, Integer::sum);
+                else if (b.isEnabled()) {
+                    disabled.put(b, 1);
+                    b.setEnabled(false);
+                }
+            }
+        } else {
+            List<AbstractButton> buttons = new ArrayList<>();
+            collectButtons(affected, buttons);
+            for (AbstractButton b : buttons) {
+                Integer left = disabled.get(b);
+                if (left == null) continue;
+                if (left > 1) {
+                    disabled.put(b, left - 1);
+                } else {
+                    disabled.remove(b);
+                    b.setEnabled(true);
+                }
+            }
+        }
+    }
+
+    private static void collectButtons(Container container, List<AbstractButton> buttons) {
+        for (Component c : container.getComponents()) {
+            if (c instanceof AbstractButton) buttons.add((AbstractButton) c);
+            if (c instanceof Container) collectButtons((Container) c, buttons);
+        }
+    }
+
+    // One command: the work runs on a worker, done() on the event thread
+    private final class Command<R> extends SwingWorker<R, Void> {
+        private final String entity;
+        private final Work<R> work;
+        private final Consumer<R> onDone;
+        private final Consumer<Exception> onFailed;
+        private final Container affected;
+        // Lanes this command is queued in, one unless it runs after all others
+        private final List<String> laneKeys = new ArrayList<>();
+        // Lanes in which commands ahead of this one have yet to finish
+        private int waitingFor;
+
+        Command(String entity, Work<R> work, Consumer<R> onDone, Consumer<Exception> onFailed, Container affected) {
+            this.entity = entity;
+            this.work = work;
+            this.onDone = onDone;
+            this.onFailed = onFailed;
+            this.affected = affected;
+        }
+
+        @Override
+        protected R doInBackground() throws Exception {
+            try {
+                return work.run();
+            } finally {
+                // The next command starts here, not in done(), so it never waits for the event thread
+                finished(this);
+            }
+        }
+
+        @Override
+        protected void done() {
+            inProgress--;
+            setBusy(affected, false);
+            fireProgress();
+            try {
+                R result = get();
+                if (onDone != null) onDone.accept(result);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                report(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                report(ex);
+            }
+        }
+
+        private void report(Exception ex) {
+            if (onFailed != null) onFailed.accept(ex);
+            else System.err.println("Failed to save " + entity + ": " + ex.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package controller;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Builds a controller and its view the first time its tab is opened. Until then the
+// tab's data can be read ahead on a background thread, so opening it does not wait for the disk.
+public class LazyController<C> {
+
+    // One low-priority thread reads ahead for every tab, never the EDT
+    private static final ExecutorService PREFETCHER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "tab-prefetch");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    // Creates the controller together with its view
+    private final Supplier<C> factory;
+    // Reads the tab's data for a facility, all facilities for null; must not touch the screens
+    private final Consumer<String> prefetch;
+    private C controller;
+    // Facility read ahead for this session, and whether this session reads ahead at all
+    private String prefetchFacility;
+    private boolean prefetchEnabled;
+    private boolean prefetchQueued;
+
+    public LazyController(Supplier<C> factory, Consumer<String> prefetch) {
+        this.factory = factory;
+        this.prefetch = prefetch;
+    }
+
+    // The controller, built on first use; call on the event thread
+    public C get() {
+        if (controller == null) controller = factory.get();
+        return controller;
+    }
+
+    // True once the tab has been opened
+    public boolean isBuilt() {
+        return controller != null;
+    }
+
+    // Lets prefetch() read one facility's data ahead, or every facility for null
+    public void setPrefetchScope(String facilityId) {
+        this.prefetchFacility = facilityId;
+        this.prefetchEnabled = true;
+    }
+
+    // Reads the tab's data ahead in the background once, unless the tab is already open
+    public void prefetch() {
+        if (!prefetchEnabled || prefetchQueued || controller != null) return;
+        prefetchQueued = true;
+        String facilityId = prefetchFacility;
+        PREFETCHER.execute(() -> {
+            try {
+                prefetch.accept(facilityId);
+            } catch (RuntimeException ex) {
+                // Opening the tab reads the data itself
+                System.err.println("Failed to read ahead: " + ex.getMessage());
+            }
+        });
+    }
+}
\ No newline at end of file
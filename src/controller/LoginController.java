@@ -1,241 +1,298 @@
-package controller;
-
-import model.Login;
-import model.LoginRepository;
-import view.LoginView;
-import view.MainFrame;
-import javax.swing.*;
-//Made By Misbah Al Rehman. SRN: 24173647
-public class LoginController {
-    // UI component for login interactions
-    private LoginView view;
-    // Data repository for credential validation
-    private LoginRepository repository;
-    // User session tracking variables
-    private boolean isAuthenticated = false;
-    private String currentUserRole;
-    private Object currentUser;
-    private String currentUserId;
-    
-    // References to main application controllers
-    private PatientController patientController;
-    private ClinicianController clinicianController;
-    private AppointmentController appointmentController;
-    private PrescriptionController prescriptionController;
-    private ReferralController referralController;
-    private StaffController staffController;   
-    
-    // Initializes controller with view and repository
-    public LoginController(LoginView view, LoginRepository repository) {
-        this.view = view;
-        this.repository = repository;
-        initController();
-    }
-    
-    // Receives main controllers from application startup
-    public void setMainControllers(
-            PatientController pc,
-            ClinicianController cc,
-            AppointmentController ac,
-            PrescriptionController prc,
-            ReferralController rc,
-            StaffController sc) {
-        
-        this.patientController = pc;
-        this.clinicianController = cc;
-        this.appointmentController = ac;
-        this.prescriptionController = prc;
-        this.referralController = rc;
-        this.staffController = sc;
-    }
-
-    // Sets up login button action listener
-    private void initController() {
-        view.setLoginListener(e -> performLogin());
-    }
-
-    // Validates credentials and initiates user session
-    private void performLogin() {
-        String userId = view.getUserId();
-        String password = view.getPassword();
-        String selectedRole = view.getSelectedRole();
-
-        // Validate all form fields are completed
-        if (userId.isEmpty() || password.isEmpty() || selectedRole.isEmpty()) {
-            view.showMessage("Please fill all fields!", true);
-            return;
-        }
-
-        // Authenticate user against repository data
-        Login user = repository.authenticate(userId, password);
-        
-        if (user != null) {
-            // Verify selected role matches actual user role
-            if (user.getRole().equalsIgnoreCase(selectedRole)) {
-                isAuthenticated = true;
-                currentUserRole = user.getRole();
-                currentUser = user.getUserObject();
-                currentUserId = userId;
-                
-                view.showMessage("Login successful! Welcome " + userId, false);
-                
-                // Transition to main application interface
-                SwingUtilities.invokeLater(() -> {
-                    JFrame loginWindow = (JFrame) SwingUtilities.getWindowAncestor(view);
-                    
-                    JOptionPane.showMessageDialog(loginWindow,
-                        "Welcome " + currentUserRole.toUpperCase() + "!\n" +
-                        "User ID: " + currentUserId + "\n" +
-                        "Opening main application...",
-                        "Login Successful", 
-                        JOptionPane.INFORMATION_MESSAGE);
-                    
-                    // Close login window and launch main application
-                    if (loginWindow != null) {
-                        loginWindow.dispose();
-                    }
-                    
-                    openMainApplication();
-                });
-                
-            } else {
-                view.showMessage("Role mismatch! Selected: " + selectedRole + ", Actual: " + user.getRole(), true);
-            }
-        } else {
-            view.showMessage("Invalid credentials! Try ID as password.", true);
-        }
-    }
-
-    // Launches main application after successful authentication
-    private void openMainApplication() {
-        // Verify all controllers are properly initialized
-        if (patientController == null || clinicianController == null || 
-            appointmentController == null || prescriptionController == null || 
-            referralController == null ||staffController == null) {
-            
-            JOptionPane.showMessageDialog(null,
-                "Error: Main controllers not set up properly.",
-                "System Error",
-                JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        // Configure controllers based on authenticated user role
-        if ("patient".equals(currentUserRole)) {
-            setupPatientView();
-        } else if ("clinician".equals(currentUserRole)) {
-            setupClinicianView();
-        } else if ("staff".equals(currentUserRole)) {
-            setupStaffView();
-        } else if ("admin".equals(currentUserRole)) {
-            setupAdminView();
-        } else {
-            // Fallback to staff view for unrecognized roles
-            setupStaffView();
-        }
-        
-        // Create and display main application window
-        MainFrame mainFrame = new MainFrame(
-            patientController,
-            clinicianController,
-            appointmentController,
-            prescriptionController,
-            referralController,
-            staffController,    
-            currentUserRole
-        );
-        
-        mainFrame.setVisible(true);
-        
-        // Display welcome message with access details
-        JOptionPane.showMessageDialog(mainFrame,
-            "Welcome to Healthcare Management System!\n" +
-            "Role: " + currentUserRole.toUpperCase() + "\n" +
-            "User ID: " + currentUserId + "\n\n" +
-            "Access Level: " + getAccessDescription(currentUserRole),
-            "HMS Dashboard", 
-            JOptionPane.INFORMATION_MESSAGE);
-    }
-    
-    // Configures patient-specific view and permissions
-    private void setupPatientView() {
-        // Patients can only access their own records
-        patientController.setCurrentPatientId(currentUserId);
-        appointmentController.setCurrentPatientId(currentUserId);
-        prescriptionController.setCurrentPatientId(currentUserId);
-        clinicianController.setCurrentClinicianId(null);
-    }
-    
-    // Configures clinician-specific view and permissions
-    private void setupClinicianView() {
-        // Clinicians can access their assigned patients and records
-        clinicianController.setCurrentClinicianId(currentUserId);
-        appointmentController.setCurrentClinicianId(currentUserId);
-        prescriptionController.setCurrentClinicianId(currentUserId);
-        referralController.setCurrentClinicianId(currentUserId);
-        patientController.setCurrentClinicianId(currentUserId);
-    }
-    
-    // Configures staff view with read-only permissions
-    private void setupStaffView() {
-        // Staff can view all records but with limited edit rights
-        patientController.setCurrentPatientId(null);
-        clinicianController.setCurrentClinicianId(null);
-        appointmentController.setStaffView();
-        prescriptionController.setCurrentStaffId(currentUserId);
-        referralController.setCurrentStaffId(currentUserId);
-        staffController.setCurrentStaffId(currentUserId);
-    }
-    
-    // Configures administrator view with full system access
-    private void setupAdminView(){
-        // Administrators have complete system control
-        patientController.setCurrentPatientId(null);
-        patientController.getView().setTitle("Patient Management (Admin Mode)");
-        clinicianController.setCurrentClinicianId(null);
-        clinicianController.getView().setTitle("Clinician Management (Admin Mode)");
-        appointmentController.setCurrentPatientId(null);
-        appointmentController.setCurrentClinicianId(null);
-        appointmentController.setAdminView();
-        prescriptionController.setAdminView();    
-        referralController.setAdminView();     
-        staffController.setAdminView();              
-    }
-    
-    // Returns user-friendly access level description
-    private String getAccessDescription(String role) {
-        switch (role.toLowerCase()) {
-            case "patient":
-                return "Can view and manage own appointments and prescriptions";
-            case "clinician":
-                return "Can manage assigned patients, appointments, and prescriptions";
-            case "staff":
-                return "Access to view all modules";
-            case "admin":
-                return "Full system administrator privileges";
-            default:
-                return "Standard user access";
-        }
-    }
-    
-    // Returns current authenticated user identifier
-    public String getCurrentUserId() {
-        return currentUserId;
-    }
-    
-    public LoginView getView() {
-        return view;
-    }
-    
-    public boolean isAuthenticated() { 
-        return isAuthenticated; 
-    }
-    
-    public String getCurrentUserRole() { 
-        return currentUserRole; 
-    }
-    
-    public Object getCurrentUser() { 
-        return currentUser; 
-    }
+package controller;
+
+import model.Login;
+import model.LoginRepository;
+import model.LoginThrottledException;
+import model.Session;
+import model.SessionManager;
+import model.StorageEngine;
+import view.LoginView;
+import view.MainFrame;
+import java.util.function.Consumer;
+import javax.swing.*;
+//Made By Misbah Al Rehman. SRN: 24173647
+public class LoginController {
+    // UI component for login interactions
+    private LoginView view;
+    // Data repository for credential validation
+    private LoginRepository repository;
+    // Who is logged in to this window, null until login. The session itself never changes;
+    // the controllers below ask for it through getSession on every call rather than keeping
+    // the user's identity. Logging in again after it expires opens a new session for the same
+    // user and role, which every tab then sees.
+    private volatile Session session;
+    private final SessionManager sessions = SessionManager.shared();
+    // Locks the window once its session is dropped for being idle; replaced for each new
+    // session and removed on logout, so the shared manager keeps no closed window
+    private Consumer<Session> expiryListener;
+    
+    // Main application controllers, each built when its tab is first opened
+    private LazyController<PatientController> patientController;
+    private LazyController<ClinicianController> clinicianController;
+    private LazyController<AppointmentController> appointmentController;
+    private LazyController<PrescriptionController> prescriptionController;
+    private LazyController<ReferralController> referralController;
+    private LazyController<StaffController> staffController;
+    private LazyController<OccupancyController> occupancyController;
+    // Storage behind the repositories, flushed by the Save button
+    private StorageEngine storageEngine;
+    
+    // Initializes controller with view and repository
+    public LoginController(LoginView view, LoginRepository repository) {
+        this.view = view;
+        this.repository = repository;
+        initController();
+    }
+    
+    // Receives main controllers from application startup, none of them built yet
+    public void setMainControllers(
+            LazyController<PatientController> pc,
+            LazyController<ClinicianController> cc,
+            LazyController<AppointmentController> ac,
+            LazyController<PrescriptionController> prc,
+            LazyController<ReferralController> rc,
+            LazyController<StaffController> sc,
+            LazyController<OccupancyController> oc) {
+        
+        this.patientController = pc;
+        this.clinicianController = cc;
+        this.appointmentController = ac;
+        this.prescriptionController = prc;
+        this.referralController = rc;
+        this.staffController = sc;
+        this.occupancyController = oc;
+    }
+
+    // Receives the storage engine so pending writes can be saved on demand
+    public void setStorageEngine(StorageEngine storageEngine) {
+        this.storageEngine = storageEngine;
+    }
+
+    // Writes every change still waiting in the background flusher, on a worker thread, once
+    // the saves submitted before it have reached the store
+    private void saveChanges(MainFrame frame) {
+        if (storageEngine == null) return;
+        StorageEngine engine = storageEngine;
+        CommandExecutor.shared().submitAfterAll("storage", () -> {
+            engine.flush();
+            return null;
+        }, done -> JOptionPane.showMessageDialog(frame, "All changes have been saved.", "Saved",
+                JOptionPane.INFORMATION_MESSAGE),
+        ex -> JOptionPane.showMessageDialog(frame, "Could not save changes: " + ex.getMessage(), "Save Failed",
+                JOptionPane.ERROR_MESSAGE),
+        frame.getContentPane());
+    }
+
+    // Sets up login button action listener
+    private void initController() {
+        view.setLoginListener(e -> performLogin());
+    }
+
+    // Validates credentials and initiates user session
+    private void performLogin() {
+        String userId = view.getUserId();
+        String password = view.getPassword();
+        String selectedRole = view.getSelectedRole();
+
+        // Validate all form fields are completed
+        if (userId.isEmpty() || password.isEmpty() || selectedRole.isEmpty()) {
+            view.showMessage("Please fill all fields!", true);
+            return;
+        }
+
+        // Authenticate user against repository data
+        Login user;
+        try {
+            user = repository.authenticate(userId, password);
+        } catch (LoginThrottledException ex) {
+            view.showMessage("Too many login attempts. Try again in " + ex.getRetryAfterSeconds() + " seconds.", true);
+            return;
+        }
+        
+        if (user != null) {
+            // Verify selected role matches actual user role
+            if (user.getRole().equalsIgnoreCase(selectedRole)) {
+                session = sessions.open(user);
+                
+                view.showMessage("Login successful! Welcome " + userId, false);
+                
+                // Transition to main application interface
+                SwingUtilities.invokeLater(() -> {
+                    JFrame loginWindow = (JFrame) SwingUtilities.getWindowAncestor(view);
+                    
+                    JOptionPane.showMessageDialog(loginWindow,
+                        "Welcome " + session.getRole().toUpperCase() + "!\n" +
+                        "User ID: " + session.getUserId() + "\n" +
+                        "Opening main application...",
+                        "Login Successful", 
+                        JOptionPane.INFORMATION_MESSAGE);
+                    
+                    // Close login window and launch main application
+                    if (loginWindow != null) {
+                        loginWindow.dispose();
+                    }
+                    
+                    openMainApplication();
+                });
+                
+            } else {
+                view.showMessage("Role mismatch! Selected: " + selectedRole + ", Actual: " + user.getRole(), true);
+            }
+        } else {
+            view.showMessage("Invalid credentials! Try ID as password.", true);
+        }
+    }
+
+    // Launches main application after successful authentication
+    private void openMainApplication() {
+        // Verify all controllers are properly initialized
+        if (patientController == null || clinicianController == null || 
+            appointmentController == null || prescriptionController == null || 
+            referralController == null ||staffController == null || occupancyController == null) {
+            
+            JOptionPane.showMessageDialog(null,
+                "Error: Main controllers not set up properly.",
+                "System Error",
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        // Each tab sets itself up for the session's role when it is first opened
+        setPrefetchScope();
+        
+        // Create and display main application window, binding only the first tab now
+        MainFrame mainFrame = new MainFrame(
+            patientController,
+            clinicianController,
+            appointmentController,
+            prescriptionController,
+            referralController,
+            staffController,    
+            occupancyController,
+            session.getRole()
+        );
+        
+        mainFrame.setSaveAction(() -> saveChanges(mainFrame));
+        mainFrame.setLogoutAction(() -> {
+            sessions.removeExpiryListener(expiryListener);
+            sessions.close(session.getId());
+        });
+        // Every use of the window looks the session up, which keeps it open while in use; a
+        // session dropped for being idle locks the window until the user logs in again
+        mainFrame.setSessionCheck(() -> sessions.get(session.getId()) != null, () -> logInAgain(mainFrame));
+        watchExpiry(mainFrame, session.getId());
+        mainFrame.setVisible(true);
+        
+        // Display welcome message with access details
+        JOptionPane.showMessageDialog(mainFrame,
+            "Welcome to Healthcare Management System!\n" +
+            "Role: " + session.getRole().toUpperCase() + "\n" +
+            "User ID: " + session.getUserId() + "\n\n" +
+            "Access Level: " + getAccessDescription(session.getRole()),
+            "HMS Dashboard", 
+            JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    // Asks the user whose session expired for their password; a new session for the same user
+    // and role unlocks the window as it was, cancelling logs out
+    private void logInAgain(MainFrame frame) {
+        String userId = session.getUserId();
+        String message = "Your session has expired. Enter the password for " + userId + " to continue.";
+        while (true) {
+            JPasswordField password = new JPasswordField(15);
+            int choice = JOptionPane.showConfirmDialog(frame, new Object[]{message, password},
+                    "Session Expired", JOptionPane.OK_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (choice != JOptionPane.OK_OPTION) {
+                frame.logOut("Your session has expired and you have been logged out.");
+                return;
+            }
+            Login user;
+            try {
+                user = repository.authenticate(userId, new String(password.getPassword()));
+            } catch (LoginThrottledException ex) {
+                message = "Too many login attempts. Try again in " + ex.getRetryAfterSeconds() + " seconds.";
+                continue;
+            }
+            if (user != null && user.getRole().equalsIgnoreCase(session.getRole())) {
+                session = sessions.open(user);
+                watchExpiry(frame, session.getId());
+                frame.unlock();
+                return;
+            }
+            message = "Invalid credentials for " + userId + ". Enter the password to continue.";
+        }
+    }
+    
+    // Locks the window when the session with this ID expires, in place of the listener for
+    // the window's earlier session
+    private void watchExpiry(MainFrame frame, String sessionId) {
+        if (expiryListener != null) sessions.removeExpiryListener(expiryListener);
+        expiryListener = expired -> {
+            if (expired.getId().equals(sessionId)) SwingUtilities.invokeLater(frame::lock);
+        };
+        sessions.addExpiryListener(expiryListener);
+    }
+    
+    // Lets tabs not yet opened read ahead what their first screen shows. Staff start at their
+    // own site and admins see every site; patient and clinician screens read only their own
+    // rows through the offset indexes, which is cheap enough to leave to the tab.
+    private void setPrefetchScope() {
+        String facilityId;
+        if (session.isAdmin()) {
+            facilityId = null;
+        } else if (session.isPatient() || session.isClinician()) {
+            return;
+        } else {
+            facilityId = session.getHomeFacilityId();
+        }
+        patientController.setPrefetchScope(facilityId);
+        clinicianController.setPrefetchScope(facilityId);
+        appointmentController.setPrefetchScope(facilityId);
+        prescriptionController.setPrefetchScope(facilityId);
+        referralController.setPrefetchScope(facilityId);
+        staffController.setPrefetchScope(facilityId);
+        occupancyController.setPrefetchScope(facilityId);
+    }
+    
+    // Returns user-friendly access level description
+    private String getAccessDescription(String role) {
+        switch (role.toLowerCase()) {
+            case "patient":
+                return "Can view and manage own appointments and prescriptions";
+            case "clinician":
+                return "Can manage assigned patients, appointments, and prescriptions";
+            case "staff":
+                return "Access to view all modules";
+            case "admin":
+                return "Full system administrator privileges";
+            default:
+                return "Standard user access";
+        }
+    }
+    
+    // Returns current authenticated user identifier
+    public String getCurrentUserId() {
+        return session == null ? null : session.getUserId();
+    }
+    
+    // The logged-in user's session, null before login
+    public Session getSession() {
+        return session;
+    }
+    
+    public LoginView getView() {
+        return view;
+    }
+    
+    public boolean isAuthenticated() { 
+        return session != null; 
+    }
+    
+    public String getCurrentUserRole() { 
+        return session == null ? null : session.getRole(); 
+    }
+    
+    public Object getCurrentUser() { 
+        return session == null ? null : session.getUser(); 
+    }
 }
\ No newline at end of file
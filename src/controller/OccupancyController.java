@@ -0,0 +1,101 @@
+package controller;
+
+import model.AppointmentRepository;
+import model.Facility;
+import model.FacilityOccupancy;
+import model.FacilityRepository;
+import model.Session;
+import view.OccupancyView;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Shows how full each facility is on a day, from the live booking counters
+public class OccupancyController {
+
+    // Appointments and their per-facility, per-day booking counters
+    private final AppointmentRepository appointmentRepo;
+    // Facility names and capacities
+    private final FacilityRepository facilityRepo;
+    private final OccupancyView view;
+    // Day shown
+    private LocalDate date = LocalDate.now();
+    // Who is using the window, looked up on each call since logging in again replaces it
+    private final Supplier<Session> session;
+    // Folds the refreshes a burst of bookings asks for into one per event
+    private final RefreshScheduler refreshes = RefreshScheduler.shared();
+
+    // Built once a user has logged in. Site staff see only their own facility, everyone else
+    // every facility; those appointments are read in the background and the counters fill in
+    // as they arrive.
+    public OccupancyController(AppointmentRepository appointmentRepo, FacilityRepository facilityRepo,
+                               Supplier<Session> session, OccupancyView view) {
+        this.appointmentRepo = appointmentRepo;
+        this.facilityRepo = facilityRepo;
+        this.session = session;
+        this.view = view;
+        this.view.setController(this);
+        // Any booking, change or cancellation redraws the table once the event that made it ends
+        appointmentRepo.getOccupancy().addChangeListener(() -> refreshes.request("occupancy", this::refresh));
+        String homeFacilityId = homeFacilityId();
+        view.setTitle(homeFacilityId == null ? "Facility Occupancy" : "Facility Occupancy - " + homeFacilityId);
+        view.setDate(date.toString());
+        appointmentRepo.prefetch(homeFacilityId);
+        refresh();
+    }
+
+    // Facility shown to site staff, null to show every facility
+    private String homeFacilityId() {
+        return session.get().getSiteFacilityId();
+    }
+
+    // Shows the day typed in, yyyy-MM-dd
+    public void showDay(String text) {
+        try {
+            date = LocalDate.parse(text);
+        } catch (DateTimeParseException ex) {
+            view.showMessage("Enter the day as yyyy-MM-dd, e.g. " + LocalDate.now());
+            view.setDate(date.toString());
+            return;
+        }
+        refresh();
+    }
+
+    public void showToday() {
+        date = LocalDate.now();
+        view.setDate(date.toString());
+        refresh();
+    }
+
+    // Moves the day shown back or forward
+    public void moveDays(int days) {
+        date = date.plusDays(days);
+        view.setDate(date.toString());
+        refresh();
+    }
+
+    public OccupancyView getView() {
+        return view;
+    }
+
+    // Redraws the table from the counters; no appointments are scanned
+    public void refresh() {
+        String day = date.toString();
+        FacilityOccupancy occupancy = appointmentRepo.getOccupancy();
+        List<Object[]> rows = new ArrayList<>();
+        int over = 0;
+        String homeFacilityId = homeFacilityId();
+        for (Facility f : facilityRepo.getAll()) {
+            if (homeFacilityId != null && !homeFacilityId.equals(f.getId())) continue;
+            FacilityOccupancy.Day booked = occupancy.get(f.getId(), day);
+            int capacity = f.getCapacity();
+            String full = capacity > 0 ? (booked.getAppointments() * 100 / capacity) + "%" : "-";
+            if (occupancy.isOverCapacity(f, day)) over++;
+            rows.add(new Object[]{f.getId(), f.getName(), f.getType(), capacity,
+                    booked.getAppointments(), booked.getMinutes(), full});
+        }
+        view.showOccupancy(rows, rows.size() + " facilities on " + day + ", " + over + " over capacity");
+    }
+}
\ No newline at end of file
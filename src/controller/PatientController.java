@@ -1,236 +1,261 @@
-package controller;
-
-import model.Patient;
-import model.PatientRepository;
-import model.AppointmentRepository;
-import view.PatientView;
-import java.util.List;
-import java.util.ArrayList;
-import javax.swing.JOptionPane;
-
-public class PatientController {
-
-    // Core data repositories for patient management
-    private final PatientRepository repository;
-    private final AppointmentRepository appointmentRepo;
-    // UI component for displaying patient information
-    private final PatientView view;
-    // User context for filtering and access control
-    private String currentPatientId;
-    private String currentClinicianId;
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Initializes controller with required dependencies
-    public PatientController(PatientRepository repository, AppointmentRepository appointmentRepo, PatientView view) {
-        this.repository = repository;
-        this.appointmentRepo = appointmentRepo;
-        this.view = view;
-        this.view.setController(this);
-        // Start with secure default settings
-        view.setReadOnlyMode(true);
-        view.hideAllButtons();
-        view.setTitle("Patient Management - Please Login");
-        refreshView();
-    }
-    
-    // Configures controller based on authenticated user role
-    public void setUserRole(String userRole, String userId) {
-        if ("PATIENT".equals(userRole)) {
-            setCurrentPatientId(userId);
-        } else if ("CLINICIAN".equals(userRole)) {
-            setCurrentClinicianId(userId);
-        } else {
-            setCurrentPatientId(null);
-        }
-    }
-    
-    // Configures view for patient users accessing own data
-    public void setCurrentPatientId(String patientId) {
-        this.currentPatientId = patientId;
-        this.currentClinicianId = null;
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            // Patient view: Limited to own profile only
-            view.setReadOnlyMode(false);
-            view.hideAddDeleteButtons();
-            view.showUpdateButton();
-            view.setTitle("My Profile");
-        } else {
-            // Staff/admin view: Full patient management
-            view.setReadOnlyMode(false);
-            view.showAllButtons();
-            view.setTitle("Patient Management");
-            view.setNextId(repository.generateNewId());
-        }
-        
-        refreshView();
-    }
-    
-    // Configures view for clinicians accessing assigned patients
-    public void setCurrentClinicianId(String clinicianId) {
-        this.currentClinicianId = clinicianId;
-        this.currentPatientId = null;
-        
-        // Clinician view: Can manage their assigned patients
-        view.setReadOnlyMode(false);
-        view.showAllButtons();
-        view.setTitle("My Patients");
-        view.setNextId(repository.generateNewId());
-        
-        refreshView();
-    }
-    
-    // Configures unrestricted view for staff members
-    public void setStaffView() {
-        this.currentPatientId = null;
-        this.currentClinicianId = null;
-        refreshView();
-    }
-    
-    // Returns the view component for UI display
-    public PatientView getView() {
-        return view;
-    }
-
-    // Updates patient display based on user permissions
-    public void refreshView() {
-        List<Patient> patientsToShow;
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            // Show only logged-in patient's profile
-            Patient currentPatient = repository.findById(currentPatientId);
-            patientsToShow = new ArrayList<>();
-            if (currentPatient != null) {
-                patientsToShow.add(currentPatient);
-            }
-        } else if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            // Show patients assigned to this clinician
-            patientsToShow = repository.findByClinicianId(currentClinicianId, appointmentRepo);
-        } else {
-            // Staff/admin view: Show all patients
-            patientsToShow = repository.getAll();
-        }
-        
-        view.showPatients(patientsToShow);
-    }
-
-    // Adds new patient record with permission validation
-    public void addPatient(Patient p) {
-        // Prevent patients from creating other patient records
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            JOptionPane.showMessageDialog(view, 
-                "Patients cannot add new patient records.", 
-                "Access Denied", 
-                JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-        
-        repository.addAndAppend(p);
-        refreshView();
-        view.setNextId(repository.generateNewId());
-        JOptionPane.showMessageDialog(view, 
-            "Patient added successfully!", 
-            "Success", 
-            JOptionPane.INFORMATION_MESSAGE);
-    }
-
-    // Updates patient information with appropriate permissions
-    public void updatePatient(Patient p) {
-        Patient original = repository.findById(p.getId());
-        
-        if (original == null) {
-            JOptionPane.showMessageDialog(view, 
-                "Patient not found.", 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            // Patients can only update their own profiles
-            if (!p.getId().equals(currentPatientId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only update your own profile.", 
-                    "Access Denied", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            repository.update(p);
-            JOptionPane.showMessageDialog(view, 
-                "Your profile has been updated!", 
-                "Success", 
-                JOptionPane.INFORMATION_MESSAGE);
-            
-        } else {
-            // Staff/clinicians can update any patient record
-            repository.update(p);
-            JOptionPane.showMessageDialog(view, 
-                "Patient updated successfully!", 
-                "Success", 
-                JOptionPane.INFORMATION_MESSAGE);
-        }
-        
-        refreshView();
-    }
-
-    // Deletes patient record with permission checks
-    public void deletePatient(Patient p) {
-        // Patients cannot delete any patient records
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            JOptionPane.showMessageDialog(view, 
-                "Patients cannot delete patient records.", 
-                "Access Denied", 
-                JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-        
-        repository.remove(p);
-        refreshView();
-        view.setNextId(repository.generateNewId());
-        JOptionPane.showMessageDialog(view, 
-            "Patient deleted successfully!", 
-            "Success", 
-            JOptionPane.INFORMATION_MESSAGE);
-    }
-
-    // Retrieves patient by unique identifier
-    public Patient findById(String id) {
-        return repository.findById(id);
-    }
-    
-    // Deletes patient by ID after retrieving object
-    public void deleteById(String id) {
-        Patient patient = repository.findById(id);
-        if (patient != null) {
-            deletePatient(patient);
-        }
-    }
-    
-    // Returns currently logged-in patient object
-    public Patient getCurrentPatient() {
-        if (currentPatientId != null) {
-            return repository.findById(currentPatientId);
-        }
-        return null;
-    }
-    
-    // Returns current patient ID for context tracking
-    public String getCurrentPatientId() {
-        return currentPatientId;
-    }
-    
-    // Returns current clinician ID for context tracking
-    public String getCurrentClinicianId() {
-        return currentClinicianId;
-    }
-    
-    // Checks if current view is patient-restricted
-    public boolean isPatientView() {
-        return currentPatientId != null && !currentPatientId.isEmpty();
-    }
-    
-    // Checks if current view is clinician-restricted
-    public boolean isClinicianView() {
-        return currentClinicianId != null && !currentClinicianId.isEmpty();
-    }
+package controller;
+
+import model.Patient;
+import model.PatientRepository;
+import model.AppointmentRepository;
+import model.RecordDelta;
+import model.RecordExporter;
+import model.Session;
+import model.SessionViews;
+import view.PatientView;
+import java.io.IOException;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+public class PatientController {
+
+    // Core data repositories for patient management
+    private final PatientRepository repository;
+    private final AppointmentRepository appointmentRepo;
+    // UI component for displaying patient information
+    private final PatientView view;
+    // Rows each role may see, asked for with the window's session on every read
+    private final SessionViews views;
+    // Who is using the window, looked up on each call since logging in again replaces it
+    private final Supplier<Session> session;
+    // Folds the reloads each context change asks for into one per event
+    private final RefreshScheduler refreshes = RefreshScheduler.shared();
+    // Runs storage writes off the event thread, in order per patient
+    private final CommandExecutor commands = CommandExecutor.shared();
+    // Set once a list has been shown, outside edits are ignored before then
+    private boolean listed;
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Initializes controller with required dependencies; built once a user has logged in,
+    // so the view is set up for the session's role straight away
+    public PatientController(PatientRepository repository, AppointmentRepository appointmentRepo,
+                             SessionViews views, Supplier<Session> session, PatientView view) {
+        this.repository = repository;
+        this.appointmentRepo = appointmentRepo;
+        this.views = views;
+        this.session = session;
+        this.view = view;
+        this.view.setController(this);
+        
+        Session user = session.get();
+        view.setReadOnlyMode(false);
+        if (user.isPatient()) {
+            // Patient view: Limited to own profile only
+            view.hideAddDeleteButtons();
+            view.showUpdateButton();
+            view.setTitle("My Profile");
+        } else {
+            // Clinicians manage their assigned patients, staff/admin every patient
+            view.showAllButtons();
+            view.setTitle(user.isClinician() ? "My Patients"
+                    : user.isAdmin() ? "Patient Management (Admin Mode)" : "Patient Management");
+            view.setNextId(repository.generateNewId());
+        }
+        // Staff read their own GP surgery up front, other surgeries load when first needed
+        if (user.getSiteFacilityId() != null) repository.loadFacility(user.getSiteFacilityId());
+        repository.addChangeListener(this::showExternalChanges);
+        refreshViewLater();
+    }
+    
+    // Logged-in patient and clinician, null for other roles
+    private String currentPatientId() {
+        return session.get().getPatientId();
+    }
+    
+    private String currentClinicianId() {
+        return session.get().getClinicianId();
+    }
+    
+    // Returns the view component for UI display
+    public PatientView getView() {
+        return view;
+    }
+
+    // Reloads the table once the current event is done, however many changes ask for it
+    private void refreshViewLater() {
+        refreshes.request("patients.table", this::refreshView);
+    }
+
+    // Updates patient display based on user permissions
+    public void refreshView() {
+        // Own profile for a patient, caseload for a clinician, every patient otherwise
+        view.showPatients(views.patients(session.get()));
+        listed = true;
+    }
+
+    // Shows patient rows another program changed, touching only the affected table rows
+    private void showExternalChanges(RecordDelta<Patient> delta) {
+        if (!listed) return;
+        // Told once the table shows the saved versions
+        if (!delta.getConflicts().isEmpty()) SwingUtilities.invokeLater(() -> warnOfConflicts(delta.getConflicts()));
+        if (currentClinicianId() != null) {
+            // A caseload follows from appointments, so it is listed again
+            refreshViewLater();
+            return;
+        }
+        boolean ownOnly = currentPatientId() != null;
+        List<Patient> changed = new ArrayList<>();
+        Set<String> removed = new HashSet<>();
+        for (Patient p : delta.getDeleted()) removed.add(p.getId());
+        for (Patient p : delta.getUpdatedTo()) {
+            if (!ownOnly || p.getId().equals(currentPatientId())) changed.add(p);
+        }
+        for (Patient p : delta.getInserted()) {
+            if (!ownOnly || p.getId().equals(currentPatientId())) changed.add(p);
+        }
+        view.applyPatientChanges(changed, removed);
+    }
+
+    // Explains that another desk's earlier save of the same details was kept over this one
+    private void warnOfConflicts(List<Patient> overruled) {
+        Set<String> ids = new TreeSet<>();
+        for (Patient p : overruled) ids.add(p.getId());
+        JOptionPane.showMessageDialog(view,
+            "Another desk saved changes to patient " + String.join(", ", ids)
+                + " first, so your changes to the same details were not kept.\n"
+                + "The list shows the saved version.",
+            "Changed Elsewhere",
+            JOptionPane.WARNING_MESSAGE);
+    }
+
+    // Adds new patient record with permission validation
+    public void addPatient(Patient p) {
+        // Prevent patients from creating other patient records
+        if (currentPatientId() != null) {
+            JOptionPane.showMessageDialog(view, 
+                "Patients cannot add new patient records.", 
+                "Access Denied", 
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        commands.save("Patient", p.getId(), repository.addAndAppendDeferred(p), this::refreshViewLater,
+                () -> view.setNextId(repository.generateNewId()), "Patient added successfully!", view);
+    }
+
+    // Updates patient information with appropriate permissions
+    public void updatePatient(Patient p) {
+        Patient original = repository.findById(p.getId());
+        
+        if (original == null) {
+            JOptionPane.showMessageDialog(view, 
+                "Patient not found.", 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        if (currentPatientId() != null) {
+            // Patients can only update their own profiles
+            if (!p.getId().equals(currentPatientId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only update your own profile.", 
+                    "Access Denied", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            commands.save("Patient", p.getId(), repository.updateDeferred(p), this::refreshViewLater,
+                    null, "Your profile has been updated!", view);
+            
+        } else {
+            // Staff/clinicians can update any patient record
+            commands.save("Patient", p.getId(), repository.updateDeferred(p), this::refreshViewLater,
+                    null, "Patient updated successfully!", view);
+        }
+        
+        refreshViewLater();
+    }
+
+    // Deletes patient record with permission checks
+    public void deletePatient(Patient p) {
+        // Patients cannot delete any patient records
+        if (currentPatientId() != null) {
+            JOptionPane.showMessageDialog(view, 
+                "Patients cannot delete patient records.", 
+                "Access Denied", 
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        commands.save("Patient", p.getId(), repository.removeDeferred(p), this::refreshViewLater,
+                () -> view.setNextId(repository.generateNewId()), "Patient deleted successfully!", view);
+    }
+
+    // Retrieves patient by unique identifier
+    public Patient findById(String id) {
+        return repository.findById(id);
+    }
+    
+    // Deletes patient by ID after retrieving object
+    public void deleteById(String id) {
+        Patient patient = repository.findById(id);
+        if (patient != null) {
+            deletePatient(patient);
+        }
+    }
+    
+    // Returns currently logged-in patient object
+    public Patient getCurrentPatient() {
+        if (currentPatientId() != null) {
+            return repository.findById(currentPatientId());
+        }
+        return null;
+    }
+    
+    // Returns current patient ID for context tracking
+    public String getCurrentPatientId() {
+        return currentPatientId();
+    }
+    
+    // Returns current clinician ID for context tracking
+    public String getCurrentClinicianId() {
+        return currentClinicianId();
+    }
+    
+    // Checks if current view is patient-restricted
+    public boolean isPatientView() {
+        return currentPatientId() != null;
+    }
+    
+    // Checks if current view is clinician-restricted
+    public boolean isClinicianView() {
+        return currentClinicianId() != null;
+    }
+
+    // Exports patients visible to the current user
+    public void exportPatients(String path, RecordExporter.Format format) {
+        Predicate<Patient> filter = null;
+        if (currentPatientId() != null) {
+            String patientId = currentPatientId();
+            filter = p -> patientId.equals(p.getId());
+        } else if (currentClinicianId() != null) {
+            Set<Patient> assigned = new HashSet<>(repository.findByClinicianId(currentClinicianId(), appointmentRepo));
+            filter = assigned::contains;
+        }
+
+        try {
+            int count = repository.export(path, format, filter);
+            JOptionPane.showMessageDialog(view,
+                "Exported " + count + " patients to:\n" + path,
+                "Export Complete",
+                JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(view,
+                "Failed to export patients: " + ex.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
 }
\ No newline at end of file
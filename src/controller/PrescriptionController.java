@@ -1,424 +1,418 @@
-package controller;
-
-import model.Prescription;
-import model.PrescriptionRepository;
-import model.PatientRepository;
-import model.ClinicianRepository;
-import model.AppointmentRepository;
-import model.Patient;
-import model.Clinician;
-import model.Appointment;
-import view.PrescriptionView;
-//Made By Misbah Al Rehman. SRN: 24173647
-import java.util.ArrayList;
-import java.util.List;
-import javax.swing.JOptionPane;
-
-public class PrescriptionController {
-
-    // Core data repositories for prescription management
-    private final PrescriptionRepository repository;
-    private final PatientRepository patientRepository;
-    private final ClinicianRepository clinicianRepository;
-    private final AppointmentRepository appointmentRepository;
-    // UI component for displaying prescription data
-    private final PrescriptionView view;
-    // User context for filtering and access control
-    private String currentPatientId;
-    private String currentClinicianId;
-    private String currentStaffId;
-
-    // Initializes controller with all required dependencies
-    public PrescriptionController(PrescriptionRepository repository,
-                                  PatientRepository patientRepository,
-                                  ClinicianRepository clinicianRepository,
-                                  AppointmentRepository appointmentRepository,
-                                  PrescriptionView view) {
-
-        this.repository = repository;
-        this.patientRepository = patientRepository;
-        this.clinicianRepository = clinicianRepository;
-        this.appointmentRepository = appointmentRepository;
-        this.view = view;
-
-        view.setController(this);
-        setupForUserRole();
-    }
-    
-    // Configures initial UI state for security purposes
-    private void setupForUserRole() {
-        view.setReadOnlyMode(true);
-        view.hideAddUpdateButtons();
-        
-        view.populateDropdowns(
-                getPatientIds(),
-                getClinicianIds(),
-                repository.getMedicationOptions(),
-                repository.getPharmacyOptions(),
-                getAppointmentIds()
-        );
-
-        refreshView();
-    }
-    
-    // Configures view for patient users accessing own data
-    public void setCurrentPatientId(String patientId) {
-        this.currentPatientId = patientId;
-        this.currentClinicianId = null;
-        
-        view.setReadOnlyMode(true);
-        view.hideAddUpdateButtons();
-        view.setTitle("My Prescriptions (View Only)");
-        
-        refreshView();
-        
-        view.populateDropdowns(
-                getPatientIds(),
-                getClinicianIds(),
-                repository.getMedicationOptions(),
-                repository.getPharmacyOptions(),
-                getAppointmentIds()
-        );
-    }
-    
-    // Configures view for clinician users managing prescriptions
-    public void setCurrentClinicianId(String clinicianId) {
-        this.currentClinicianId = clinicianId;
-        this.currentPatientId = null;
-        
-        view.setReadOnlyMode(false);
-        view.showAddUpdateButtons();
-        view.setTitle("Manage Prescriptions");
-        
-        refreshView();
-    }
-    
-    // Configures view for staff users with read-only access
-    public void setCurrentStaffId(String staffId) {
-        this.currentPatientId = null;
-        this.currentClinicianId = null;
-        this.currentStaffId = staffId;
-        
-        view.setReadOnlyMode(true);
-        view.hideAddUpdateButtons();
-        view.setTitle("All Prescriptions");
-        
-        refreshView();
-        
-        view.populateDropdowns(
-                getPatientIds(),
-                getClinicianIds(),
-                repository.getMedicationOptions(),
-                repository.getPharmacyOptions(),
-                getAppointmentIds()
-        );
-    }
-    
-    // Configures administrative view with full system access
-    public void setAdminView() {
-        this.currentPatientId = null;
-        this.currentClinicianId = null;
-        this.currentStaffId = null;
-        view.setTitle("Prescriptions (Admin Mode)"); 
-        refreshView();
-    }
-
-    // Returns the view component for UI display
-    public PrescriptionView getView() {
-        return view;
-    }
-
-    // Updates prescription display based on user permissions
-    public void refreshView() {
-        List<Prescription> prescriptionsToShow;
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            prescriptionsToShow = getPrescriptionsForPatient(currentPatientId);
-            view.setReadOnlyMode(true);
-            view.hideAddUpdateButtons();
-            view.setTitle("My Prescriptions (View Only)");
-            
-        } else if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            prescriptionsToShow = getPrescriptionsByClinician(currentClinicianId);
-            view.setReadOnlyMode(false);
-            view.showAddUpdateButtons();
-            view.setTitle("Manage Prescriptions");
-            
-        } else if (currentStaffId != null && !currentStaffId.isEmpty()) {
-            prescriptionsToShow = repository.getAll();
-            view.setReadOnlyMode(true);
-            view.hideAddUpdateButtons();
-            view.setTitle("All Prescriptions (View Only)");
-            
-        } else {
-            prescriptionsToShow = repository.getAll();
-            view.setReadOnlyMode(false);
-            view.showAddUpdateButtons();
-            view.setTitle("All Prescriptions");
-        }
-        
-        view.showPrescriptions(prescriptionsToShow);
-        
-        if (currentPatientId == null || currentPatientId.isEmpty()) {
-            view.setNextId(repository.generateNewId());
-        }
-    }
-
-    // Returns patient IDs visible to current user
-    public List<String> getPatientIds() {
-        List<String> ids = new ArrayList<>();
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            ids.add(currentPatientId);
-        } else {
-            for (Patient p : patientRepository.getAll()) {
-                ids.add(p.getId());
-            }
-        }
-        return ids;
-    }
-
-    // Returns clinician IDs visible to current user
-    public List<String> getClinicianIds() {
-        List<String> ids = new ArrayList<>();
-        
-        if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            ids.add(currentClinicianId);
-        } else {
-            for (Clinician c : clinicianRepository.getAll()) {
-                ids.add(c.getId());
-            }
-        }
-        return ids;
-    }
-
-    // Returns appointment IDs visible to current user
-    public List<String> getAppointmentIds() {
-        List<String> ids = new ArrayList<>();
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            for (Appointment a : appointmentRepository.getAll()) {
-                if (a.getPatientId().equals(currentPatientId)) {
-                    ids.add(a.getId());
-                }
-            }
-        } else if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            for (Appointment a : appointmentRepository.getAll()) {
-                if (a.getClinicianId().equals(currentClinicianId)) {
-                    ids.add(a.getId());
-                }
-            }
-        } else {
-            for (Appointment a : appointmentRepository.getAll()) {
-                ids.add(a.getId());
-            }
-        }
-        return ids;
-    }
-
-    // Adds new prescription with permission validation
-    public void addPrescription(Prescription p) {
-        // Prevent patients from creating prescriptions
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            JOptionPane.showMessageDialog(view, 
-                "Patients cannot issue prescriptions. Please contact your clinician.",
-                "Access Denied", 
-                JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-        
-        // Ensure clinicians only issue prescriptions under their name
-        if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            if (!p.getClinicianId().equals(currentClinicianId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only issue prescriptions under your name.",
-                    "Invalid Action", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-        }
-        
-        repository.addAndAppend(p);
-        refreshView();
-        
-        JOptionPane.showMessageDialog(view, 
-            "Prescription added successfully!",
-            "Success", 
-            JOptionPane.INFORMATION_MESSAGE);
-    }
-
-    // Updates prescription with role-based permission checks
-    public void updatePrescription(Prescription p) {
-        Prescription original = null;
-        for (Prescription pres : repository.getAll()) {
-            if (pres.getId().equals(p.getId())) {
-                original = pres;
-                break;
-            }
-        }
-        
-        if (original == null) {
-            JOptionPane.showMessageDialog(view, 
-                "Prescription not found.",
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            if (!original.getPatientId().equals(currentPatientId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only update your own prescriptions.",
-                    "Access Denied", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            // Patients can only update status and collection date
-            Prescription limitedUpdate = new Prescription(
-                p.getId(),
-                original.getPatientId(),
-                original.getClinicianId(),
-                original.getAppointmentId(),
-                original.getPrescriptionDate(),
-                original.getMedication(),
-                original.getDosage(),
-                original.getFrequency(),
-                original.getDurationDays(),
-                original.getQuantity(),
-                original.getInstructions(),
-                original.getPharmacyName(),
-                p.getStatus(),
-                original.getIssueDate(),
-                p.getCollectionDate()
-            );
-            
-            repository.update(limitedUpdate);
-            JOptionPane.showMessageDialog(view, 
-                "Prescription status updated successfully!",
-                "Success", 
-                JOptionPane.INFORMATION_MESSAGE);
-            
-        } else if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            if (!original.getClinicianId().equals(currentClinicianId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only update prescriptions you issued.",
-                    "Access Denied", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
-            repository.update(p);
-            JOptionPane.showMessageDialog(view, 
-                "Prescription updated successfully!",
-                "Success", 
-                JOptionPane.INFORMATION_MESSAGE);
-            
-        } else {
-            repository.update(p);
-            JOptionPane.showMessageDialog(view, 
-                "Prescription updated successfully!",
-                "Success", 
-                JOptionPane.INFORMATION_MESSAGE);
-        }
-        
-        refreshView();
-    }
-
-    // Deletes prescription with comprehensive permission checks
-    public void deleteById(String id) {
-        Prescription prescriptionToDelete = null;
-        for (Prescription p : repository.getAll()) {
-            if (p.getId().equals(id)) {
-                prescriptionToDelete = p;
-                break;
-            }
-        }
-        
-        if (prescriptionToDelete == null) {
-            JOptionPane.showMessageDialog(view, 
-                "Prescription not found.",
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-            refreshView();
-            return;
-        }
-        
-        if (currentPatientId != null && !currentPatientId.isEmpty()) {
-            JOptionPane.showMessageDialog(view, 
-                "Patients cannot delete prescriptions.",
-                "Access Denied", 
-                JOptionPane.WARNING_MESSAGE);
-            refreshView();
-            return;
-        }
-        
-        if (currentClinicianId != null && !currentClinicianId.isEmpty()) {
-            if (!prescriptionToDelete.getClinicianId().equals(currentClinicianId)) {
-                JOptionPane.showMessageDialog(view, 
-                    "You can only delete prescriptions you issued.",
-                    "Access Denied", 
-                    JOptionPane.WARNING_MESSAGE);
-                refreshView();
-                return;
-            }
-        }
-        
-        repository.removeById(id);
-        JOptionPane.showMessageDialog(view, 
-            "Prescription deleted successfully!",
-            "Success", 
-            JOptionPane.INFORMATION_MESSAGE);
-        refreshView();
-    }
-    
-    // Retrieves all prescriptions for specific patient
-    public List<Prescription> getPrescriptionsForPatient(String patientId) {
-        List<Prescription> patientPrescriptions = new ArrayList<>();
-        for (Prescription p : repository.getAll()) {
-            if (p.getPatientId().equals(patientId)) {
-                patientPrescriptions.add(p);
-            }
-        }
-        return patientPrescriptions;
-    }
-    
-    // Retrieves all prescriptions issued by specific clinician
-    public List<Prescription> getPrescriptionsByClinician(String clinicianId) {
-        List<Prescription> clinicianPrescriptions = new ArrayList<>();
-        for (Prescription p : repository.getAll()) {
-            if (p.getClinicianId().equals(clinicianId)) {
-                clinicianPrescriptions.add(p);
-            }
-        }
-        return clinicianPrescriptions;
-    }
-    
-    // Returns medication history for specific patient
-    public List<String> getMedicationHistoryForPatient(String patientId) {
-        List<String> medications = new ArrayList<>();
-        for (Prescription p : repository.getAll()) {
-            if (p.getPatientId().equals(patientId)) {
-                String history = p.getMedication() + " - " + p.getDosage() + 
-                               " (" + p.getPrescriptionDate() + ")";
-                medications.add(history);
-            }
-        }
-        return medications;
-    }
-    
-    // Checks if current view is patient-restricted
-    public boolean isPatientView() {
-        return currentPatientId != null && !currentPatientId.isEmpty();
-    }
-    
-    // Checks if current view is clinician-restricted
-    public boolean isClinicianView() {
-        return currentClinicianId != null && !currentClinicianId.isEmpty();
-    }
-    
-    // Checks if current view is staff/administrator
-    public boolean isStaffView() {
-        return currentPatientId == null && currentClinicianId == null;
-    }
+package controller;
+
+import model.PageSource;
+import model.Prescription;
+import model.PrescriptionRepository;
+import model.Query;
+import model.PatientRepository;
+import model.ClinicianRepository;
+import model.AppointmentRepository;
+import model.Appointment;
+import model.RecordExporter;
+import model.Session;
+import model.SessionViews;
+import view.PrescriptionView;
+//Made By Misbah Al Rehman. SRN: 24173647
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.swing.JOptionPane;
+
+public class PrescriptionController {
+
+    // Core data repositories for prescription management
+    private final PrescriptionRepository repository;
+    private final PatientRepository patientRepository;
+    private final ClinicianRepository clinicianRepository;
+    private final AppointmentRepository appointmentRepository;
+    // UI component for displaying prescription data
+    private final PrescriptionView view;
+    // Rows each role may see, asked for with the window's session on every read
+    private final SessionViews views;
+    // Who is using the window, looked up on each call since logging in again replaces it
+    private final Supplier<Session> session;
+    // Folds the reloads each context change asks for into one per event
+    private final RefreshScheduler refreshes = RefreshScheduler.shared();
+    // Runs storage writes off the event thread, in order per prescription
+    private final CommandExecutor commands = CommandExecutor.shared();
+
+    // Initializes controller with all required dependencies; built once a user has logged in,
+    // so the view is set up for the session's role straight away
+    public PrescriptionController(PrescriptionRepository repository,
+                                  PatientRepository patientRepository,
+                                  ClinicianRepository clinicianRepository,
+                                  AppointmentRepository appointmentRepository,
+                                  SessionViews views,
+                                  Supplier<Session> session,
+                                  PrescriptionView view) {
+
+        this.repository = repository;
+        this.patientRepository = patientRepository;
+        this.clinicianRepository = clinicianRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.views = views;
+        this.session = session;
+        this.view = view;
+
+        view.setController(this);
+        setupForUserRole(session.get());
+        refreshViewLater();
+        refreshDropdownsLater();
+    }
+    
+    // Configures UI permissions for the logged-in user's role
+    private void setupForUserRole(Session user) {
+        if (user.isPatient()) {
+            view.setReadOnlyMode(true);
+            view.hideAddUpdateButtons();
+            view.setTitle("My Prescriptions (View Only)");
+        } else if (user.isClinician()) {
+            view.setReadOnlyMode(false);
+            view.showAddUpdateButtons();
+            view.setTitle("Manage Prescriptions");
+        } else if (user.isStaff()) {
+            view.setReadOnlyMode(true);
+            view.hideAddUpdateButtons();
+            view.setTitle("All Prescriptions (View Only)");
+        } else {
+            view.setReadOnlyMode(false);
+            view.showAddUpdateButtons();
+            view.setTitle("All Prescriptions");
+        }
+    }
+    
+    // Logged-in patient and clinician, null for other roles
+    private String currentPatientId() {
+        return session.get().getPatientId();
+    }
+    
+    private String currentClinicianId() {
+        return session.get().getClinicianId();
+    }
+    
+    // Distinct non-blank values of one field, in first-seen order
+    private static List<String> distinctValues(List<Prescription> prescriptions, Function<Prescription, String> field) {
+        Set<String> values = new LinkedHashSet<>();
+        for (Prescription p : prescriptions) {
+            String value = field.apply(p);
+            if (value != null && !value.isBlank()) values.add(value);
+        }
+        return new ArrayList<>(values);
+    }
+    
+    // Returns the view component for UI display
+    public PrescriptionView getView() {
+        return view;
+    }
+
+    // Reloads the table once the current event is done, however many changes ask for it
+    private void refreshViewLater() {
+        refreshes.request("prescriptions.table", this::refreshView);
+    }
+
+    // Refills the form dropdowns once the current event is done
+    private void refreshDropdownsLater() {
+        refreshes.request("prescriptions.dropdowns", this::refreshDropdowns);
+    }
+
+    // Fills the form dropdowns for the current user
+    private void refreshDropdowns() {
+        List<String> medications;
+        List<String> pharmacies;
+        if (currentPatientId() != null) {
+            // The read-only form only needs the values on the patient's own prescriptions
+            List<Prescription> own = repository.getPagesForPatient(currentPatientId()).after(null, Integer.MAX_VALUE);
+            medications = distinctValues(own, Prescription::getMedication);
+            pharmacies = distinctValues(own, Prescription::getPharmacyName);
+        } else {
+            medications = repository.getMedicationsByUsage();
+            pharmacies = repository.getPharmaciesByUsage();
+        }
+        view.populateDropdowns(
+                getPatientIds(),
+                getClinicianIds(),
+                medications,
+                pharmacies,
+                getAppointmentIds()
+        );
+    }
+
+    // Updates prescription display based on user permissions
+    public void refreshView() {
+        // A patient's own, a clinician's issued, or every prescription
+        PageSource<Prescription> pages = views.prescriptions(session.get());
+        
+        // Large results are fetched a page at a time as the user scrolls
+        if (PageSource.shouldPage(pages.size())) {
+            view.showPrescriptionPages(pages);
+        } else {
+            view.showPrescriptions(pages.after(null, pages.size()));
+        }
+        
+        if (currentPatientId() == null) {
+            view.setNextId(repository.generateNewId());
+        }
+    }
+
+    // Returns patient IDs visible to current user
+    public NavigableSet<String> getPatientIds() {
+        if (currentPatientId() != null) {
+            return new TreeSet<>(Collections.singleton(currentPatientId()));
+        }
+        if (currentClinicianId() != null) {
+            // Clinicians prescribe for patients on their own caseload
+            return new TreeSet<>(appointmentRepository.getPatientIdsForClinician(currentClinicianId()));
+        }
+        // Everyone else searches the repository index directly
+        return patientRepository.getIdIndex();
+    }
+
+    // Returns clinician IDs visible to current user
+    public NavigableSet<String> getClinicianIds() {
+        if (currentClinicianId() != null) {
+            return new TreeSet<>(Collections.singleton(currentClinicianId()));
+        }
+        // Everyone else searches the repository index directly
+        return clinicianRepository.getIdIndex();
+    }
+
+    // Returns appointment IDs visible to current user
+    public NavigableSet<String> getAppointmentIds() {
+        NavigableSet<String> ids = new TreeSet<>();
+        
+        if (currentPatientId() != null) {
+            for (Appointment a : appointmentRepository.findByPatientId(currentPatientId())) {
+                ids.add(a.getId());
+            }
+        } else if (currentClinicianId() != null) {
+            for (Appointment a : appointmentRepository.findByClinicianId(currentClinicianId())) {
+                ids.add(a.getId());
+            }
+        } else {
+            // Unrestricted users search the repository index directly
+            return appointmentRepository.getIdIndex();
+        }
+        return ids;
+    }
+
+    // Adds new prescription with permission validation
+    public void addPrescription(Prescription p) {
+        // Prevent patients from creating prescriptions
+        if (currentPatientId() != null) {
+            JOptionPane.showMessageDialog(view, 
+                "Patients cannot issue prescriptions. Please contact your clinician.",
+                "Access Denied", 
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        // Ensure clinicians only issue prescriptions under their name
+        if (currentClinicianId() != null) {
+            if (!p.getClinicianId().equals(currentClinicianId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only issue prescriptions under your name.",
+                    "Invalid Action", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+        }
+        
+        // Show the prescription at once and append it to storage on a worker thread
+        commands.save("Prescription", p.getId(), repository.addAndAppendDeferred(p), this::refreshViewLater,
+                null, "Prescription added successfully!", view);
+    }
+
+    // Updates prescription with role-based permission checks
+    public void updatePrescription(Prescription p) {
+        Prescription original = null;
+        for (Prescription pres : repository.getAll()) {
+            if (pres.getId().equals(p.getId())) {
+                original = pres;
+                break;
+            }
+        }
+        
+        if (original == null) {
+            JOptionPane.showMessageDialog(view, 
+                "Prescription not found.",
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        if (currentPatientId() != null) {
+            if (!original.getPatientId().equals(currentPatientId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only update your own prescriptions.",
+                    "Access Denied", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            // Patients can only update status and collection date
+            Prescription limitedUpdate = new Prescription(
+                p.getId(),
+                original.getPatientId(),
+                original.getClinicianId(),
+                original.getAppointmentId(),
+                original.getPrescriptionDate(),
+                original.getMedication(),
+                original.getDosage(),
+                original.getFrequency(),
+                original.getDurationDays(),
+                original.getQuantity(),
+                original.getInstructions(),
+                original.getPharmacyName(),
+                p.getStatus(),
+                original.getIssueDate(),
+                p.getCollectionDate()
+            );
+            
+            repository.update(limitedUpdate);
+            JOptionPane.showMessageDialog(view, 
+                "Prescription status updated successfully!",
+                "Success", 
+                JOptionPane.INFORMATION_MESSAGE);
+            
+        } else if (currentClinicianId() != null) {
+            if (!original.getClinicianId().equals(currentClinicianId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only update prescriptions you issued.",
+                    "Access Denied", 
+                    JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            
+            repository.update(p);
+            JOptionPane.showMessageDialog(view, 
+                "Prescription updated successfully!",
+                "Success", 
+                JOptionPane.INFORMATION_MESSAGE);
+            
+        } else {
+            repository.update(p);
+            JOptionPane.showMessageDialog(view, 
+                "Prescription updated successfully!",
+                "Success", 
+                JOptionPane.INFORMATION_MESSAGE);
+        }
+        
+        refreshViewLater();
+    }
+
+    // Deletes prescription with comprehensive permission checks
+    public void deleteById(String id) {
+        Prescription prescriptionToDelete = null;
+        for (Prescription p : repository.getAll()) {
+            if (p.getId().equals(id)) {
+                prescriptionToDelete = p;
+                break;
+            }
+        }
+        
+        if (prescriptionToDelete == null) {
+            JOptionPane.showMessageDialog(view, 
+                "Prescription not found.",
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
+            refreshViewLater();
+            return;
+        }
+        
+        if (currentPatientId() != null) {
+            JOptionPane.showMessageDialog(view, 
+                "Patients cannot delete prescriptions.",
+                "Access Denied", 
+                JOptionPane.WARNING_MESSAGE);
+            refreshViewLater();
+            return;
+        }
+        
+        if (currentClinicianId() != null) {
+            if (!prescriptionToDelete.getClinicianId().equals(currentClinicianId())) {
+                JOptionPane.showMessageDialog(view, 
+                    "You can only delete prescriptions you issued.",
+                    "Access Denied", 
+                    JOptionPane.WARNING_MESSAGE);
+                refreshViewLater();
+                return;
+            }
+        }
+        
+        repository.removeById(id);
+        JOptionPane.showMessageDialog(view, 
+            "Prescription deleted successfully!",
+            "Success", 
+            JOptionPane.INFORMATION_MESSAGE);
+        refreshViewLater();
+    }
+    
+    // Retrieves all prescriptions for specific patient
+    public List<Prescription> getPrescriptionsForPatient(String patientId) {
+        return repository.find(Query.where(PrescriptionRepository.PATIENT.is(patientId)));
+    }
+    
+    // Retrieves all prescriptions issued by specific clinician
+    public List<Prescription> getPrescriptionsByClinician(String clinicianId) {
+        return repository.find(Query.where(PrescriptionRepository.CLINICIAN.is(clinicianId)));
+    }
+    
+    // Returns medication history for specific patient
+    public List<String> getMedicationHistoryForPatient(String patientId) {
+        List<String> medications = new ArrayList<>();
+        for (Prescription p : getPrescriptionsForPatient(patientId)) {
+            String history = p.getMedication() + " - " + p.getDosage() + 
+                           " (" + p.getPrescriptionDate() + ")";
+            medications.add(history);
+        }
+        return medications;
+    }
+    
+    // Checks if current view is patient-restricted
+    public boolean isPatientView() {
+        return currentPatientId() != null;
+    }
+    
+    // Checks if current view is clinician-restricted
+    public boolean isClinicianView() {
+        return currentClinicianId() != null;
+    }
+    
+    // Checks if current view is staff/administrator
+    public boolean isStaffView() {
+        return currentPatientId() == null && currentClinicianId() == null;
+    }
+
+    // Exports prescriptions visible to the current user
+    public void exportPrescriptions(String path, RecordExporter.Format format) {
+        Predicate<Prescription> filter = null;
+        if (currentPatientId() != null) {
+            String patientId = currentPatientId();
+            filter = p -> patientId.equals(p.getPatientId());
+        } else if (currentClinicianId() != null) {
+            String clinicianId = currentClinicianId();
+            filter = p -> clinicianId.equals(p.getClinicianId());
+        }
+
+        try {
+            int count = repository.export(path, format, filter);
+            JOptionPane.showMessageDialog(view,
+                "Exported " + count + " prescriptions to:\n" + path,
+                "Export Complete",
+                JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(view,
+                "Failed to export prescriptions: " + ex.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
 }
\ No newline at end of file
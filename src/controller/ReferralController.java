@@ -1,174 +1,204 @@
-package controller;
-
-import model.*;
-import view.ReferralView;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public class ReferralController {
-
-    // Core dependencies for managing referral data
-    private final ReferralManager referralManager;
-    private final PatientRepository patientRepo;
-    private final ClinicianRepository clinicianRepo;
-    private final FacilityRepository facilityRepo;
-    private final AppointmentRepository appointmentRepo;
-    private final ReferralView view;
-    
-    // Current user context for filtering referrals
-    private String currentClinicianId;
-
-    public ReferralController(ReferralManager rm,
-                              PatientRepository pr,
-                              ClinicianRepository cr,
-                              FacilityRepository fr,
-                              AppointmentRepository ar,
-                              ReferralView view) {
-
-        this.referralManager = rm;
-        this.patientRepo = pr;
-        this.clinicianRepo = cr;
-        this.facilityRepo = fr;
-        this.appointmentRepo = ar;
-        this.view = view;
-        this.currentClinicianId = null;
-
-        this.view.setController(this);
-        refreshReferrals();
-    }
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Returns the view component for UI display
-    public ReferralView getView() {
-        return view;
-    }
-
-    // Refreshes referrals filtered by specific clinician
-    public void refreshReferrals(String clinicianId) {
-        if (clinicianId != null && !clinicianId.isEmpty()) {
-            view.showReferrals(getReferralsForClinician(clinicianId));
-        } else {
-            view.showReferrals(referralManager.getAllReferrals());
-        }
-    }
-
-    // Refreshes all referrals (no filtering)
-    public void refreshReferrals() {
-        refreshReferrals(null);
-    }
-
-    // Returns referrals involving specific clinician
-    public List<Referral> getReferralsForClinician(String clinicianId) {
-        List<Referral> filtered = new ArrayList<>();
-        for (Referral r : referralManager.getAllReferrals()) {
-            // Include referrals where clinician is either sender or receiver
-            if (clinicianId.equals(r.getReferringClinicianId()) || 
-                clinicianId.equals(r.getReferredToClinicianId())) {
-                filtered.add(r);
-            }
-        }
-        return filtered;
-    }
-
-    // Sets current clinician for filtered view
-    public void setCurrentClinicianId(String clinicianId) {
-        this.currentClinicianId = clinicianId;
-        refreshReferrals(clinicianId);
-    }
-    
-    // Returns current clinician ID for context
-    public String getCurrentClinicianId() {
-        return currentClinicianId;
-    }
-    
-    // Configures view for staff users with read-only access
-    public void setCurrentStaffId(String staffId) {
-        this.currentClinicianId = null;
-        view.setReadOnlyMode(true);
-        refreshReferrals(null);
-    }
-    
-    // Configures administrative view with full access
-    public void setAdminView() {
-        this.currentClinicianId = null;
-        view.setReadOnlyMode(false);
-        view.setTitle("Referral Management (Admin Mode)");
-        view.showUpdateDeleteButtons();
-        refreshReferrals(null);
-    }
-    
-    // Checks if current view is staff/administrator
-    public boolean isStaffView() {
-        return currentClinicianId == null;
-    }
-
-    // Returns all patient IDs for dropdown population
-    public List<String> getPatientIds() {
-        List<String> ids = new ArrayList<>();
-        for (Patient p : patientRepo.getAll()) {
-            ids.add(p.getId());
-        }
-        return ids;
-    }
-
-    // Returns all clinician IDs for dropdown population
-    public List<String> getClinicianIds() {
-        List<String> ids = new ArrayList<>();
-        for (Clinician c : clinicianRepo.getAll()) {
-            ids.add(c.getId());
-        }
-        return ids;
-    }
-
-    // Returns all facility IDs for dropdown population
-    public List<String> getFacilityIds() {
-        List<String> ids = new ArrayList<>();
-        for (Facility f : facilityRepo.getAll()) {
-            ids.add(f.getId());
-        }
-        return ids;
-    }
-
-    // Returns all appointment IDs for dropdown population
-    public List<String> getAppointmentIds() {
-        List<String> ids = new ArrayList<>();
-        for (Appointment a : appointmentRepo.getAll()) {
-            ids.add(a.getId());
-        }
-        return ids;
-    }
-
-    // Generates next sequential referral ID
-    public String getNextReferralId() {
-        int max = 0;
-        for (Referral r : referralManager.getAllReferrals()) {
-            String id = r.getId();
-            if (id != null && id.startsWith("R")) {
-                try {
-                    int num = Integer.parseInt(id.substring(1));
-                    if (num > max) max = num;
-                } catch (NumberFormatException ignored) {}
-            }
-        }
-        int next = max + 1;
-        return String.format("R%03d", next);
-    }
-
-    // Creates new referral and updates display
-    public void addReferral(Referral r) {
-        referralManager.createReferral(r);
-        refreshReferrals();
-    }
-    
-    // Updates existing referral information
-    public void updateReferral(Referral r) {
-        referralManager.updateReferral(r);
-        refreshReferrals();
-    }
-    
-    // Deletes referral by identifier
-    public void deleteReferral(String id) {
-        referralManager.deleteReferral(id);
-        refreshReferrals();
-    }
+package controller;
+
+import model.*;
+import view.ReferralView;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.swing.JOptionPane;
+
+public class ReferralController {
+
+    // Core dependencies for managing referral data
+    private final ReferralManager referralManager;
+    private final PatientRepository patientRepo;
+    private final ClinicianRepository clinicianRepo;
+    private final FacilityRepository facilityRepo;
+    private final AppointmentRepository appointmentRepo;
+    private final ReferralView view;
+    
+    // Rows each role may see, asked for with the window's session on every read
+    private final SessionViews views;
+    // Who is using the window, looked up on each call since logging in again replaces it
+    private final Supplier<Session> session;
+    // Folds the reloads each context change asks for into one per event
+    private final RefreshScheduler refreshes = RefreshScheduler.shared();
+    // Runs storage writes off the event thread, in order per referral
+    private final CommandExecutor commands = CommandExecutor.shared();
+
+    // Built once a user has logged in, so the view is set up for the session's role straight away
+    public ReferralController(ReferralManager rm,
+                              PatientRepository pr,
+                              ClinicianRepository cr,
+                              FacilityRepository fr,
+                              AppointmentRepository ar,
+                              SessionViews views,
+                              Supplier<Session> session,
+                              ReferralView view) {
+
+        this.referralManager = rm;
+        this.patientRepo = pr;
+        this.clinicianRepo = cr;
+        this.facilityRepo = fr;
+        this.appointmentRepo = ar;
+        this.views = views;
+        this.session = session;
+        this.view = view;
+
+        this.view.setController(this);
+        Session user = session.get();
+        if (user.isStaff()) {
+            // Staff users have read-only access
+            view.setReadOnlyMode(true);
+        } else if (user.isAdmin()) {
+            view.setReadOnlyMode(false);
+            view.setTitle("Referral Management (Admin Mode)");
+            view.showUpdateDeleteButtons();
+        }
+        loadCombosLater();
+        refreshReferralsLater();
+    }
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Returns the view component for UI display
+    public ReferralView getView() {
+        return view;
+    }
+
+    // Reloads the list the logged-in user may see once the current event is done
+    private void refreshReferralsLater() {
+        refreshes.request("referrals.table", () -> view.showReferrals(views.referrals(session.get())));
+    }
+
+    // Refills the form combo boxes once the current event is done
+    private void loadCombosLater() {
+        refreshes.request("referrals.combos", view::loadCombos);
+    }
+
+    // Refreshes referrals filtered by specific clinician
+    public void refreshReferrals(String clinicianId) {
+        if (clinicianId != null && !clinicianId.isEmpty()) {
+            view.showReferrals(getReferralsForClinician(clinicianId));
+        } else {
+            view.showReferrals(referralManager.getAllReferrals());
+        }
+    }
+
+    // Refreshes all referrals (no filtering)
+    public void refreshReferrals() {
+        refreshReferrals(null);
+    }
+
+    // Returns referrals involving specific clinician
+    public List<Referral> getReferralsForClinician(String clinicianId) {
+        // Clinician is either sender or receiver, answered from the indexes
+        return referralManager.getReferralsForClinician(clinicianId);
+    }
+
+    // Returns referrals received by specific clinician
+    public List<Referral> getInbox(String clinicianId) {
+        return referralManager.getInbox(clinicianId);
+    }
+
+    // Returns referrals sent by specific clinician
+    public List<Referral> getOutbox(String clinicianId) {
+        return referralManager.getOutbox(clinicianId);
+    }
+
+    // Returns current clinician ID for context, null unless a clinician is logged in
+    public String getCurrentClinicianId() {
+        return session.get().getClinicianId();
+    }
+    
+    // Checks if current view is staff/administrator
+    public boolean isStaffView() {
+        return getCurrentClinicianId() == null;
+    }
+
+    // Returns patient ID index for searchable dropdowns
+    public NavigableSet<String> getPatientIds() {
+        if (getCurrentClinicianId() != null) {
+            // Clinicians refer patients from their own caseload
+            return new TreeSet<>(appointmentRepo.getPatientIdsForClinician(getCurrentClinicianId()));
+        }
+        return patientRepo.getIdIndex();
+    }
+
+    // Returns clinician ID index for searchable dropdowns
+    public NavigableSet<String> getClinicianIds() {
+        return clinicianRepo.getIdIndex();
+    }
+
+    // Returns all facility IDs for dropdown population
+    public List<String> getFacilityIds() {
+        List<String> ids = new ArrayList<>();
+        for (Facility f : facilityRepo.getAll()) {
+            ids.add(f.getId());
+        }
+        return ids;
+    }
+
+    // Returns appointment ID index for searchable dropdowns
+    public NavigableSet<String> getAppointmentIds() {
+        if (getCurrentClinicianId() != null) {
+            // Clinicians link referrals to their own appointments
+            NavigableSet<String> ids = new TreeSet<>();
+            for (Appointment a : appointmentRepo.findByClinicianId(getCurrentClinicianId())) ids.add(a.getId());
+            return ids;
+        }
+        return appointmentRepo.getIdIndex();
+    }
+
+    // Generates next sequential referral ID
+    public String getNextReferralId() {
+        // Scans identifiers on disk without loading every referral
+        return referralManager.generateReferralId();
+    }
+
+    // Creates new referral and updates display
+    public void addReferral(Referral r) {
+        // IDs are counted from storage, so the form's ID may only move on once the referral is stored
+        String id = r.getId();
+        commands.save("Referral", id, referralManager.createReferralDeferred(r), this::refreshReferralsLater,
+                () -> view.replaceUsedId(id, getNextReferralId()), null, view);
+    }
+    
+    // Updates existing referral information
+    public void updateReferral(Referral r) {
+        commands.save("Referral", r.getId(), referralManager.updateReferralDeferred(r), this::refreshReferralsLater,
+                null, null, view);
+    }
+    
+    // Deletes referral by identifier
+    public void deleteReferral(String id) {
+        commands.save("Referral", id, referralManager.deleteReferralDeferred(id), this::refreshReferralsLater,
+                null, null, view);
+    }
+
+    // Exports referrals visible to the current user
+    public void exportReferrals(String path, RecordExporter.Format format) {
+        Predicate<Referral> filter = null;
+        if (getCurrentClinicianId() != null) {
+            String clinicianId = getCurrentClinicianId();
+            filter = r -> clinicianId.equals(r.getReferringClinicianId())
+                    || clinicianId.equals(r.getReferredToClinicianId());
+        }
+
+        try {
+            int count = referralManager.export(path, format, filter);
+            JOptionPane.showMessageDialog(view,
+                "Exported " + count + " referrals to:\n" + path,
+                "Export Complete",
+                JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(view,
+                "Failed to export referrals: " + ex.getMessage(),
+                "Error",
+                JOptionPane.ERROR_MESSAGE);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event for one view refresh run by the refresh scheduler
+@Name("hms.Refresh")
+@Label("View Refresh")
+@Category({"HMS", "Views"})
+@Description("A controller reloading a table or dropdown list on the event thread")
+@StackTrace(false)
+public class RefreshEvent extends jdk.jfr.Event {
+
+    @Label("Name")
+    String name;
+
+    // Starts timing a refresh
+    RefreshEvent(String name) {
+        this.name = name;
+        begin();
+    }
+}
\ No newline at end of file
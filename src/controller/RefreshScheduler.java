@@ -0,0 +1,104 @@
+package controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import javax.swing.SwingUtilities;
+
+// Collects view refreshes asked for during one event and runs each distinct one once,
+// after the event finishes. A login that sets several user contexts in a row then reads
+// each table and dropdown list once, with the final context, instead of once per call.
+public class RefreshScheduler {
+
+    // Prints each cycle's counts to the console when set (-Dhms.refresh.log=true)
+    private static final boolean LOG = Boolean.getBoolean("hms.refresh.log");
+
+    // Shared by every controller so refreshes from one login land in the same cycle
+    private static final RefreshScheduler SHARED = new RefreshScheduler(SwingUtilities::invokeLater);
+
+    // Where the pending refreshes run, the Swing event thread for the shared scheduler
+    private final Executor eventThread;
+    // Refreshes marked dirty since the last cycle, by name, in the order first asked for
+    private final Map<String, Runnable> dirty = new LinkedHashMap<>();
+    // Requests that found their refresh already pending, by name
+    private final Map<String, Integer> skippedByName = new TreeMap<>();
+    private boolean cycleQueued;
+    private long requested;
+    private long run;
+    private long cycles;
+
+    public RefreshScheduler(Executor eventThread) {
+        this.eventThread = eventThread;
+    }
+
+    // The scheduler the controllers share
+    public static RefreshScheduler shared() {
+        return SHARED;
+    }
+
+    // Marks a refresh dirty; it runs once at the end of the current event however often it is asked for.
+    // The refresh reads the controller's state when it runs, so later context changes are picked up.
+    public void request(String name, Runnable refresh) {
+        boolean queue;
+        synchronized (this) {
+            requested++;
+            if (dirty.containsKey(name)) {
+                skippedByName.merge(name, 1, Integer::sum);
+                return;
+            }
+            dirty.put(name, refresh);
+            queue = !cycleQueued;
+            cycleQueued = true;
+        }
+        if (queue) eventThread.execute(this::runCycle);
+    }
+
+    // Runs everything marked dirty; refreshes asked for while it runs wait for the next cycle
+    private void runCycle() {
+        List<Map.Entry<String, Runnable>> due;
+        synchronized (this) {
+            due = new ArrayList<>(dirty.entrySet());
+            dirty.clear();
+            cycleQueued = false;
+            cycles++;
+            run += due.size();
+        }
+        for (Map.Entry<String, Runnable> entry : due) {
+            RefreshEvent event = new RefreshEvent(entry.getKey());
+            try {
+                entry.getValue().run();
+            } catch (RuntimeException ex) {
+                // One failing view should not leave the others stale
+                System.err.println("Failed to refresh " + entry.getKey() + ": " + ex.getMessage());
+            } finally {
+                event.commit();
+            }
+        }
+        if (LOG) System.out.println("Refresh cycle " + cycles + ": ran " + due.size() + ", " + summary());
+    }
+
+    // Requests made so far
+    public synchronized long getRequested() {
+        return requested;
+    }
+
+    // Refreshes actually run
+    public synchronized long getRun() {
+        return run;
+    }
+
+    // Requests that were folded into a refresh already pending
+    public synchronized long getSkipped() {
+        long skipped = 0;
+        for (int n : skippedByName.values()) skipped += n;
+        return skipped;
+    }
+
+    // Totals and the skipped requests per refresh, e.g. for the console or a status line
+    public synchronized String summary() {
+        return requested + " requested, " + run + " run, " + getSkipped() + " skipped " + skippedByName;
+    }
+}
\ No newline at end of file
@@ -1,199 +1,442 @@
-package model;
-
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
-public class AppointmentRepository {
-
-    // In-memory storage for appointment data
-    private final List<Appointment> appointments = new ArrayList<>();
-    // File system path for persistent storage
-    private final String csvPath;
-
-    // Constructor - loads data from CSV on initialization
-    public AppointmentRepository(String csvPath) {
-        this.csvPath = csvPath;
-        load();
-    }
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Loads appointment data from CSV file into memory
-    private void load() {
-        try {
-            for (String[] row : CsvUtils.readCsv(csvPath)) {
-                // CSV column mapping: index to appointment field
-                Appointment a = new Appointment(
-                        row[0],  // id - appointment identifier
-                        row[1],  // patient_id - associated patient
-                        row[2],  // clinician_id - assigned clinician
-                        row[3],  // facility_id - location facility
-                        row[4],  // appointment_date - scheduled date
-                        row[5],  // appointment_time - scheduled time
-                        row[6],  // duration_minutes - appointment length
-                        row[7],  // appointment_type - service category
-                        row[8],  // status - current appointment state
-                        row[9],  // reason_for_visit - primary purpose
-                        row[10], // notes - additional information
-                        row[11], // created_date - initial creation date
-                        row[12]  // last_modified - most recent update
-                );
-
-                appointments.add(a);
-            }
-        } catch (IOException ex) {
-            System.err.println("Failed to load appointments: " + ex.getMessage());
-        }
-    }
-
-    // Returns all appointments in the repository
-    public List<Appointment> getAll() {
-        return appointments;
-    }
-
-    // Generates next sequential appointment identifier
-    public String generateNewId() {
-        int max = 0;
-        for (Appointment a : appointments) {
-            try {
-                // Extract numeric portion from ID (e.g., "A001" → 1)
-                int n = Integer.parseInt(a.getId().substring(1));
-                if (n > max) max = n;
-            } catch (Exception ignore) {}
-        }
-        return String.format("A%03d", max + 1);
-    }
-
-    // Adds appointment to in-memory list only
-    public void add(Appointment a) {
-        appointments.add(a);
-    }
-
-    // Adds appointment and appends to CSV file
-    public void addAndAppend(Appointment a) {
-        appointments.add(a);
-        try {
-            CsvUtils.appendLine(csvPath, new String[]{
-                    a.getId(),
-                    a.getPatientId(),
-                    a.getClinicianId(),
-                    a.getFacilityId(),
-                    a.getAppointmentDate(),
-                    a.getAppointmentTime(),
-                    a.getDurationMinutes(),
-                    a.getAppointmentType(),
-                    a.getStatus(),
-                    a.getReasonForVisit(),
-                    a.getNotes(),
-                    a.getCreatedDate(),
-                    a.getLastModified()
-            });
-        } catch (IOException ex) {
-            System.err.println("Failed to append appointment: " + ex.getMessage());
-        }
-    }
-    
-    // Updates existing appointment in memory and CSV
-    public void update(Appointment updatedAppointment) {
-        for (int i = 0; i < appointments.size(); i++) {
-            Appointment appointment = appointments.get(i);
-            if (appointment.getId().equals(updatedAppointment.getId())) {
-                // Replace appointment in memory
-                appointments.set(i, updatedAppointment);
-                // Persist changes to CSV file
-                saveAllToCsv();
-                return;
-            }
-        }
-        System.err.println("Appointment not found for update: " + updatedAppointment.getId());
-    }
-
-    // Removes appointment from memory and updates CSV
-    public void remove(Appointment a) {
-        appointments.remove(a);
-        saveAllToCsv();
-    }
-    
-    // Removes appointment by identifier
-    public void removeById(String id) {
-        Appointment appointmentToRemove = null;
-        for (Appointment a : appointments) {
-            if (a.getId().equals(id)) {
-                appointmentToRemove = a;
-                break;
-            }
-        }
-        
-        if (appointmentToRemove != null) {
-            remove(appointmentToRemove);
-        }
-    }
-
-    // Retrieves appointment by unique identifier
-    public Appointment findById(String id) {
-        for (Appointment a : appointments)
-            if (a.getId().equals(id)) return a;
-        return null;
-    }
-    
-    // Returns all appointments for specific patient
-    public List<Appointment> findByPatientId(String patientId) {
-        List<Appointment> patientAppointments = new ArrayList<>();
-        for (Appointment a : appointments) {
-            if (a.getPatientId().equals(patientId)) {
-                patientAppointments.add(a);
-            }
-        }
-        return patientAppointments;
-    }
-    
-    // Returns all appointments for specific clinician
-    public List<Appointment> findByClinicianId(String clinicianId) {
-        List<Appointment> clinicianAppointments = new ArrayList<>();
-        for (Appointment a : appointments) {
-            if (a.getClinicianId().equals(clinicianId)) {
-                clinicianAppointments.add(a);
-            }
-        }
-        return clinicianAppointments;
-    }
-    
-    // Writes all appointments to CSV file (full persistence)
-    private void saveAllToCsv() {
-        try {
-            List<String[]> allData = new ArrayList<>();
-            
-            // Add CSV header row with column names
-            allData.add(new String[]{
-                "appointment_id", "patient_id", "clinician_id", "facility_id",
-                "appointment_date", "appointment_time", "duration_minutes",
-                "appointment_type", "status", "reason_for_visit", "notes",
-                "created_date", "last_modified"
-            });
-            
-            // Convert all appointments to CSV rows
-            for (Appointment a : appointments) {
-                allData.add(new String[]{
-                    a.getId(),
-                    a.getPatientId(),
-                    a.getClinicianId(),
-                    a.getFacilityId(),
-                    a.getAppointmentDate(),
-                    a.getAppointmentTime(),
-                    a.getDurationMinutes(),
-                    a.getAppointmentType(),
-                    a.getStatus(),
-                    a.getReasonForVisit(),
-                    a.getNotes(),
-                    a.getCreatedDate(),
-                    a.getLastModified()
-                });
-            }
-            
-            // Write complete dataset to CSV file
-            CsvUtils.writeCsv(csvPath, allData);
-            
-        } catch (IOException ex) {
-            System.err.println("Failed to save appointments to CSV: " + ex.getMessage());
-        }
-    }
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class AppointmentRepository {
+
+    // In-memory storage for appointment data
+    private final List<Appointment> appointments = new ArrayList<>();
+    // Sorted identifier index, safe to read from background threads
+    private final ConcurrentSkipListMap<String, Appointment> byId = new ConcurrentSkipListMap<>();
+    // Clinician to patient join index, counting appointments per pair
+    private final Map<String, Map<String, Integer>> patientsByClinician = new HashMap<>();
+    // Keyset page indexes ordered by (appointment date, id), newest first
+    private final KeysetIndex<Appointment> pagesByDate = newPageIndex();
+    private final Map<String, KeysetIndex<Appointment>> pagesByPatient = new HashMap<>();
+    private final Map<String, KeysetIndex<Appointment>> pagesByClinician = new HashMap<>();
+    private final Map<String, KeysetIndex<Appointment>> pagesByFacility = new HashMap<>();
+    // Posting lists the query planner answers find() from
+    private final RecordIndex<Appointment> queries = new RecordIndex<>(() -> appointments);
+    // Appointments and minutes booked per facility per day, for capacity checks
+    private final FacilityOccupancy occupancy = new FacilityOccupancy();
+    // Per-facility appointment records, each facility read on first access
+    private RecordStore<Appointment> store;
+    // Screens told about appointment rows another program inserted, changed or deleted
+    private final List<Consumer<RecordDelta<Appointment>>> changeListeners = new CopyOnWriteArrayList<>();
+
+    // CSV header row with column names
+    public static final String[] CSV_HEADER = {
+        "appointment_id", "patient_id", "clinician_id", "facility_id",
+        "appointment_date", "appointment_time", "duration_minutes",
+        "appointment_type", "status", "reason_for_visit", "notes",
+        "created_date", "last_modified"
+    };
+    // Columns with offset indexes for per-patient and per-clinician reads
+    private static final int PATIENT_COLUMN = 1;
+    private static final int CLINICIAN_COLUMN = 2;
+    private static final int LAST_MODIFIED_COLUMN = 12;
+
+    // Queryable fields, e.g. Query.where(STATUS.is("Scheduled")).and(CLINICIAN.is("C001"))
+    public static final Field<Appointment> PATIENT = Field.of("patient", Appointment::getPatientId);
+    public static final Field<Appointment> CLINICIAN = Field.of("clinician", Appointment::getClinicianId);
+    public static final Field<Appointment> FACILITY = Field.of("facility", Appointment::getFacilityId);
+    public static final Field<Appointment> STATUS = Field.of("status", Appointment::getStatus).ignoringCase();
+    public static final Field<Appointment> TYPE = Field.of("type", Appointment::getAppointmentType);
+    public static final Field<Appointment> DATE = Field.of("date", Appointment::getAppointmentDate);
+
+    // Table mapping shared by every storage engine, split by facility_id and versioned by last_modified
+    public static final TableSchema<Appointment> SCHEMA = new TableSchema<>("appointments", CSV_HEADER,
+            AppointmentRepository::fromRow, AppointmentRepository::toRow, Appointment::getId, 3,
+            PATIENT_COLUMN, CLINICIAN_COLUMN).versioned(LAST_MODIFIED_COLUMN);
+
+    // Constructor - opens the appointments table, reading no facility until needed
+    public AppointmentRepository(StorageEngine engine) {
+        queries.hashed(PATIENT).hashed(CLINICIAN).hashed(FACILITY).hashed(STATUS).sorted(DATE);
+        load(engine);
+    }
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Opens appointment data from the storage engine
+    private void load(StorageEngine engine) {
+        store = engine.open(SCHEMA, this::loaded);
+    }
+
+    // Follows edits other programs make to the appointment files, applied through the executor
+    public void watchExternalChanges(Executor deliverOn) {
+        store.watch(deliverOn, this::applyExternal);
+    }
+
+    // Registers a screen to update after an outside edit
+    public void addChangeListener(Consumer<RecordDelta<Appointment>> listener) {
+        changeListeners.add(listener);
+    }
+
+    // Applies only the rows that changed outside the application to memory and the
+    // indexes, then tells the screens. Records are matched by ID, so a change already
+    // applied is not applied twice.
+    private void applyExternal(RecordDelta<Appointment> delta) {
+        for (Appointment a : delta.getDeleted()) {
+            Appointment current = byId.remove(a.getId());
+            if (current != null && appointments.remove(current)) unindex(current);
+        }
+        for (Appointment a : delta.getUpdatedTo()) {
+            Appointment current = byId.put(a.getId(), a);
+            int at = current != null ? appointments.indexOf(current) : -1;
+            if (at >= 0) {
+                appointments.set(at, a);
+                unindex(current);
+            } else {
+                appointments.add(a);
+            }
+            index(a);
+        }
+        for (Appointment a : delta.getInserted()) {
+            Appointment existing = byId.put(a.getId(), a);
+            if (existing != null && appointments.remove(existing)) unindex(existing);
+            appointments.add(a);
+            index(a);
+        }
+        for (Consumer<RecordDelta<Appointment>> listener : changeListeners) listener.accept(delta);
+    }
+
+    // Creates Appointment object from CSV column order
+    private static Appointment fromRow(String[] row) {
+        return new Appointment(
+                row[0],  // id - appointment identifier
+                row[1],  // patient_id - associated patient
+                row[2],  // clinician_id - assigned clinician
+                row[3],  // facility_id - location facility
+                row[4],  // appointment_date - scheduled date
+                row[5],  // appointment_time - scheduled time
+                row[6],  // duration_minutes - appointment length
+                row[7],  // appointment_type - service category
+                row[8],  // status - current appointment state
+                row[9],  // reason_for_visit - primary purpose
+                row[10], // notes - additional information
+                row[11], // created_date - initial creation date
+                row[12]  // last_modified - most recent update
+        );
+    }
+
+    // Adds an appointment read from disk to memory and the indexes, unless already held
+    private Appointment loaded(Appointment a) {
+        Appointment existing = byId.putIfAbsent(a.getId(), a);
+        if (existing != null) return existing;
+        appointments.add(a);
+        index(a);
+        return a;
+    }
+
+    // Reads one facility's appointments ahead of use, e.g. the logged-in user's site
+    public void loadFacility(String facilityId) {
+        store.load(facilityId);
+    }
+
+    // Returns the appointments held at one facility, reading only that segment
+    public List<Appointment> findByFacilityId(String facilityId) {
+        return new ArrayList<>(store.get(facilityId));
+    }
+
+    // Live read-only view of appointment identifiers in sorted order
+    public NavigableSet<String> getIdIndex() {
+        store.loadAll();
+        return Collections.unmodifiableNavigableSet(byId.navigableKeySet());
+    }
+
+    // Reads one facility's appointments, or all for null, ahead on a background thread; they join memory on first use
+    public void prefetch(String facilityId) {
+        store.prefetch(facilityId);
+    }
+
+    // Returns all appointments in the repository
+    public List<Appointment> getAll() {
+        store.loadAll();
+        return appointments;
+    }
+
+    // Generates next sequential appointment identifier
+    public String generateNewId() {
+        // Next number in the ID sequence (e.g., "A001" → "A002"), from the counter shared with other desks
+        return String.format("A%03d", store.nextSequence(1));
+    }
+
+    // Adds appointment to in-memory list only
+    public void add(Appointment a) {
+        store.track(a);
+        appointments.add(a);
+        byId.put(a.getId(), a);
+        index(a);
+    }
+
+    // Adds appointment and appends to CSV file
+    public void addAndAppend(Appointment a) {
+        try {
+            addAndAppendDeferred(a).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to append appointment: " + ex.getMessage());
+        }
+    }
+
+    // Adds the appointment to memory now and returns the append, to run off the event thread
+    public PendingWrite addAndAppendDeferred(Appointment a) {
+        store.reserve(a);
+        appointments.add(a);
+        byId.put(a.getId(), a);
+        index(a);
+        // Appends to the facility's segment only
+        return PendingWrite.of(() -> store.append(a), () -> forget(a));
+    }
+    
+    // Updates existing appointment in memory and CSV
+    public void update(Appointment updatedAppointment) {
+        try {
+            updateDeferred(updatedAppointment).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to save appointments to CSV: " + ex.getMessage());
+        }
+    }
+
+    // Replaces the appointment in memory now and returns the rewrite, to run off the event thread
+    public PendingWrite updateDeferred(Appointment updatedAppointment) {
+        // Looked up by ID, then replaced in the list by identity
+        String id = updatedAppointment.getId();
+        Appointment appointment = id != null ? byId.get(id) : null;
+        int at = appointment != null ? appointments.indexOf(appointment) : -1;
+        if (at < 0) {
+            System.err.println("Appointment not found for update: " + updatedAppointment.getId());
+            return PendingWrite.NONE;
+        }
+        // Segments are read here, so the rewrite never calls back into this repository
+        store.prepare(appointment);
+        store.prepare(updatedAppointment);
+        appointments.set(at, updatedAppointment);
+        byId.put(updatedAppointment.getId(), updatedAppointment);
+        // Follow reassignment to another clinician or patient
+        unindex(appointment);
+        index(updatedAppointment);
+        // Rewrite only the facility segments holding the old and new versions
+        return PendingWrite.of(() -> store.replace(appointment, updatedAppointment), () -> {
+            forget(updatedAppointment);
+            restore(appointment);
+        });
+    }
+
+    // Removes appointment from memory and updates CSV
+    public void remove(Appointment a) {
+        try {
+            removeDeferred(a).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to save appointments to CSV: " + ex.getMessage());
+        }
+    }
+
+    // Forgets the appointment now and returns the rewrite, to run off the event thread
+    public PendingWrite removeDeferred(Appointment a) {
+        store.prepare(a);
+        if (appointments.remove(a)) {
+            unindex(a);
+        }
+        byId.remove(a.getId());
+        return PendingWrite.of(() -> store.remove(a), () -> restore(a));
+    }
+
+    // Puts back an appointment whose removal or replacement could not be written
+    private void restore(Appointment a) {
+        if (byId.containsKey(a.getId())) return;
+        appointments.add(a);
+        byId.put(a.getId(), a);
+        index(a);
+    }
+
+    // Drops an appointment whose addition or new version could not be written
+    private void forget(Appointment a) {
+        if (!appointments.remove(a)) return;
+        byId.remove(a.getId(), a);
+        unindex(a);
+    }
+    
+    // Removes appointment by identifier
+    public void removeById(String id) {
+        Appointment appointmentToRemove = findById(id);
+        
+        if (appointmentToRemove != null) {
+            remove(appointmentToRemove);
+        }
+    }
+
+    // Retrieves appointment by unique identifier
+    public Appointment findById(String id) {
+        if (id == null) return null;
+        Appointment a = byId.get(id);
+        // Not in memory yet, read just that row through the ID offset index
+        if (a == null && store.loadContaining(id)) a = byId.get(id);
+        return a;
+    }
+    
+    // Returns all appointments for specific patient
+    public List<Appointment> findByPatientId(String patientId) {
+        return find(Query.where(PATIENT.is(patientId)));
+    }
+    
+    // Returns all appointments for specific clinician
+    public List<Appointment> findByClinicianId(String clinicianId) {
+        return find(Query.where(CLINICIAN.is(clinicianId)));
+    }
+
+    // Returns the appointments passing every condition of the query, answered from the
+    // most selective index. Only the rows the query can match are read from storage.
+    public List<Appointment> find(Query<Appointment> query) {
+        loadFor(query);
+        return queries.find(query);
+    }
+
+    // How find() would answer the query
+    public String explain(Query<Appointment> query) {
+        return queries.explain(query);
+    }
+
+    // Reads the segment or offset-indexed rows a query is limited to, or everything
+    private void loadFor(Query<Appointment> query) {
+        String patientId = query.valueOf(PATIENT);
+        String clinicianId = query.valueOf(CLINICIAN);
+        String facilityId = query.valueOf(FACILITY);
+        if (patientId != null) store.loadMatching(PATIENT_COLUMN, patientId);
+        else if (clinicianId != null) store.loadMatching(CLINICIAN_COLUMN, clinicianId);
+        else if (facilityId != null) store.load(facilityId);
+        else store.loadAll();
+    }
+    
+    // Returns IDs of patients with at least one appointment with the clinician
+    public Set<String> getPatientIdsForClinician(String clinicianId) {
+        store.loadMatching(CLINICIAN_COLUMN, clinicianId);
+        Map<String, Integer> patients = patientsByClinician.get(clinicianId);
+        if (patients == null) return Collections.emptySet();
+        return Collections.unmodifiableSet(patients.keySet());
+    }
+
+    // Pages of all appointments, newest first
+    public PageSource<Appointment> getPages() {
+        store.loadAll();
+        return pagesByDate;
+    }
+
+    // Pages of one patient's appointments, newest first
+    public PageSource<Appointment> getPagesForPatient(String patientId) {
+        // Streams only this patient's rows through the per-segment offset indexes
+        store.loadMatching(PATIENT_COLUMN, patientId);
+        KeysetIndex<Appointment> pages = pagesByPatient.get(patientId);
+        return pages != null ? pages : newPageIndex();
+    }
+
+    // Pages of one clinician's appointments, newest first
+    public PageSource<Appointment> getPagesForClinician(String clinicianId) {
+        store.loadMatching(CLINICIAN_COLUMN, clinicianId);
+        KeysetIndex<Appointment> pages = pagesByClinician.get(clinicianId);
+        return pages != null ? pages : newPageIndex();
+    }
+
+    // Pages of one facility's appointments, newest first, reading only that segment
+    public PageSource<Appointment> getPagesForFacility(String facilityId) {
+        store.load(facilityId);
+        KeysetIndex<Appointment> pages = pagesByFacility.get(facilityId);
+        return pages != null ? pages : newPageIndex();
+    }
+
+    // Live booking counters for every facility read so far
+    public FacilityOccupancy getOccupancy() {
+        return occupancy;
+    }
+
+    // Bookings at a facility on a day, reading that facility's appointments first if needed
+    public FacilityOccupancy.Day getOccupancy(String facilityId, String date) {
+        if (facilityId != null && !facilityId.isEmpty()) store.load(facilityId);
+        return occupancy.get(facilityId, date);
+    }
+
+    // Empty page index ordered by (appointment date, id), newest first
+    private static KeysetIndex<Appointment> newPageIndex() {
+        return new KeysetIndex<>(Appointment::getAppointmentDate, Appointment::getId, true);
+    }
+
+    // Adds appointment to the join and page indexes
+    private void index(Appointment a) {
+        // Records one more appointment between clinician and patient
+        patientsByClinician
+                .computeIfAbsent(a.getClinicianId(), k -> new LinkedHashMap<>())
+                .merge(a.getPatientId(), 1, Integer::sum);
+
+        pagesByDate.add(a);
+        pagesByPatient.computeIfAbsent(a.getPatientId(), k -> newPageIndex()).add(a);
+        pagesByClinician.computeIfAbsent(a.getClinicianId(), k -> newPageIndex()).add(a);
+        pagesByFacility.computeIfAbsent(a.getFacilityId(), k -> newPageIndex()).add(a);
+        queries.add(a);
+        occupancy.book(a);
+    }
+
+    // Removes appointment from the join and page indexes
+    private void unindex(Appointment a) {
+        pagesByDate.remove(a);
+        removePage(pagesByPatient, a.getPatientId(), a);
+        removePage(pagesByClinician, a.getClinicianId(), a);
+        removePage(pagesByFacility, a.getFacilityId(), a);
+        queries.remove(a);
+        occupancy.release(a);
+
+        // Drops one appointment between clinician and patient
+        Map<String, Integer> patients = patientsByClinician.get(a.getClinicianId());
+        if (patients == null) return;
+        Integer count = patients.get(a.getPatientId());
+        if (count == null) return;
+        if (count <= 1) {
+            patients.remove(a.getPatientId());
+            if (patients.isEmpty()) patientsByClinician.remove(a.getClinicianId());
+        } else {
+            patients.put(a.getPatientId(), count - 1);
+        }
+    }
+
+    // Removes appointment from a partitioned page index, dropping empty partitions
+    private static void removePage(Map<String, KeysetIndex<Appointment>> pages, String key, Appointment a) {
+        KeysetIndex<Appointment> index = pages.get(key);
+        if (index == null) return;
+        index.remove(a);
+        if (index.size() == 0) pages.remove(key);
+    }
+
+    // Streams matching appointments to an export file in the requested format
+    public int export(String path, RecordExporter.Format format, Predicate<Appointment> filter) throws IOException {
+        store.loadAll();
+        return RecordExporter.exportToFile(path, format, CSV_HEADER, appointments, AppointmentRepository::toRow, filter);
+    }
+
+    // Converts appointment to CSV column order
+    public static String[] toRow(Appointment a) {
+        return new String[]{
+                a.getId(),
+                a.getPatientId(),
+                a.getClinicianId(),
+                a.getFacilityId(),
+                a.getAppointmentDate(),
+                a.getAppointmentTime(),
+                a.getDurationMinutes(),
+                a.getAppointmentType(),
+                a.getStatus(),
+                a.getReasonForVisit(),
+                a.getNotes(),
+                a.getCreatedDate(),
+                a.getLastModified()
+        };
+    }
 }
\ No newline at end of file
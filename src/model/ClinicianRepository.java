@@ -1,165 +1,254 @@
-package model;
-
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
-public class ClinicianRepository {
-
-    // In-memory storage for clinician records
-    private final List<Clinician> clinicians = new ArrayList<>();
-    // File system path for CSV persistence
-    private final String csvPath;
-
-    // Constructor - loads data from CSV file on initialization
-    public ClinicianRepository(String csvPath) {
-        this.csvPath = csvPath;
-        load();
-    }
-    
-    // Returns all clinician identifiers for reference purposes
-    public List<String> getAllIds() {
-        List<String> ids = new ArrayList<>();
-        for (Clinician c : clinicians) ids.add(c.getId());
-        return ids;
-    }
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Loads clinician data from CSV file into memory
-    private void load() {
-        try {
-            for (String[] row : CsvUtils.readCsv(csvPath)) {
-                Clinician c = new Clinician(
-                        row[0],   // id - unique clinician identifier
-                        row[1],   // title - professional designation
-                        row[2],   // first - given name
-                        row[3],   // last - family name
-                        row[4],   // speciality - medical specialty
-                        row[5],   // gmc - registration number
-                        row[6],   // phone - contact number
-                        row[7],   // email - professional email
-                        row[8],   // workplace id - facility identifier
-                        row[9],   // workplace type - facility category
-                        row[10],  // employment - current status
-                        row[11]   // start date - employment commencement
-                );
-                clinicians.add(c);
-            }
-        } catch (IOException ex) {
-            System.err.println("Failed to load clinicians: " + ex.getMessage());
-        }
-    }
-
-    // Generates next sequential clinician identifier
-    public String generateNewId() {
-        int max = 0;
-        for (Clinician c : clinicians) {
-            try {
-                // Extract numeric portion from ID (e.g., "C001" → 1)
-                int n = Integer.parseInt(c.getId().substring(1));
-                if (n > max) max = n;
-            } catch (Exception ignored) {}
-        }
-        return String.format("C%03d", max + 1);
-    }
-
-    // Adds clinician to memory and appends to CSV file
-    public void addAndAppend(Clinician c) {
-        clinicians.add(c);
-        try {
-            CsvUtils.appendLine(csvPath, new String[]{
-                    c.getId(), c.getTitle(), c.getFirstName(), c.getLastName(),
-                    c.getSpeciality(), c.getGmcNumber(), c.getPhone(), c.getEmail(),
-                    c.getWorkplaceId(), c.getWorkplaceType(), c.getEmploymentStatus(),
-                    c.getStartDate()
-            });
-        } catch (IOException ex) {
-            System.err.println("Failed to append clinician: " + ex.getMessage());
-        }
-    }
-    
-    // Updates existing clinician in memory and persists to CSV
-    public void update(Clinician updatedClinician) {
-        for (int i = 0; i < clinicians.size(); i++) {
-            Clinician clinician = clinicians.get(i);
-            if (clinician.getId().equals(updatedClinician.getId())) {
-                // Replace clinician record in memory
-                clinicians.set(i, updatedClinician);
-                // Persist all changes to CSV file
-                saveAllToCsv();
-                return;
-            }
-        }
-        System.err.println("Clinician not found for update: " + updatedClinician.getId());
-    }
-
-    // Returns all clinician records in the repository
-    public List<Clinician> getAll() {
-        return clinicians;
-    }
-
-    // Removes clinician from memory and updates CSV file
-    public void remove(Clinician c) {
-        clinicians.remove(c);
-        saveAllToCsv();
-    }
-    
-    // Removes clinician by identifier lookup
-    public void removeById(String id) {
-        Clinician clinicianToRemove = null;
-        for (Clinician c : clinicians) {
-            if (c.getId().equals(id)) {
-                clinicianToRemove = c;
-                break;
-            }
-        }
-        
-        if (clinicianToRemove != null) {
-            remove(clinicianToRemove);
-        }
-    }
-
-    // Retrieves clinician by unique identifier
-    public Clinician findById(String id) {
-        for (Clinician c : clinicians)
-            if (c.getId().equals(id)) return c;
-        return null;
-    }
-    
-    // Writes all clinician records to CSV file (full persistence)
-    private void saveAllToCsv() {
-        try {
-            List<String[]> allData = new ArrayList<>();
-            
-            // Add CSV header row with column definitions
-            allData.add(new String[]{
-                "clinician_id", "title", "first_name", "last_name", 
-                "speciality", "gmc_number", "phone_number", "email", 
-                "workplace_id", "workplace_type", "employment_status", "start_date"
-            });
-            
-            // Convert all clinicians to CSV row format
-            for (Clinician c : clinicians) {
-                allData.add(new String[]{
-                    c.getId(),
-                    c.getTitle(),
-                    c.getFirstName(),
-                    c.getLastName(),
-                    c.getSpeciality(),
-                    c.getGmcNumber(),
-                    c.getPhone(),
-                    c.getEmail(),
-                    c.getWorkplaceId(),
-                    c.getWorkplaceType(),
-                    c.getEmploymentStatus(),
-                    c.getStartDate()
-                });
-            }
-            
-            // Write complete dataset to CSV file
-            CsvUtils.writeCsv(csvPath, allData);
-            
-        } catch (IOException ex) {
-            System.err.println("Failed to save clinicians to CSV: " + ex.getMessage());
-        }
-    }
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+public class ClinicianRepository {
+
+    // In-memory storage for clinician records
+    private final List<Clinician> clinicians = new ArrayList<>();
+    // Sorted identifier index, safe to read from background threads
+    private final ConcurrentSkipListMap<String, Clinician> byId = new ConcurrentSkipListMap<>();
+    // Posting lists per speciality and workplace, answering find()
+    private final RecordIndex<Clinician> queries = new RecordIndex<>(() -> clinicians);
+    // Per-workplace clinician records, each workplace read on first access
+    private RecordStore<Clinician> store;
+
+    // CSV header row with column definitions
+    public static final String[] CSV_HEADER = {
+        "clinician_id", "title", "first_name", "last_name",
+        "speciality", "gmc_number", "phone_number", "email",
+        "workplace_id", "workplace_type", "employment_status", "start_date"
+    };
+
+    // Queryable fields, e.g. Query.where(SPECIALITY.is("Cardiology")).and(WORKPLACE.is("H001"))
+    public static final Field<Clinician> SPECIALITY = Field.of("speciality", Clinician::getSpeciality).ignoringCase();
+    public static final Field<Clinician> WORKPLACE = Field.of("workplace", Clinician::getWorkplaceId);
+
+    // Table mapping shared by every storage engine, split by workplace_id
+    public static final TableSchema<Clinician> SCHEMA = new TableSchema<>("clinicians", CSV_HEADER,
+            ClinicianRepository::fromRow, ClinicianRepository::toRow, Clinician::getId, 8);
+
+    // Constructor - opens the clinicians table, reading no workplace until needed
+    public ClinicianRepository(StorageEngine engine) {
+        queries.hashed(SPECIALITY).hashed(WORKPLACE);
+        load(engine);
+    }
+    
+    // Returns all clinician identifiers for reference purposes
+    public List<String> getAllIds() {
+        List<String> ids = new ArrayList<>();
+        store.loadAll();
+        for (Clinician c : clinicians) ids.add(c.getId());
+        return ids;
+    }
+
+    // Live read-only view of clinician identifiers in sorted order
+    public NavigableSet<String> getIdIndex() {
+        store.loadAll();
+        return Collections.unmodifiableNavigableSet(byId.navigableKeySet());
+    }
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Opens clinician data from the storage engine
+    private void load(StorageEngine engine) {
+        store = engine.open(SCHEMA, this::loaded);
+    }
+
+    // Creates Clinician object from CSV column order
+    private static Clinician fromRow(String[] row) {
+        return new Clinician(
+                row[0],   // id - unique clinician identifier
+                row[1],   // title - professional designation
+                row[2],   // first - given name
+                row[3],   // last - family name
+                row[4],   // speciality - medical specialty
+                row[5],   // gmc - registration number
+                row[6],   // phone - contact number
+                row[7],   // email - professional email
+                row[8],   // workplace id - facility identifier
+                row[9],   // workplace type - facility category
+                row[10],  // employment - current status
+                row[11]   // start date - employment commencement
+        );
+    }
+
+    // Adds a clinician read from disk to memory and the index, unless already held
+    private Clinician loaded(Clinician c) {
+        Clinician existing = byId.putIfAbsent(c.getId(), c);
+        if (existing != null) return existing;
+        clinicians.add(c);
+        queries.add(c);
+        return c;
+    }
+
+    // Reads one workplace's clinicians ahead of use, e.g. the logged-in user's site
+    public void loadFacility(String facilityId) {
+        store.load(facilityId);
+    }
+
+    // Returns the clinicians working at one facility, reading only that segment
+    public List<Clinician> findByFacilityId(String facilityId) {
+        return new ArrayList<>(store.get(facilityId));
+    }
+
+    // Generates next sequential clinician identifier
+    public String generateNewId() {
+        // Next number in the ID sequence (e.g., "C001" → "C002"), from the counter shared with other desks
+        return String.format("C%03d", store.nextSequence(1));
+    }
+
+    // Adds clinician to memory and appends to CSV file
+    public void addAndAppend(Clinician c) {
+        try {
+            addAndAppendDeferred(c).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to append clinician: " + ex.getMessage());
+        }
+    }
+
+    // Adds the clinician to memory now and returns the append, to run off the event thread
+    public PendingWrite addAndAppendDeferred(Clinician c) {
+        store.reserve(c);
+        clinicians.add(c);
+        byId.put(c.getId(), c);
+        queries.add(c);
+        // Appends to the workplace's segment only
+        return PendingWrite.of(() -> store.append(c), () -> forget(c));
+    }
+    
+    // Updates existing clinician in memory and persists to CSV
+    public void update(Clinician updatedClinician) {
+        try {
+            updateDeferred(updatedClinician).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to save clinicians to CSV: " + ex.getMessage());
+        }
+    }
+
+    // Replaces the clinician in memory now and returns the rewrite, to run off the event thread
+    public PendingWrite updateDeferred(Clinician updatedClinician) {
+        for (int i = 0; i < clinicians.size(); i++) {
+            Clinician clinician = clinicians.get(i);
+            if (clinician.getId().equals(updatedClinician.getId())) {
+                // Segments are read here, so the rewrite never calls back into this repository
+                store.prepare(clinician);
+                store.prepare(updatedClinician);
+                clinicians.set(i, updatedClinician);
+                byId.put(updatedClinician.getId(), updatedClinician);
+                queries.remove(clinician);
+                queries.add(updatedClinician);
+                // Rewrite only the workplace segments holding the old and new versions
+                return PendingWrite.of(() -> store.replace(clinician, updatedClinician), () -> {
+                    forget(updatedClinician);
+                    restore(clinician);
+                });
+            }
+        }
+        System.err.println("Clinician not found for update: " + updatedClinician.getId());
+        return PendingWrite.NONE;
+    }
+
+    // Reads one facility's clinicians, or all for null, ahead on a background thread; they join memory on first use
+    public void prefetch(String facilityId) {
+        store.prefetch(facilityId);
+    }
+
+    // Returns all clinician records in the repository
+    public List<Clinician> getAll() {
+        store.loadAll();
+        return clinicians;
+    }
+
+    // Removes clinician from memory and updates CSV file
+    public void remove(Clinician c) {
+        try {
+            removeDeferred(c).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to save clinicians to CSV: " + ex.getMessage());
+        }
+    }
+
+    // Forgets the clinician now and returns the rewrite, to run off the event thread
+    public PendingWrite removeDeferred(Clinician c) {
+        store.prepare(c);
+        if (clinicians.remove(c)) queries.remove(c);
+        byId.remove(c.getId());
+        return PendingWrite.of(() -> store.remove(c), () -> restore(c));
+    }
+
+    // Puts back a clinician whose removal or replacement could not be written
+    private void restore(Clinician c) {
+        if (byId.containsKey(c.getId())) return;
+        clinicians.add(c);
+        byId.put(c.getId(), c);
+        queries.add(c);
+    }
+
+    // Drops a clinician whose addition or new version could not be written
+    private void forget(Clinician c) {
+        if (!clinicians.remove(c)) return;
+        byId.remove(c.getId(), c);
+        queries.remove(c);
+    }
+    
+    // Removes clinician by identifier lookup
+    public void removeById(String id) {
+        Clinician clinicianToRemove = findById(id);
+        
+        if (clinicianToRemove != null) {
+            remove(clinicianToRemove);
+        }
+    }
+
+    // Retrieves clinician by unique identifier
+    public Clinician findById(String id) {
+        if (id == null) return null;
+        Clinician c = byId.get(id);
+        // Not in memory yet, read just that row through the ID offset index
+        if (c == null && store.loadContaining(id)) c = byId.get(id);
+        return c;
+    }
+    
+    // Returns the clinicians passing every condition of the query; a query for one
+    // workplace reads only that workplace's segment
+    public List<Clinician> find(Query<Clinician> query) {
+        String workplaceId = query.valueOf(WORKPLACE);
+        if (workplaceId != null) store.load(workplaceId);
+        else store.loadAll();
+        return queries.find(query);
+    }
+
+    // How find() would answer the query
+    public String explain(Query<Clinician> query) {
+        return queries.explain(query);
+    }
+
+    // Streams matching clinicians to an export file in the requested format
+    public int export(String path, RecordExporter.Format format, Predicate<Clinician> filter) throws IOException {
+        store.loadAll();
+        return RecordExporter.exportToFile(path, format, CSV_HEADER, clinicians, ClinicianRepository::toRow, filter);
+    }
+
+    // Converts clinician to CSV column order
+    public static String[] toRow(Clinician c) {
+        return new String[]{
+                c.getId(),
+                c.getTitle(),
+                c.getFirstName(),
+                c.getLastName(),
+                c.getSpeciality(),
+                c.getGmcNumber(),
+                c.getPhone(),
+                c.getEmail(),
+                c.getWorkplaceId(),
+                c.getWorkplaceType(),
+                c.getEmploymentStatus(),
+                c.getStartDate()
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package model;
+
+// One test in a query: a field equal to a value, or a field within a range
+public final class Condition<T> {
+
+    private final Field<T> field;
+    // Set for an equality test, normalized the way the field indexes its values
+    private final String value;
+    // Range bounds, both included, null when open
+    private final String from;
+    private final String to;
+
+    private Condition(Field<T> field, String value, String from, String to) {
+        this.field = field;
+        this.value = value;
+        this.from = from;
+        this.to = to;
+    }
+
+    static <T> Condition<T> equalTo(Field<T> field, String value) {
+        return new Condition<>(field, field.normalize(value), null, null);
+    }
+
+    static <T> Condition<T> between(Field<T> field, String from, String to) {
+        return new Condition<>(field, null, from == null ? null : field.normalize(from),
+                to == null ? null : field.normalize(to));
+    }
+
+    public Field<T> getField() {
+        return field;
+    }
+
+    public boolean isEquality() {
+        return value != null;
+    }
+
+    // The value an equality test looks for, null for a range
+    public String getValue() {
+        return value;
+    }
+
+    String getFrom() {
+        return from;
+    }
+
+    String getTo() {
+        return to;
+    }
+
+    // True if the record passes this test
+    public boolean test(T record) {
+        String key = field.keyOf(record);
+        if (value != null) return key.equals(value);
+        return (from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) <= 0);
+    }
+
+    @Override
+    public String toString() {
+        if (value != null) return field + " = " + value;
+        return field + " between " + (from == null ? "*" : from) + " and " + (to == null ? "*" : to);
+    }
+}
\ No newline at end of file
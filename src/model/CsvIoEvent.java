@@ -0,0 +1,55 @@
+package model;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event for one CSV file read or write. Costs nothing measurable unless a
+// recording is running, e.g. java -XX:StartFlightRecording=filename=hms.jfr,maxage=1d ...
+@Name("hms.CsvIo")
+@Label("CSV File I/O")
+@Category({"HMS", "Storage"})
+@Description("A CSV data file read, appended to, rewritten or journalled")
+@StackTrace(false)
+public class CsvIoEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long bytes;
+
+    // Starts timing an operation on a file
+    CsvIoEvent(String operation, String path) {
+        this.operation = operation;
+        this.path = path;
+        begin();
+    }
+
+    // Stops timing and records the event if a recording wants it; bytes are only counted then
+    void finish(int rows, LongSupplier bytes) {
+        finish(() -> rows, bytes);
+    }
+
+    // As above for writers that would have to count their rows
+    void finish(IntSupplier rows, LongSupplier bytes) {
+        end();
+        if (shouldCommit()) {
+            this.rows = rows.getAsInt();
+            this.bytes = bytes.getAsLong();
+            commit();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+public class CsvStorageEngine implements StorageEngine {
+
+    // Directory holding <table>.csv files or per-facility <table>/ directories
+    private final String dataDir;
+    // Stores opened so far, flushed on save and at shutdown
+    private final List<FacilityPartitions<?>> stores = new ArrayList<>();
+    // Journal and committer thread every store of this directory writes through
+    private final GroupCommit commits;
+    // Started by the first store asked to follow outside edits, also follows the
+    // change log other instances sharing the directory write
+    private final DataWatcher watcher;
+
+    public CsvStorageEngine(String dataDir) {
+        this.dataDir = dataDir;
+        this.commits = GroupCommit.forDirectory(new File(dataDir));
+        this.watcher = new DataWatcher(commits.changeLog(), commits.instanceId());
+    }
+
+    // Facility-split tables are per-facility segments when new or once partition() has split
+    // them, the rest stay single files
+    @Override
+    public <T> RecordStore<T> open(TableSchema<T> schema, UnaryOperator<T> onLoad) {
+        String csvPath = new File(dataDir, schema.getName() + ".csv").getPath();
+        FacilityPartitions<T> store = schema.isPartitioned()
+                ? new FacilityPartitions<>(csvPath, schema, onLoad, commits, watcher)
+                : FacilityPartitions.unpartitioned(csvPath, schema, onLoad, commits, watcher);
+        synchronized (stores) {
+            stores.add(store);
+        }
+        return TracedRecordStore.wrap(store, schema);
+    }
+
+    // Splits a table's <table>.csv into per-facility segment files under <table>/, which
+    // stores opened from then on use. The CSV file is kept as <table>.csv.bak. Returns the
+    // number of segments written, 0 if the table is not split by facility or already was.
+    public static int partition(String dataDir, TableSchema<?> schema) throws IOException {
+        return FacilityPartitions.split(new File(dataDir, schema.getName() + ".csv").getPath(), schema);
+    }
+
+    // Every record of a table as stored in CSV, empty when there is no file yet
+    static <T> List<T> readAll(String dataDir, TableSchema<T> schema) {
+        List<T> records = new ArrayList<>();
+        File csv = new File(dataDir, schema.getName() + ".csv");
+        File segments = new File(dataDir, schema.getName());
+        if (!csv.isFile() && !segments.isDirectory()) return records;
+        new CsvStorageEngine(dataDir).open(schema, r -> {
+            records.add(r);
+            return r;
+        }).loadAll();
+        return records;
+    }
+
+    @Override
+    public String getName() {
+        return "csv";
+    }
+
+    // Writes the rewrites still waiting in the write-behind window, then syncs
+    // every file written since the last checkpoint and empties the journal
+    @Override
+    public void flush() throws IOException {
+        IOException failure = null;
+        synchronized (stores) {
+            for (FacilityPartitions<?> store : stores) {
+                try {
+                    store.flush();
+                } catch (IOException ex) {
+                    failure = ex;
+                }
+            }
+        }
+        try {
+            commits.sync();
+        } catch (IOException ex) {
+            failure = ex;
+        }
+        if (failure != null) throw failure;
+    }
+
+    // Rewrites still waiting in the write-behind window go out when it ends, as they would anyway
+    @Override
+    public void awaitWritten() {
+        List<FacilityPartitions<?>> opened;
+        synchronized (stores) {
+            opened = new ArrayList<>(stores);
+        }
+        for (FacilityPartitions<?> store : opened) store.awaitWritten();
+    }
+
+    // Rewrites every segment of the opened tables with one row per identifier and no blank
+    // lines, then syncs and empties the journal
+    @Override
+    public void compact() throws IOException {
+        flush();
+        List<FacilityPartitions<?>> opened;
+        synchronized (stores) {
+            opened = new ArrayList<>(stores);
+        }
+        for (FacilityPartitions<?> store : opened) store.compact();
+        commits.sync();
+    }
+
+    // Data files are only open while the committer writes a batch, so closing flushes and then
+    // removes the commit journal and lock file, leaving nothing but the data behind
+    @Override
+    public void close() {
+        try {
+            flush();
+            commits.close();
+        } catch (IOException ex) {
+            System.err.println("Failed to save CSV data: " + ex.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -1,89 +1,174 @@
-package model;
-
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-
-public class CsvUtils {
-
-    // Reads CSV file and returns data as list of string arrays
-    public static List<String[]> readCsv(String path) throws IOException {
-        List<String[]> rows = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-
-            String line;
-            boolean headerSkipped = false;
-
-            while ((line = br.readLine()) != null) {
-
-               // Skip header row on first read
-                if (!headerSkipped) { 
-                    headerSkipped = true; 
-                    continue; 
-                }
-
-             // Advanced split: commas not inside quotation marks
-                String[] values = line.split(",(?=([^\"]*\"[^\"]*\")*[^\"]*$)");
-
-             // Clean up values by removing surrounding quotes and whitespace
-                for (int i = 0; i < values.length; i++) {
-                    values[i] = values[i].replaceAll("^\"|\"$", "").trim();
-                }
-
-                rows.add(values);
-            }
-        }
-        return rows;
-    }
-
-// Appends a single line to existing CSV file
-    public static void appendLine(String path, String[] values) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path, true))) {
-            // Write values as comma-separated line
-            bw.write(String.join(",", values));
-            bw.newLine();
-        }
-    }
-    //Made By Misbah Al Rehman. SRN: 24173647
- // Writes complete dataset to CSV file (overwrites existing content)
-    public static void writeCsv(String path, List<String[]> data) throws IOException {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
-            for (String[] row : data) {
-                // Format each field with proper quote handling
-                String[] formattedRow = new String[row.length];
-                for (int i = 0; i < row.length; i++) {
-                    String field = row[i];
-                    // Add quotes if field contains special characters
-                    if (field.contains(",") || field.contains("\"")) {
-                        field = "\"" + field.replace("\"", "\"\"") + "\"";
-                    }
-                    formattedRow[i] = field;
-                }
-                bw.write(String.join(",", formattedRow));
-                bw.newLine();
-            }
-        }
-    }
-    
-    // Reads CSV file including header row (preserves complete structure)
-    public static List<String[]> readCsvWithHeader(String path) throws IOException {
-        List<String[]> rows = new ArrayList<>();
-
-        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Advanced split for CSV with quoted values
-                String[] values = line.split(",(?=([^\"]*\"[^\"]*\")*[^\"]*$)");
-
-                // Clean up values by removing surrounding quotes and whitespace
-                for (int i = 0; i < values.length; i++) {
-                    values[i] = values[i].replaceAll("^\"|\"$", "").trim();
-                }
-
-                rows.add(values);
-            }
-        }
-        return rows;
-    }
+package model;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class CsvUtils {
+
+    // Reads CSV file and returns data as list of string arrays
+    public static List<String[]> readCsv(String path) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        CsvIoEvent event = new CsvIoEvent("read", path);
+
+        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+
+            String line;
+            boolean headerSkipped = false;
+
+            while ((line = br.readLine()) != null) {
+
+               // Skip header row on first read
+                if (!headerSkipped) { 
+                    headerSkipped = true; 
+                    continue; 
+                }
+
+                rows.add(parseLine(line));
+            }
+        }
+        event.finish(rows.size(), () -> new File(path).length());
+        return rows;
+    }
+
+    // Reads the rows that start at or after a byte offset, e.g. lines appended since a known length
+    public static List<String[]> readCsvFrom(String path, long offset) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        CsvIoEvent event = new CsvIoEvent("read tail", path);
+        try (FileInputStream in = new FileInputStream(path)) {
+            in.getChannel().position(offset);
+            BufferedReader br = new BufferedReader(new InputStreamReader(in));
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isEmpty()) rows.add(parseLine(line));
+            }
+        }
+        event.finish(rows.size(), () -> new File(path).length() - offset);
+        return rows;
+    }
+
+    // Rows of CSV file contents already in memory, skipping the header and blank lines
+    public static List<String[]> parseCsv(byte[] contents) {
+        List<String[]> rows = new ArrayList<>();
+        String[] lines = new String(contents).split("\r?\n");
+        for (int i = 1; i < lines.length; i++) {
+            if (!lines[i].isEmpty()) rows.add(parseLine(lines[i]));
+        }
+        return rows;
+    }
+
+    // Splits one CSV line into trimmed values
+    public static String[] parseLine(String line) {
+        // Advanced split: commas not inside quotation marks
+        String[] values = line.split(",(?=([^\"]*\"[^\"]*\")*[^\"]*$)");
+
+        // Clean up values by removing surrounding quotes and whitespace
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values[i].replaceAll("^\"|\"$", "").trim();
+        }
+        return values;
+    }
+
+// Appends a single line to existing CSV file
+    public static void appendLine(String path, String[] values) throws IOException {
+        CsvIoEvent event = new CsvIoEvent("append", path);
+        String line = String.join(",", values);
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path, true))) {
+            // Write values as comma-separated line
+            bw.write(line);
+            bw.newLine();
+        }
+        event.finish(1, () -> line.length() + System.lineSeparator().length());
+    }
+
+    // Appends several lines through one writer
+    public static void appendLines(String path, List<String[]> rows) throws IOException {
+        CsvIoEvent event = new CsvIoEvent("append", path);
+        long[] chars = {0};
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path, true))) {
+            for (String[] values : rows) {
+                String line = String.join(",", values);
+                bw.write(line);
+                bw.newLine();
+                chars[0] += line.length() + System.lineSeparator().length();
+            }
+        }
+        event.finish(rows.size(), () -> chars[0]);
+    }
+    // Lines in the form appendLines writes them, for writers that hand bytes on
+    public static byte[] formatLines(List<String[]> rows) {
+        StringBuilder sb = new StringBuilder();
+        for (String[] values : rows) {
+            sb.append(String.join(",", values)).append(System.lineSeparator());
+        }
+        return sb.toString().getBytes();
+    }
+
+    // Header and records in the form the streaming writeCsv produces them
+    public static <T> byte[] formatCsv(String[] header, Iterable<T> records,
+                                       Function<T, String[]> toRow) throws IOException {
+        return formatCsv(header, records, toRow, System.lineSeparator());
+    }
+
+    // Same, ending each line with the given line ending
+    public static <T> byte[] formatCsv(String[] header, Iterable<T> records,
+                                       Function<T, String[]> toRow, String lineEnd) throws IOException {
+        StringWriter out = new StringWriter();
+        new RecordExporter(out, RecordExporter.Format.CSV, header, lineEnd).export(records, toRow, null);
+        return out.toString().getBytes();
+    }
+
+    // Line ending the contents already use, judged by the first line; the platform's when there is none
+    public static String lineEnding(byte[] contents) {
+        for (int i = 0; i < contents.length; i++) {
+            if (contents[i] == '\n') return i > 0 && contents[i - 1] == '\r' ? "\r\n" : "\n";
+        }
+        return System.lineSeparator();
+    }
+    //Made By Misbah Al Rehman. SRN: 24173647
+ // Writes complete dataset to CSV file (overwrites existing content)
+    public static void writeCsv(String path, List<String[]> data) throws IOException {
+        CsvIoEvent event = new CsvIoEvent("rewrite", path);
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
+            for (String[] row : data) {
+                // Format each field with proper quote handling
+                String[] formattedRow = new String[row.length];
+                for (int i = 0; i < row.length; i++) {
+                    String field = row[i];
+                    // Add quotes if field contains special characters
+                    if (field.contains(",") || field.contains("\"")) {
+                        field = "\"" + field.replace("\"", "\"\"") + "\"";
+                    }
+                    formattedRow[i] = field;
+                }
+                bw.write(String.join(",", formattedRow));
+                bw.newLine();
+            }
+        }
+        event.finish(data.size(), () -> new File(path).length());
+    }
+    
+    // Streams header and records straight to CSV without building a row list first
+    public static <T> void writeCsv(String path, String[] header, Iterable<T> records,
+                                    Function<T, String[]> toRow) throws IOException {
+        CsvIoEvent event = new CsvIoEvent("rewrite", path);
+        int rows = RecordExporter.exportToFile(path, RecordExporter.Format.CSV, header, records, toRow, null);
+        event.finish(rows, () -> new File(path).length());
+    }
+
+    // Reads CSV file including header row (preserves complete structure)
+    public static List<String[]> readCsvWithHeader(String path) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        CsvIoEvent event = new CsvIoEvent("read", path);
+
+        try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                rows.add(parseLine(line));
+            }
+        }
+        event.finish(rows.size(), () -> new File(path).length());
+        return rows;
+    }
 }
\ No newline at end of file
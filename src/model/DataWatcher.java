@@ -0,0 +1,174 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+class DataWatcher {
+
+    // Quiet period after a file's last event before it is re-read, so a copy still
+    // in progress is read once when it is complete (-Dhms.watch.settleMs)
+    private static final long SETTLE_MS = Long.getLong("hms.watch.settleMs", 300);
+
+    // Directories being watched and the handlers told the names of files changed in them
+    private final Map<WatchKey, Path> dirs = new HashMap<>();
+    private final Map<Path, List<Consumer<String>>> handlers = new HashMap<>();
+    // Changed files, and directories whose events overflowed, with the time of their last event
+    private final Map<Path, Long> settling = new LinkedHashMap<>();
+    private final Map<Path, Long> overflowed = new LinkedHashMap<>();
+    private WatchService service;
+
+    // Log other instances sharing the data directory record their writes in, and this instance's
+    // name in it. Tailed as well as watching the directories, because file events do not
+    // reach across every network share.
+    private final File changeLog;
+    private final String ownInstance;
+    // Generation of the log read so far and how far into it, -1 before the first look
+    private long logGeneration = -1;
+    private long logOffset;
+
+    DataWatcher(File changeLog, String ownInstance) {
+        this.changeLog = changeLog;
+        this.ownInstance = ownInstance;
+        // Only changes from now on matter, the stores read everything older themselves
+        readChangeLog(System.currentTimeMillis(), false);
+    }
+
+    // Calls the handler with the name of each file created, changed or deleted in the directory,
+    // or with null when events were lost and every file should be checked
+    synchronized void register(File dir, Consumer<String> onChange) {
+        Path path = dir.getAbsoluteFile().toPath().normalize();
+        try {
+            if (service == null) {
+                service = FileSystems.getDefault().newWatchService();
+                Thread watcher = new Thread(this::run, "data-watcher");
+                watcher.setDaemon(true);
+                watcher.start();
+            }
+            if (!handlers.containsKey(path)) {
+                WatchKey key = path.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                dirs.put(key, path);
+            }
+            handlers.computeIfAbsent(path, k -> new CopyOnWriteArrayList<>()).add(onChange);
+        } catch (IOException ex) {
+            System.err.println("Failed to watch " + dir.getPath() + ": " + ex.getMessage());
+        }
+    }
+
+    // Watcher thread: collects events, then hands on each file once it has been quiet for the settle time
+    private void run() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.poll(SETTLE_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (key != null) {
+                Path dir;
+                synchronized (this) {
+                    dir = dirs.get(key);
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (dir == null) continue;
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflowed.put(dir, now);
+                    } else {
+                        settling.put(dir.resolve((Path) event.context()), now);
+                    }
+                }
+                key.reset();
+            }
+            readChangeLog(now, true);
+            dispatchSettled(now);
+        }
+    }
+
+    // Queues the files other instances wrote since the last look, ready at once since their
+    // writes are complete. When the log started over every directory is checked instead.
+    private void readChangeLog(long now, boolean dispatch) {
+        if (!changeLog.isFile()) return;
+        try (RandomAccessFile log = new RandomAccessFile(changeLog, "r")) {
+            long generation = GroupCommit.changeLogGeneration(log);
+            if (generation < 0) return;
+            long length = log.length();
+            if (generation != logGeneration) {
+                boolean restarted = logGeneration >= 0;
+                logGeneration = generation;
+                logOffset = dispatch ? GroupCommit.CHANGE_LOG_HEADER : length;
+                if (restarted) {
+                    synchronized (this) {
+                        for (Path dir : handlers.keySet()) overflowed.put(dir, now - SETTLE_MS);
+                    }
+                    logOffset = length;
+                }
+            }
+            if (length <= logOffset) return;
+            byte[] bytes = new byte[(int) (length - logOffset)];
+            log.seek(logOffset);
+            log.readFully(bytes);
+            // Only whole lines, a line still being written is read next time
+            int end = bytes.length;
+            while (end > 0 && bytes[end - 1] != '\n') end--;
+            logOffset += end;
+            Path base = changeLog.getAbsoluteFile().toPath().getParent();
+            for (String line : new String(bytes, 0, end, StandardCharsets.UTF_8).split("\n")) {
+                int tab = line.indexOf('\t');
+                if (tab < 0 || line.substring(0, tab).equals(ownInstance)) continue;
+                settling.put(base.resolve(line.substring(tab + 1)).normalize(), now - SETTLE_MS);
+            }
+        } catch (IOException ex) {
+            System.err.println("Failed to read " + changeLog.getPath() + ": " + ex.getMessage());
+        }
+    }
+
+    private void dispatchSettled(long now) {
+        for (Path dir : settled(overflowed, now)) dispatch(dir, null);
+        for (Path file : settled(settling, now)) dispatch(file.getParent(), file.getFileName().toString());
+    }
+
+    // Removes and returns the entries whose last event is older than the settle time
+    private static List<Path> settled(Map<Path, Long> events, long now) {
+        List<Path> ready = new ArrayList<>();
+        for (Iterator<Map.Entry<Path, Long>> it = events.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Long> e = it.next();
+            if (now - e.getValue() < SETTLE_MS) continue;
+            ready.add(e.getKey());
+            it.remove();
+        }
+        return ready;
+    }
+
+    private void dispatch(Path dir, String name) {
+        List<Consumer<String>> own;
+        synchronized (this) {
+            own = handlers.get(dir);
+        }
+        if (own == null) return;
+        for (Consumer<String> handler : own) {
+            try {
+                handler.accept(name);
+            } catch (RuntimeException ex) {
+                System.err.println("Failed to reload " + (name != null ? dir.resolve(name) : dir) + ": " + ex.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
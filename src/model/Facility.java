@@ -1,79 +1,79 @@
-package model;
-
-public class Facility {
-
-    // Core facility identification and information
-    private String id;              // Unique facility identifier
-    private String name;            // Facility display name
-    private String type;            // Facility category (GP Surgery/Hospital)
-    private String address;         // Physical street address
-    private String postcode;        // Postal/ZIP code
-    private String phone;           // Contact telephone number
-    private String email;           // Contact email address
-    private String openingHours;    // Operating hours schedule
-    private String managerName;     // Facility manager/administrator
-    private int capacity;           // Maximum patient capacity
-    private String specialities;    // Medical specialties available
-
-    // Default constructor for object instantiation
-    public Facility() { }
-
-    // Primary constructor with all facility attributes
-    public Facility(String id, String name, String type,
-                    String address, String postcode, String phone,
-                    String email, String openingHours, String managerName,
-                    int capacity, String specialities) {
-
-        this.id = id;
-        this.name = name;
-        this.type = type;
-        this.address = address;
-        this.postcode = postcode;
-        this.phone = phone;
-        this.email = email;
-        this.openingHours = openingHours;
-        this.managerName = managerName;
-        this.capacity = capacity;
-        this.specialities = specialities;
-    }
-
-    // Accessor and mutator methods for facility data
-    public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
-
-    public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
-
-    public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
-
-    public String getAddress() { return address; }
-    public void setAddress(String address) { this.address = address; }
-//Made By Misbah Al Rehman. SRN: 24173647
-    public String getPostcode() { return postcode; }
-    public void setPostcode(String postcode) { this.postcode = postcode; }
-
-    public String getPhone() { return phone; }
-    public void setPhone(String phone) { this.phone = phone; }
-
-    public String getEmail() { return email; }
-    public void setEmail(String email) { this.email = email; }
-
-    public String getOpeningHours() { return openingHours; }
-    public void setOpeningHours(String openingHours) { this.openingHours = openingHours; }
-
-    public String getManagerName() { return managerName; }
-    public void setManagerName(String managerName) { this.managerName = managerName; }
-
-    public int getCapacity() { return capacity; }
-    public void setCapacity(int capacity) { this.capacity = capacity; }
-
-    public String getSpecialities() { return specialities; }
-    public void setSpecialities(String specialities) { this.specialities = specialities; }
-
-    // String representation for display purposes
-    @Override
-    public String toString() {
-        return id + " - " + name;
-    }
+package model;
+
+public class Facility {
+
+    // Core facility identification and information
+    private String id;              // Unique facility identifier
+    private String name;            // Facility display name
+    private String type;            // Facility category (GP Surgery/Hospital)
+    private String address;         // Physical street address
+    private String postcode;        // Postal/ZIP code
+    private String phone;           // Contact telephone number
+    private String email;           // Contact email address
+    private String openingHours;    // Operating hours schedule
+    private String managerName;     // Facility manager/administrator
+    private int capacity;           // Maximum patient capacity
+    private String specialities;    // Medical specialties available
+
+    // Default constructor for object instantiation
+    public Facility() { }
+
+    // Primary constructor with all facility attributes
+    public Facility(String id, String name, String type,
+                    String address, String postcode, String phone,
+                    String email, String openingHours, String managerName,
+                    int capacity, String specialities) {
+
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.address = address;
+        this.postcode = postcode;
+        this.phone = phone;
+        this.email = email;
+        this.openingHours = openingHours;
+        this.managerName = managerName;
+        this.capacity = capacity;
+        this.specialities = specialities;
+    }
+
+    // Accessor and mutator methods for facility data
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+//Made By Misbah Al Rehman. SRN: 24173647
+    public String getPostcode() { return postcode; }
+    public void setPostcode(String postcode) { this.postcode = postcode; }
+
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getOpeningHours() { return openingHours; }
+    public void setOpeningHours(String openingHours) { this.openingHours = openingHours; }
+
+    public String getManagerName() { return managerName; }
+    public void setManagerName(String managerName) { this.managerName = managerName; }
+
+    public int getCapacity() { return capacity; }
+    public void setCapacity(int capacity) { this.capacity = capacity; }
+
+    public String getSpecialities() { return specialities; }
+    public void setSpecialities(String specialities) { this.specialities = specialities; }
+
+    // String representation for display purposes
+    @Override
+    public String toString() {
+        return id + " - " + name;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+// Booked appointments and minutes per facility per day, kept up to date as appointments are
+// added, changed and removed, so how full a facility is costs a map lookup, never a scan.
+// The counts are striped counters, so bookings on the event thread, the read-ahead thread
+// and a dashboard reading them never block one another. Cancelled appointments are not counted.
+// Only facilities whose appointments are in memory are counted; read the facility first.
+public class FacilityOccupancy {
+
+    // One facility's bookings on one day
+    public static final class Day {
+        private final LongAdder appointments = new LongAdder();
+        private final LongAdder minutes = new LongAdder();
+
+        public int getAppointments() {
+            return appointments.intValue();
+        }
+
+        public long getMinutes() {
+            return minutes.sum();
+        }
+    }
+
+    private static final Day EMPTY = new Day();
+
+    // Facility -> date (yyyy-MM-dd) -> bookings
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<String, Day>> byFacility = new ConcurrentHashMap<>();
+    // Told after each change, e.g. to refresh a dashboard
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    // Counts an appointment now held in memory
+    public void book(Appointment a) {
+        add(a, 1);
+    }
+
+    // Stops counting an appointment removed or replaced in memory
+    public void release(Appointment a) {
+        add(a, -1);
+    }
+
+    private void add(Appointment a, int sign) {
+        if (!counts(a)) return;
+        Day day = byFacility.computeIfAbsent(a.getFacilityId(), k -> new ConcurrentSkipListMap<>())
+                .computeIfAbsent(a.getAppointmentDate(), k -> new Day());
+        day.appointments.add(sign);
+        day.minutes.add(sign * (long) minutes(a));
+        for (Runnable listener : changeListeners) listener.run();
+    }
+
+    // True if the appointment takes up a slot: it has a facility and date and is not cancelled
+    public static boolean counts(Appointment a) {
+        return !isBlank(a.getFacilityId()) && !isBlank(a.getAppointmentDate())
+                && !"cancelled".equals(a.getStatus() == null ? "" : a.getStatus().trim().toLowerCase(Locale.ROOT));
+    }
+
+    // Booked length of an appointment, 0 when not a number
+    public static int minutes(Appointment a) {
+        try {
+            return Math.max(0, Integer.parseInt(a.getDurationMinutes().trim()));
+        } catch (NumberFormatException | NullPointerException ex) {
+            return 0;
+        }
+    }
+
+    // Bookings at a facility on a day, zero when there are none
+    public Day get(String facilityId, String date) {
+        if (facilityId == null || date == null) return EMPTY;
+        ConcurrentSkipListMap<String, Day> days = byFacility.get(facilityId);
+        Day day = days == null ? null : days.get(date);
+        return day == null ? EMPTY : day;
+    }
+
+    // Appointments booked at a facility on a day
+    public int getAppointments(String facilityId, String date) {
+        return get(facilityId, date).getAppointments();
+    }
+
+    // Minutes booked at a facility on a day
+    public long getMinutes(String facilityId, String date) {
+        return get(facilityId, date).getMinutes();
+    }
+
+    // Bookings per day at a facility between two dates, both included
+    public NavigableMap<String, Day> getDays(String facilityId, String from, String to) {
+        ConcurrentSkipListMap<String, Day> days = facilityId == null ? null : byFacility.get(facilityId);
+        if (days == null) return Collections.emptyNavigableMap();
+        return Collections.unmodifiableNavigableMap(days.subMap(from, true, to, true));
+    }
+
+    // Facilities with bookings counted so far
+    public Set<String> getFacilityIds() {
+        return Collections.unmodifiableSet(byFacility.keySet());
+    }
+
+    // True if the facility has more appointments on the day than its capacity allows
+    public boolean isOverCapacity(Facility facility, String date) {
+        return facility.getCapacity() > 0 && getAppointments(facility.getId(), date) > facility.getCapacity();
+    }
+
+    // Registers a listener run after every change, on the thread that made it
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.trim().isEmpty();
+    }
+}
\ No newline at end of file
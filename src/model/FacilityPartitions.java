@@ -0,0 +1,1119 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+class FacilityPartitions<T> implements RecordStore<T> {
+
+    // Segment holding records that have no facility
+    private static final String UNASSIGNED = "_unassigned";
+    // Only segment of a store that is not split by facility
+    private static final String WHOLE = "_all";
+    private static final String SEGMENT_SUFFIX = ".csv";
+    // Bytes before a file's known end compared to tell an append from a rewrite
+    private static final int TAIL_BYTES = 4096;
+    // File identities that cannot be compared: not known, or no file keys on this platform
+    private static final long UNKNOWN_FILE = -1;
+    private static final long NO_FILE_KEY = -2;
+
+    // Directory with one CSV segment per facility, e.g. data/appointments/S001.csv
+    private final File dir;
+    // The CSV file itself when the store is not partitioned, otherwise null
+    private final File single;
+    private final String name;
+    private final TableSchema<T> schema;
+    // Called for every record read, returns the instance already in memory for its ID if any
+    private final UnaryOperator<T> onLoad;
+
+    // Segments present on disk, loaded or not
+    private final Set<String> segments = new TreeSet<>();
+    // Records of each loaded segment in file order
+    private final Map<String, List<T>> loaded = new HashMap<>();
+    // Identifiers of records accepted for appending, counted by maxSequence before they are written
+    private final Set<String> reserved = new HashSet<>();
+    // Last sequence handed out by any instance sharing the directory, next to the table's data
+    private final File sequenceFile;
+    // Sequence this instance was handed and no record has reserved yet, 0 for none
+    private int allocated;
+    private int allocatedPrefix;
+    // Column/key pairs already read through an offset index
+    private final Set<String> matchedKeys = new HashSet<>();
+    private final Map<String, OffsetIndex> offsetIndexes = new HashMap<>();
+    // Loaded segments changed in memory but not yet rewritten, and those being written now
+    private final Set<String> dirty = new HashSet<>();
+    private final Set<String> flushing = new HashSet<>();
+    // Pending segments whose file changed elsewhere meanwhile, read again after their rewrite
+    private final Set<String> recheck = new HashSet<>();
+    // Coalesces rewrites into one background flush per quiet period
+    private final WriteBehind writeBehind;
+    // One flush at a time, so a save also waits for a background flush in progress. Inside a
+    // together() group it is held until the group's batch is written, hence not a monitor.
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Shared with every other writer in the data directory, so their writes reach disk in common batches
+    private final GroupCommit commits;
+    // Reports files other programs change, shared by every store of the engine
+    private final DataWatcher watcher;
+    // Where outside edits are applied and who hears of them, set by watch()
+    private Executor deliverOn;
+    private Consumer<RecordDelta<T>> listener;
+    // Length, timestamp, tail checksum and identity of each segment file as last read or written here
+    private final Map<String, long[]> seen = new HashMap<>();
+    // Records read through offset indexes from segments not loaded in full, by segment and ID
+    private final Map<String, Map<String, T>> partial = new HashMap<>();
+    // Rows as they were read of the records changed here since their segment was last written,
+    // by segment and ID, null for records new here. Rewrites merge only these into the file.
+    private final Map<String, Map<String, String[]>> edited = new HashMap<>();
+    // Writes from here by segment, counted as they are queued and as they land. A re-read taken
+    // before a write is not applied after it, and none is taken while one is on its way.
+    private final Map<String, Long> generations = new HashMap<>();
+    private final Map<String, Long> landed = new HashMap<>();
+    // Rows of unloaded segments read ahead by prefetch(), with the file stamp they were read at
+    private final Map<String, Prefetched> prefetched = new HashMap<>();
+
+    // Per-facility segments for a new table or once split() has made the <table>/ directory,
+    // until then the existing CSV file as it is; opening a store never moves or rewrites data
+    FacilityPartitions(String csvPath, TableSchema<T> schema, UnaryOperator<T> onLoad,
+                       GroupCommit commits, DataWatcher watcher) {
+        this(csvPath, schema, onLoad, commits, watcher, schema.isPartitioned()
+                && (segmentDir(csvPath).isDirectory() || !new File(csvPath).isFile()));
+    }
+
+    private FacilityPartitions(String csvPath, TableSchema<T> schema, UnaryOperator<T> onLoad,
+                               GroupCommit commits, DataWatcher watcher, boolean partitioned) {
+        this.single = partitioned ? null : new File(csvPath);
+        this.dir = single != null ? single.getAbsoluteFile().getParentFile() : segmentDir(csvPath);
+        this.name = segmentDir(csvPath).getName();
+        this.schema = schema;
+        this.onLoad = onLoad;
+        this.commits = commits;
+        this.watcher = watcher;
+        this.writeBehind = new WriteBehind(name, this::flushDirty);
+        this.sequenceFile = new File(single != null ? dir : dir.getAbsoluteFile().getParentFile(), name + ".seq");
+
+        if (single != null) {
+            if (single.isFile()) segments.add(WHOLE);
+            return;
+        }
+        String[] files = dir.list((d, f) -> f.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (String f : files) segments.add(f.substring(0, f.length() - SEGMENT_SUFFIX.length()));
+        }
+    }
+
+    // Single-segment store over one CSV file, for data that is not split by facility
+    static <T> FacilityPartitions<T> unpartitioned(String csvPath, TableSchema<T> schema,
+                                                   UnaryOperator<T> onLoad, GroupCommit commits,
+                                                   DataWatcher watcher) {
+        return new FacilityPartitions<>(csvPath, schema, onLoad, commits, watcher, false);
+    }
+
+    // Directory of a table's segments, <table>/ next to <table>.csv
+    private static File segmentDir(String csvPath) {
+        return new File(csvPath.endsWith(SEGMENT_SUFFIX)
+                ? csvPath.substring(0, csvPath.length() - SEGMENT_SUFFIX.length()) : csvPath);
+    }
+
+    // One-off migration of a table's CSV file into per-facility segments, run on request, e.g.
+    // Main.Cli partition. The segments are written to a scratch directory renamed into place
+    // once complete, then the CSV file is renamed to <table>.csv.bak so no stale copy of the
+    // table is left beside them. Returns the number of segments written, 0 when the table is
+    // already split or has no file.
+    static <T> int split(String csvPath, TableSchema<T> schema) throws IOException {
+        File csvFile = new File(csvPath);
+        File target = segmentDir(csvPath);
+        if (!schema.isPartitioned() || target.isDirectory() || !csvFile.isFile()) return 0;
+        Map<String, List<String[]>> rowsBySegment = new LinkedHashMap<>();
+        for (String[] row : CsvUtils.readCsv(csvFile.getPath())) {
+            T record = schema.fromRow(row);
+            rowsBySegment.computeIfAbsent(facilitySegment(schema.facilityOf(record)), k -> new ArrayList<>())
+                    .add(schema.toRow(record));
+        }
+        File scratch = new File(target.getPath() + ".partitioning");
+        deleteTree(scratch);
+        if (!scratch.mkdirs()) throw new IOException("Cannot create " + scratch.getPath());
+        for (Map.Entry<String, List<String[]>> e : rowsBySegment.entrySet()) {
+            File segment = new File(scratch, e.getKey() + SEGMENT_SUFFIX);
+            CsvUtils.writeCsv(segment.getPath(), schema.header(), e.getValue(), row -> row);
+        }
+        Files.move(scratch.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        Files.move(csvFile.toPath(), new File(csvPath + ".bak").toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return rowsBySegment.size();
+    }
+
+    // Deletes a file or a directory with everything in it, e.g. what an interrupted split left
+    static void deleteTree(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteTree(child);
+        }
+        if (file.exists() && !file.delete()) throw new IOException("Cannot delete " + file.getPath());
+    }
+
+    // Segment name for a facility, blank facilities share one segment
+    private String segmentName(String facilityId) {
+        return single != null ? WHOLE : facilitySegment(facilityId);
+    }
+
+    private static String facilitySegment(String facilityId) {
+        if (facilityId == null || facilityId.isBlank()) return UNASSIGNED;
+        return facilityId.trim().replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private String segmentOf(T record) {
+        return single != null ? WHOLE : segmentName(schema.facilityOf(record));
+    }
+
+    private File file(String segment) {
+        return single != null ? single : new File(dir, segment + SEGMENT_SUFFIX);
+    }
+
+    // Reads a facility's segment unless already in memory, returns true if it was read now
+    @Override
+    public boolean load(String facilityId) {
+        return loadSegment(segmentName(facilityId));
+    }
+
+    // Locked against the flusher, which copies loaded segments
+    private synchronized boolean loadSegment(String segment) {
+        if (loaded.containsKey(segment)) return false;
+        List<T> records = new ArrayList<>();
+        loaded.put(segment, records);
+        partial.remove(segment);
+        Prefetched ahead = prefetched.remove(segment);
+        if (!segments.contains(segment)) return true;
+        long[] stamp = stamp(file(segment));
+        seen.put(segment, stamp);
+        try {
+            // Rows read ahead are used only while the file is still as they were read
+            List<String[]> rows = ahead != null && Arrays.equals(ahead.stamp, stamp)
+                    ? ahead.rows : CsvUtils.readCsv(file(segment).getPath());
+            for (String[] row : rows) {
+                records.add(onLoad.apply(schema.fromRow(row)));
+            }
+        } catch (IOException ex) {
+            System.err.println("Failed to load " + name + " for " + segment + ": " + ex.getMessage());
+        }
+        return true;
+    }
+
+    // Reads a facility's segment, or every unloaded one for null, into a side cache on the
+    // calling thread. Nothing reaches the records or the load callback until load() is called.
+    @Override
+    public void prefetch(String facilityId) {
+        List<String> wanted;
+        synchronized (this) {
+            wanted = facilityId == null ? unloadedSegments() : Collections.singletonList(segmentName(facilityId));
+        }
+        for (String segment : wanted) {
+            synchronized (this) {
+                if (loaded.containsKey(segment) || prefetched.containsKey(segment) || !segments.contains(segment)) continue;
+            }
+            // Read outside the lock so loads and flushes on other threads are not held up
+            File f = file(segment);
+            long[] stamp = stamp(f);
+            List<String[]> rows;
+            try {
+                rows = CsvUtils.readCsv(f.getPath());
+            } catch (IOException ex) {
+                System.err.println("Failed to prefetch " + name + " for " + segment + ": " + ex.getMessage());
+                continue;
+            }
+            // A file written while it was read is simply read again by load()
+            if (stamp == null || !Arrays.equals(stamp, stamp(f))) continue;
+            synchronized (this) {
+                if (!loaded.containsKey(segment)) prefetched.put(segment, new Prefetched(stamp, rows));
+            }
+        }
+    }
+
+    // Reads every segment not yet in memory
+    @Override
+    public void loadAll() {
+        for (String segment : unloadedSegments()) loadSegment(segment);
+    }
+
+    // True once every segment on disk is in memory
+    @Override
+    public boolean isFullyLoaded() {
+        return loaded.keySet().containsAll(segments);
+    }
+
+    // Loaded records of one facility, reading its segment first if needed
+    @Override
+    public synchronized List<T> get(String facilityId) {
+        String segment = segmentName(facilityId);
+        loadSegment(segment);
+        // A copy, since writes may change the segment from a worker thread meanwhile
+        return Collections.unmodifiableList(new ArrayList<>(loaded.get(segment)));
+    }
+
+    // Reads the record with this identifier from whichever unread segment holds it
+    @Override
+    public boolean loadContaining(String id) {
+        return loadMatching(0, id);
+    }
+
+    // Reads only the rows whose column equals the key from the unread segments,
+    // using per-segment offset indexes so the cost does not grow with file size
+    @Override
+    public synchronized boolean loadMatching(int column, String key) {
+        if (key == null || key.isEmpty() || isFullyLoaded()) return false;
+        if (!matchedKeys.add(column + ":" + key)) return false;
+        boolean found = false;
+        for (String segment : unloadedSegments()) {
+            try {
+                for (String[] row : offsetIndex(segment, column).rows(key)) {
+                    T record = onLoad.apply(schema.fromRow(row));
+                    // Remembered so an outside edit of this segment can update it
+                    partial.computeIfAbsent(segment, k -> new HashMap<>()).put(schema.idOf(record), record);
+                    found = true;
+                }
+            } catch (IOException ex) {
+                System.err.println("Failed to look up " + name + " by " + schema.column(column) + ": " + ex.getMessage());
+            }
+        }
+        return found;
+    }
+
+    private OffsetIndex offsetIndex(String segment, int column) {
+        return offsetIndexes.computeIfAbsent(segment + ":" + column,
+                k -> new OffsetIndex(file(segment).getPath(), schema.column(column), column));
+    }
+
+    // Highest numeric suffix among all identifiers, e.g. 12 for "A012", without loading segments
+    @Override
+    public synchronized int maxSequence(int prefixLength) {
+        int max = 0;
+        for (String id : reserved) max = Math.max(max, sequenceOf(id, prefixLength));
+        for (List<T> records : loaded.values()) {
+            for (T record : records) max = Math.max(max, sequenceOf(schema.idOf(record), prefixLength));
+        }
+        for (String segment : unloadedSegments()) {
+            try (BufferedReader br = new BufferedReader(new FileReader(file(segment)))) {
+                br.readLine();
+                String line;
+                while ((line = br.readLine()) != null) {
+                    int comma = line.indexOf(',');
+                    max = Math.max(max, sequenceOf(comma < 0 ? line : line.substring(0, comma), prefixLength));
+                }
+            } catch (IOException ex) {
+                System.err.println("Failed to scan " + name + " for " + segment + ": " + ex.getMessage());
+            }
+        }
+        return max;
+    }
+
+    // Takes the next sequence from the counter every instance shares, under the directory lock,
+    // so two desks adding at once never pick the same ID. Kept until a record reserves it.
+    @Override
+    public int nextSequence(int prefixLength) {
+        synchronized (this) {
+            if (allocated > 0 && allocatedPrefix == prefixLength) return allocated;
+        }
+        int local = maxSequence(prefixLength);
+        int[] next = new int[1];
+        try {
+            commits.await(commits.merge(sequenceFile, current -> {
+                next[0] = Math.max(parseCounter(current), local) + 1;
+                return (next[0] + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            }));
+        } catch (IOException ex) {
+            System.err.println("Failed to allocate " + name + " identifier: " + ex.getMessage());
+        }
+        // Without the shared counter, e.g. inside a batch still being gathered, fall back to this copy
+        if (next[0] == 0) return local + 1;
+        synchronized (this) {
+            allocated = next[0];
+            allocatedPrefix = prefixLength;
+            return allocated;
+        }
+    }
+
+    private static int parseCounter(byte[] contents) {
+        if (contents == null) return 0;
+        try {
+            return Integer.parseInt(new String(contents, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static int sequenceOf(String id, int prefixLength) {
+        try {
+            return Integer.parseInt(id.trim().substring(prefixLength));
+        } catch (Exception ignore) {
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized void reserve(T record) {
+        String id = schema.idOf(record);
+        reserved.add(id);
+        if (allocated > 0 && sequenceOf(id, allocatedPrefix) == allocated) allocated = 0;
+    }
+
+    private List<String> unloadedSegments() {
+        List<String> unloaded = new ArrayList<>();
+        for (String segment : segments) {
+            if (!loaded.containsKey(segment)) unloaded.add(segment);
+        }
+        return unloaded;
+    }
+
+    // Records a new in-memory record under its facility, reading that segment first
+    @Override
+    public synchronized void track(T record) {
+        String id = schema.idOf(record);
+        if (allocated > 0 && sequenceOf(id, allocatedPrefix) == allocated) allocated = 0;
+        String segment = segmentOf(record);
+        loadSegment(segment);
+        loaded.get(segment).add(record);
+    }
+
+    // Forgets a record, returns the segment that held it or null
+    private String untrack(T record) {
+        for (Map.Entry<String, List<T>> e : loaded.entrySet()) {
+            if (e.getValue().remove(record)) return e.getKey();
+        }
+        return null;
+    }
+
+    // Appends a new record to its facility's segment without reading the rest of it.
+    // The write is queued under the lock so writes keep their order, and waited for
+    // outside it so concurrent appends can share one commit.
+    @Override
+    public void append(T record) throws IOException {
+        CompletableFuture<Void> written;
+        synchronized (this) {
+            String segment = segmentOf(record);
+            List<T> records = loaded.get(segment);
+            if (records != null) records.add(record);
+            if (isPending(segment)) {
+                // A rewrite of this loaded segment will include the record. Marked dirty, since a
+                // rewrite already running took its rows before the record was added.
+                edited(segment, schema.idOf(record), null);
+                dirty.add(segment);
+                scheduleRewrite();
+                return;
+            }
+            wrote(segment);
+            if (segments.add(segment)) {
+                // A new segment file starts with the header
+                written = landing(segment, write(segment, records != null ? records : Collections.singletonList(record)));
+            } else {
+                written = landing(segment, commits.append(file(segment),
+                        CsvUtils.formatLines(Collections.singletonList(schema.toRow(record)))));
+            }
+        }
+        commits.await(written);
+    }
+
+    // Appends many new records, one write per facility's segment, all in the same commit
+    @Override
+    public void appendAll(Collection<T> records) throws IOException {
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        synchronized (this) {
+            Map<String, List<T>> bySegment = new LinkedHashMap<>();
+            for (T record : records) {
+                bySegment.computeIfAbsent(segmentOf(record), k -> new ArrayList<>()).add(record);
+            }
+            for (Map.Entry<String, List<T>> e : bySegment.entrySet()) {
+                String segment = e.getKey();
+                List<T> held = loaded.get(segment);
+                if (held != null) held.addAll(e.getValue());
+                if (isPending(segment)) {
+                    for (T record : e.getValue()) edited(segment, schema.idOf(record), null);
+                    dirty.add(segment);
+                    scheduleRewrite();
+                    continue;
+                }
+                wrote(segment);
+                if (segments.add(segment)) {
+                    written.add(landing(segment, write(segment, held != null ? held : e.getValue())));
+                    continue;
+                }
+                List<String[]> rows = new ArrayList<>(e.getValue().size());
+                for (T record : e.getValue()) rows.add(schema.toRow(record));
+                written.add(landing(segment, commits.append(file(segment), CsvUtils.formatLines(rows))));
+            }
+        }
+        commits.await(written);
+    }
+
+    // Swaps a record in place or across facilities and schedules the segments involved
+    // for rewriting. Call before the caller's own maps change so re-read rows resolve
+    // to the old instance.
+    @Override
+    public synchronized void replace(T oldRecord, T newRecord) throws IOException {
+        // Both segments must be complete in memory before they are rewritten
+        loadSegment(segmentOf(oldRecord));
+        loadSegment(segmentOf(newRecord));
+        Set<String> touched = new LinkedHashSet<>();
+        String oldSegment = untrack(oldRecord);
+        String newSegment = segmentOf(newRecord);
+        if (oldSegment != null) {
+            touched.add(oldSegment);
+            edited(oldSegment, schema.idOf(oldRecord), schema.toRow(oldRecord));
+        }
+        if (!newSegment.equals(oldSegment)) edited(newSegment, schema.idOf(newRecord), null);
+        loaded.get(newSegment).add(newRecord);
+        touched.add(newSegment);
+        markDirty(touched);
+    }
+
+    // Loads the record's segment in full, which replace and remove would otherwise do themselves
+    @Override
+    public void prepare(T record) {
+        loadSegment(segmentOf(record));
+    }
+
+    // Drops a record and schedules its segment for rewriting, called before the caller forgets it
+    @Override
+    public synchronized void remove(T record) throws IOException {
+        loadSegment(segmentOf(record));
+        String segment = untrack(record);
+        if (segment == null) return;
+        edited(segment, schema.idOf(record), schema.toRow(record));
+        markDirty(Collections.singleton(segment));
+    }
+
+    // Remembers how a record looked before its first change since the segment was written
+    private void edited(String segment, String id, String[] before) {
+        Map<String, String[]> changes = edited.computeIfAbsent(segment, k -> new HashMap<>());
+        if (!changes.containsKey(id)) changes.put(id, before);
+    }
+
+    // Follows edits other programs make to the segment files, or to the single CSV file.
+    // Changed files are re-read on the watcher thread and diffed by ID; the difference is
+    // applied here and then passed to the listener through the executor.
+    @Override
+    public synchronized void watch(Executor deliverOn, Consumer<RecordDelta<T>> listener) {
+        this.deliverOn = deliverOn;
+        this.listener = listener;
+        if (single != null) {
+            watcher.register(dir, file -> {
+                if (file == null || file.equals(single.getName())) fileChanged(WHOLE);
+            });
+            return;
+        }
+        watcher.register(dir, this::segmentFileChanged);
+        // Another program may also drop a whole <table>.csv next to the segment directory
+        watcher.register(dir.getAbsoluteFile().getParentFile(), file -> {
+            if ((name + SEGMENT_SUFFIX).equals(file)) importTable(file);
+        });
+    }
+
+    // Handles one changed segment file, or every segment when events were lost
+    private void segmentFileChanged(String file) {
+        if (file != null) {
+            if (file.endsWith(SEGMENT_SUFFIX)) fileChanged(file.substring(0, file.length() - SEGMENT_SUFFIX.length()));
+            return;
+        }
+        Set<String> all;
+        synchronized (this) {
+            all = new TreeSet<>(segments);
+        }
+        String[] files = dir.list((d, f) -> f.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (String f : files) all.add(f.substring(0, f.length() - SEGMENT_SUFFIX.length()));
+        }
+        for (String segment : all) fileChanged(segment);
+    }
+
+    // Re-reads a segment another program changed; when it only grew, just the new tail is read
+    private void fileChanged(String segment) {
+        File f = file(segment);
+        long[] current = stamp(f);
+        long[] over = current == null ? null : commits.writtenOver(f, current[0], current[1]);
+        if (over != null) {
+            synchronized (this) {
+                long[] known = seen.get(segment);
+                if (known == null || known[0] == over[0] && known[1] == over[1]) {
+                    // Only our own writes since it was read here, just remember how the file looks now
+                    seen.put(segment, current);
+                    return;
+                }
+            }
+            // Another instance wrote before ours, so its part is read like any outside edit
+        }
+        long[] before;
+        long generation;
+        synchronized (this) {
+            if (isPending(segment)) {
+                // The rewrite merges with the file, and the file is checked again once it is written
+                recheck.add(segment);
+                return;
+            }
+            // The change event of the write on its way reads the file once it lands
+            if (isWriting(segment)) return;
+            before = seen.get(segment);
+            generation = generation(segment);
+        }
+        long[] stamp = stamp(f);
+        if (before != null && stamp != null && before[0] == stamp[0] && before[1] == stamp[1]) return;
+
+        // A file replaced by a rename, as every rewrite here is, never counts as appended to
+        boolean appended = before != null && stamp != null && stamp[0] > before[0]
+                && before[3] != UNKNOWN_FILE && before[3] == stamp[3]
+                && before[2] >= 0 && tailChecksum(f, before[0]) == before[2];
+        List<String[]> rows;
+        try {
+            if (stamp == null) rows = Collections.emptyList();
+            else if (appended) rows = CsvUtils.readCsvFrom(f.getPath(), before[0]);
+            else rows = CsvUtils.readCsv(f.getPath());
+        } catch (IOException ex) {
+            System.err.println("Failed to reload " + name + " for " + segment + ": " + ex.getMessage());
+            return;
+        }
+        reconcile(segment, toRecords(rows), !appended, stamp, Collections.emptyList(), generation);
+    }
+
+    // Spreads a whole <table>.csv another program wrote over the facility segments, rewriting
+    // each segment. The file itself is left in place.
+    private void importTable(String file) {
+        File dropped = new File(dir.getAbsoluteFile().getParentFile(), file);
+        if (!dropped.isFile()) return;
+        Map<String, List<T>> bySegment = new LinkedHashMap<>();
+        try {
+            for (T record : toRecords(CsvUtils.readCsv(dropped.getPath()))) {
+                bySegment.computeIfAbsent(segmentOf(record), k -> new ArrayList<>()).add(record);
+            }
+        } catch (IOException ex) {
+            System.err.println("Failed to import " + dropped.getPath() + ": " + ex.getMessage());
+            return;
+        }
+        Set<String> all = new TreeSet<>(bySegment.keySet());
+        synchronized (this) {
+            all.addAll(segments);
+        }
+        for (String segment : all) {
+            List<T> records = bySegment.getOrDefault(segment, Collections.emptyList());
+            synchronized (this) {
+                if (isPending(segment)) {
+                    System.err.println("Kept unsaved changes to " + name + " for " + segment + " over " + dropped.getName());
+                    continue;
+                }
+                if (records.isEmpty() && !segments.contains(segment)) continue;
+            }
+            long generation;
+            try {
+                if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir.getPath());
+                CompletableFuture<Void> written;
+                synchronized (this) {
+                    generation = wrote(segment);
+                    written = landing(segment, commits.replace(file(segment),
+                            CsvUtils.formatCsv(schema.header(), records, schema::toRow)));
+                }
+                commits.await(written);
+            } catch (IOException ex) {
+                System.err.println("Failed to import " + name + " for " + segment + ": " + ex.getMessage());
+                continue;
+            }
+            reconcile(segment, records, true, stamp(file(segment)), Collections.emptyList(), generation);
+        }
+    }
+
+    // Rows as records, skipping any another program wrote with too few columns
+    private List<T> toRecords(List<String[]> rows) {
+        List<T> records = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            try {
+                records.add(schema.fromRow(row));
+            } catch (RuntimeException ex) {
+                System.err.println("Skipped malformed " + name + " row: " + String.join(",", row));
+            }
+        }
+        return records;
+    }
+
+    // Diffs a segment's records as now stored against those in memory by ID and hands the
+    // difference to the executor. Complete is false when only appended rows were read, so
+    // nothing counts as deleted. A segment only partly in memory gains new rows just when
+    // they match a key already looked up, as a fresh lookup would have found them.
+    // Conflicts are local versions a merge did not keep, passed on for the listener to report.
+    // Generation is the segment's write count when the rows were read.
+    private void reconcile(String segment, List<T> stored, boolean complete, long[] stamp, List<T> conflicts,
+                           long generation) {
+        Map<String, T> held = new HashMap<>();
+        Set<String> keys;
+        boolean whole;
+        Executor executor;
+        Consumer<RecordDelta<T>> target;
+        synchronized (this) {
+            List<T> records = loaded.get(segment);
+            // A new segment joins memory outright when every other segment is there already
+            whole = records != null || (!segments.contains(segment) && isFullyLoaded());
+            if (records != null) {
+                for (T record : records) held.put(schema.idOf(record), record);
+            } else if (partial.containsKey(segment)) {
+                held.putAll(partial.get(segment));
+            }
+            keys = new HashSet<>(matchedKeys);
+            executor = deliverOn;
+            target = listener;
+        }
+
+        // Later rows win when another program appended a new version of a record
+        Map<String, T> latest = new LinkedHashMap<>();
+        for (T record : stored) latest.put(schema.idOf(record), record);
+        List<T> inserted = new ArrayList<>();
+        List<T> from = new ArrayList<>();
+        List<T> to = new ArrayList<>();
+        List<T> deleted = new ArrayList<>();
+        for (Map.Entry<String, T> e : latest.entrySet()) {
+            T old = held.get(e.getKey());
+            String[] row = schema.toRow(e.getValue());
+            if (old == null) {
+                if (whole || isLookedUp(row, keys)) inserted.add(e.getValue());
+            } else if (!Arrays.equals(schema.toRow(old), row)) {
+                from.add(old);
+                to.add(e.getValue());
+            }
+        }
+        if (complete) {
+            for (Map.Entry<String, T> e : held.entrySet()) {
+                if (!latest.containsKey(e.getKey())) deleted.add(e.getValue());
+            }
+        }
+        RecordDelta<T> delta = new RecordDelta<>(inserted, from, to, deleted, conflicts);
+        if (executor == null) return;
+        executor.execute(() -> {
+            if (applyDelta(segment, delta, whole, stamp, generation) && !delta.isEmpty()) target.accept(delta);
+        });
+    }
+
+    // True when a row carries an ID or lookup key the application already asked for
+    private boolean isLookedUp(String[] row, Set<String> keys) {
+        if (keys.contains("0:" + row[0])) return true;
+        for (int column : schema.indexedColumns()) {
+            if (column < row.length && keys.contains(column + ":" + row[column])) return true;
+        }
+        return false;
+    }
+
+    // Swaps the outside edit into the loaded segment, or into the records read from it so far.
+    // Returns false when the segment was edited here in the meantime; it is then checked again
+    // once the local edit is written. A delta read before a later write from here is dropped,
+    // and the file marked as never seen so that write's change event reads all of it again.
+    private synchronized boolean applyDelta(String segment, RecordDelta<T> delta, boolean whole, long[] stamp,
+                                            long generation) {
+        if (isPending(segment)) {
+            recheck.add(segment);
+            return false;
+        }
+        if (generation(segment) != generation) {
+            seen.put(segment, new long[]{-1, -1, -1, UNKNOWN_FILE});
+            return false;
+        }
+        List<T> records = loaded.get(segment);
+        if (records == null && whole) {
+            records = new ArrayList<>();
+            loaded.put(segment, records);
+        }
+        Map<String, T> read = records == null ? partial.computeIfAbsent(segment, k -> new HashMap<>()) : null;
+        // Matched by ID, so a delta that overlaps one already applied changes nothing twice
+        for (T old : delta.getDeleted()) {
+            if (records != null) {
+                int at = indexOf(records, schema.idOf(old));
+                if (at >= 0) records.remove(at);
+            } else {
+                read.remove(schema.idOf(old));
+            }
+        }
+        List<T> stored = new ArrayList<>(delta.getUpdatedTo());
+        stored.addAll(delta.getInserted());
+        for (T now : stored) {
+            if (records == null) {
+                read.put(schema.idOf(now), now);
+                continue;
+            }
+            int at = indexOf(records, schema.idOf(now));
+            if (at >= 0) records.set(at, now);
+            else records.add(now);
+        }
+        if (stamp != null) {
+            segments.add(segment);
+            seen.put(segment, stamp);
+        } else {
+            segments.remove(segment);
+            seen.remove(segment);
+        }
+        return true;
+    }
+
+    private int indexOf(List<T> records, String id) {
+        for (int i = 0; i < records.size(); i++) {
+            if (schema.idOf(records.get(i)).equals(id)) return i;
+        }
+        return -1;
+    }
+
+    // Length, timestamp, checksum of the bytes before the end and identity, or null if there is no file
+    private static long[] stamp(File f) {
+        if (!f.isFile()) return null;
+        long length = f.length();
+        return new long[]{length, GroupCommit.modified(f), tailChecksum(f, length), identity(f)};
+    }
+
+    // Same while a file is only appended to, different once it is replaced by another file.
+    // NO_FILE_KEY where the platform has none, then only the tail checksum tells.
+    private static long identity(File f) {
+        try {
+            Object key = Files.readAttributes(f.toPath(), BasicFileAttributes.class).fileKey();
+            return key != null ? key.hashCode() & 0xffffffffL : NO_FILE_KEY;
+        } catch (IOException ex) {
+            return UNKNOWN_FILE;
+        }
+    }
+
+    // Checksum of up to TAIL_BYTES bytes ending at the given offset, -1 if they cannot be read
+    private static long tailChecksum(File f, long end) {
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+            int count = (int) Math.min(TAIL_BYTES, end);
+            byte[] tail = new byte[count];
+            raf.seek(end - count);
+            raf.readFully(tail);
+            return tailChecksum(tail, count);
+        } catch (IOException ex) {
+            return -1;
+        }
+    }
+
+    // The same checksum over contents in memory
+    private static long tailChecksum(byte[] contents, int end) {
+        int count = Math.min(TAIL_BYTES, end);
+        CRC32 crc = new CRC32();
+        crc.update(contents, end - count, count);
+        return crc.getValue();
+    }
+
+    private void markDirty(Collection<String> touched) throws IOException {
+        dirty.addAll(touched);
+        segments.addAll(touched);
+        scheduleRewrite();
+    }
+
+    // Rewrites the dirty segments once the write-behind window passes, or inside a together()
+    // group in the group's own batch, so the rewrite lands with the writes it goes with
+    private void scheduleRewrite() throws IOException {
+        if (commits.isGrouped()) commits.beforeSend(this::flushDirty);
+        else writeBehind.changed();
+    }
+
+    // Counts a write from here to the segment, returning the new count
+    private long wrote(String segment) {
+        return generations.merge(segment, 1L, Long::sum);
+    }
+
+    private long generation(String segment) {
+        return generations.getOrDefault(segment, 0L);
+    }
+
+    // Counts the write as landed once the committer is done with it, written or not
+    private CompletableFuture<Void> landing(String segment, CompletableFuture<Void> write) {
+        write.whenComplete((done, failed) -> {
+            synchronized (this) {
+                landed.merge(segment, 1L, Long::sum);
+            }
+        });
+        return write;
+    }
+
+    // True while a write from here to the segment is queued or running
+    private boolean isWriting(String segment) {
+        return generation(segment) != landed.getOrDefault(segment, 0L);
+    }
+
+    // True while a rewrite of the segment is queued or running, so appends must not touch its file
+    private boolean isPending(String segment) {
+        return dirty.contains(segment) || flushing.contains(segment);
+    }
+
+    // Writes every pending change now, e.g. on save or at shutdown
+    void flush() throws IOException {
+        writeBehind.flushNow();
+    }
+
+    // Waits until the changes made so far have been written by the write-behind flusher
+    void awaitWritten() {
+        writeBehind.awaitFlushed();
+    }
+
+    // Rewrites every segment file with one normalized row per identifier, the last one written
+    // winning, and without blank lines. Each rewrite works on the file as it is when the
+    // committer holds the directory lock, so saves from other instances are kept.
+    void compact() throws IOException {
+        List<String> all;
+        synchronized (this) {
+            all = new ArrayList<>(segments);
+        }
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (String segment : all) {
+            if (!file(segment).isFile()) continue;
+            synchronized (this) {
+                wrote(segment);
+                written.add(landing(segment, commits.merge(file(segment), this::compacted)));
+            }
+        }
+        commits.await(written);
+    }
+
+    private byte[] compacted(byte[] contents) {
+        // A segment deleted meanwhile comes back empty rather than failing the batch
+        if (contents == null) contents = new byte[0];
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (String[] row : CsvUtils.parseCsv(contents)) {
+            if (row.length == 0 || row[0].isEmpty()) continue;
+            // Rows with more fields than the header, e.g. two lines run together, are kept as they are
+            rows.put(row[0], row.length > schema.header().length ? row : normalized(row));
+        }
+        try {
+            // Written with the line ending the file already has, so compacting never converts it
+            return CsvUtils.formatCsv(schema.header(), rows.values(), row -> row, CsvUtils.lineEnding(contents));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Rewrites the dirty segments from a snapshot, holding the store lock only to copy rows.
+    // Each rewrite is merged with the file as other instances left it, and whatever they
+    // changed is then brought into memory the way an outside edit would be. Inside a
+    // together() group the rewrites join the group's batch and the rest runs once it is written.
+    private void flushDirty() throws IOException {
+        flushLock.lock();
+        boolean grouped = false;
+        try {
+            Map<String, SegmentMerge> snapshot = new LinkedHashMap<>();
+            synchronized (this) {
+                for (String segment : dirty) {
+                    Map<String, String[]> rows = new LinkedHashMap<>();
+                    for (T record : loaded.get(segment)) rows.put(schema.idOf(record), schema.toRow(record));
+                    Map<String, String[]> changes = edited.remove(segment);
+                    snapshot.put(segment, new SegmentMerge(rows, changes != null ? changes : new HashMap<>()));
+                }
+                flushing.addAll(dirty);
+                dirty.clear();
+            }
+            IOException failure = null;
+            // Every segment is queued first so the rewrites share one commit
+            Map<String, CompletableFuture<Void>> written = new LinkedHashMap<>();
+            for (Map.Entry<String, SegmentMerge> e : snapshot.entrySet()) {
+                try {
+                    if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir.getPath());
+                    synchronized (this) {
+                        wrote(e.getKey());
+                        written.put(e.getKey(), landing(e.getKey(), commits.merge(file(e.getKey()), e.getValue())));
+                    }
+                } catch (IOException ex) {
+                    failure = ex;
+                    unflushed(e.getKey(), e.getValue());
+                }
+            }
+            if (commits.isGrouped()) {
+                IOException queueFailure = failure;
+                commits.afterWrites(() -> {
+                    try {
+                        flushed(snapshot, written, queueFailure);
+                    } catch (IOException ex) {
+                        // Rewritten from memory at the next flush, as a background flush would retry
+                        writeBehind.changed();
+                        throw ex;
+                    } finally {
+                        flushLock.unlock();
+                    }
+                });
+                grouped = true;
+                return;
+            }
+            flushed(snapshot, written, failure);
+        } finally {
+            if (!grouped) flushLock.unlock();
+        }
+    }
+
+    // Waits for the rewrites flushDirty queued, then brings what other instances changed into memory
+    private void flushed(Map<String, SegmentMerge> snapshot, Map<String, CompletableFuture<Void>> written,
+                         IOException failure) throws IOException {
+        List<String> merged = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Void>> e : written.entrySet()) {
+            try {
+                commits.await(e.getValue());
+                if (snapshot.get(e.getKey()).isChanged()) merged.add(e.getKey());
+            } catch (IOException ex) {
+                failure = ex;
+                unflushed(e.getKey(), snapshot.get(e.getKey()));
+            }
+        }
+        List<String> changedElsewhere = new ArrayList<>();
+        synchronized (this) {
+            flushing.removeAll(snapshot.keySet());
+            for (String segment : snapshot.keySet()) {
+                if (!isPending(segment) && recheck.remove(segment)) changedElsewhere.add(segment);
+            }
+        }
+        // Only once the segments are no longer pending, so the changes are not turned away
+        for (String segment : merged) {
+            SegmentMerge merge = snapshot.get(segment);
+            // Stamped as the merge left the file, a later write from elsewhere may be there already
+            long[] wrote = commits.lastWrote(file(segment));
+            long[] stamp = wrote == null ? null
+                    : new long[]{wrote[0], wrote[1], tailChecksum(merge.written, merge.written.length), UNKNOWN_FILE};
+            long generation;
+            synchronized (this) {
+                generation = generation(segment);
+            }
+            reconcile(segment, toRecords(merge.stored), true, stamp, toRecords(merge.overruled), generation);
+        }
+        for (String segment : changedElsewhere) fileChanged(segment);
+        if (failure != null) throw failure;
+    }
+
+    // Puts back a segment whose rewrite failed, keeping the earliest known version of each record
+    private synchronized void unflushed(String segment, SegmentMerge merge) {
+        dirty.add(segment);
+        edited.computeIfAbsent(segment, k -> new HashMap<>()).putAll(merge.changes);
+    }
+
+    // Queues one new segment, merged with a file another instance may have created meanwhile
+    private CompletableFuture<Void> write(String segment, List<T> records) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir.getPath());
+        segments.add(segment);
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        Map<String, String[]> changes = new HashMap<>();
+        for (T record : records) {
+            rows.put(schema.idOf(record), schema.toRow(record));
+            changes.put(schema.idOf(record), null);
+        }
+        return commits.merge(file(segment), new SegmentMerge(rows, changes));
+    }
+
+    // A segment rewrite the committer runs against the file as it is under the directory lock.
+    // Records this instance did not change are taken from the file, so other instances' saves
+    // survive. A record both changed is merged field by field; when both changed the same field
+    // the newer version stamp wins, and on a tie or without stamps the saved version stays.
+    private final class SegmentMerge implements UnaryOperator<byte[]> {
+        // Rows held here by ID, and the changed ones with how they looked when read
+        final Map<String, String[]> local;
+        final Map<String, String[]> changes;
+        // Rows written, and the local versions not kept, set once the committer has run the merge
+        List<String[]> stored = Collections.emptyList();
+        byte[] written;
+        final List<String[]> overruled = new ArrayList<>();
+
+        SegmentMerge(Map<String, String[]> local, Map<String, String[]> changes) {
+            this.local = local;
+            this.changes = changes;
+        }
+
+        @Override
+        public byte[] apply(byte[] current) {
+            Map<String, String[]> rows = new LinkedHashMap<>();
+            if (current != null) {
+                for (String[] row : CsvUtils.parseCsv(current)) rows.put(row[0], normalized(row));
+            }
+            overruled.clear();
+            for (Map.Entry<String, String[]> e : changes.entrySet()) {
+                String id = e.getKey();
+                String[] merged = mergeRow(e.getValue(), local.get(id), rows.get(id));
+                if (merged == null) rows.remove(id);
+                else rows.put(id, merged);
+            }
+            stored = new ArrayList<>(rows.values());
+            try {
+                written = CsvUtils.formatCsv(schema.header(), stored, row -> row,
+                        CsvUtils.lineEnding(current != null ? current : new byte[0]));
+                return written;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        // One record's version to store, null to leave it deleted
+        private String[] mergeRow(String[] before, String[] mine, String[] theirs) {
+            if (Arrays.equals(theirs, before) || Arrays.equals(theirs, mine)) return mine;
+            if (before != null && mine != null && theirs != null
+                    && before.length == mine.length && mine.length == theirs.length) {
+                String[] merged = theirs.clone();
+                boolean clash = false;
+                int version = schema.versionColumn();
+                for (int i = 0; i < merged.length; i++) {
+                    // Fields may be null, e.g. from a record built without every value set
+                    if (i == version || Objects.equals(mine[i], before[i])) continue;
+                    if (Objects.equals(theirs[i], before[i])) merged[i] = mine[i];
+                    else if (!Objects.equals(theirs[i], mine[i])) clash = true;
+                }
+                if (!clash) {
+                    if (version >= 0 && isNewer(mine[version], theirs[version])) merged[version] = mine[version];
+                    return merged;
+                }
+            }
+            // Created, deleted or the same field changed on both sides
+            int version = schema.versionColumn();
+            if (version >= 0 && mine != null && theirs != null && isNewer(mine[version], theirs[version])) return mine;
+            overruled.add(mine != null ? mine : theirs != null ? theirs : before);
+            return theirs;
+        }
+
+        // Version stamps compare as text, a missing one as older than any other
+        private boolean isNewer(String mine, String theirs) {
+            return mine != null && (theirs == null || mine.compareTo(theirs) > 0);
+        }
+
+        // True when the stored rows differ from what was held here
+        boolean isChanged() {
+            if (!overruled.isEmpty() || stored.size() != local.size()) return true;
+            for (String[] row : stored) {
+                if (!Arrays.equals(row, local.get(row[0]))) return true;
+            }
+            return false;
+        }
+    }
+
+    // A row as toRow would write it, so rows compare equal regardless of who wrote them
+    private String[] normalized(String[] row) {
+        try {
+            return schema.toRow(schema.fromRow(row));
+        } catch (RuntimeException ex) {
+            return row;
+        }
+    }
+
+    // Rows of one segment file and the stamp of the file they were read from
+    private static final class Prefetched {
+        final long[] stamp;
+        final List<String[]> rows;
+
+        Prefetched(long[] stamp, List<String[]> rows) {
+            this.stamp = stamp;
+            this.rows = rows;
+        }
+    }
+}
\ No newline at end of file
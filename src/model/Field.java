@@ -0,0 +1,60 @@
+package model;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+// A queryable column of a record type, e.g. an appointment's status or date.
+// Repositories publish their fields as constants and index some of them; conditions built
+// from a field are answered from its index when there is one, otherwise by testing records.
+public final class Field<T> {
+
+    private final String name;
+    private final Function<T, String> getter;
+    // Compared without regard to case, e.g. statuses written both "Scheduled" and "SCHEDULED"
+    private final boolean ignoreCase;
+
+    private Field(String name, Function<T, String> getter, boolean ignoreCase) {
+        this.name = name;
+        this.getter = getter;
+        this.ignoreCase = ignoreCase;
+    }
+
+    public static <T> Field<T> of(String name, Function<T, String> getter) {
+        return new Field<>(name, getter, false);
+    }
+
+    // The same field compared without regard to case
+    public Field<T> ignoringCase() {
+        return new Field<>(name, getter, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Records whose value equals this one
+    public Condition<T> is(String value) {
+        return Condition.equalTo(this, value);
+    }
+
+    // Records whose value lies between the two, both included; a null bound is left open.
+    // Values compare as text, which orders the ISO dates used in the data files by date.
+    public Condition<T> between(String from, String to) {
+        return Condition.between(this, from, to);
+    }
+
+    // The record's value as compared and indexed, never null
+    String keyOf(T record) {
+        return normalize(getter.apply(record));
+    }
+
+    String normalize(String value) {
+        if (value == null) return "";
+        return ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
\ No newline at end of file
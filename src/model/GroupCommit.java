@@ -0,0 +1,864 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+
+class GroupCommit {
+
+    // Journal layout: batches of [payload length][CRC32 of payload][op count, ops], each op
+    // [kind, absolute path, append offset or previous length, previous CRC32, length, bytes].
+    // Every instance sharing the directory keeps its own journal, locked while it is open.
+    private static final String JOURNAL_PREFIX = "commit";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    // Single journal written before instances shared a directory, its ops carry no previous CRC
+    private static final String LEGACY_JOURNAL = JOURNAL_PREFIX + JOURNAL_SUFFIX;
+    // Held by whichever instance is writing a batch, so batches of different instances never interleave
+    private static final String LOCK = "commit.lock";
+    // Files each batch wrote, one "<instance>\t<path>" line each, for other instances to re-read
+    static final String CHANGE_LOG = "changes.log";
+    // Change log header, rewritten with the next generation whenever the log starts over
+    private static final String CHANGE_LOG_MAGIC = "HMS-CHANGES ";
+    static final int CHANGE_LOG_HEADER = CHANGE_LOG_MAGIC.length() + 19 + 1;
+    // Change log size after which it starts over (-Dhms.commit.changeLogBytes)
+    private static final long CHANGE_LOG_BYTES = Long.getLong("hms.commit.changeLogBytes", 1L << 20);
+
+    private static final int BATCH_HEADER = 4 + 4;
+    private static final byte APPEND = 1;
+    private static final byte REPLACE = 2;
+    // Queued by sync(), syncs the data files and empties the journal once earlier writes are in
+    private static final byte CHECKPOINT = 3;
+    // New contents worked out by the committer from the file as it is under the lock, journalled as a REPLACE
+    private static final byte MERGE = 4;
+    // Queued by close(), a checkpoint that then removes the journal and the lock file
+    private static final byte CLOSE = 5;
+    // Previous length recorded for a file that did not exist
+    private static final long MISSING = -1;
+
+    // Journal size after which the data files are synced and the journal starts over (-Dhms.commit.checkpointBytes)
+    private static final long CHECKPOINT_BYTES = Long.getLong("hms.commit.checkpointBytes", 4L << 20);
+
+    // One coordinator per data directory, shared by every store and writer in it
+    private static final Map<String, GroupCommit> OPEN = new HashMap<>();
+
+    // One pending write and the future its caller waits on
+    private static final class Op {
+        final byte kind;
+        final File file;
+        // Null for a merge until the committer has run it
+        byte[] bytes;
+        final UnaryOperator<byte[]> merge;
+        // Length and CRC32 of the file just before a replacement, so replay can tell whether it still applies
+        long previousLength = MISSING;
+        long previousCrc;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Op(byte kind, File file, byte[] bytes, UnaryOperator<byte[]> merge) {
+            this.kind = kind;
+            this.file = file;
+            this.bytes = bytes;
+            this.merge = merge;
+        }
+    }
+
+    // Writes of one group, queued together so they always share a batch
+    private final BlockingQueue<List<Op>> queue = new LinkedBlockingQueue<>();
+    // Writes made inside together() on this thread, sent when it ends
+    private final ThreadLocal<List<Op>> grouped = new ThreadLocal<>();
+    // Steps the group runs on this thread once its work is done: before its writes are sent,
+    // so what they queue joins the batch, and after the writes are done
+    private final ThreadLocal<List<PendingWrite>> beforeSend = new ThreadLocal<>();
+    private final ThreadLocal<List<PendingWrite>> afterWrites = new ThreadLocal<>();
+
+    private final File dir;
+    // Names this instance in the change log so it can skip its own entries
+    private final String instanceId = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+    private final File journalFile;
+    private final File lockFile;
+    // Both opened by the first batch that writes and closed again by close(), so instances that
+    // only read leave nothing behind. The journal is opened first, so an instance holding the
+    // lock file open always has a journal on disk. Only the committer thread uses them.
+    // Null when the journal cannot be opened; each batch then syncs the files it wrote instead
+    private FileChannel journal;
+    // Null when the directory lock cannot be opened, e.g. on a read-only share; batches then go unlocked
+    private FileChannel lockChannel;
+    // File key of the lock file lockChannel has open, where the platform has one
+    private Object lockKey;
+    // Set once the files were opened or failed to open, until close()
+    private boolean opened;
+    private final File changeLog;
+    // Data files written since the last checkpoint, synced before the journal is emptied
+    private final Set<File> unsynced = new LinkedHashSet<>();
+    // Length and timestamp of each file right after this coordinator last wrote it, then as
+    // it was before the run of writes from here that led to that
+    private final Map<File, long[]> lastWritten = new ConcurrentHashMap<>();
+
+    private GroupCommit(File dir) {
+        this.dir = dir;
+        this.journalFile = new File(dir, JOURNAL_PREFIX + "-" + instanceId + JOURNAL_SUFFIX);
+        this.lockFile = new File(dir, LOCK);
+        this.changeLog = new File(dir, CHANGE_LOG);
+
+        File[] abandoned = otherJournals();
+        if (abandoned.length > 0) {
+            openFiles();
+            FileLock lock = lockDirectory();
+            try {
+                recoverAbandoned(abandoned);
+            } finally {
+                release(lock);
+            }
+            closeFiles();
+        }
+
+        Thread committer = new Thread(this::run, "group-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // The coordinator for a directory, replaying journals left by crashed instances the first time
+    static synchronized GroupCommit forDirectory(File dir) {
+        String key = dir.getAbsoluteFile().toPath().normalize().toString();
+        GroupCommit commits = OPEN.get(key);
+        if (commits == null) {
+            commits = new GroupCommit(dir.getAbsoluteFile());
+            OPEN.put(key, commits);
+        }
+        return commits;
+    }
+
+    // Queues bytes to add at the end of a file
+    CompletableFuture<Void> append(File file, byte[] bytes) {
+        return submit(new Op(APPEND, file.getAbsoluteFile(), bytes, null));
+    }
+
+    // Queues new contents for a whole file
+    CompletableFuture<Void> replace(File file, byte[] bytes) {
+        return submit(new Op(REPLACE, file.getAbsoluteFile(), bytes, null));
+    }
+
+    // Queues new contents worked out from the file as it is when the batch holds the directory
+    // lock, or from null when there is no file, so writes other instances made in between are seen
+    CompletableFuture<Void> merge(File file, UnaryOperator<byte[]> merge) {
+        return submit(new Op(MERGE, file.getAbsoluteFile(), null, merge));
+    }
+
+    private CompletableFuture<Void> submit(Op op) {
+        List<Op> group = grouped.get();
+        if (group != null) {
+            group.add(op);
+        } else {
+            queue.add(Collections.singletonList(op));
+        }
+        return op.done;
+    }
+
+    // Runs work whose writes all go out in one batch, then waits once for all of them
+    void together(Runnable work) throws IOException {
+        if (grouped.get() != null) {
+            work.run();
+            return;
+        }
+        List<Op> group = new ArrayList<>();
+        List<PendingWrite> before = new ArrayList<>();
+        List<PendingWrite> after = new ArrayList<>();
+        grouped.set(group);
+        beforeSend.set(before);
+        afterWrites.set(after);
+        RuntimeException thrown = null;
+        IOException failure = null;
+        try {
+            work.run();
+            // Indexed, since a step may add another
+            for (int i = 0; i < before.size(); i++) {
+                try {
+                    before.get(i).run();
+                } catch (IOException ex) {
+                    if (failure == null) failure = ex;
+                }
+            }
+        } catch (RuntimeException ex) {
+            thrown = ex;
+        } finally {
+            grouped.remove();
+            beforeSend.remove();
+            afterWrites.remove();
+            if (!group.isEmpty()) queue.add(group);
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Op op : group) futures.add(op.done);
+        try {
+            await(futures);
+        } catch (IOException ex) {
+            if (failure == null) failure = ex;
+        }
+        // Run whether or not the batch was written, so each step can deal with the outcome
+        for (PendingWrite step : after) {
+            try {
+                step.run();
+            } catch (IOException ex) {
+                if (failure == null) failure = ex;
+            }
+        }
+        if (thrown != null) throw thrown;
+        if (failure != null) throw failure;
+    }
+
+    // True inside together() on this thread
+    boolean isGrouped() {
+        return grouped.get() != null;
+    }
+
+    // Inside together(), runs the step once the group's work is done and before its writes are
+    // sent, so the writes the step queues share the batch; e.g. a rewrite the work only
+    // scheduled. Outside together(), runs it now.
+    void beforeSend(PendingWrite step) throws IOException {
+        List<PendingWrite> steps = beforeSend.get();
+        if (steps != null) steps.add(step);
+        else step.run();
+    }
+
+    // Inside together(), runs the step on this thread once the group's writes are done or have
+    // failed, e.g. bookkeeping that needs their outcome. Outside together(), runs it now.
+    void afterWrites(PendingWrite step) throws IOException {
+        List<PendingWrite> steps = afterWrites.get();
+        if (steps != null) steps.add(step);
+        else step.run();
+    }
+
+    // Waits until a write is acknowledged; inside together() the group waits instead
+    void await(CompletableFuture<Void> future) throws IOException {
+        await(Collections.singletonList(future));
+    }
+
+    // Waits for every write, rethrowing the first failure once all have finished
+    void await(Collection<CompletableFuture<Void>> futures) throws IOException {
+        if (grouped.get() != null) return;
+        IOException failure = null;
+        boolean interrupted = false;
+        for (CompletableFuture<Void> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    // The write is already queued, so keep waiting for its outcome
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = ex.getCause() instanceof IOException
+                                ? (IOException) ex.getCause() : new IOException(ex.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure != null) throw failure;
+    }
+
+    // Length and timestamp the file had before this coordinator's latest writes to it, when the
+    // given length and timestamp are still the ones they left, otherwise null. A reader whose copy
+    // matches the returned stamps saw every write from elsewhere.
+    long[] writtenOver(File file, long length, long modified) {
+        long[] stamp = lastWritten.get(file.getAbsoluteFile());
+        if (stamp == null || stamp[0] != length || stamp[1] != modified) return null;
+        return new long[]{stamp[2], stamp[3]};
+    }
+
+    // Stamps a file has before a write, carried over from earlier writes while nobody else wrote in between
+    private long[] writingOver(File file) {
+        long length = file.length();
+        long modified = modified(file);
+        long[] over = writtenOver(file, length, modified);
+        return over != null ? over : new long[]{length, modified};
+    }
+
+    // Length and timestamp the file had right after this coordinator's latest write to it, or null
+    long[] lastWrote(File file) {
+        long[] stamp = lastWritten.get(file.getAbsoluteFile());
+        return stamp != null ? new long[]{stamp[0], stamp[1]} : null;
+    }
+
+    // Modification time in nanoseconds where the file system keeps them, so two instances
+    // rewriting a file within the same millisecond still leave different stamps
+    static long modified(File file) {
+        try {
+            return Files.getLastModifiedTime(file.toPath()).to(TimeUnit.NANOSECONDS);
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    // Identifies this instance's entries in the change log
+    String instanceId() {
+        return instanceId;
+    }
+
+    File changeLog() {
+        return changeLog;
+    }
+
+    // Generation in a change log header, -1 while the log has no complete header
+    static long changeLogGeneration(RandomAccessFile log) throws IOException {
+        if (log.length() < CHANGE_LOG_HEADER) return -1;
+        byte[] header = new byte[CHANGE_LOG_HEADER];
+        log.seek(0);
+        log.readFully(header);
+        String text = new String(header, StandardCharsets.UTF_8);
+        if (!text.startsWith(CHANGE_LOG_MAGIC)) return -1;
+        try {
+            return Long.parseLong(text.substring(CHANGE_LOG_MAGIC.length()).trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    // Waits for everything queued so far, then syncs the data files and empties the journal
+    void sync() throws IOException {
+        Op checkpoint = new Op(CHECKPOINT, journalFile, new byte[0], null);
+        queue.add(Collections.singletonList(checkpoint));
+        await(checkpoint.done);
+    }
+
+    // Waits for everything queued so far, syncs it, then removes this instance's journal and,
+    // unless another instance has one, the lock file. A later write opens them again.
+    void close() throws IOException {
+        Op close = new Op(CLOSE, journalFile, new byte[0], null);
+        queue.add(Collections.singletonList(close));
+        await(close.done);
+    }
+
+    // Committer thread: takes whatever queued up during the previous batch as the next one
+    private void run() {
+        List<List<Op>> groups = new ArrayList<>();
+        while (true) {
+            try {
+                groups.add(queue.take());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            queue.drainTo(groups);
+            List<Op> batch = new ArrayList<>();
+            for (List<Op> group : groups) batch.addAll(group);
+            groups.clear();
+            try {
+                commit(batch);
+            } catch (RuntimeException ex) {
+                // Callers of this batch hear of it, and later batches still get committed.
+                // Ops already acknowledged keep their outcome.
+                System.err.println("Failed to commit " + batch.size() + " writes: " + ex);
+                for (Op op : batch) op.done.completeExceptionally(ex);
+            }
+        }
+    }
+
+    // Under the directory lock: works out merges, journals the batch with a single sync,
+    // applies it to the data files and announces them in the change log, then acknowledges it
+    private void commit(List<Op> batch) {
+        List<Op> writes = new ArrayList<>(batch.size());
+        boolean checkpoint = false;
+        for (Op op : batch) {
+            if (op.kind == CHECKPOINT || op.kind == CLOSE) checkpoint = true;
+            else writes.add(op);
+        }
+
+        List<Op> applied = new ArrayList<>(writes.size());
+        if (!writes.isEmpty()) openFiles();
+        FileLock lock = writes.isEmpty() ? null : lockDirectory();
+        try {
+            prepare(writes);
+
+            if (!writes.isEmpty() && journal != null) {
+                try {
+                    CsvIoEvent event = new CsvIoEvent("journal", journalFile.getPath());
+                    ByteBuffer encoded = encode(writes);
+                    int size = encoded.remaining();
+                    journal.position(journal.size());
+                    writeFully(journal, encoded);
+                    journal.force(false);
+                    event.finish(writes.size(), () -> size);
+                } catch (IOException ex) {
+                    // Nothing of this batch is durable, so every caller hears about it
+                    for (Op op : writes) op.done.completeExceptionally(ex);
+                    writes.clear();
+                }
+            }
+
+            Map<File, long[]> before = new HashMap<>();
+            for (Op op : writes) before.computeIfAbsent(op.file, this::writingOver);
+            Map<File, FileChannel> appending = new HashMap<>();
+            try {
+                for (Op op : writes) {
+                    try {
+                        apply(op, appending);
+                        unsynced.add(op.file);
+                        applied.add(op);
+                    } catch (IOException ex) {
+                        op.done.completeExceptionally(ex);
+                    }
+                }
+            } finally {
+                closeAll(appending);
+            }
+            for (Op op : applied) {
+                long[] over = before.get(op.file);
+                lastWritten.put(op.file, new long[]{op.file.length(), modified(op.file), over[0], over[1]});
+            }
+            announce(applied);
+        } finally {
+            release(lock);
+        }
+
+        if (journal == null && !applied.isEmpty()) {
+            // Without a journal the files themselves must be on disk before anyone is told
+            try {
+                checkpoint();
+            } catch (IOException ex) {
+                for (Op op : applied) op.done.completeExceptionally(ex);
+                applied.clear();
+            }
+        }
+        for (Op op : applied) op.done.complete(null);
+
+        if (checkpoint || journalSize() > CHECKPOINT_BYTES) {
+            IOException failure = null;
+            try {
+                checkpoint();
+            } catch (IOException ex) {
+                failure = ex;
+                System.err.println("Failed to checkpoint commit journal: " + ex.getMessage());
+            }
+            // Only closed once everything is synced, otherwise the journal is still needed
+            if (failure == null && batch.stream().anyMatch(op -> op.kind == CLOSE)) closeFiles();
+            for (Op op : batch) {
+                if (op.kind != CHECKPOINT && op.kind != CLOSE) continue;
+                if (failure == null) op.done.complete(null);
+                else op.done.completeExceptionally(failure);
+            }
+        }
+    }
+
+    // Runs each merge against the file as earlier ops of the batch leave it, and records what every
+    // replacement overwrites. Merges that fail are dropped from the batch with their callers told.
+    private static void prepare(List<Op> writes) {
+        Set<File> replaced = new HashSet<>();
+        for (Op op : writes) {
+            if (op.kind != APPEND) replaced.add(op.file);
+        }
+        if (replaced.isEmpty()) return;
+        // Contents each replaced file will have once the ops so far are applied
+        Map<File, byte[]> contents = new HashMap<>();
+        for (Iterator<Op> it = writes.iterator(); it.hasNext(); ) {
+            Op op = it.next();
+            if (!replaced.contains(op.file)) continue;
+            try {
+                byte[] current = contents.containsKey(op.file) ? contents.get(op.file) : read(op.file);
+                if (op.kind == APPEND) {
+                    byte[] grown = Arrays.copyOf(current != null ? current : new byte[0],
+                            (current != null ? current.length : 0) + op.bytes.length);
+                    System.arraycopy(op.bytes, 0, grown, grown.length - op.bytes.length, op.bytes.length);
+                    contents.put(op.file, grown);
+                    continue;
+                }
+                if (op.kind == MERGE) op.bytes = op.merge.apply(current);
+                op.previousLength = current != null ? current.length : MISSING;
+                op.previousCrc = current != null ? crc(current) : 0;
+                contents.put(op.file, op.bytes);
+            } catch (IOException | RuntimeException ex) {
+                op.done.completeExceptionally(ex);
+                it.remove();
+            }
+        }
+    }
+
+    // Journal bytes for one batch, with the offset each append lands at so replay can redo it exactly
+    private static ByteBuffer encode(List<Op> writes) throws IOException {
+        Map<File, Long> lengths = new HashMap<>();
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        out.writeInt(writes.size());
+        for (Op op : writes) {
+            long offset = 0;
+            if (op.kind == APPEND) offset = lengths.computeIfAbsent(op.file, File::length);
+            lengths.put(op.file, offset + op.bytes.length);
+            out.writeByte(op.kind == APPEND ? APPEND : REPLACE);
+            out.writeUTF(op.file.getPath());
+            out.writeLong(op.kind == APPEND ? offset : op.previousLength);
+            out.writeLong(op.kind == APPEND ? 0 : op.previousCrc);
+            out.writeInt(op.bytes.length);
+            out.write(op.bytes);
+        }
+        out.flush();
+
+        byte[] bytes = payload.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(BATCH_HEADER + bytes.length);
+        buffer.putInt(bytes.length).putInt((int) crc(bytes)).put(bytes).flip();
+        return buffer;
+    }
+
+    // Appends reuse one channel per file for the batch, replacements go aside and are moved into place
+    private static void apply(Op op, Map<File, FileChannel> appending) throws IOException {
+        CsvIoEvent event = new CsvIoEvent(op.kind == APPEND ? "commit append" : "commit replace", op.file.getPath());
+        if (op.kind == APPEND) {
+            FileChannel channel = appending.get(op.file);
+            if (channel == null) {
+                channel = FileChannel.open(op.file.toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                appending.put(op.file, channel);
+            }
+            writeFully(channel, ByteBuffer.wrap(op.bytes));
+        } else {
+            FileChannel channel = appending.remove(op.file);
+            if (channel != null) channel.close();
+            replaceFile(op.file, op.bytes);
+        }
+        event.finish(() -> lines(op.bytes), () -> op.bytes.length);
+    }
+
+    private static int lines(byte[] bytes) {
+        int lines = 0;
+        for (byte b : bytes) {
+            if (b == '\n') lines++;
+        }
+        return lines;
+    }
+
+    private static void replaceFile(File target, byte[] bytes) throws IOException {
+        File tmp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(bytes);
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Tells other instances which files the batch wrote. Not synced: a lost entry only delays
+    // another instance until its file watcher or next write notices the change.
+    private void announce(List<Op> applied) {
+        if (applied.isEmpty()) return;
+        Set<String> paths = new LinkedHashSet<>();
+        for (Op op : applied) {
+            paths.add(dir.toPath().relativize(op.file.toPath()).toString().replace(File.separatorChar, '/'));
+        }
+        StringBuilder entries = new StringBuilder();
+        for (String path : paths) entries.append(instanceId).append('\t').append(path).append('\n');
+        try (RandomAccessFile log = new RandomAccessFile(changeLog, "rw")) {
+            long generation = changeLogGeneration(log);
+            if (generation < 0 || log.length() > CHANGE_LOG_BYTES) {
+                // Readers see the new generation and re-check every file, so entries dropped here are not missed
+                log.setLength(0);
+                log.write(String.format("%s%019d\n", CHANGE_LOG_MAGIC, generation + 1).getBytes(StandardCharsets.UTF_8));
+            }
+            log.seek(log.length());
+            log.write(entries.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            System.err.println("Failed to record changes for other instances: " + ex.getMessage());
+        }
+    }
+
+    // Syncs every data file written since the last checkpoint, then empties the journal
+    private void checkpoint() throws IOException {
+        Set<File> dirs = new LinkedHashSet<>();
+        for (File file : unsynced) {
+            if (!file.isFile()) continue;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            dirs.add(file.getParentFile());
+        }
+        for (File dir : dirs) forceDirectory(dir);
+        unsynced.clear();
+        if (journal == null) return;
+        journal.truncate(0);
+        journal.force(true);
+    }
+
+    // Makes renames durable where the platform allows syncing a directory
+    private static void forceDirectory(File dir) {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignore) {
+            // Not supported on every platform, the file contents are already synced
+        }
+    }
+
+    private long journalSize() {
+        if (journal == null) return 0;
+        try {
+            return journal.size();
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    // Opens the journal, locked so other instances know it is not abandoned, then the lock file
+    private void openFiles() {
+        if (opened) return;
+        opened = true;
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir.getPath());
+            FileChannel channel = FileChannel.open(journalFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                channel.lock();
+            } catch (IOException ex) {
+                channel.close();
+                throw ex;
+            }
+            journal = channel;
+        } catch (IOException ex) {
+            System.err.println("Failed to open commit journal, syncing each file instead: " + ex.getMessage());
+        }
+        try {
+            openLock();
+        } catch (IOException ex) {
+            System.err.println("Failed to open commit lock, writing without it: " + ex.getMessage());
+        }
+    }
+
+    private void openLock() throws IOException {
+        lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        lockKey = fileKey(lockFile);
+    }
+
+    // Unique identity of a file where the platform has one, null otherwise or when it is gone
+    private static Object fileKey(File file) {
+        try {
+            return Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    // Empties and removes the journal, then removes the lock file while holding it, unless
+    // another instance has a journal and so may have the lock file open
+    private void closeFiles() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                System.err.println("Failed to close commit journal: " + ex.getMessage());
+            }
+            journal = null;
+            if (!journalFile.delete()) System.err.println("Failed to remove commit journal " + journalFile.getPath());
+        }
+        if (lockChannel != null) {
+            FileLock lock = lockDirectory();
+            try {
+                if (lock != null && otherJournals().length == 0 && !lockFile.delete()) {
+                    System.err.println("Failed to remove commit lock " + lockFile.getPath());
+                }
+            } finally {
+                release(lock);
+            }
+            try {
+                lockChannel.close();
+            } catch (IOException ex) {
+                System.err.println("Failed to close commit lock: " + ex.getMessage());
+            }
+            lockChannel = null;
+        }
+        opened = false;
+    }
+
+    // Takes the lock every instance holds while writing a batch, null if locking is unavailable
+    private FileLock lockDirectory() {
+        while (lockChannel != null) {
+            FileLock lock;
+            try {
+                lock = lockChannel.lock();
+            } catch (IOException ex) {
+                System.err.println("Failed to lock " + dir.getPath() + ", writing without it: " + ex.getMessage());
+                return null;
+            }
+            // An instance closing meanwhile may have removed the file; lock the one now in its place
+            if (lockFile.exists() && (lockKey == null || lockKey.equals(fileKey(lockFile)))) return lock;
+            release(lock);
+            try {
+                lockChannel.close();
+                openLock();
+            } catch (IOException ex) {
+                System.err.println("Failed to open commit lock, writing without it: " + ex.getMessage());
+                lockChannel = null;
+            }
+        }
+        return null;
+    }
+
+    private static void release(FileLock lock) {
+        if (lock == null) return;
+        try {
+            lock.release();
+        } catch (IOException ex) {
+            System.err.println("Failed to unlock commit lock: " + ex.getMessage());
+        }
+    }
+
+    // Journals in the directory other than this instance's
+    private File[] otherJournals() {
+        File[] journals = dir.listFiles((d, f) -> f.startsWith(JOURNAL_PREFIX) && f.endsWith(JOURNAL_SUFFIX)
+                && !f.equals(journalFile.getName()));
+        return journals != null ? journals : new File[0];
+    }
+
+    // Replays and removes the journals of instances that ended without emptying them. A journal
+    // still locked belongs to a running instance and is left alone.
+    private void recoverAbandoned(File[] journals) {
+        for (File file : journals) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock owner;
+                try {
+                    owner = channel.tryLock();
+                } catch (OverlappingFileLockException ex) {
+                    owner = null;
+                }
+                if (owner == null) continue;
+                recover(file, channel.size());
+                checkpoint();
+                // Emptied before the delete, so an instance that opens it meanwhile replays nothing
+                channel.truncate(0);
+            } catch (IOException ex) {
+                System.err.println("Failed to replay commit journal " + file.getName() + ": " + ex.getMessage());
+                continue;
+            }
+            if (!file.delete()) System.err.println("Failed to remove replayed journal " + file.getPath());
+        }
+    }
+
+    // Redoes every complete batch of a journal, stopping at a torn tail
+    private void recover(File file, long size) throws IOException {
+        if (size == 0) return;
+        boolean legacy = file.getName().equals(LEGACY_JOURNAL);
+        int batches = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    int crc = in.readInt();
+                    if (length < 0 || length > size) break;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    if ((int) crc(payload) != crc) break;
+                } catch (EOFException ex) {
+                    break;
+                }
+                replay(payload, legacy);
+                batches++;
+            }
+        }
+        if (batches > 0) System.err.println("Recovered " + batches + " journalled write batches from " + file.getPath());
+    }
+
+    // Redoes one batch. Another instance may have written the same files since, so each op is
+    // only redone while the file is still as the op found it.
+    private void replay(byte[] payload, boolean legacy) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            byte kind = in.readByte();
+            File file = new File(in.readUTF());
+            long offset = in.readLong();
+            long previousCrc = legacy ? 0 : in.readLong();
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            if (kind == APPEND) {
+                try (FileChannel channel = FileChannel.open(file.toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    long size = channel.size();
+                    if (size < offset || size > offset + bytes.length || !startsWith(channel, offset, bytes, size - offset)) {
+                        System.err.println("Skipped journalled append to " + file.getPath() + ": file was changed since");
+                        continue;
+                    }
+                    if (size == offset + bytes.length) continue;
+                    // Drops whatever part of the append made it before the crash, then writes it whole
+                    channel.truncate(offset);
+                    channel.position(offset);
+                    writeFully(channel, ByteBuffer.wrap(bytes));
+                }
+            } else {
+                byte[] current = read(file);
+                if (current != null && Arrays.equals(current, bytes)) continue;
+                boolean unchanged = current == null ? offset == MISSING
+                        : current.length == offset && crc(current) == previousCrc;
+                if (!legacy && !unchanged) {
+                    System.err.println("Skipped journalled rewrite of " + file.getPath() + ": file was changed since");
+                    continue;
+                }
+                replaceFile(file, bytes);
+            }
+            unsynced.add(file);
+        }
+    }
+
+    // True when the file holds the first count bytes of the expected bytes at the offset
+    private static boolean startsWith(FileChannel channel, long offset, byte[] expected, long count) throws IOException {
+        ByteBuffer found = ByteBuffer.allocate((int) count);
+        while (found.hasRemaining()) {
+            if (channel.read(found, offset + found.position()) < 0) return false;
+        }
+        return Arrays.equals(found.array(), 0, (int) count, expected, 0, (int) count);
+    }
+
+    // Whole file contents, or null if there is no file
+    private static byte[] read(File file) throws IOException {
+        return file.isFile() ? Files.readAllBytes(file.toPath()) : null;
+    }
+
+    private static long crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private static void closeAll(Map<File, FileChannel> channels) {
+        for (FileChannel channel : channels.values()) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                System.err.println("Failed to close committed file: " + ex.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+package model;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+// Synchronized throughout, since writes may run on a worker thread while the event thread reads.
+// Statements also hold the engine's connection lock, as every table shares the connection.
+class JdbcRecordStore<T> implements RecordStore<T> {
+
+    // Key for records without a facility, and for the whole table when not split by facility
+    private static final String NO_FACILITY = "";
+
+    private final JdbcStorageEngine engine;
+    private final TableSchema<T> schema;
+    private final UnaryOperator<T> onLoad;
+    private final String table;
+    private final String idColumn;
+
+    // Records of each facility read in full, in the order the database returned them
+    private final Map<String, List<T>> loaded = new HashMap<>();
+    // Identifiers of records accepted for appending, counted by maxSequence before they are written
+    private final Set<String> reserved = new HashSet<>();
+    private boolean fullyLoaded;
+    // Column/key pairs already read through an index
+    private final Set<String> matchedKeys = new HashSet<>();
+
+    JdbcRecordStore(JdbcStorageEngine engine, TableSchema<T> schema, UnaryOperator<T> onLoad) {
+        this.engine = engine;
+        this.schema = schema;
+        this.onLoad = onLoad;
+        this.table = engine.quoted(schema.getName());
+        this.idColumn = engine.quoted(schema.column(0));
+    }
+
+    private String facilityKey(String facilityId) {
+        return facilityId == null || !schema.isPartitioned() ? NO_FACILITY : facilityId.trim();
+    }
+
+    private String facilityKeyOf(T record) {
+        return facilityKey(schema.facilityOf(record));
+    }
+
+    @Override
+    public synchronized boolean load(String facilityId) {
+        String key = facilityKey(facilityId);
+        if (loaded.containsKey(key)) return false;
+        if (!schema.isPartitioned()) {
+            loadAll();
+            return true;
+        }
+        List<T> records = new ArrayList<>();
+        String facilityColumn = engine.quoted(schema.column(schema.facilityColumn()));
+        String where = key.isEmpty()
+                ? facilityColumn + " IS NULL OR " + facilityColumn + " = ''"
+                : facilityColumn + " = ?";
+        synchronized (engine.connection()) {
+            try (PreparedStatement ps = engine.connection().prepareStatement(
+                    "SELECT * FROM " + table + " WHERE " + where + " ORDER BY " + idColumn)) {
+                if (!key.isEmpty()) ps.setString(1, key);
+                read(ps, records);
+            } catch (SQLException ex) {
+                System.err.println("Failed to load " + schema.getName() + " for " + key + ": " + ex.getMessage());
+            }
+        }
+        loaded.put(key, records);
+        return true;
+    }
+
+    @Override
+    public synchronized void loadAll() {
+        if (fullyLoaded) return;
+        Map<String, List<T>> all = new HashMap<>();
+        synchronized (engine.connection()) {
+            try (Statement st = engine.connection().createStatement();
+                 ResultSet rs = st.executeQuery("SELECT * FROM " + table + " ORDER BY " + idColumn)) {
+                while (rs.next()) {
+                    T record = onLoad.apply(schema.fromRow(row(rs)));
+                    all.computeIfAbsent(facilityKeyOf(record), k -> new ArrayList<>()).add(record);
+                }
+            } catch (SQLException ex) {
+                System.err.println("Failed to load " + schema.getName() + ": " + ex.getMessage());
+                return;
+            }
+        }
+        // Facilities already held keep their lists, so records tracked in memory stay. A table
+        // not split by facility is held under one key, even when it is empty.
+        if (!schema.isPartitioned()) all.putIfAbsent(NO_FACILITY, new ArrayList<>());
+        for (Map.Entry<String, List<T>> e : all.entrySet()) loaded.putIfAbsent(e.getKey(), e.getValue());
+        fullyLoaded = true;
+    }
+
+    @Override
+    public synchronized boolean isFullyLoaded() {
+        return fullyLoaded;
+    }
+
+    @Override
+    public synchronized List<T> get(String facilityId) {
+        String key = facilityKey(facilityId);
+        load(key);
+        // A copy, since writes may change the list from a worker thread meanwhile
+        return Collections.unmodifiableList(new ArrayList<>(loaded.getOrDefault(key, Collections.emptyList())));
+    }
+
+    @Override
+    public synchronized boolean loadContaining(String id) {
+        return loadMatching(0, id);
+    }
+
+    // Reads matching rows through the column's index
+    @Override
+    public synchronized boolean loadMatching(int column, String key) {
+        if (key == null || key.isEmpty() || fullyLoaded) return false;
+        if (!matchedKeys.add(column + ":" + key)) return false;
+        List<T> records = new ArrayList<>();
+        synchronized (engine.connection()) {
+            try (PreparedStatement ps = engine.connection().prepareStatement(
+                    "SELECT * FROM " + table + " WHERE " + engine.quoted(schema.column(column)) + " = ?")) {
+                ps.setString(1, key);
+                read(ps, records);
+            } catch (SQLException ex) {
+                System.err.println("Failed to look up " + schema.getName() + " by " + schema.column(column) + ": " + ex.getMessage());
+            }
+        }
+        return !records.isEmpty();
+    }
+
+    // Scans only the identifier column
+    @Override
+    public synchronized int maxSequence(int prefixLength) {
+        int max = 0;
+        for (String id : reserved) max = Math.max(max, sequenceOf(id, prefixLength));
+        for (List<T> records : loaded.values()) {
+            for (T record : records) max = Math.max(max, sequenceOf(schema.idOf(record), prefixLength));
+        }
+        synchronized (engine.connection()) {
+            try (Statement st = engine.connection().createStatement();
+                 ResultSet rs = st.executeQuery("SELECT " + idColumn + " FROM " + table)) {
+                while (rs.next()) max = Math.max(max, sequenceOf(rs.getString(1), prefixLength));
+            } catch (SQLException ex) {
+                System.err.println("Failed to scan " + schema.getName() + ": " + ex.getMessage());
+            }
+        }
+        return max;
+    }
+
+    private static int sequenceOf(String id, int prefixLength) {
+        try {
+            return Integer.parseInt(id.trim().substring(prefixLength));
+        } catch (Exception ignore) {
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized void reserve(T record) {
+        reserved.add(schema.idOf(record));
+    }
+
+    @Override
+    public synchronized void track(T record) {
+        String key = facilityKeyOf(record);
+        load(key);
+        // Also when the table was empty or could not be read
+        loaded.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+    }
+
+    @Override
+    public synchronized void append(T record) throws IOException {
+        appendAll(Collections.singletonList(record));
+    }
+
+    @Override
+    public synchronized void appendAll(Collection<T> records) throws IOException {
+        try {
+            engine.insertAll(schema, records);
+        } catch (SQLException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        for (T record : records) {
+            List<T> held = loaded.get(facilityKeyOf(record));
+            if (held != null) held.add(record);
+        }
+    }
+
+    // Updates the one row in place, nothing else is read or rewritten
+    @Override
+    public synchronized void replace(T oldRecord, T newRecord) throws IOException {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        for (int i = 1; i < schema.columnCount(); i++) {
+            if (i > 1) sql.append(", ");
+            sql.append(engine.quoted(schema.column(i))).append(" = ?");
+        }
+        sql.append(" WHERE ").append(idColumn).append(" = ?");
+        String[] row = schema.toRow(newRecord);
+        synchronized (engine.connection()) {
+            try (PreparedStatement ps = engine.connection().prepareStatement(sql.toString())) {
+                String[] values = new String[schema.columnCount() - 1];
+                for (int i = 0; i < values.length; i++) values[i] = i + 1 < row.length ? row[i + 1] : "";
+                JdbcStorageEngine.bind(ps, values, values.length, 1);
+                ps.setString(values.length + 1, schema.idOf(oldRecord));
+                ps.executeUpdate();
+            } catch (SQLException ex) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+        }
+        untrack(oldRecord);
+        List<T> held = loaded.get(facilityKeyOf(newRecord));
+        if (held != null) held.add(newRecord);
+    }
+
+    @Override
+    public synchronized void remove(T record) throws IOException {
+        synchronized (engine.connection()) {
+            try (PreparedStatement ps = engine.connection().prepareStatement(
+                    "DELETE FROM " + table + " WHERE " + idColumn + " = ?")) {
+                ps.setString(1, schema.idOf(record));
+                ps.executeUpdate();
+            } catch (SQLException ex) {
+                throw new IOException(ex.getMessage(), ex);
+            }
+        }
+        untrack(record);
+    }
+
+    private void untrack(T record) {
+        List<T> held = loaded.get(facilityKeyOf(record));
+        if (held != null) held.remove(record);
+    }
+
+    // Passes every row of the result through onLoad, collecting the instances kept
+    private void read(PreparedStatement ps, List<T> records) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) records.add(onLoad.apply(schema.fromRow(row(rs))));
+        }
+    }
+
+    private String[] row(ResultSet rs) throws SQLException {
+        String[] row = new String[schema.columnCount()];
+        for (int i = 0; i < row.length; i++) {
+            String value = rs.getString(i + 1);
+            row[i] = value != null ? value : "";
+        }
+        return row;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+public class JdbcStorageEngine implements StorageEngine {
+
+    // Rows sent per executeBatch call
+    static final int BATCH_SIZE = 1000;
+    // Identifiers are short codes, every other column is free text
+    private static final String ID_TYPE = "VARCHAR(64)";
+    private static final String TEXT_TYPE = "VARCHAR(4000)";
+
+    // Shared by every table's store; see connection()
+    private final Connection connection;
+    private final String quote;
+    // CSV data imported into a table the first time it is created, may be null
+    private final String importDir;
+
+    // Connects to the database, e.g. an embedded file database such as jdbc:h2:file:data/hms
+    public JdbcStorageEngine(String url, String user, String password, String importDir) throws SQLException {
+        this.connection = DriverManager.getConnection(url, user, password);
+        String q = connection.getMetaData().getIdentifierQuoteString();
+        this.quote = q == null || q.isBlank() ? "" : q.trim();
+        this.importDir = importDir;
+    }
+
+    // Creates the table and its indexes on first use, then serves it row by row. The first
+    // time, the table is built and filled from CSV under a scratch name and renamed only once
+    // complete, so a failed import is started again on the next open. A table that cannot be
+    // made ready throws rather than being served empty.
+    @Override
+    public <T> RecordStore<T> open(TableSchema<T> schema, UnaryOperator<T> onLoad) {
+        synchronized (connection) {
+            try {
+                if (!tableExists(schema.getName())) {
+                    String scratch = schema.getName() + "_importing";
+                    if (tableExists(scratch)) dropTable(scratch);
+                    createTable(schema, scratch);
+                    importCsv(schema, scratch);
+                    try (Statement st = connection.createStatement()) {
+                        st.executeUpdate("ALTER TABLE " + quoted(scratch) + " RENAME TO " + quoted(schema.getName()));
+                    }
+                }
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Cannot prepare table " + schema.getName() + ": " + ex.getMessage(), ex);
+            }
+        }
+        return TracedRecordStore.wrap(new JdbcRecordStore<>(this, schema, onLoad), schema);
+    }
+
+    @Override
+    public String getName() {
+        return "jdbc";
+    }
+
+    // Statements run in auto-commit mode, so every change is already committed
+    @Override
+    public void flush() {
+    }
+
+    // The database reclaims deleted rows itself
+    @Override
+    public void compact() {
+    }
+
+    @Override
+    public void close() {
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            System.err.println("Failed to close database: " + ex.getMessage());
+        }
+    }
+
+    // The connection every store of this engine uses. Hold its lock for any statement: a
+    // transaction left open on it by one table would otherwise take in another table's writes,
+    // and its rollback undo them.
+    Connection connection() {
+        return connection;
+    }
+
+    // Quoted identifier, so column names keep their case on every database
+    String quoted(String identifier) {
+        return quote + identifier + quote;
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getTables(null, null, table, new String[]{"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    private void dropTable(String table) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("DROP TABLE " + quoted(table));
+        }
+    }
+
+    // Primary key on the identifier and a secondary index per looked-up column, with the
+    // schema's column and index names under the given table name
+    private void createTable(TableSchema<?> schema, String table) throws SQLException {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE ").append(quoted(table)).append(" (");
+        for (int i = 0; i < schema.columnCount(); i++) {
+            if (i > 0) ddl.append(", ");
+            ddl.append(quoted(schema.column(i))).append(' ').append(i == 0 ? ID_TYPE + " NOT NULL" : TEXT_TYPE);
+        }
+        ddl.append(", PRIMARY KEY (").append(quoted(schema.column(0))).append("))");
+
+        List<Integer> indexed = new ArrayList<>();
+        for (int column : schema.indexedColumns()) indexed.add(column);
+        if (schema.isPartitioned() && !indexed.contains(schema.facilityColumn())) indexed.add(schema.facilityColumn());
+
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate(ddl.toString());
+            for (int column : indexed) {
+                st.executeUpdate("CREATE INDEX " + quoted(schema.getName() + "_" + schema.column(column) + "_idx")
+                        + " ON " + quoted(table) + " (" + quoted(schema.column(column)) + ")");
+            }
+        }
+    }
+
+    // Copies existing CSV records into a new table with batched inserts
+    private <T> void importCsv(TableSchema<T> schema, String table) throws SQLException {
+        if (importDir == null) return;
+        List<T> records = CsvStorageEngine.readAll(importDir, schema);
+        if (records.isEmpty()) return;
+        insertAll(schema, table, records);
+        System.err.println("Imported " + records.size() + " " + schema.getName() + " from CSV");
+    }
+
+    // Inserts records in batches inside one transaction
+    <T> void insertAll(TableSchema<T> schema, Iterable<T> records) throws SQLException {
+        insertAll(schema, schema.getName(), records);
+    }
+
+    private <T> void insertAll(TableSchema<T> schema, String table, Iterable<T> records) throws SQLException {
+        synchronized (connection) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(insertSql(schema, table))) {
+                int pending = 0;
+                for (T record : records) {
+                    bind(ps, schema.toRow(record), schema.columnCount(), 1);
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) ps.executeBatch();
+                connection.commit();
+            } catch (SQLException ex) {
+                connection.rollback();
+                throw ex;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private String insertSql(TableSchema<?> schema, String table) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(quoted(table)).append(" (");
+        StringBuilder params = new StringBuilder();
+        for (int i = 0; i < schema.columnCount(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+                params.append(", ");
+            }
+            sql.append(quoted(schema.column(i)));
+            params.append('?');
+        }
+        return sql.append(") VALUES (").append(params).append(')').toString();
+    }
+
+    // Sets count values from the row starting at parameter index first, padding short rows
+    static void bind(PreparedStatement ps, String[] row, int count, int first) throws SQLException {
+        for (int i = 0; i < count; i++) {
+            ps.setString(first + i, i < row.length && row[i] != null ? row[i] : "");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+public class KeysetIndex<T> implements PageSource<T> {
+
+    // Composite cursor: sort value first, record ID as tie-breaker
+    public static final class Key implements Comparable<Key> {
+        private final String value;
+        private final String id;
+
+        public Key(String value, String id) {
+            this.value = value == null ? "" : value;
+            this.id = id == null ? "" : id;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = value.compareTo(other.value);
+            return result != 0 ? result : id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && compareTo((Key) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * value.hashCode() + id.hashCode();
+        }
+    }
+
+    private final Function<T, String> sortValue;
+    private final Function<T, String> idOf;
+    // Entries in page order, newest first when descending
+    private final NavigableMap<Key, T> entries;
+
+    public KeysetIndex(Function<T, String> sortValue, Function<T, String> idOf, boolean descending) {
+        this.sortValue = sortValue;
+        this.idOf = idOf;
+        Comparator<Key> order = Comparator.naturalOrder();
+        this.entries = new TreeMap<>(descending ? order.reversed() : order);
+    }
+
+    // Cursor position of an item
+    public Key keyOf(T item) {
+        return new Key(sortValue.apply(item), idOf.apply(item));
+    }
+
+    // Adds item at its cursor position
+    public void add(T item) {
+        entries.put(keyOf(item), item);
+    }
+
+    // Removes item if it is still stored at its cursor position
+    public void remove(T item) {
+        entries.remove(keyOf(item), item);
+    }
+
+    // Seeks to the cursor in O(log n) and walks forward
+    @Override
+    public List<T> after(T last, int limit) {
+        NavigableMap<Key, T> tail = last == null ? entries : entries.tailMap(keyOf(last), false);
+        return take(tail, limit);
+    }
+
+    // Seeks to the cursor in O(log n) and walks backward
+    @Override
+    public List<T> before(T first, int limit) {
+        if (first == null) return new ArrayList<>();
+        List<T> page = take(entries.headMap(keyOf(first), false).descendingMap(), limit);
+        Collections.reverse(page);
+        return page;
+    }
+
+    // Number of indexed items
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    // Copies at most limit values, touching only the entries returned
+    private static <T> List<T> take(NavigableMap<Key, T> map, int limit) {
+        List<T> page = new ArrayList<>(Math.min(limit, 256));
+        Iterator<T> it = map.values().iterator();
+        while (it.hasNext() && page.size() < limit) page.add(it.next());
+        return page;
+    }
+}
\ No newline at end of file
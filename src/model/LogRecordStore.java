@@ -0,0 +1,262 @@
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.UnaryOperator;
+
+// Synchronized throughout, since writes may run on a worker thread while the event thread reads
+class LogRecordStore<T> implements RecordStore<T> {
+
+    // Key for records without a facility, and for the whole table when not split by facility
+    private static final String NO_FACILITY = "";
+
+    private final SegmentLog log;
+    private final TableSchema<T> schema;
+    private final UnaryOperator<T> onLoad;
+    // Row columns whose values the log keeps in memory: the facility column first, then lookups
+    private final int[] tagColumns;
+
+    // Identifiers per value of each tag column, built from the log's index without reading rows
+    private final List<Map<String, Set<String>>> idsByTag = new ArrayList<>();
+    // Records already handed out, so repeated lookups skip the disk read
+    private final Map<String, T> held = new HashMap<>();
+    // Records of each facility read in full
+    private final Map<String, List<T>> loaded = new HashMap<>();
+    // Identifiers of records accepted for appending, counted by maxSequence before they are written
+    private final Set<String> reserved = new HashSet<>();
+    private boolean fullyLoaded;
+
+    LogRecordStore(SegmentLog log, TableSchema<T> schema, int[] tagColumns, UnaryOperator<T> onLoad) {
+        this.log = log;
+        this.schema = schema;
+        this.tagColumns = tagColumns;
+        this.onLoad = onLoad;
+        for (int i = 0; i < tagColumns.length; i++) idsByTag.add(new HashMap<>());
+        for (Map.Entry<String, String[]> e : log.tags().entrySet()) addTags(e.getKey(), e.getValue());
+    }
+
+    // Tag columns for a schema: facility first when partitioned, then the looked-up columns
+    static int[] tagColumns(TableSchema<?> schema) {
+        Set<Integer> columns = new LinkedHashSet<>();
+        if (schema.isPartitioned()) columns.add(schema.facilityColumn());
+        for (int c : schema.indexedColumns()) columns.add(c);
+        int[] tags = new int[columns.size()];
+        int i = 0;
+        for (int c : columns) tags[i++] = c;
+        return tags;
+    }
+
+    private void addTags(String id, String[] tags) {
+        for (int i = 0; i < tagColumns.length; i++) {
+            idsByTag.get(i).computeIfAbsent(tags[i], k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeTags(String id, String[] tags) {
+        for (int i = 0; i < tagColumns.length; i++) {
+            Set<String> ids = idsByTag.get(i).get(tags[i]);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) idsByTag.get(i).remove(tags[i]);
+        }
+    }
+
+    private String[] tagsOf(String[] row) {
+        String[] tags = new String[tagColumns.length];
+        for (int i = 0; i < tags.length; i++) {
+            int c = tagColumns[i];
+            tags[i] = c < row.length && row[c] != null ? row[c] : "";
+        }
+        return tags;
+    }
+
+    private int tagIndex(int column) {
+        for (int i = 0; i < tagColumns.length; i++) {
+            if (tagColumns[i] == column) return i;
+        }
+        return -1;
+    }
+
+    private String facilityKey(String facilityId) {
+        return facilityId == null || !schema.isPartitioned() ? NO_FACILITY : facilityId.trim();
+    }
+
+    private String facilityKeyOf(T record) {
+        return facilityKey(schema.facilityOf(record));
+    }
+
+    // Reads one record by positioned read unless it is already in memory
+    private T read(String id) {
+        T record = held.get(id);
+        if (record != null) return record;
+        try {
+            String[] row = log.get(id);
+            if (row == null) return null;
+            record = onLoad.apply(schema.fromRow(row));
+            held.put(id, record);
+        } catch (IOException ex) {
+            System.err.println("Failed to read " + schema.getName() + " " + id + ": " + ex.getMessage());
+        }
+        return record;
+    }
+
+    // Identifiers with this value in a tag column, in sorted order
+    private Set<String> idsWith(int column, String key) {
+        if (column == 0) return Collections.singleton(key);
+        int tag = tagIndex(column);
+        if (tag < 0) {
+            // Not a tag column, fall back to reading every record
+            loadAll();
+            return Collections.emptySet();
+        }
+        Set<String> ids = idsByTag.get(tag).get(key);
+        return ids == null ? Collections.emptySet() : new TreeSet<>(ids);
+    }
+
+    @Override
+    public synchronized boolean load(String facilityId) {
+        String key = facilityKey(facilityId);
+        if (loaded.containsKey(key)) return false;
+        if (!schema.isPartitioned()) {
+            loadAll();
+            return true;
+        }
+        List<T> records = new ArrayList<>();
+        for (String id : idsWith(schema.facilityColumn(), key)) {
+            T record = read(id);
+            if (record != null) records.add(record);
+        }
+        loaded.put(key, records);
+        return true;
+    }
+
+    @Override
+    public synchronized void loadAll() {
+        if (fullyLoaded) return;
+        Map<String, List<T>> all = new LinkedHashMap<>();
+        for (String id : new TreeSet<>(log.keys())) {
+            T record = read(id);
+            if (record != null) all.computeIfAbsent(facilityKeyOf(record), k -> new ArrayList<>()).add(record);
+        }
+        // An empty unpartitioned table still has its one list, for track to add to
+        if (!schema.isPartitioned()) all.putIfAbsent(NO_FACILITY, new ArrayList<>());
+        for (Map.Entry<String, List<T>> e : all.entrySet()) loaded.putIfAbsent(e.getKey(), e.getValue());
+        fullyLoaded = true;
+    }
+
+    @Override
+    public synchronized boolean isFullyLoaded() {
+        return fullyLoaded;
+    }
+
+    @Override
+    public synchronized List<T> get(String facilityId) {
+        String key = facilityKey(facilityId);
+        load(key);
+        // A copy, since writes may change the list from a worker thread meanwhile
+        return Collections.unmodifiableList(new ArrayList<>(loaded.getOrDefault(key, Collections.emptyList())));
+    }
+
+    @Override
+    public synchronized boolean loadContaining(String id) {
+        return loadMatching(0, id);
+    }
+
+    // Finds identifiers in memory, then reads each row with one positioned read
+    @Override
+    public synchronized boolean loadMatching(int column, String key) {
+        if (key == null || key.isEmpty() || fullyLoaded) return false;
+        boolean found = false;
+        for (String id : idsWith(column, key)) {
+            if (!held.containsKey(id) && read(id) != null) found = true;
+        }
+        return found;
+    }
+
+    // Identifiers are all in memory, nothing is read
+    @Override
+    public synchronized int maxSequence(int prefixLength) {
+        int max = 0;
+        for (String id : reserved) max = Math.max(max, sequenceOf(id, prefixLength));
+        for (String id : log.keys()) max = Math.max(max, sequenceOf(id, prefixLength));
+        for (String id : held.keySet()) max = Math.max(max, sequenceOf(id, prefixLength));
+        return max;
+    }
+
+    private static int sequenceOf(String id, int prefixLength) {
+        try {
+            return Integer.parseInt(id.trim().substring(prefixLength));
+        } catch (Exception ignore) {
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized void reserve(T record) {
+        reserved.add(schema.idOf(record));
+    }
+
+    @Override
+    public synchronized void track(T record) {
+        String key = facilityKeyOf(record);
+        load(key);
+        loaded.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+        held.put(schema.idOf(record), record);
+    }
+
+    @Override
+    public synchronized void append(T record) throws IOException {
+        appendAll(Collections.singletonList(record));
+    }
+
+    // One sequential append for the whole batch
+    @Override
+    public synchronized void appendAll(Collection<T> records) throws IOException {
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (T record : records) rows.put(schema.idOf(record), schema.toRow(record));
+        log.putAll(rows);
+        for (T record : records) {
+            String id = schema.idOf(record);
+            addTags(id, tagsOf(rows.get(id)));
+            held.put(id, record);
+            List<T> list = loaded.get(facilityKeyOf(record));
+            if (list != null) list.add(record);
+        }
+    }
+
+    // Appends the new version, nothing is rewritten
+    @Override
+    public synchronized void replace(T oldRecord, T newRecord) throws IOException {
+        String[] row = schema.toRow(newRecord);
+        String id = schema.idOf(newRecord);
+        log.put(id, row);
+        removeTags(schema.idOf(oldRecord), tagsOf(schema.toRow(oldRecord)));
+        addTags(id, tagsOf(row));
+        untrack(oldRecord);
+        held.put(id, newRecord);
+        List<T> list = loaded.get(facilityKeyOf(newRecord));
+        if (list != null) list.add(newRecord);
+    }
+
+    @Override
+    public synchronized void remove(T record) throws IOException {
+        String id = schema.idOf(record);
+        log.delete(id);
+        removeTags(id, tagsOf(schema.toRow(record)));
+        untrack(record);
+    }
+
+    private void untrack(T record) {
+        held.remove(schema.idOf(record));
+        List<T> list = loaded.get(facilityKeyOf(record));
+        if (list != null) list.remove(record);
+    }
+}
\ No newline at end of file
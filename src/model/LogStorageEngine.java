@@ -0,0 +1,99 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+public class LogStorageEngine implements StorageEngine {
+
+    // Directory holding one <table>.log/ directory of segments per table
+    private final String dataDir;
+    private final List<SegmentLog> logs = new ArrayList<>();
+
+    public LogStorageEngine(String dataDir) {
+        this.dataDir = dataDir;
+    }
+
+    // Opens the table's log, importing the CSV data the first time; a log that cannot be
+    // opened fails like an unknown engine, rather than quietly serving the CSV files
+    @Override
+    public <T> RecordStore<T> open(TableSchema<T> schema, UnaryOperator<T> onLoad) {
+        int[] tagColumns = LogRecordStore.tagColumns(schema);
+        File dir = new File(dataDir, schema.getName() + ".log");
+        SegmentLog log = null;
+        try {
+            if (!dir.isDirectory()) importCsv(schema, dir, tagColumns);
+            log = new SegmentLog(dir, tagColumns);
+            RecordStore<T> store = TracedRecordStore.wrap(new LogRecordStore<>(log, schema, tagColumns, onLoad), schema);
+            synchronized (logs) {
+                logs.add(log);
+            }
+            return store;
+        } catch (IOException ex) {
+            if (log != null) close(log);
+            throw new IllegalStateException("Cannot open " + schema.getName() + " log: " + ex.getMessage(), ex);
+        }
+    }
+
+    // Copies the table's CSV records into a new log under a scratch name, renamed to dir only
+    // once every record is on disk, so a crash part way leaves no log and the next start
+    // imports again from the beginning
+    private <T> void importCsv(TableSchema<T> schema, File dir, int[] tagColumns) throws IOException {
+        File scratch = new File(dir.getPath() + ".importing");
+        FacilityPartitions.deleteTree(scratch);
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        for (T record : CsvStorageEngine.readAll(dataDir, schema)) rows.put(schema.idOf(record), schema.toRow(record));
+        SegmentLog log = new SegmentLog(scratch, tagColumns);
+        try {
+            if (!rows.isEmpty()) log.putAll(rows);
+        } finally {
+            log.close();
+        }
+        Files.move(scratch.toPath(), dir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        if (!rows.isEmpty()) System.err.println("Imported " + rows.size() + " " + schema.getName() + " from CSV");
+    }
+
+    private static void close(SegmentLog log) {
+        try {
+            log.close();
+        } catch (IOException ex) {
+            System.err.println("Failed to close log: " + ex.getMessage());
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    // Forces every active segment to disk
+    @Override
+    public void flush() throws IOException {
+        synchronized (logs) {
+            for (SegmentLog log : logs) log.sync();
+        }
+    }
+
+    // Seals every active segment and copies each log's live records into one segment
+    @Override
+    public void compact() throws IOException {
+        synchronized (logs) {
+            for (SegmentLog log : logs) log.compactNow();
+        }
+    }
+
+    // Finishes running compactions and flushes every active segment
+    @Override
+    public void close() {
+        synchronized (logs) {
+            for (SegmentLog log : logs) close(log);
+            logs.clear();
+        }
+    }
+}
\ No newline at end of file
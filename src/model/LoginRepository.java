@@ -1,77 +1,92 @@
-package model;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public class LoginRepository {
-    // Collection of all system user login credentials
-    private List<Login> loginUsers;
-    // Reference repositories for user data access
-    private PatientRepository patientRepo;
-    private ClinicianRepository clinicianRepo;
-    private StaffRepository staffRepo;
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Constructor - initializes repository with user data sources
-    public LoginRepository(PatientRepository pr, ClinicianRepository cr, StaffRepository sr) {
-        this.patientRepo = pr;
-        this.clinicianRepo = cr;
-        this.staffRepo = sr;
-        this.loginUsers = new ArrayList<>();
-        loadUsers();
-    }
-
-    // Populates login repository from all user data sources
-    private void loadUsers() {
-        // Load all patients as system users (using ID as password)
-        for (Patient p : patientRepo.getAll()) {
-            loginUsers.add(new Login(
-                p.getId(), 
-                p.getId(), // Simplified authentication: ID as password
-                "patient", 
-                p
-            ));
-        }
-
-        // Load all clinicians as system users
-        for (Clinician c : clinicianRepo.getAll()) {
-            loginUsers.add(new Login(
-                c.getId(),
-                c.getId(), // Simplified authentication: ID as password
-                "clinician",
-                c
-            ));
-        }
-
-        // Load all staff members as system users
-        for (Staff s : staffRepo.getAll()) {
-            loginUsers.add(new Login(
-                s.getId(),
-                s.getId(), // Simplified authentication: ID as password
-                "staff",
-                s
-            ));
-        }
-        
-        // Add demo administrator account (optional system access)
-        loginUsers.add(new Login("admin", "admin123", "admin", null));
-    }
-
-    // Validates user credentials against stored authentication data
-    public Login authenticate(String userId, String password) {
-        for (Login user : loginUsers) {
-            if (user.getUserId().equals(userId) && user.authenticate(password)) {
-                return user;
-            }
-        }
-        return null;
-    }
-
-    // Returns all user identifiers with role information
-    public List<String> getAllUserIds() {
-        List<String> ids = new ArrayList<>();
-        for (Login user : loginUsers) {
-            ids.add(user.getUserId() + " (" + user.getRole() + ")");
-        }
-        return ids;
-    }
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LoginRepository {
+    // Accounts that exist outside the user data sources
+    private List<Login> loginUsers;
+    // Reference repositories for user data access
+    private PatientRepository patientRepo;
+    private ClinicianRepository clinicianRepo;
+    private StaffRepository staffRepo;
+    // Attempt limits checked before any account is looked up
+    private final LoginThrottle throttle = LoginThrottle.configure();
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Constructor - initializes repository with user data sources
+    public LoginRepository(PatientRepository pr, ClinicianRepository cr, StaffRepository sr) {
+        this.patientRepo = pr;
+        this.clinicianRepo = cr;
+        this.staffRepo = sr;
+        this.loginUsers = new ArrayList<>();
+        loadUsers();
+    }
+
+    // Registers accounts that are not backed by a patient, clinician or staff record
+    private void loadUsers() {
+        // Add demo administrator account (optional system access)
+        loginUsers.add(new Login("admin", "admin123", "admin", null));
+    }
+
+    // Validates user credentials against stored authentication data, null if they are wrong.
+    // Once the user ID or everyone has made too many attempts, throws without checking them.
+    public Login authenticate(String userId, String password) throws LoginThrottledException {
+        if (!throttle.tryAcquire(userId)) {
+            // Left without the user ID, which anyone can make up in any number
+            new ServiceEvent("login", "throttled", null).finish(false);
+            throw new LoginThrottledException("Too many login attempts", Math.max(1, throttle.retryAfterMillis(userId)));
+        }
+        ServiceEvent event = new ServiceEvent("login", "authenticate", userId);
+        Login user = check(userId, password);
+        event.finish(user != null);
+        return user;
+    }
+
+    private Login check(String userId, String password) {
+        for (Login user : loginUsers) {
+            if (user.getUserId().equals(userId) && user.authenticate(password)) {
+                return user;
+            }
+        }
+        // Look the user up directly so only the segment holding their record is read
+        Login user = findUser(userId);
+        if (user != null && user.authenticate(password)) {
+            return user;
+        }
+        return null;
+    }
+
+    // Builds the login for a patient, clinician or staff record with this ID
+    private Login findUser(String userId) {
+        if (userId == null || userId.isEmpty()) return null;
+        // Simplified authentication: ID as password
+        Patient p = patientRepo.findById(userId);
+        if (p != null) return new Login(p.getId(), p.getId(), "patient", p);
+        Clinician c = clinicianRepo.findById(userId);
+        if (c != null) return new Login(c.getId(), c.getId(), "clinician", c);
+        Staff s = staffRepo.findById(userId);
+        if (s != null) return new Login(s.getId(), s.getId(), "staff", s);
+        return null;
+    }
+
+    // Facility a user works at or is registered with, null for site-less accounts
+    public static String getHomeFacilityId(Login user) {
+        Object u = user.getUserObject();
+        if (u instanceof Patient) return ((Patient) u).getGpSurgeryId();
+        if (u instanceof Clinician) return ((Clinician) u).getWorkplaceId();
+        if (u instanceof Staff) return ((Staff) u).getFacilityId();
+        return null;
+    }
+
+    // Returns all user identifiers with role information
+    public List<String> getAllUserIds() {
+        List<String> ids = new ArrayList<>();
+        for (Patient p : patientRepo.getAll()) ids.add(p.getId() + " (patient)");
+        for (Clinician c : clinicianRepo.getAll()) ids.add(c.getId() + " (clinician)");
+        for (Staff s : staffRepo.getAll()) ids.add(s.getId() + " (staff)");
+        for (Login user : loginUsers) {
+            ids.add(user.getUserId() + " (" + user.getRole() + ")");
+        }
+        return ids;
+    }
 }
\ No newline at end of file
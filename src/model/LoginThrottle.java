@@ -0,0 +1,135 @@
+package model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Limits login attempts per user ID and overall before any account is looked up, so a script
+// guessing passwords, or flooding made-up IDs, costs a few array reads per attempt.
+// Each limit is a token bucket kept as one long, the time at which the bucket will be full
+// again, and updated by compare-and-set, so attempts on any number of threads never wait on
+// a lock. Per-user buckets live in a fixed sketch of ROWS x width cells indexed by hashes of
+// the ID: memory stays the same however many IDs are tried, and an ID that shares a cell
+// with a busy one can only be limited early, never let through late.
+// Settings: -Dhms.login.userPerMinute (default 5), -Dhms.login.userBurst (default 5),
+// -Dhms.login.globalPerSecond (default 50), -Dhms.login.globalBurst (default 100),
+// -Dhms.login.sketchWidth (cells per row, default 4096).
+public class LoginThrottle {
+
+    private static final int ROWS = 3;
+    // Characters of an ID that are hashed, so a very long ID costs no more than a short one
+    private static final int MAX_ID_LENGTH = 64;
+    // Each row indexes with its own 21 bits of the hash
+    private static final int MAX_WIDTH = 1 << 21;
+
+    private final long userInterval;
+    private final long userWindow;
+    private final long globalInterval;
+    private final long globalWindow;
+    private final int mask;
+    // Time each cell's bucket is full again, in nanos; rows one after another
+    private final AtomicLongArray cells;
+    private final AtomicLong global = new AtomicLong();
+    // Shifts the nano clock so an empty cell or bucket (0) reads as full
+    private final long origin = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+    public LoginThrottle(int userPerMinute, int userBurst, int globalPerSecond, int globalBurst, int sketchWidth) {
+        this.userInterval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, userPerMinute);
+        this.userWindow = userInterval * Math.max(1, userBurst);
+        this.globalInterval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, globalPerSecond);
+        this.globalWindow = globalInterval * Math.max(1, globalBurst);
+        int width = Integer.highestOneBit(Math.min(MAX_WIDTH, Math.max(64, sketchWidth)));
+        this.mask = width - 1;
+        this.cells = new AtomicLongArray(ROWS * width);
+    }
+
+    // The limits set on the command line
+    public static LoginThrottle configure() {
+        return new LoginThrottle(
+                Integer.getInteger("hms.login.userPerMinute", 5),
+                Integer.getInteger("hms.login.userBurst", 5),
+                Integer.getInteger("hms.login.globalPerSecond", 50),
+                Integer.getInteger("hms.login.globalBurst", 100),
+                Integer.getInteger("hms.login.sketchWidth", 4096));
+    }
+
+    // Takes one attempt for the user ID and one from the overall limit; false if either is used up.
+    // An ID already over its limit takes nothing from the overall one, and an attempt the overall
+    // limit turns away is not charged to the ID, so a flood of made-up IDs fills the sketch no
+    // faster than the overall rate.
+    public boolean tryAcquire(String userId) {
+        long now = now();
+        long hash = hash(userId);
+        if (waitFor(userFullAt(hash), userInterval, userWindow, now) > 0) return false;
+        if (!acquire(global, globalInterval, globalWindow, now)) return false;
+        return acquireUser(hash, now);
+    }
+
+    // How long until the user ID may try again, 0 if it may now; takes nothing
+    public long retryAfterMillis(String userId) {
+        long now = now();
+        long wait = Math.max(waitFor(userFullAt(hash(userId)), userInterval, userWindow, now),
+                waitFor(global.get(), globalInterval, globalWindow, now));
+        return wait == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait));
+    }
+
+    // Lowest full-at time over the ID's cells, the best estimate of its own bucket
+    private long userFullAt(long hash) {
+        long full = Long.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) full = Math.min(full, cells.get(index(hash, row)));
+        return full;
+    }
+
+    // Charges the ID's bucket. Only cells below the new estimate are raised, so a cell shared
+    // with a busy ID is not pushed further than that ID already pushed it.
+    private boolean acquireUser(long hash, long now) {
+        long full = Math.max(userFullAt(hash), now);
+        long next = full + userInterval;
+        if (next - now > userWindow) return false;
+        for (int row = 0; row < ROWS; row++) {
+            int i = index(hash, row);
+            long cell;
+            do {
+                cell = cells.get(i);
+            } while (cell < next && !cells.compareAndSet(i, cell, next));
+        }
+        return true;
+    }
+
+    // Takes one token from a bucket unless that would overdraw it
+    private static boolean acquire(AtomicLong bucket, long interval, long window, long now) {
+        while (true) {
+            long full = bucket.get();
+            long next = Math.max(full, now) + interval;
+            if (next - now > window) return false;
+            if (bucket.compareAndSet(full, next)) return true;
+        }
+    }
+
+    private static long waitFor(long full, long interval, long window, long now) {
+        return Math.max(0, Math.max(full, now) + interval - now - window);
+    }
+
+    private int index(long hash, int row) {
+        return row * (mask + 1) + ((int) (hash >>> (row * 21)) & mask);
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    // 64-bit FNV-1a over the first MAX_ID_LENGTH characters, so the cost does not grow with the input
+    private static long hash(String userId) {
+        long h = 0xcbf29ce484222325L;
+        if (userId == null) return h;
+        int n = Math.min(userId.length(), MAX_ID_LENGTH);
+        for (int i = 0; i < n; i++) {
+            h ^= userId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        // Spread the low bits into the slices the rows use
+        h ^= h >>> 29;
+        h *= 0xbf58476d1ce4e5b9L;
+        return h ^ (h >>> 32);
+    }
+}
\ No newline at end of file
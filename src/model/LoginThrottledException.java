@@ -0,0 +1,23 @@
+package model;
+
+// Thrown by LoginRepository.authenticate for an attempt turned away by the login limits,
+// before any account was checked, so it says nothing about the password
+public class LoginThrottledException extends Exception {
+
+    // How long until the user ID may try again
+    private final long retryAfterMillis;
+
+    public LoginThrottledException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    // Whole seconds to wait, rounded up, for messages to the user
+    public long getRetryAfterSeconds() {
+        return (retryAfterMillis + 999) / 1000;
+    }
+}
\ No newline at end of file
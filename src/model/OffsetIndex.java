@@ -0,0 +1,208 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class OffsetIndex {
+
+    // Sidecar layout: data length, data timestamp, key width, entry count,
+    // then fixed-width (key, row offset) entries sorted by key
+    private static final int HEADER_BYTES = 8 + 8 + 4 + 4;
+    private static final int CHUNK = 64 * 1024;
+
+    // Rows are decoded the same way FileReader reads them in CsvUtils
+    private static final Charset DATA_CHARSET = Charset.defaultCharset();
+
+    private final File data;
+    private final File sidecar;
+    private final int column;
+
+    // Index over one column of a CSV file, kept next to it as <file>.<column>.idx
+    OffsetIndex(String csvPath, String columnName, int column) {
+        this.data = new File(csvPath);
+        this.sidecar = new File(csvPath + "." + columnName + ".idx");
+        this.column = column;
+    }
+
+    // Rows whose column equals the key, found by binary search and read by offset
+    List<String[]> rows(String key) throws IOException {
+        if (!data.isFile()) return Collections.emptyList();
+        if (!isFresh()) rebuild();
+        List<String[]> rows = read(key);
+        if (rows == null) {
+            // Rewritten within the timestamp resolution, offsets no longer line up
+            rebuild();
+            rows = read(key);
+        }
+        return rows != null ? rows : Collections.emptyList();
+    }
+
+    // True when the sidecar was built from the data file as it is now
+    private boolean isFresh() throws IOException {
+        if (!sidecar.isFile()) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecar)))) {
+            return in.readLong() == data.length() && in.readLong() == GroupCommit.modified(data);
+        } catch (EOFException ex) {
+            return false;
+        }
+    }
+
+    // Reads the rows at the key's offsets, or null if one no longer carries the key
+    private List<String[]> read(String key) throws IOException {
+        List<Long> offsets = lookup(key);
+        List<String[]> rows = new ArrayList<>(offsets.size());
+        if (offsets.isEmpty()) return rows;
+        try (RandomAccessFile raf = new RandomAccessFile(data, "r")) {
+            for (long offset : offsets) {
+                if (offset >= raf.length()) return null;
+                String[] row = CsvUtils.parseLine(readLine(raf, offset));
+                if (row.length <= column || !row[column].equals(key)) return null;
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    // Offsets recorded for the key, located with O(log n) positioned reads
+    private List<Long> lookup(String key) throws IOException {
+        byte[] target = key.getBytes(StandardCharsets.UTF_8);
+        List<Long> offsets = new ArrayList<>();
+        try (RandomAccessFile raf = new RandomAccessFile(sidecar, "r")) {
+            raf.seek(16);
+            int width = raf.readInt();
+            int count = raf.readInt();
+            if (target.length > width) return offsets;
+            byte[] padded = Arrays.copyOf(target, width);
+            byte[] entryKey = new byte[width];
+            long entryBytes = width + 8L;
+
+            // Lower bound of the key among the sorted entries
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                raf.seek(HEADER_BYTES + mid * entryBytes);
+                raf.readFully(entryKey);
+                if (Arrays.compareUnsigned(entryKey, padded) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            raf.seek(HEADER_BYTES + lo * entryBytes);
+            for (int i = lo; i < count; i++) {
+                raf.readFully(entryKey);
+                if (!Arrays.equals(entryKey, padded)) break;
+                offsets.add(raf.readLong());
+            }
+        }
+        return offsets;
+    }
+
+    // Reads one line starting at a byte offset
+    private static String readLine(RandomAccessFile raf, long offset) throws IOException {
+        raf.seek(offset);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] buf = new byte[512];
+        int n;
+        while ((n = raf.read(buf)) > 0) {
+            for (int i = 0; i < n; i++) {
+                if (buf[i] == '\n') {
+                    line.write(buf, 0, i);
+                    return decode(line);
+                }
+            }
+            line.write(buf, 0, n);
+        }
+        return decode(line);
+    }
+
+    private static String decode(ByteArrayOutputStream line) {
+        String s = new String(line.toByteArray(), DATA_CHARSET);
+        return s.endsWith("\r") ? s.substring(0, s.length() - 1) : s;
+    }
+
+    // Scans the data file once and writes the sorted sidecar
+    private void rebuild() throws IOException {
+        long length = data.length();
+        long modified = GroupCommit.modified(data);
+        List<Entry> entries = new ArrayList<>();
+
+        try (InputStream in = new FileInputStream(data)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            byte[] buf = new byte[CHUNK];
+            long pos = 0;
+            long lineStart = 0;
+            boolean header = true;
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                int from = 0;
+                for (int i = 0; i < n; i++) {
+                    if (buf[i] != '\n') continue;
+                    line.write(buf, from, i - from);
+                    if (!header) addEntry(entries, line, lineStart);
+                    header = false;
+                    line.reset();
+                    from = i + 1;
+                    lineStart = pos + from;
+                }
+                line.write(buf, from, n - from);
+                pos += n;
+            }
+            if (!header && line.size() > 0) addEntry(entries, line, lineStart);
+        }
+
+        int width = 0;
+        for (Entry e : entries) width = Math.max(width, e.key.length);
+        entries.sort((a, b) -> {
+            int c = Arrays.compareUnsigned(a.key, b.key);
+            return c != 0 ? c : Long.compare(a.offset, b.offset);
+        });
+
+        // Written aside and moved into place so readers never see half a sidecar
+        File tmp = new File(sidecar.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeLong(length);
+            out.writeLong(modified);
+            out.writeInt(width);
+            out.writeInt(entries.size());
+            for (Entry e : entries) {
+                out.write(Arrays.copyOf(e.key, width));
+                out.writeLong(e.offset);
+            }
+        }
+        Files.move(tmp.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void addEntry(List<Entry> entries, ByteArrayOutputStream line, long offset) {
+        String[] row = CsvUtils.parseLine(decode(line));
+        if (row.length <= column || row[column].isEmpty()) return;
+        entries.add(new Entry(row[column].getBytes(StandardCharsets.UTF_8), offset));
+    }
+
+    // One indexed row: its key bytes and where the row starts in the data file
+    private static class Entry {
+        final byte[] key;
+        final long offset;
+
+        Entry(byte[] key, long offset) {
+            this.key = key;
+            this.offset = offset;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package model;
+
+import java.util.List;
+
+public interface PageSource<T> {
+
+    // Result sizes above this switch table views to paging (-Dhms.paging.threshold)
+    int PAGING_THRESHOLD = Integer.getInteger("hms.paging.threshold", 5000);
+
+    // Up to limit items following the given one in page order (null = from the start)
+    List<T> after(T last, int limit);
+
+    // Up to limit items preceding the given one, returned in page order
+    List<T> before(T first, int limit);
+
+    // Total number of items reachable through this source
+    int size();
+
+    // True when a result of this size should be paged rather than listed
+    static boolean shouldPage(int size) {
+        return size > PAGING_THRESHOLD;
+    }
+}
\ No newline at end of file
@@ -1,249 +1,285 @@
-package model;
-
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
-public class PatientRepository {
-
-    // In-memory storage for patient records
-    private final List<Patient> patients = new ArrayList<>();
-    // File system path for CSV persistence
-    private final String csvPath;
-
-    // Constructor - loads data from CSV file on initialization
-    public PatientRepository(String csvPath) {
-        this.csvPath = csvPath;
-        load();
-    }
-
-    // Returns all patient identifiers for reference purposes
-    public List<String> getAllIds() {
-        List<String> ids = new ArrayList<>();
-        for (Patient p : patients) ids.add(p.getId());
-        return ids;
-    }
-
-    // Loads patient data from CSV file into memory
-    private void load() {
-        try {
-            for (String[] row : CsvUtils.readCsv(csvPath)) {
-
-                Patient p = new Patient(
-                        row[0],   // patient_id - unique identifier
-                        row[1],   // first_name - given name
-                        row[2],   // last_name - family name
-                        row[3],   // date_of_birth - birth date
-                        row[4],   // nhs_number - national health identifier
-                        row[5],   // gender - gender identity
-                        row[6],   // phone_number - contact telephone
-                        row[7],   // email - contact email
-                        row[8],   // address - residential address
-                        row[9],   // postcode - postal code
-                        row[10],  // emergency_contact_name - emergency person
-                        row[11],  // emergency_contact_phone - emergency contact
-                        row[12],  // registration_date - system enrollment
-                        row[13]   // gp_surgery_id - primary care provider
-                );
-
-                patients.add(p);
-            }
-
-        } catch (IOException ex) {
-            System.err.println("Failed to load patients: " + ex.getMessage());
-        }
-    }
-        //Made By Misbah Al Rehman. SRN: 24173647
-    // Generates next sequential patient identifier
-    public String generateNewId() {
-        int max = 0;
-        for (Patient p : patients) {
-            try {
-                // Extract numeric portion from ID (e.g., "P001" → 1)
-                int num = Integer.parseInt(p.getId().substring(1));
-                if (num > max) max = num;
-            } catch (Exception ignore) {}
-        }
-        return String.format("P%03d", max + 1);
-    }
-
-    // Adds patient to memory and appends to CSV file
-    public void addAndAppend(Patient p) {
-        patients.add(p);
-        try {
-            CsvUtils.appendLine(csvPath, new String[]{
-                    p.getId(),
-                    p.getFirstName(),
-                    p.getLastName(),
-                    p.getDateOfBirth(),
-                    p.getNhsNumber(),
-                    p.getGender(),
-                    p.getPhoneNumber(),
-                    p.getEmail(),
-                    p.getAddress(),
-                    p.getPostcode(),
-                    p.getEmergencyContactName(),
-                    p.getEmergencyContactPhone(),
-                    p.getRegistrationDate(),
-                    p.getGpSurgeryId()
-            });
-        } catch (IOException ex) {
-            System.err.println("Failed to append patient: " + ex.getMessage());
-        }
-    }
-
-    // Updates existing patient in memory and persists to CSV
-    public void update(Patient updatedPatient) {
-        for (int i = 0; i < patients.size(); i++) {
-            Patient patient = patients.get(i);
-            if (patient.getId().equals(updatedPatient.getId())) {
-                // Replace patient record in memory
-                patients.set(i, updatedPatient);
-                
-                // Persist all changes to CSV file
-                try {
-                    List<String[]> allData = new ArrayList<>();
-                    
-                    // Add CSV header row with column definitions
-                    allData.add(new String[]{
-                        "patient_id", "first_name", "last_name", "date_of_birth", 
-                        "nhs_number", "gender", "phone_number", "email", 
-                        "address", "postcode", "emergency_contact_name", 
-                        "emergency_contact_phone", "registration_date", "gp_surgery_id"
-                    });
-                    
-                    // Convert all patients to CSV row format
-                    for (Patient p : patients) {
-                        allData.add(new String[]{
-                            p.getId(),
-                            p.getFirstName(),
-                            p.getLastName(),
-                            p.getDateOfBirth(),
-                            p.getNhsNumber(),
-                            p.getGender(),
-                            p.getPhoneNumber(),
-                            p.getEmail(),
-                            p.getAddress(),
-                            p.getPostcode(),
-                            p.getEmergencyContactName(),
-                            p.getEmergencyContactPhone(),
-                            p.getRegistrationDate(),
-                            p.getGpSurgeryId()
-                        });
-                    }
-                    
-                    // Write complete dataset to CSV file
-                    CsvUtils.writeCsv(csvPath, allData);
-                    
-                } catch (IOException ex) {
-                    System.err.println("Failed to update patient in CSV: " + ex.getMessage());
-                }
-                return;
-            }
-        }
-        System.err.println("Patient not found for update: " + updatedPatient.getId());
-    }
-
-    // Removes patient from memory and updates CSV file
-    public void remove(Patient p) {
-        patients.remove(p);
-        updateCsvFile();
-    }
-    
-    // Removes patient by identifier lookup
-    public void removeById(String id) {
-        Patient patientToRemove = null;
-        for (Patient p : patients) {
-            if (p.getId().equals(id)) {
-                patientToRemove = p;
-                break;
-            }
-        }
-        
-        if (patientToRemove != null) {
-            remove(patientToRemove);
-        }
-    }
-
-    // Returns all patient records in the repository
-    public List<Patient> getAll() {
-        return patients;
-    }
-
-    // Retrieves patient by unique identifier
-    public Patient findById(String id) {
-        for (Patient p : patients) {
-            if (p.getId().equals(id)) {
-                return p;
-            }
-        }
-        return null;
-    }
-    
-    // Returns patients associated with specific clinician via appointments
-    public List<Patient> findByClinicianId(String clinicianId, AppointmentRepository appointmentRepo) {
-        List<Patient> clinicianPatients = new ArrayList<>();
-        
-        // Retrieve all appointments for specified clinician
-        List<Appointment> clinicianAppointments = appointmentRepo.findByClinicianId(clinicianId);
-        
-        // Extract unique patient identifiers from appointments
-        Set<String> patientIds = new HashSet<>();
-        for (Appointment a : clinicianAppointments) {
-            patientIds.add(a.getPatientId());
-        }
-        
-        // Find corresponding patient records
-        for (String patientId : patientIds) {
-            Patient patient = findById(patientId);
-            if (patient != null) {
-                clinicianPatients.add(patient);
-            }
-        }
-        
-        return clinicianPatients;
-    }
-    
-    // Writes all patient records to CSV file (full persistence)
-    private void updateCsvFile() {
-        try {
-            List<String[]> allData = new ArrayList<>();
-            
-            // Add CSV header row with column definitions
-            allData.add(new String[]{
-                "patient_id", "first_name", "last_name", "date_of_birth", 
-                "nhs_number", "gender", "phone_number", "email", 
-                "address", "postcode", "emergency_contact_name", 
-                "emergency_contact_phone", "registration_date", "gp_surgery_id"
-            });
-            
-            // Convert all patients to CSV row format
-            for (Patient p : patients) {
-                allData.add(new String[]{
-                    p.getId(),
-                    p.getFirstName(),
-                    p.getLastName(),
-                    p.getDateOfBirth(),
-                    p.getNhsNumber(),
-                    p.getGender(),
-                    p.getPhoneNumber(),
-                    p.getEmail(),
-                    p.getAddress(),
-                    p.getPostcode(),
-                    p.getEmergencyContactName(),
-                    p.getEmergencyContactPhone(),
-                    p.getRegistrationDate(),
-                    p.getGpSurgeryId()
-                });
-            }
-            
-            // Write complete dataset to CSV file
-            CsvUtils.writeCsv(csvPath, allData);
-            
-        } catch (IOException ex) {
-            System.err.println("Failed to update CSV file: " + ex.getMessage());
-        }
-    }
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class PatientRepository {
+
+    // In-memory storage for patient records
+    private final List<Patient> patients = new ArrayList<>();
+    // Sorted identifier index, safe to read from background threads
+    private final ConcurrentSkipListMap<String, Patient> byId = new ConcurrentSkipListMap<>();
+    // Per-GP-surgery patient records, each surgery read on first access
+    private RecordStore<Patient> store;
+    // Screens told about patient rows another program inserted, changed or deleted
+    private final List<Consumer<RecordDelta<Patient>>> changeListeners = new CopyOnWriteArrayList<>();
+
+    // CSV header row with column definitions
+    public static final String[] CSV_HEADER = {
+        "patient_id", "first_name", "last_name", "date_of_birth",
+        "nhs_number", "gender", "phone_number", "email",
+        "address", "postcode", "emergency_contact_name",
+        "emergency_contact_phone", "registration_date", "gp_surgery_id"
+    };
+
+    // Table mapping shared by every storage engine, split by gp_surgery_id
+    public static final TableSchema<Patient> SCHEMA = new TableSchema<>("patients", CSV_HEADER,
+            PatientRepository::fromRow, PatientRepository::toRow, Patient::getId, 13);
+
+    // Constructor - opens the patients table, reading no surgery until needed
+    public PatientRepository(StorageEngine engine) {
+        load(engine);
+    }
+
+    // Returns all patient identifiers for reference purposes
+    public List<String> getAllIds() {
+        List<String> ids = new ArrayList<>();
+        store.loadAll();
+        for (Patient p : patients) ids.add(p.getId());
+        return ids;
+    }
+
+    // Live read-only view of patient identifiers in sorted order
+    public NavigableSet<String> getIdIndex() {
+        store.loadAll();
+        return Collections.unmodifiableNavigableSet(byId.navigableKeySet());
+    }
+
+    // Opens patient data from the storage engine
+    private void load(StorageEngine engine) {
+        store = engine.open(SCHEMA, this::loaded);
+    }
+
+    // Follows edits other programs make to the patient files, applied through the executor
+    public void watchExternalChanges(Executor deliverOn) {
+        store.watch(deliverOn, this::applyExternal);
+    }
+
+    // Registers a screen to update after an outside edit
+    public void addChangeListener(Consumer<RecordDelta<Patient>> listener) {
+        changeListeners.add(listener);
+    }
+
+    // Applies only the rows that changed outside the application, then tells the screens.
+    // Records are matched by ID, so a change already applied is not applied twice.
+    private void applyExternal(RecordDelta<Patient> delta) {
+        for (Patient p : delta.getDeleted()) {
+            Patient current = byId.remove(p.getId());
+            if (current != null) patients.remove(current);
+        }
+        for (Patient p : delta.getUpdatedTo()) {
+            Patient current = byId.put(p.getId(), p);
+            int at = current != null ? patients.indexOf(current) : -1;
+            if (at >= 0) patients.set(at, p);
+            else patients.add(p);
+        }
+        for (Patient p : delta.getInserted()) {
+            Patient existing = byId.put(p.getId(), p);
+            if (existing != null) patients.remove(existing);
+            patients.add(p);
+        }
+        for (Consumer<RecordDelta<Patient>> listener : changeListeners) listener.accept(delta);
+    }
+
+    // Creates Patient object from CSV column order
+    private static Patient fromRow(String[] row) {
+        return new Patient(
+                row[0],   // patient_id - unique identifier
+                row[1],   // first_name - given name
+                row[2],   // last_name - family name
+                row[3],   // date_of_birth - birth date
+                row[4],   // nhs_number - national health identifier
+                row[5],   // gender - gender identity
+                row[6],   // phone_number - contact telephone
+                row[7],   // email - contact email
+                row[8],   // address - residential address
+                row[9],   // postcode - postal code
+                row[10],  // emergency_contact_name - emergency person
+                row[11],  // emergency_contact_phone - emergency contact
+                row[12],  // registration_date - system enrollment
+                row[13]   // gp_surgery_id - primary care provider
+        );
+    }
+
+    // Adds a patient read from disk to memory and the index, unless already held
+    private Patient loaded(Patient p) {
+        Patient existing = byId.putIfAbsent(p.getId(), p);
+        if (existing != null) return existing;
+        patients.add(p);
+        return p;
+    }
+
+    // Reads one surgery's patients ahead of use, e.g. the logged-in user's site
+    public void loadFacility(String facilityId) {
+        store.load(facilityId);
+    }
+
+    // Returns the patients registered at one GP surgery, reading only that segment
+    public List<Patient> findByFacilityId(String facilityId) {
+        return new ArrayList<>(store.get(facilityId));
+    }
+        //Made By Misbah Al Rehman. SRN: 24173647
+    // Generates next sequential patient identifier
+    public String generateNewId() {
+        // Next number in the ID sequence (e.g., "P001" → "P002"), from the counter shared with other desks
+        return String.format("P%03d", store.nextSequence(1));
+    }
+
+    // Adds patient to memory and appends to CSV file
+    public void addAndAppend(Patient p) {
+        try {
+            addAndAppendDeferred(p).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to append patient: " + ex.getMessage());
+        }
+    }
+
+    // Adds the patient to memory now and returns the append, to run off the event thread
+    public PendingWrite addAndAppendDeferred(Patient p) {
+        store.reserve(p);
+        patients.add(p);
+        byId.put(p.getId(), p);
+        // Appends to the surgery's segment only
+        return PendingWrite.of(() -> store.append(p), () -> forget(p));
+    }
+
+    // Updates existing patient in memory and persists to CSV
+    public void update(Patient updatedPatient) {
+        try {
+            updateDeferred(updatedPatient).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to update CSV file: " + ex.getMessage());
+        }
+    }
+
+    // Replaces the patient in memory now and returns the rewrite, to run off the event thread
+    public PendingWrite updateDeferred(Patient updatedPatient) {
+        for (int i = 0; i < patients.size(); i++) {
+            Patient patient = patients.get(i);
+            if (patient.getId().equals(updatedPatient.getId())) {
+                // Segments are read here, so the rewrite never calls back into this repository
+                store.prepare(patient);
+                store.prepare(updatedPatient);
+                patients.set(i, updatedPatient);
+                byId.put(updatedPatient.getId(), updatedPatient);
+                // Rewrite only the surgery segments holding the old and new versions
+                return PendingWrite.of(() -> store.replace(patient, updatedPatient), () -> {
+                    forget(updatedPatient);
+                    restore(patient);
+                });
+            }
+        }
+        System.err.println("Patient not found for update: " + updatedPatient.getId());
+        return PendingWrite.NONE;
+    }
+
+    // Removes patient from memory and updates CSV file
+    public void remove(Patient p) {
+        try {
+            removeDeferred(p).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to update CSV file: " + ex.getMessage());
+        }
+    }
+
+    // Forgets the patient now and returns the rewrite, to run off the event thread
+    public PendingWrite removeDeferred(Patient p) {
+        store.prepare(p);
+        patients.remove(p);
+        byId.remove(p.getId());
+        return PendingWrite.of(() -> store.remove(p), () -> restore(p));
+    }
+
+    // Puts back a patient whose removal or replacement could not be written
+    private void restore(Patient p) {
+        if (byId.containsKey(p.getId())) return;
+        patients.add(p);
+        byId.put(p.getId(), p);
+    }
+
+    // Drops a patient whose addition or new version could not be written
+    private void forget(Patient p) {
+        if (patients.remove(p)) byId.remove(p.getId(), p);
+    }
+    
+    // Removes patient by identifier lookup
+    public void removeById(String id) {
+        Patient patientToRemove = findById(id);
+        
+        if (patientToRemove != null) {
+            remove(patientToRemove);
+        }
+    }
+
+    // Reads one facility's patients, or all for null, ahead on a background thread; they join memory on first use
+    public void prefetch(String facilityId) {
+        store.prefetch(facilityId);
+    }
+
+    // Returns all patient records in the repository
+    public List<Patient> getAll() {
+        store.loadAll();
+        return patients;
+    }
+
+    // Retrieves patient by unique identifier
+    public Patient findById(String id) {
+        if (id == null) return null;
+        Patient p = byId.get(id);
+        // Not in memory yet, read just that row through the ID offset index
+        if (p == null && store.loadContaining(id)) p = byId.get(id);
+        return p;
+    }
+    
+    // Returns patients associated with specific clinician via appointments
+    public List<Patient> findByClinicianId(String clinicianId, AppointmentRepository appointmentRepo) {
+        // Unique patient identifiers come straight from the join index
+        Set<String> patientIds = appointmentRepo.getPatientIdsForClinician(clinicianId);
+        List<Patient> clinicianPatients = new ArrayList<>(patientIds.size());
+        
+        // Find corresponding patient records
+        for (String patientId : patientIds) {
+            Patient patient = findById(patientId);
+            if (patient != null) {
+                clinicianPatients.add(patient);
+            }
+        }
+        
+        return clinicianPatients;
+    }
+    
+    // Streams matching patients to an export file in the requested format
+    public int export(String path, RecordExporter.Format format, Predicate<Patient> filter) throws IOException {
+        store.loadAll();
+        return RecordExporter.exportToFile(path, format, CSV_HEADER, patients, PatientRepository::toRow, filter);
+    }
+
+    // Converts patient to CSV column order
+    public static String[] toRow(Patient p) {
+        return new String[]{
+                p.getId(),
+                p.getFirstName(),
+                p.getLastName(),
+                p.getDateOfBirth(),
+                p.getNhsNumber(),
+                p.getGender(),
+                p.getPhoneNumber(),
+                p.getEmail(),
+                p.getAddress(),
+                p.getPostcode(),
+                p.getEmergencyContactName(),
+                p.getEmergencyContactPhone(),
+                p.getRegistrationDate(),
+                p.getGpSurgeryId()
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package model;
+
+import java.io.IOException;
+
+// A storage write whose change is already in memory, run afterwards on any thread,
+// e.g. a worker so the event thread does not wait for the disk or the database
+public interface PendingWrite {
+
+    void run() throws IOException;
+
+    // Takes the in-memory change back after the write failed, so memory matches storage again.
+    // Call on the thread that made the change, e.g. the event thread.
+    default void undo() {
+    }
+
+    // Nothing left to write, e.g. a change that only lives in memory
+    PendingWrite NONE = () -> { };
+
+    // A write together with the step that takes its in-memory change back
+    static PendingWrite of(PendingWrite write, Runnable undo) {
+        return new PendingWrite() {
+            @Override
+            public void run() throws IOException {
+                write.run();
+            }
+
+            @Override
+            public void undo() {
+                undo.run();
+            }
+        };
+    }
+}
\ No newline at end of file
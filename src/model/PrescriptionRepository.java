@@ -1,146 +1,299 @@
-package model;
-
-import java.io.IOException;
-import java.util.*;
-
-public class PrescriptionRepository {
-
-    // In-memory storage for prescription records
-    private final List<Prescription> prescriptions = new ArrayList<>();
-    // File system path for CSV persistence
-    private final String csvPath;
-
-    // CSV structure definition - exactly 15 columns expected
-    private static final int COLUMN_COUNT = 15;
-
-    // Constructor - loads data from CSV file on initialization
-    public PrescriptionRepository(String csvPath) {
-        this.csvPath = csvPath;
-        load();
-    }
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Loads prescription data from CSV with safety validation
-    private void load() {
-        try {
-            for (String[] row : CsvUtils.readCsv(csvPath)) {
-
-                // Skip header row and empty entries
-                if (row.length == 0 || row[0].equalsIgnoreCase("prescription_id"))
-                    continue;
-
-                // Ensure consistent column count to prevent indexing errors
-                String[] safe = new String[COLUMN_COUNT];
-                for (int i = 0; i < COLUMN_COUNT; i++) {
-                    safe[i] = (i < row.length) ? row[i] : "";
-                }
-
-                // Create Prescription object from CSV data
-                Prescription p = new Prescription(
-                        safe[0], // prescription_id - unique identifier
-                        safe[1], // patient_id - prescribed patient
-                        safe[2], // clinician_id - prescribing clinician
-                        safe[3], // appointment_id - related appointment
-                        safe[4], // prescription_date - creation date
-                        safe[5], // medication_name - drug name
-                        safe[6], // dosage - strength and unit
-                        safe[7], // frequency - administration schedule
-                        safe[8], // duration_days - treatment length
-                        safe[9], // quantity - total amount dispensed
-                        safe[10],// instructions - usage directions
-                        safe[11],// pharmacy_name - dispensing location
-                        safe[12],// status - prescription state
-                        safe[13],// issue_date - original issue date
-                        safe[14] // collection_date - patient pickup date
-                );
-
-                prescriptions.add(p);
-            }
-
-        } catch (IOException ex) {
-            System.err.println("Failed to load prescriptions: " + ex.getMessage());
-        }
-    }
-
-    // Returns all prescription records in the repository
-    public List<Prescription> getAll() {
-        return prescriptions;
-    }
-
-    // Generates next sequential prescription identifier
-    public String generateNewId() {
-        int max = 0;
-        for (Prescription p : prescriptions) {
-            try {
-                String id = p.getId();
-                if (id != null && id.startsWith("RX")) {
-                    // Extract numeric portion from ID (e.g., "RX001" → 1)
-                    int num = Integer.parseInt(id.substring(2));
-                    if (num > max) max = num;
-                }
-            } catch (Exception ignore) {}
-        }
-        return String.format("RX%03d", max + 1);
-    }
-
-    // Returns unique medication names for dropdown population
-    public List<String> getMedicationOptions() {
-        Set<String> meds = new TreeSet<>();
-        for (Prescription p : prescriptions) {
-            if (p.getMedication() != null && !p.getMedication().isBlank())
-                meds.add(p.getMedication());
-        }
-        return new ArrayList<>(meds);
-    }
-
-    // Returns unique pharmacy names for dropdown population
-    public List<String> getPharmacyOptions() {
-        Set<String> pharms = new TreeSet<>();
-        for (Prescription p : prescriptions) {
-            if (p.getPharmacyName() != null && !p.getPharmacyName().isBlank())
-                pharms.add(p.getPharmacyName());
-        }
-        return new ArrayList<>(pharms);
-    }
-
-    // Adds prescription to memory and appends to CSV file
-    public void addAndAppend(Prescription p) {
-        prescriptions.add(p);
-        try {
-            CsvUtils.appendLine(csvPath, new String[]{
-                    p.getId(),
-                    p.getPatientId(),
-                    p.getClinicianId(),
-                    p.getAppointmentId(),
-                    p.getPrescriptionDate(),
-                    p.getMedication(),
-                    p.getDosage(),
-                    p.getFrequency(),
-                    p.getDurationDays(),
-                    p.getQuantity(),
-                    p.getInstructions(),
-                    p.getPharmacyName(),
-                    p.getStatus(),
-                    p.getIssueDate(),
-                    p.getCollectionDate()
-            });
-        } catch (IOException ex) {
-            System.err.println("Failed to append prescription: " + ex.getMessage());
-        }
-    }
-
-    // Updates existing prescription in memory 
-    public void update(Prescription p) {
-        for (int i = 0; i < prescriptions.size(); i++) {
-            if (prescriptions.get(i).getId().equals(p.getId())) {
-                prescriptions.set(i, p);
-                return;
-            }
-        }
-    }
-
-    // Removes prescription by identifier from memory
-    public void removeById(String id) {
-        prescriptions.removeIf(p -> p.getId().equals(id));
-        // Note: CSV file not rewritten 
-    }
+package model;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+
+public class PrescriptionRepository {
+
+    // In-memory storage for prescription records
+    private final List<Prescription> prescriptions = new ArrayList<>();
+    // Identifier lookup for records already in memory
+    private final Map<String, Prescription> byId = new HashMap<>();
+    // Reference-counted medication and pharmacy names for dropdowns
+    private final UsageCounter medications = new UsageCounter();
+    private final UsageCounter pharmacies = new UsageCounter();
+    // Keyset page indexes ordered by (prescription date, id), newest first
+    private final KeysetIndex<Prescription> pagesByDate = newPageIndex();
+    private final Map<String, KeysetIndex<Prescription>> pagesByPatient = new HashMap<>();
+    private final Map<String, KeysetIndex<Prescription>> pagesByClinician = new HashMap<>();
+    // Posting lists the query planner answers find() from
+    private final RecordIndex<Prescription> queries = new RecordIndex<>(() -> prescriptions);
+    // Prescription records, read in full on first global access or row by row per key
+    private RecordStore<Prescription> store;
+
+    // CSV structure definition - exactly 15 columns expected
+    private static final int COLUMN_COUNT = 15;
+    // Columns with offset indexes for per-patient and per-clinician reads
+    private static final int PATIENT_COLUMN = 1;
+    private static final int CLINICIAN_COLUMN = 2;
+
+    // CSV header row with column definitions
+    public static final String[] CSV_HEADER = {
+        "prescription_id", "patient_id", "clinician_id", "appointment_id",
+        "prescription_date", "medication_name", "dosage", "frequency",
+        "duration_days", "quantity", "instructions", "pharmacy_name",
+        "status", "issue_date", "collection_date"
+    };
+
+    // Queryable fields, e.g. Query.where(PATIENT.is("P001")).and(STATUS.is("Issued"))
+    public static final Field<Prescription> PATIENT = Field.of("patient", Prescription::getPatientId);
+    public static final Field<Prescription> CLINICIAN = Field.of("clinician", Prescription::getClinicianId);
+    public static final Field<Prescription> MEDICATION = Field.of("medication", Prescription::getMedication);
+    public static final Field<Prescription> STATUS = Field.of("status", Prescription::getStatus).ignoringCase();
+    public static final Field<Prescription> DATE = Field.of("date", Prescription::getPrescriptionDate);
+
+    // Table mapping shared by every storage engine
+    public static final TableSchema<Prescription> SCHEMA = new TableSchema<>("prescriptions", CSV_HEADER,
+            PrescriptionRepository::fromRow, PrescriptionRepository::toRow, Prescription::getId, -1,
+            PATIENT_COLUMN, CLINICIAN_COLUMN);
+
+    // Constructor - opens the prescriptions table, reading rows only when first needed
+    public PrescriptionRepository(StorageEngine engine) {
+        queries.hashed(PATIENT).hashed(CLINICIAN).hashed(MEDICATION).hashed(STATUS).sorted(DATE);
+        load(engine);
+    }
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Opens prescription data from the storage engine
+    private void load(StorageEngine engine) {
+        store = engine.open(SCHEMA, this::loaded);
+    }
+
+    // Creates Prescription object from CSV data
+    private static Prescription fromRow(String[] row) {
+        // Ensure consistent column count to prevent indexing errors
+        String[] safe = new String[COLUMN_COUNT];
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            safe[i] = (i < row.length) ? row[i] : "";
+        }
+
+        return new Prescription(
+                safe[0], // prescription_id - unique identifier
+                safe[1], // patient_id - prescribed patient
+                safe[2], // clinician_id - prescribing clinician
+                safe[3], // appointment_id - related appointment
+                safe[4], // prescription_date - creation date
+                safe[5], // medication_name - drug name
+                safe[6], // dosage - strength and unit
+                safe[7], // frequency - administration schedule
+                safe[8], // duration_days - treatment length
+                safe[9], // quantity - total amount dispensed
+                safe[10],// instructions - usage directions
+                safe[11],// pharmacy_name - dispensing location
+                safe[12],// status - prescription state
+                safe[13],// issue_date - original issue date
+                safe[14] // collection_date - patient pickup date
+        );
+    }
+
+    // Adds a prescription read from disk to memory and the indexes, unless already held
+    private Prescription loaded(Prescription p) {
+        Prescription existing = byId.putIfAbsent(p.getId(), p);
+        if (existing != null) return existing;
+        prescriptions.add(p);
+        index(p);
+        return p;
+    }
+
+    // Reads the prescriptions ahead on a background thread; they join memory on first use
+    public void prefetch() {
+        store.prefetch(null);
+    }
+
+    // Returns all prescription records in the repository
+    public List<Prescription> getAll() {
+        store.loadAll();
+        return prescriptions;
+    }
+
+    // Generates next sequential prescription identifier
+    public String generateNewId() {
+        // Next number in the ID sequence (e.g., "RX001" → "RX002"), from the counter shared with other desks
+        return String.format("RX%03d", store.nextSequence(2));
+    }
+
+    // Returns unique medication names in alphabetical order (read-only, cached)
+    public List<String> getMedicationOptions() {
+        store.loadAll();
+        return medications.sorted();
+    }
+
+    // Returns unique pharmacy names in alphabetical order (read-only, cached)
+    public List<String> getPharmacyOptions() {
+        store.loadAll();
+        return pharmacies.sorted();
+    }
+
+    // Returns medication names with the most prescribed first
+    public List<String> getMedicationsByUsage() {
+        store.loadAll();
+        return medications.ranked();
+    }
+
+    // Returns pharmacy names with the most used first
+    public List<String> getPharmaciesByUsage() {
+        store.loadAll();
+        return pharmacies.ranked();
+    }
+
+    // Returns how many prescriptions reference each medication
+    public Map<String, Integer> getMedicationUsage() {
+        store.loadAll();
+        return medications.counts();
+    }
+
+    // Returns how many prescriptions reference each pharmacy
+    public Map<String, Integer> getPharmacyUsage() {
+        store.loadAll();
+        return pharmacies.counts();
+    }
+
+    // Pages of all prescriptions, newest first
+    public PageSource<Prescription> getPages() {
+        store.loadAll();
+        return pagesByDate;
+    }
+
+    // Pages of one patient's prescriptions, newest first
+    public PageSource<Prescription> getPagesForPatient(String patientId) {
+        // Streams only this patient's rows through the offset index
+        store.loadMatching(PATIENT_COLUMN, patientId);
+        KeysetIndex<Prescription> pages = pagesByPatient.get(patientId);
+        return pages != null ? pages : newPageIndex();
+    }
+
+    // Pages of prescriptions issued by one clinician, newest first
+    public PageSource<Prescription> getPagesForClinician(String clinicianId) {
+        store.loadMatching(CLINICIAN_COLUMN, clinicianId);
+        KeysetIndex<Prescription> pages = pagesByClinician.get(clinicianId);
+        return pages != null ? pages : newPageIndex();
+    }
+
+    // Returns the prescriptions passing every condition of the query, answered from the
+    // most selective index. Only the rows the query can match are read from storage.
+    public List<Prescription> find(Query<Prescription> query) {
+        String patientId = query.valueOf(PATIENT);
+        String clinicianId = query.valueOf(CLINICIAN);
+        if (patientId != null) store.loadMatching(PATIENT_COLUMN, patientId);
+        else if (clinicianId != null) store.loadMatching(CLINICIAN_COLUMN, clinicianId);
+        else store.loadAll();
+        return queries.find(query);
+    }
+
+    // How find() would answer the query
+    public String explain(Query<Prescription> query) {
+        return queries.explain(query);
+    }
+
+    // Empty page index ordered by (prescription date, id), newest first
+    private static KeysetIndex<Prescription> newPageIndex() {
+        return new KeysetIndex<>(Prescription::getPrescriptionDate, Prescription::getId, true);
+    }
+
+    // Adds prescription to the option counts and page indexes
+    private void index(Prescription p) {
+        medications.add(p.getMedication());
+        pharmacies.add(p.getPharmacyName());
+        pagesByDate.add(p);
+        pagesByPatient.computeIfAbsent(p.getPatientId(), k -> newPageIndex()).add(p);
+        pagesByClinician.computeIfAbsent(p.getClinicianId(), k -> newPageIndex()).add(p);
+        queries.add(p);
+    }
+
+    // Removes prescription from the option counts and page indexes
+    private void unindex(Prescription p) {
+        medications.remove(p.getMedication());
+        pharmacies.remove(p.getPharmacyName());
+        pagesByDate.remove(p);
+        removePage(pagesByPatient, p.getPatientId(), p);
+        removePage(pagesByClinician, p.getClinicianId(), p);
+        queries.remove(p);
+    }
+
+    // Removes prescription from a partitioned page index, dropping empty partitions
+    private static void removePage(Map<String, KeysetIndex<Prescription>> pages, String key, Prescription p) {
+        KeysetIndex<Prescription> index = pages.get(key);
+        if (index == null) return;
+        index.remove(p);
+        if (index.size() == 0) pages.remove(key);
+    }
+
+    // Adds prescription to memory and appends to CSV file
+    public void addAndAppend(Prescription p) {
+        try {
+            addAndAppendDeferred(p).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to append prescription: " + ex.getMessage());
+        }
+    }
+
+    // Adds the prescription to memory now and returns the append, to run off the event thread
+    public PendingWrite addAndAppendDeferred(Prescription p) {
+        store.reserve(p);
+        prescriptions.add(p);
+        byId.put(p.getId(), p);
+        index(p);
+        // Drops the prescription again if the append fails
+        return PendingWrite.of(() -> store.append(p), () -> {
+            if (!prescriptions.remove(p)) return;
+            byId.remove(p.getId(), p);
+            unindex(p);
+        });
+    }
+
+    // Updates existing prescription in memory 
+    public void update(Prescription p) {
+        for (int i = 0; i < prescriptions.size(); i++) {
+            if (prescriptions.get(i).getId().equals(p.getId())) {
+                Prescription old = prescriptions.set(i, p);
+                byId.put(p.getId(), p);
+                unindex(old);
+                index(p);
+                return;
+            }
+        }
+    }
+
+    // Removes prescription by identifier from memory
+    public void removeById(String id) {
+        // Memory-only removal, so read the file first or the row would come back on a later load
+        store.loadAll();
+        Iterator<Prescription> it = prescriptions.iterator();
+        while (it.hasNext()) {
+            Prescription p = it.next();
+            if (p.getId().equals(id)) {
+                it.remove();
+                byId.remove(p.getId(), p);
+                unindex(p);
+            }
+        }
+        // Note: CSV file not rewritten 
+    }
+
+    // Streams matching prescriptions to an export file in the requested format
+    public int export(String path, RecordExporter.Format format, Predicate<Prescription> filter) throws IOException {
+        store.loadAll();
+        return RecordExporter.exportToFile(path, format, CSV_HEADER, prescriptions, PrescriptionRepository::toRow, filter);
+    }
+
+    // Converts prescription to CSV column order
+    public static String[] toRow(Prescription p) {
+        return new String[]{
+                p.getId(),
+                p.getPatientId(),
+                p.getClinicianId(),
+                p.getAppointmentId(),
+                p.getPrescriptionDate(),
+                p.getMedication(),
+                p.getDosage(),
+                p.getFrequency(),
+                p.getDurationDays(),
+                p.getQuantity(),
+                p.getInstructions(),
+                p.getPharmacyName(),
+                p.getStatus(),
+                p.getIssueDate(),
+                p.getCollectionDate()
+        };
+    }
 }
\ No newline at end of file
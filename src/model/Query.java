@@ -0,0 +1,60 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Conditions a record must all pass, e.g.
+//   Query.where(AppointmentRepository.STATUS.is("Scheduled"))
+//        .and(AppointmentRepository.DATE.between("2025-01-01", "2025-01-31"))
+//        .and(AppointmentRepository.CLINICIAN.is("C001"))
+// A query never changes once built; and() returns a new one, so queries can be kept and reused.
+public final class Query<T> {
+
+    private final List<Condition<T>> conditions;
+
+    private Query(List<Condition<T>> conditions) {
+        this.conditions = conditions;
+    }
+
+    public static <T> Query<T> where(Condition<T> condition) {
+        return new Query<>(Collections.singletonList(condition));
+    }
+
+    public Query<T> and(Condition<T> condition) {
+        List<Condition<T>> more = new ArrayList<>(conditions.size() + 1);
+        more.addAll(conditions);
+        more.add(condition);
+        return new Query<>(Collections.unmodifiableList(more));
+    }
+
+    public List<Condition<T>> getConditions() {
+        return conditions;
+    }
+
+    // The value the query requires of a field, null unless it tests the field for equality
+    public String valueOf(Field<T> field) {
+        for (Condition<T> c : conditions) {
+            if (c.isEquality() && c.getField() == field) return c.getValue();
+        }
+        return null;
+    }
+
+    // True if the record passes every condition
+    public boolean test(T record) {
+        for (Condition<T> c : conditions) {
+            if (!c.test(record)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Condition<T> c : conditions) {
+            if (sb.length() > 0) sb.append(" and ");
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class RecordDelta<T> {
+
+    private final List<T> inserted;
+    // Old and new versions of each changed record, at matching positions
+    private final List<T> updatedFrom;
+    private final List<T> updatedTo;
+    private final List<T> deleted;
+    // Local edits another instance's earlier save to the same fields overruled
+    private final List<T> conflicts;
+
+    RecordDelta(List<T> inserted, List<T> updatedFrom, List<T> updatedTo, List<T> deleted) {
+        this(inserted, updatedFrom, updatedTo, deleted, Collections.emptyList());
+    }
+
+    RecordDelta(List<T> inserted, List<T> updatedFrom, List<T> updatedTo, List<T> deleted, List<T> conflicts) {
+        this.inserted = Collections.unmodifiableList(inserted);
+        this.updatedFrom = Collections.unmodifiableList(updatedFrom);
+        this.updatedTo = Collections.unmodifiableList(updatedTo);
+        this.deleted = Collections.unmodifiableList(deleted);
+        this.conflicts = Collections.unmodifiableList(conflicts);
+    }
+
+    // Records that were not stored before
+    public List<T> getInserted() {
+        return inserted;
+    }
+
+    // Previous versions of changed records
+    public List<T> getUpdatedFrom() {
+        return updatedFrom;
+    }
+
+    // New versions of changed records, same order as getUpdatedFrom
+    public List<T> getUpdatedTo() {
+        return updatedTo;
+    }
+
+    // Records no longer stored
+    public List<T> getDeleted() {
+        return deleted;
+    }
+
+    // Versions saved here that were not kept because another instance changed the same
+    // fields first; the stored versions are among the other lists
+    public List<T> getConflicts() {
+        return conflicts;
+    }
+
+    // True when nothing changed
+    public boolean isEmpty() {
+        return inserted.isEmpty() && updatedTo.isEmpty() && deleted.isEmpty() && conflicts.isEmpty();
+    }
+}
\ No newline at end of file
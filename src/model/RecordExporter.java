@@ -0,0 +1,157 @@
+package model;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public class RecordExporter {
+
+    // Output formats supported by the exporter
+    public enum Format {
+        CSV("csv"),
+        JSONL("jsonl");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        // File extension used when suggesting export file names
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Default line ending of every row, the platform's as CsvUtils writes with newLine()
+    private static final String LINE_END = System.lineSeparator();
+
+    // Destination stream and layout for this export
+    private final Writer out;
+    private final Format format;
+    private final String[] header;
+    private final String lineEnd;
+
+    // Row buffer reused for every record so memory use stays constant
+    private final StringBuilder row = new StringBuilder(256);
+    private char[] chars = new char[256];
+
+    // Creates exporter writing to an already opened stream
+    public RecordExporter(Writer out, Format format, String[] header) {
+        this(out, format, header, LINE_END);
+    }
+
+    // Creates exporter ending each row with the given line ending, e.g. the one a rewritten file already uses
+    public RecordExporter(Writer out, Format format, String[] header, String lineEnd) {
+        this.out = out;
+        this.format = format;
+        this.header = header;
+        this.lineEnd = lineEnd;
+    }
+
+    // Streams matching records to a file and returns the number of rows written
+    public static <T> int exportToFile(String path, Format format, String[] header,
+                                       Iterable<T> records, Function<T, String[]> toRow,
+                                       Predicate<T> filter) throws IOException {
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
+            return new RecordExporter(bw, format, header).export(records, toRow, filter);
+        }
+    }
+
+    // Writes header (CSV only) then every record accepted by the filter
+    public <T> int export(Iterable<T> records, Function<T, String[]> toRow,
+                          Predicate<T> filter) throws IOException {
+        if (format == Format.CSV) {
+            writeRow(header);
+        }
+
+        int count = 0;
+        for (T record : records) {
+            // A null filter exports every record
+            if (filter != null && !filter.test(record)) continue;
+            writeRow(toRow.apply(record));
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    // Formats one row into the shared buffer and copies it to the stream
+    public void writeRow(String[] values) throws IOException {
+        row.setLength(0);
+        if (format == Format.CSV) {
+            appendCsv(values);
+        } else {
+            appendJson(values);
+        }
+        row.append(lineEnd);
+
+        // Grow the char buffer only when a row is longer than any seen before
+        int len = row.length();
+        if (len > chars.length) {
+            chars = new char[Math.max(len, chars.length * 2)];
+        }
+        row.getChars(0, len, chars, 0);
+        out.write(chars, 0, len);
+    }
+
+    // Comma separated values, quoting fields with commas or quotes. CsvUtils reads one row per
+    // line, so a line break inside a field is written as a space to keep the file readable back.
+    private void appendCsv(String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) row.append(',');
+            String field = values[i] == null ? "" : values[i];
+            boolean quoted = field.indexOf(',') >= 0 || field.indexOf('"') >= 0;
+            if (quoted) row.append('"');
+            for (int c = 0; c < field.length(); c++) {
+                char ch = field.charAt(c);
+                if (ch == '"') {
+                    row.append('"');
+                } else if (ch == '\r' || ch == '\n') {
+                    // A CRLF pair becomes one space
+                    if (ch == '\n' && c > 0 && field.charAt(c - 1) == '\r') continue;
+                    ch = ' ';
+                }
+                row.append(ch);
+            }
+            if (quoted) row.append('"');
+        }
+    }
+
+    // One JSON object per line keyed by the CSV column names
+    private void appendJson(String[] values) {
+        row.append('{');
+        for (int i = 0; i < header.length; i++) {
+            if (i > 0) row.append(',');
+            appendJsonString(header[i]);
+            row.append(':');
+            appendJsonString(i < values.length && values[i] != null ? values[i] : "");
+        }
+        row.append('}');
+    }
+
+    // Escapes a value as a JSON string literal
+    private void appendJsonString(String value) {
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"':  row.append("\\\""); break;
+                case '\\': row.append("\\\\"); break;
+                case '\n': row.append("\\n"); break;
+                case '\r': row.append("\\r"); break;
+                case '\t': row.append("\\t"); break;
+                default:
+                    if (ch < 0x20) {
+                        row.append(String.format("\\u%04x", (int) ch));
+                    } else {
+                        row.append(ch);
+                    }
+            }
+        }
+        row.append('"');
+    }
+}
\ No newline at end of file
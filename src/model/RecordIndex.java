@@ -0,0 +1,194 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+// Posting lists over a repository's records, one per indexed field value, and a planner that
+// answers a Query from them. The planner counts the rows each indexed condition would yield,
+// walks the smallest posting list, probes the other equality postings for each candidate and
+// tests whatever is left on the survivors; with no index to use it scans every record.
+// Kept in step by the repository's own index/unindex steps, on the same thread.
+public class RecordIndex<T> {
+
+    // Every record, walked when no index narrows the query
+    private final Supplier<? extends Collection<T>> all;
+    // Value -> records per field; sorted fields also answer ranges
+    private final Map<Field<T>, Map<String, Set<T>>> hashed = new LinkedHashMap<>();
+    private final Map<Field<T>, NavigableMap<String, Set<T>>> sorted = new LinkedHashMap<>();
+
+    public RecordIndex(Supplier<? extends Collection<T>> all) {
+        this.all = all;
+    }
+
+    // Indexes a field for equality tests
+    public RecordIndex<T> hashed(Field<T> field) {
+        hashed.put(field, new HashMap<>());
+        return this;
+    }
+
+    // Indexes a field in value order, for equality and range tests
+    public RecordIndex<T> sorted(Field<T> field) {
+        sorted.put(field, new TreeMap<>());
+        return this;
+    }
+
+    // Adds a record under its value of every indexed field
+    public void add(T record) {
+        for (Map.Entry<Field<T>, Map<String, Set<T>>> e : hashed.entrySet()) link(e.getValue(), e.getKey(), record);
+        for (Map.Entry<Field<T>, NavigableMap<String, Set<T>>> e : sorted.entrySet()) link(e.getValue(), e.getKey(), record);
+    }
+
+    // Removes a record from the postings its current values put it in
+    public void remove(T record) {
+        for (Map.Entry<Field<T>, Map<String, Set<T>>> e : hashed.entrySet()) unlink(e.getValue(), e.getKey(), record);
+        for (Map.Entry<Field<T>, NavigableMap<String, Set<T>>> e : sorted.entrySet()) unlink(e.getValue(), e.getKey(), record);
+    }
+
+    // Records that pass the query, in the order of the posting list walked
+    public List<T> find(Query<T> query) {
+        return plan(query).run();
+    }
+
+    // How the query would be answered, e.g. for a benchmark or the console
+    public String explain(Query<T> query) {
+        return plan(query).toString();
+    }
+
+    // Records held under one value of an indexed field, empty if none or the field is not indexed
+    public Set<T> postings(Field<T> field, String value) {
+        Set<T> set = postingsOrNull(field, field.normalize(value));
+        return set == null ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    Plan plan(Query<T> query) {
+        Plan plan = new Plan();
+        // The exact row count of each indexed condition, stopping early once it cannot win
+        long best = Long.MAX_VALUE;
+        for (Condition<T> c : query.getConditions()) {
+            long rows = estimate(c, best);
+            if (rows < best) {
+                best = rows;
+                plan.driver = c;
+            }
+        }
+        plan.driverRows = best;
+        for (Condition<T> c : query.getConditions()) {
+            if (c == plan.driver) continue;
+            Set<T> postings = c.isEquality() ? postingsOrNull(c.getField(), c.getValue()) : null;
+            boolean indexed = c.isEquality() && isIndexed(c.getField());
+            if (indexed) {
+                // An indexed value nobody has leaves nothing to find
+                plan.probes.add(postings == null ? Collections.emptySet() : postings);
+                plan.probeConditions.add(c);
+            } else {
+                plan.residual.add(c);
+            }
+        }
+        return plan;
+    }
+
+    // Rows an indexed condition yields, Long.MAX_VALUE if its field is not indexed;
+    // a range count stops at the limit, since only a smaller one changes the plan
+    private long estimate(Condition<T> c, long limit) {
+        if (c.isEquality()) {
+            if (!isIndexed(c.getField())) return Long.MAX_VALUE;
+            Set<T> set = postingsOrNull(c.getField(), c.getValue());
+            return set == null ? 0 : set.size();
+        }
+        NavigableMap<String, Set<T>> index = sorted.get(c.getField());
+        if (index == null) return Long.MAX_VALUE;
+        long rows = 0;
+        for (Set<T> set : range(index, c).values()) {
+            rows += set.size();
+            if (rows >= limit) return rows;
+        }
+        return rows;
+    }
+
+    private boolean isIndexed(Field<T> field) {
+        return hashed.containsKey(field) || sorted.containsKey(field);
+    }
+
+    private Set<T> postingsOrNull(Field<T> field, String key) {
+        Map<String, Set<T>> index = hashed.get(field);
+        if (index == null) index = sorted.get(field);
+        return index == null ? null : index.get(key);
+    }
+
+    private static <T> NavigableMap<String, Set<T>> range(NavigableMap<String, Set<T>> index, Condition<T> c) {
+        NavigableMap<String, Set<T>> range = index;
+        if (c.getFrom() != null) range = range.tailMap(c.getFrom(), true);
+        if (c.getTo() != null) range = range.headMap(c.getTo(), true);
+        return range;
+    }
+
+    private static <T> void link(Map<String, Set<T>> index, Field<T> field, T record) {
+        index.computeIfAbsent(field.keyOf(record), k -> new LinkedHashSet<>()).add(record);
+    }
+
+    private static <T> void unlink(Map<String, Set<T>> index, Field<T> field, T record) {
+        String key = field.keyOf(record);
+        Set<T> set = index.get(key);
+        if (set == null) return;
+        set.remove(record);
+        if (set.isEmpty()) index.remove(key);
+    }
+
+    // The chosen way through the indexes for one query
+    final class Plan {
+        // Condition whose postings are walked, null for a full scan
+        Condition<T> driver;
+        long driverRows;
+        // Equality postings each candidate must be in, and the conditions they answer
+        final List<Set<T>> probes = new ArrayList<>();
+        final List<Condition<T>> probeConditions = new ArrayList<>();
+        // Conditions with no index, tested on each candidate that got through the probes
+        final List<Condition<T>> residual = new ArrayList<>();
+
+        List<T> run() {
+            List<T> result = new ArrayList<>();
+            if (driver == null) {
+                for (T record : all.get()) accept(record, result);
+            } else if (driver.isEquality()) {
+                Set<T> set = postingsOrNull(driver.getField(), driver.getValue());
+                if (set != null) for (T record : set) accept(record, result);
+            } else {
+                for (Set<T> set : range(sorted.get(driver.getField()), driver).values()) {
+                    for (T record : set) accept(record, result);
+                }
+            }
+            return result;
+        }
+
+        private void accept(T record, List<T> result) {
+            for (Set<T> probe : probes) {
+                if (!probe.contains(record)) return;
+            }
+            for (Condition<T> c : residual) {
+                if (!c.test(record)) return;
+            }
+            result.add(record);
+        }
+
+        // e.g. "index clinician = C001 (12 rows), probe status = scheduled, filter reason = x"
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            if (driver == null) sb.append("scan");
+            else sb.append("index ").append(driver).append(" (").append(driverRows).append(" rows)");
+            for (Condition<T> c : probeConditions) sb.append(", probe ").append(c);
+            for (Condition<T> c : residual) sb.append(", filter ").append(c);
+            return sb.toString();
+        }
+    }
+}
\ No newline at end of file
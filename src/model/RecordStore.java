@@ -0,0 +1,74 @@
+package model;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+public interface RecordStore<T> {
+
+    // Reads a facility's records unless already in memory, returns true if they were read now
+    boolean load(String facilityId);
+
+    // Reads every record not yet in memory
+    void loadAll();
+
+    // True once every stored record is in memory
+    boolean isFullyLoaded();
+
+    // Loaded records of one facility, reading them first if needed
+    List<T> get(String facilityId);
+
+    // Reads the record with this identifier if it is not in memory yet
+    boolean loadContaining(String id);
+
+    // Reads the records whose column equals the key, returns true if any were read
+    boolean loadMatching(int column, String key);
+
+    // Reads a facility's records (every facility for null) ahead on the calling thread, e.g. a
+    // background thread, so a later load need not wait for the disk. Nothing is handed to the
+    // caller until that load. Engines without a cheaper later load ignore this.
+    default void prefetch(String facilityId) {
+    }
+
+    // Highest numeric suffix among all identifiers, e.g. 12 for "A012"
+    int maxSequence(int prefixLength);
+
+    // Numeric suffix for the next new identifier. Engines shared by several running instances
+    // hand each sequence out once across all of them; it is kept until a record reserves it.
+    default int nextSequence(int prefixLength) {
+        return maxSequence(prefixLength) + 1;
+    }
+
+    // Counts a record that a worker thread is about to append in maxSequence from now on,
+    // so an ID handed out before the write lands is not handed out again
+    void reserve(T record);
+
+    // Records a new in-memory record that is not written to storage
+    void track(T record);
+
+    // Writes one new record
+    void append(T record) throws IOException;
+
+    // Writes many new records in one batch
+    void appendAll(Collection<T> records) throws IOException;
+
+    // Swaps a stored record for its new version.
+    // Call before the caller's own maps change so re-read rows resolve to the old instance.
+    void replace(T oldRecord, T newRecord) throws IOException;
+
+    // Deletes a stored record, called before the caller forgets it
+    void remove(T record) throws IOException;
+
+    // Reads whatever a later replace or remove of this record needs, so that the write, when
+    // run on another thread, does not call back into the caller. Run on the caller's thread first.
+    default void prepare(T record) {
+    }
+
+    // Follows edits other programs make to the stored data. Each edit is applied to the store
+    // and then passed to the listener, both through the executor, e.g. the Swing event thread.
+    // Engines that cannot see outside edits ignore this.
+    default void watch(Executor deliverOn, Consumer<RecordDelta<T>> listener) {
+    }
+}
\ No newline at end of file
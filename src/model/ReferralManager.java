@@ -1,237 +1,345 @@
-package model;
-
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.util.List;
-
-public class ReferralManager {
-
-    // Singleton pattern implementation
-    private static ReferralManager instance;
-    private static boolean initialized = false;  // Track initialization state
-
-    // Repository dependencies for data access
-    private final ReferralRepository referralRepository;
-    private final PatientRepository patientRepository;
-    private final ClinicianRepository clinicianRepository;
-    private final FacilityRepository facilityRepository;
-    private final String referralTextPath;  // Text file output path
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Private constructor for singleton pattern
-    private ReferralManager(ReferralRepository rr,
-                            PatientRepository pr,
-                            ClinicianRepository cr,
-                            FacilityRepository fr,
-                            String referralTextPath) {
-
-        this.referralRepository = rr;
-        this.patientRepository = pr;
-        this.clinicianRepository = cr;
-        this.facilityRepository = fr;
-        this.referralTextPath = referralTextPath;
-    }
-
-
-    // Singleton access with initialization parameters (first-time setup)
-    public static synchronized ReferralManager getInstance(
-            ReferralRepository rr,
-            PatientRepository pr,
-            ClinicianRepository cr,
-            FacilityRepository fr,
-            String referralTextPath) {
-
-        if (instance == null) {
-            // First time initialization - create new instance
-            instance = new ReferralManager(rr, pr, cr, fr, referralTextPath);
-            initialized = true;
-        } else if (!initialized) {
-            // Fallback: recreate instance if not properly initialized
-            instance = new ReferralManager(rr, pr, cr, fr, referralTextPath);
-            initialized = true;
-        }
-        // Return existing instance if already initialized (ignore new parameters)
-        
-        return instance;
-    }
-    
-    // Singleton access without parameters (post-initialization)
-    public static synchronized ReferralManager getInstance() {
-        if (instance == null) {
-            throw new IllegalStateException(
-                "ReferralManager not initialized. Call getInstance(with parameters) first."
-            );
-        }
-        return instance;
-    }
-    
-    // Check initialization status
-    public static synchronized boolean isInitialized() {
-        return initialized;
-    }
-
-    // Creates new referral with text file generation
-    public void createReferral(Referral r) {
-        referralRepository.addAndAppend(r);
-        writeReferralText(r);
-    }
-
-    // Returns all referral records
-    public List<Referral> getAllReferrals() {
-        return referralRepository.getAll();
-    }
-
-    // Updates existing referral record
-    public void updateReferral(Referral r) {
-        referralRepository.update(r);
-        // Regenerate text file representation
-        writeReferralText(r);
-    }
-
-    // Deletes referral by identifier with audit trail
-    public void deleteReferral(String id) {
-        // Find referral before deletion
-        Referral referralToDelete = null;
-        for (Referral r : referralRepository.getAll()) {
-            if (r.getId().equals(id)) {
-                referralToDelete = r;
-                break;
-            }
-        }
-        
-        if (referralToDelete != null) {
-            referralRepository.removeById(id);
-            // Record deletion in text file
-            writeDeletionNote(referralToDelete);
-        }
-    }
-
-    // Records referral deletion in text file
-    private void writeDeletionNote(Referral r) {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(referralTextPath, true))) {
-            bw.write("==============================================");
-            bw.newLine();
-            bw.write("            REFERRAL DELETED / CANCELLED      ");
-            bw.newLine();
-            bw.write("==============================================");
-            bw.newLine();
-            bw.write("Referral ID: " + r.getId());
-            bw.newLine();
-            bw.write("Patient ID: " + r.getPatientId());
-            bw.newLine();
-            bw.write("Reason for Referral: " + r.getReferralReason());
-            bw.newLine();
-            bw.write("Deleted Date: " + java.time.LocalDate.now().toString());
-            bw.newLine();
-            bw.write("----------------------------------------------");
-            bw.newLine();
-            bw.newLine();
-        } catch (IOException ex) {
-            System.err.println("Failed to write deletion note: " + ex.getMessage());
-        }
-    }
-
-    // Generates formatted text file representation of referral
-    private void writeReferralText(Referral r) {
-
-        // Retrieve related entity data for comprehensive report
-        Patient patient = patientRepository.findById(r.getPatientId());
-        Clinician referringClinician = clinicianRepository.findById(r.getReferringClinicianId());
-        Clinician referredToClinician = clinicianRepository.findById(r.getReferredToClinicianId());
-        Facility referringFacility = facilityRepository.findById(r.getReferringFacilityId());
-        Facility referredToFacility = facilityRepository.findById(r.getReferredToFacilityId());
-
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(referralTextPath, true))) {
-
-            // Report header section
-            bw.write("==============================================");
-            bw.newLine();
-            bw.write("            REFERRAL SUMMARY REPORT           ");
-            bw.newLine();
-            bw.write("==============================================");
-            bw.newLine();
-
-            bw.write("Referral ID: " + r.getId());
-            bw.newLine();
-
-            // Patient information
-            if (patient != null) {
-                bw.write("Patient: " + patient.getName() + " (NHS: " + patient.getNhsNumber() + ")");
-                bw.newLine();
-            }
-
-            // Referring clinician details
-            if (referringClinician != null) {
-                bw.write("Referring Clinician: " 
-                    + referringClinician.getFullName()
-                    + " (" + referringClinician.getTitle()
-                    + " - " + referringClinician.getSpeciality() + ")");
-                bw.newLine();
-            }
-
-            // Destination clinician details
-            if (referredToClinician != null) {
-                bw.write("Referred To: " 
-                    + referredToClinician.getFullName()
-                    + " (" + referredToClinician.getTitle()
-                    + " - " + referredToClinician.getSpeciality() + ")");
-                bw.newLine();
-            }
-
-            // Facility information
-            if (referringFacility != null) {
-                bw.write("Referring Facility: " + referringFacility.getName() +
-                         " (" + referringFacility.getType() + ")");
-                bw.newLine();
-            }
-
-            if (referredToFacility != null) {
-                bw.write("Referred To Facility: " + referredToFacility.getName() +
-                         " (" + referredToFacility.getType() + ")");
-                bw.newLine();
-            }
-
-            // Referral details and classification
-            bw.write("Referral Date: " + r.getReferralDate());
-            bw.newLine();
-
-            bw.write("Urgency Level: " + r.getUrgencyLevel());
-            bw.newLine();
-
-            bw.write("Reason for Referral: " + r.getReferralReason());
-            bw.newLine();
-
-            bw.write("Requested Service: " + r.getRequestedService());
-            bw.newLine();
-
-            bw.write("Status: " + r.getStatus());
-            bw.newLine();
-
-            // Clinical documentation
-            bw.write("Clinical Summary:");
-            bw.newLine();
-            bw.write(r.getClinicalSummary());
-            bw.newLine();
-
-            // Administrative notes
-            bw.write("Notes:");
-            bw.newLine();
-            bw.write(r.getNotes());
-            bw.newLine();
-
-            // System timestamps
-            bw.write("Created Date: " + r.getCreatedDate());
-            bw.newLine();
-
-            bw.write("Last Updated: " + r.getLastUpdated());
-            bw.newLine();
-
-            bw.write("----------------------------------------------");
-            bw.newLine();
-            bw.newLine();
-
-        } catch (IOException ex) {
-            System.err.println("Failed to write referral text: " + ex.getMessage());
-        }
-    }
+package model;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class ReferralManager {
+
+    // Singleton pattern implementation
+    private static ReferralManager instance;
+    private static boolean initialized = false;  // Track initialization state
+
+    // Repository dependencies for data access
+    private final ReferralRepository referralRepository;
+    private final PatientRepository patientRepository;
+    private final ClinicianRepository clinicianRepository;
+    private final FacilityRepository facilityRepository;
+    private final String referralTextPath;  // Text file output path
+    private final GroupCommit commits;  // Batches text output with the data files in its directory
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Private constructor for singleton pattern
+    private ReferralManager(ReferralRepository rr,
+                            PatientRepository pr,
+                            ClinicianRepository cr,
+                            FacilityRepository fr,
+                            String referralTextPath) {
+
+        this.referralRepository = rr;
+        this.patientRepository = pr;
+        this.clinicianRepository = cr;
+        this.facilityRepository = fr;
+        this.referralTextPath = referralTextPath;
+        this.commits = GroupCommit.forDirectory(new File(referralTextPath).getAbsoluteFile().getParentFile());
+    }
+
+
+    // Singleton access with initialization parameters (first-time setup)
+    public static synchronized ReferralManager getInstance(
+            ReferralRepository rr,
+            PatientRepository pr,
+            ClinicianRepository cr,
+            FacilityRepository fr,
+            String referralTextPath) {
+
+        if (instance == null) {
+            // First time initialization - create new instance
+            instance = new ReferralManager(rr, pr, cr, fr, referralTextPath);
+            initialized = true;
+        } else if (!initialized) {
+            // Fallback: recreate instance if not properly initialized
+            instance = new ReferralManager(rr, pr, cr, fr, referralTextPath);
+            initialized = true;
+        }
+        // Return existing instance if already initialized (ignore new parameters)
+        
+        return instance;
+    }
+    
+    // Singleton access without parameters (post-initialization)
+    public static synchronized ReferralManager getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException(
+                "ReferralManager not initialized. Call getInstance(with parameters) first."
+            );
+        }
+        return instance;
+    }
+    
+    // Check initialization status
+    public static synchronized boolean isInitialized() {
+        return initialized;
+    }
+
+    // Creates new referral with text file generation
+    public void createReferral(Referral r) {
+        try {
+            createReferralDeferred(r).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to save referral: " + ex.getMessage());
+        }
+    }
+
+    // Adds the referral to memory and drafts its summary now; returns the writes, to run off the event thread
+    public PendingWrite createReferralDeferred(Referral r) {
+        PendingWrite row = referralRepository.addAndAppendDeferred(r);
+        StringWriter text = referralText(r);
+        return PendingWrite.of(() -> writeTogether("create", r.getId(), row, text), row::undo);
+    }
+
+    // Writes a row change and its text entry so both reach disk in one batch, timed for the flight recorder
+    private void writeTogether(String operation, String id, PendingWrite row, StringWriter text) throws IOException {
+        ServiceEvent event = new ServiceEvent("referrals", operation, id);
+        boolean written = false;
+        try {
+            commits.together(() -> {
+                try {
+                    row.run();
+                    if (text != null) appendText(text);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            written = true;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            event.finish(written);
+        }
+    }
+
+    // Returns all referral records
+    public List<Referral> getAllReferrals() {
+        return referralRepository.getAll();
+    }
+
+    // Returns the next free referral identifier
+    public String generateReferralId() {
+        return referralRepository.generateNewId();
+    }
+
+    // Returns referrals received by a clinician
+    public List<Referral> getInbox(String clinicianId) {
+        return referralRepository.getInbox(clinicianId);
+    }
+
+    // Returns referrals sent by a clinician
+    public List<Referral> getOutbox(String clinicianId) {
+        return referralRepository.getOutbox(clinicianId);
+    }
+
+    // Returns referrals a clinician sent or received
+    public List<Referral> getReferralsForClinician(String clinicianId) {
+        return referralRepository.findByClinicianId(clinicianId);
+    }
+
+    // Returns referrals for a patient
+    public List<Referral> getReferralsForPatient(String patientId) {
+        return referralRepository.findByPatientId(patientId);
+    }
+
+    // Streams matching referrals to an export file
+    public int export(String path, RecordExporter.Format format, Predicate<Referral> filter) throws IOException {
+        return referralRepository.export(path, format, filter);
+    }
+
+    // Writes the text summary of every matching referral to a file, e.g. to regenerate
+    // the referral report from a nightly job; returns how many were written
+    public int writeReport(String path, Predicate<Referral> filter) throws IOException {
+        int written = 0;
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(path))) {
+            for (Referral r : referralRepository.getAll()) {
+                if (filter != null && !filter.test(r)) continue;
+                StringWriter text = referralText(r);
+                if (text == null) continue;
+                bw.write(text.toString());
+                written++;
+            }
+        }
+        return written;
+    }
+
+    // Updates existing referral record
+    public void updateReferral(Referral r) {
+        try {
+            updateReferralDeferred(r).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to save referral: " + ex.getMessage());
+        }
+    }
+
+    // Updates the referral in memory and regenerates its summary now; returns the writes, to run off the event thread
+    public PendingWrite updateReferralDeferred(Referral r) {
+        PendingWrite row = referralRepository.updateDeferred(r);
+        StringWriter text = referralText(r);
+        return PendingWrite.of(() -> writeTogether("update", r.getId(), row, text), row::undo);
+    }
+
+    // Deletes referral by identifier with audit trail
+    public void deleteReferral(String id) {
+        try {
+            deleteReferralDeferred(id).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to delete referral: " + ex.getMessage());
+        }
+    }
+
+    // Forgets the referral and drafts the deletion note now; returns the writes, to run off the event thread
+    public PendingWrite deleteReferralDeferred(String id) {
+        // Single indexed lookup finds the referral
+        Referral referralToDelete = referralRepository.findById(id);
+        if (referralToDelete == null) return PendingWrite.NONE;
+        PendingWrite row = referralRepository.removeDeferred(referralToDelete);
+        // Record deletion in text file
+        StringWriter note = deletionNote(referralToDelete);
+        return PendingWrite.of(() -> writeTogether("delete", id, row, note), row::undo);
+    }
+
+    // Text file entry recording a referral's deletion, null if it could not be drafted
+    private StringWriter deletionNote(Referral r) {
+        StringWriter text = new StringWriter();
+        try (BufferedWriter bw = new BufferedWriter(text)) {
+            bw.write("==============================================");
+            bw.newLine();
+            bw.write("            REFERRAL DELETED / CANCELLED      ");
+            bw.newLine();
+            bw.write("==============================================");
+            bw.newLine();
+            bw.write("Referral ID: " + r.getId());
+            bw.newLine();
+            bw.write("Patient ID: " + r.getPatientId());
+            bw.newLine();
+            bw.write("Reason for Referral: " + r.getReferralReason());
+            bw.newLine();
+            bw.write("Deleted Date: " + java.time.LocalDate.now().toString());
+            bw.newLine();
+            bw.write("----------------------------------------------");
+            bw.newLine();
+            bw.newLine();
+            bw.flush();
+            return text;
+        } catch (IOException ex) {
+            System.err.println("Failed to write deletion note: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    // Generates formatted text file representation of referral, null if it could not be drafted.
+    // Reads the patient and clinician repositories, so it runs on the event thread.
+    private StringWriter referralText(Referral r) {
+
+        // Retrieve related entity data for comprehensive report
+        Patient patient = patientRepository.findById(r.getPatientId());
+        Clinician referringClinician = clinicianRepository.findById(r.getReferringClinicianId());
+        Clinician referredToClinician = clinicianRepository.findById(r.getReferredToClinicianId());
+        Facility referringFacility = facilityRepository.findById(r.getReferringFacilityId());
+        Facility referredToFacility = facilityRepository.findById(r.getReferredToFacilityId());
+
+        StringWriter text = new StringWriter();
+        try (BufferedWriter bw = new BufferedWriter(text)) {
+
+            // Report header section
+            bw.write("==============================================");
+            bw.newLine();
+            bw.write("            REFERRAL SUMMARY REPORT           ");
+            bw.newLine();
+            bw.write("==============================================");
+            bw.newLine();
+
+            bw.write("Referral ID: " + r.getId());
+            bw.newLine();
+
+            // Patient information
+            if (patient != null) {
+                bw.write("Patient: " + patient.getName() + " (NHS: " + patient.getNhsNumber() + ")");
+                bw.newLine();
+            }
+
+            // Referring clinician details
+            if (referringClinician != null) {
+                bw.write("Referring Clinician: " 
+                    + referringClinician.getFullName()
+                    + " (" + referringClinician.getTitle()
+                    + " - " + referringClinician.getSpeciality() + ")");
+                bw.newLine();
+            }
+
+            // Destination clinician details
+            if (referredToClinician != null) {
+                bw.write("Referred To: " 
+                    + referredToClinician.getFullName()
+                    + " (" + referredToClinician.getTitle()
+                    + " - " + referredToClinician.getSpeciality() + ")");
+                bw.newLine();
+            }
+
+            // Facility information
+            if (referringFacility != null) {
+                bw.write("Referring Facility: " + referringFacility.getName() +
+                         " (" + referringFacility.getType() + ")");
+                bw.newLine();
+            }
+
+            if (referredToFacility != null) {
+                bw.write("Referred To Facility: " + referredToFacility.getName() +
+                         " (" + referredToFacility.getType() + ")");
+                bw.newLine();
+            }
+
+            // Referral details and classification
+            bw.write("Referral Date: " + r.getReferralDate());
+            bw.newLine();
+
+            bw.write("Urgency Level: " + r.getUrgencyLevel());
+            bw.newLine();
+
+            bw.write("Reason for Referral: " + r.getReferralReason());
+            bw.newLine();
+
+            bw.write("Requested Service: " + r.getRequestedService());
+            bw.newLine();
+
+            bw.write("Status: " + r.getStatus());
+            bw.newLine();
+
+            // Clinical documentation
+            bw.write("Clinical Summary:");
+            bw.newLine();
+            bw.write(r.getClinicalSummary());
+            bw.newLine();
+
+            // Administrative notes
+            bw.write("Notes:");
+            bw.newLine();
+            bw.write(r.getNotes());
+            bw.newLine();
+
+            // System timestamps
+            bw.write("Created Date: " + r.getCreatedDate());
+            bw.newLine();
+
+            bw.write("Last Updated: " + r.getLastUpdated());
+            bw.newLine();
+
+            bw.write("----------------------------------------------");
+            bw.newLine();
+            bw.newLine();
+            bw.flush();
+            return text;
+
+        } catch (IOException ex) {
+            System.err.println("Failed to write referral text: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    // Appends a finished entry to the text file through the shared committer
+    private void appendText(StringWriter text) throws IOException {
+        commits.await(commits.append(new File(referralTextPath), text.toString().getBytes()));
+    }
 }
\ No newline at end of file
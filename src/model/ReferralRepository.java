@@ -1,162 +1,318 @@
-package model;
-
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
-public class ReferralRepository {
-
-    // In-memory storage for referral records
-    private final List<Referral> referrals = new ArrayList<>();
-    // File system path for CSV persistence
-    private final String csvPath;
-
-    // Constructor - loads data from CSV file on initialization
-    public ReferralRepository(String csvPath) {
-        this.csvPath = csvPath;
-        load();
-    }
-
-    // Loads referral data from CSV file into memory
-    private void load() {
-        try {
-            for (String[] row : CsvUtils.readCsv(csvPath)) {
-//Made By Misbah Al Rehman. SRN: 24173647
-                // Create Referral object with all 16 CSV columns
-                Referral r = new Referral(
-                        row[0],  // referral_id - unique identifier
-                        row[1],  // patient_id - referred patient
-                        row[2],  // referring_clinician - originating clinician
-                        row[3],  // referred_to_clinician - destination clinician
-                        row[4],  // referring_facility - originating facility
-                        row[5],  // referred_to_facility - destination facility
-                        row[6],  // referral_date - creation date
-                        row[7],  // urgency_level - priority classification
-                        row[8],  // referral_reason - primary rationale
-                        row[9],  // clinical_summary - comprehensive details
-                        row[10], // requested_service - required investigation
-                        row[11], // status - current lifecycle state
-                        row[12], // appointment_id - related appointment
-                        row[13], // notes - additional information
-                        row[14], // created_date - system timestamp
-                        row[15]  // last_updated - modification timestamp
-                );
-
-                referrals.add(r);
-            }
-
-        } catch (IOException ex) {
-            System.err.println("Failed to load referrals: " + ex.getMessage());
-        }
-    }
-
-
-    // Returns all referral records in the repository
-    public List<Referral> getAll() {
-        return referrals;
-    }
-
-
-    /**
-     * Adds referral to memory and appends to CSV (all 16 columns)
-     */
-    public void addAndAppend(Referral r) {
-        referrals.add(r);
-
-        try {
-            CsvUtils.appendLine(csvPath, new String[] {
-                    r.getId(),
-                    r.getPatientId(),
-                    r.getReferringClinicianId(),
-                    r.getReferredToClinicianId(),
-                    r.getReferringFacilityId(),
-                    r.getReferredToFacilityId(),
-                    r.getReferralDate(),
-                    r.getUrgencyLevel(),
-                    r.getReferralReason(),
-                    r.getClinicalSummary(),
-                    r.getRequestedService(),
-                    r.getStatus(),
-                    r.getAppointmentId(),
-                    r.getNotes(),
-                    r.getCreatedDate(),
-                    r.getLastUpdated()
-            });
-
-        } catch (IOException ex) {
-            System.err.println("Failed to append referral: " + ex.getMessage());
-        }
-    }
-
-    // Updates existing referral in memory and persists to CSV
-    public void update(Referral updatedReferral) {
-        for (int i = 0; i < referrals.size(); i++) {
-            Referral r = referrals.get(i);
-            if (r.getId().equals(updatedReferral.getId())) {
-                referrals.set(i, updatedReferral);
-                saveAllToCsv();
-                return;
-            }
-        }
-        System.err.println("Referral not found for update: " + updatedReferral.getId());
-    }
-
-    // Deletes referral by identifier from memory and CSV
-    public void removeById(String id) {
-        Referral referralToRemove = null;
-        for (Referral r : referrals) {
-            if (r.getId().equals(id)) {
-                referralToRemove = r;
-                break;
-            }
-        }
-        
-        if (referralToRemove != null) {
-            referrals.remove(referralToRemove);
-            saveAllToCsv();
-        }
-    }
-
-    // Writes all referral records to CSV file (full persistence)
-    private void saveAllToCsv() {
-        try {
-            List<String[]> allData = new ArrayList<>();
-            
-            // Add CSV header row with column definitions
-            allData.add(new String[]{
-                "referral_id", "patient_id", "referring_clinician_id", "referred_to_clinician_id",
-                "referring_facility_id", "referred_to_facility_id", "referral_date", "urgency_level",
-                "referral_reason", "clinical_summary", "requested_investigations", "status",
-                "appointment_id", "notes", "created_date", "last_updated"
-            });
-            
-            // Convert all referrals to CSV row format
-            for (Referral r : referrals) {
-                allData.add(new String[]{
-                    r.getId(),
-                    r.getPatientId(),
-                    r.getReferringClinicianId(),
-                    r.getReferredToClinicianId(),
-                    r.getReferringFacilityId(),
-                    r.getReferredToFacilityId(),
-                    r.getReferralDate(),
-                    r.getUrgencyLevel(),
-                    r.getReferralReason(),
-                    r.getClinicalSummary(),
-                    r.getRequestedService(), // Note: CSV column name differs from field name
-                    r.getStatus(),
-                    r.getAppointmentId(),
-                    r.getNotes(),
-                    r.getCreatedDate(),
-                    r.getLastUpdated()
-                });
-            }
-            
-            // Write complete dataset to CSV file
-            CsvUtils.writeCsv(csvPath, allData);
-            
-        } catch (IOException ex) {
-            System.err.println("Failed to save referrals to CSV: " + ex.getMessage());
-        }
-    }
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+public class ReferralRepository {
+
+    // In-memory storage for referral records
+    private final List<Referral> referrals = new ArrayList<>();
+    // Lookup indexes kept in step with the list on every change
+    private final Map<String, Referral> byId = new HashMap<>();
+    // Posting lists per patient, clinician, facility and status, answering find()
+    private final RecordIndex<Referral> queries = new RecordIndex<>(() -> referrals);
+    // Referral records, read in full on first global access or row by row per key
+    private RecordStore<Referral> store;
+
+    // CSV header row with column definitions
+    public static final String[] CSV_HEADER = {
+        "referral_id", "patient_id", "referring_clinician_id", "referred_to_clinician_id",
+        "referring_facility_id", "referred_to_facility_id", "referral_date", "urgency_level",
+        "referral_reason", "clinical_summary", "requested_investigations", "status",
+        "appointment_id", "notes", "created_date", "last_updated"
+    };
+    // Columns with offset indexes for per-patient, per-clinician and per-facility reads
+    private static final int PATIENT_COLUMN = 1;
+    private static final int REFERRING_CLINICIAN_COLUMN = 2;
+    private static final int RECEIVING_CLINICIAN_COLUMN = 3;
+    private static final int REFERRING_FACILITY_COLUMN = 4;
+    private static final int RECEIVING_FACILITY_COLUMN = 5;
+    private static final int LAST_UPDATED_COLUMN = 15;
+
+    // Queryable fields, e.g. Query.where(RECEIVING_CLINICIAN.is("C001")).and(STATUS.is("Pending"))
+    public static final Field<Referral> PATIENT = Field.of("patient", Referral::getPatientId);
+    public static final Field<Referral> REFERRING_CLINICIAN = Field.of("referring clinician", Referral::getReferringClinicianId);
+    public static final Field<Referral> RECEIVING_CLINICIAN = Field.of("receiving clinician", Referral::getReferredToClinicianId);
+    public static final Field<Referral> REFERRING_FACILITY = Field.of("referring facility", Referral::getReferringFacilityId);
+    public static final Field<Referral> RECEIVING_FACILITY = Field.of("receiving facility", Referral::getReferredToFacilityId);
+    public static final Field<Referral> STATUS = Field.of("status", Referral::getStatus).ignoringCase();
+    public static final Field<Referral> URGENCY = Field.of("urgency", Referral::getUrgencyLevel).ignoringCase();
+    public static final Field<Referral> DATE = Field.of("date", Referral::getReferralDate);
+    // Fields whose rows can be read on their own, and the offset-indexed column behind each
+    private static final List<Field<Referral>> LOADING_FIELDS = Arrays.asList(
+            PATIENT, REFERRING_CLINICIAN, RECEIVING_CLINICIAN, REFERRING_FACILITY, RECEIVING_FACILITY);
+    private static final int[] LOADING_COLUMNS = {
+            PATIENT_COLUMN, REFERRING_CLINICIAN_COLUMN, RECEIVING_CLINICIAN_COLUMN,
+            REFERRING_FACILITY_COLUMN, RECEIVING_FACILITY_COLUMN};
+
+    // Table mapping shared by every storage engine, versioned by last_updated
+    public static final TableSchema<Referral> SCHEMA = new TableSchema<>("referrals", CSV_HEADER,
+            ReferralRepository::fromRow, ReferralRepository::toRow, Referral::getId, -1,
+            PATIENT_COLUMN, REFERRING_CLINICIAN_COLUMN, RECEIVING_CLINICIAN_COLUMN,
+            REFERRING_FACILITY_COLUMN, RECEIVING_FACILITY_COLUMN).versioned(LAST_UPDATED_COLUMN);
+
+    // Constructor - opens the referrals table, reading rows only when first needed
+    public ReferralRepository(StorageEngine engine) {
+        queries.hashed(PATIENT).hashed(REFERRING_CLINICIAN).hashed(RECEIVING_CLINICIAN)
+               .hashed(REFERRING_FACILITY).hashed(RECEIVING_FACILITY).hashed(STATUS).hashed(URGENCY).sorted(DATE);
+        load(engine);
+    }
+
+    // Opens referral data from the storage engine
+    private void load(StorageEngine engine) {
+//Made By Misbah Al Rehman. SRN: 24173647
+        store = engine.open(SCHEMA, this::loaded);
+    }
+
+    // Create Referral object with all 16 CSV columns
+    private static Referral fromRow(String[] row) {
+        return new Referral(
+                row[0],  // referral_id - unique identifier
+                row[1],  // patient_id - referred patient
+                row[2],  // referring_clinician - originating clinician
+                row[3],  // referred_to_clinician - destination clinician
+                row[4],  // referring_facility - originating facility
+                row[5],  // referred_to_facility - destination facility
+                row[6],  // referral_date - creation date
+                row[7],  // urgency_level - priority classification
+                row[8],  // referral_reason - primary rationale
+                row[9],  // clinical_summary - comprehensive details
+                row[10], // requested_service - required investigation
+                row[11], // status - current lifecycle state
+                row[12], // appointment_id - related appointment
+                row[13], // notes - additional information
+                row[14], // created_date - system timestamp
+                row[15]  // last_updated - modification timestamp
+        );
+    }
+
+    // Adds a referral read from disk to memory and the indexes, unless already held
+    private Referral loaded(Referral r) {
+        Referral existing = byId.get(r.getId());
+        if (existing != null) return existing;
+        referrals.add(r);
+        index(r);
+        return r;
+    }
+
+    // Reads the referrals ahead on a background thread; they join memory on first use
+    public void prefetch() {
+        store.prefetch(null);
+    }
+
+    // Returns all referral records in the repository
+    public List<Referral> getAll() {
+        store.loadAll();
+        return referrals;
+    }
+
+
+    /**
+     * Adds referral to memory and appends to CSV (all 16 columns)
+     */
+    public void addAndAppend(Referral r) {
+        try {
+            addAndAppendDeferred(r).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to append referral: " + ex.getMessage());
+        }
+    }
+
+    // Adds the referral to memory now and returns the append, to run off the event thread
+    public PendingWrite addAndAppendDeferred(Referral r) {
+        store.reserve(r);
+        referrals.add(r);
+        index(r);
+        return PendingWrite.of(() -> store.append(r), () -> forget(r));
+    }
+
+    // Updates existing referral in memory and persists to CSV
+    public void update(Referral updatedReferral) {
+        try {
+            updateDeferred(updatedReferral).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to save referrals to CSV: " + ex.getMessage());
+        }
+    }
+
+    // Replaces the referral in memory now and returns the rewrite, to run off the event thread
+    public PendingWrite updateDeferred(Referral updatedReferral) {
+        for (int i = 0; i < referrals.size(); i++) {
+            Referral r = referrals.get(i);
+            if (r.getId().equals(updatedReferral.getId())) {
+                // The file is read here, so the rewrite never calls back into this repository
+                store.prepare(r);
+                referrals.set(i, updatedReferral);
+                unindex(r);
+                index(updatedReferral);
+                // Rewrites the file, reading the rows not yet in memory first
+                return PendingWrite.of(() -> store.replace(r, updatedReferral), () -> {
+                    forget(updatedReferral);
+                    restore(r);
+                });
+            }
+        }
+        System.err.println("Referral not found for update: " + updatedReferral.getId());
+        return PendingWrite.NONE;
+    }
+
+    // Deletes referral by identifier from memory and CSV, returning the removed record
+    public Referral removeById(String id) {
+        Referral referralToRemove = findById(id);
+        
+        if (referralToRemove != null) {
+            try {
+                removeDeferred(referralToRemove).run();
+            } catch (IOException ex) {
+                System.err.println("Failed to save referrals to CSV: " + ex.getMessage());
+            }
+        }
+        return referralToRemove;
+    }
+
+    // Forgets the referral now and returns the rewrite, to run off the event thread
+    public PendingWrite removeDeferred(Referral r) {
+        store.prepare(r);
+        referrals.remove(r);
+        unindex(r);
+        return PendingWrite.of(() -> store.remove(r), () -> restore(r));
+    }
+
+    // Puts back a referral whose removal or replacement could not be written
+    private void restore(Referral r) {
+        if (byId.containsKey(r.getId())) return;
+        referrals.add(r);
+        index(r);
+    }
+
+    // Drops a referral whose addition or new version could not be written
+    private void forget(Referral r) {
+        if (referrals.remove(r)) unindex(r);
+    }
+
+    // Retrieves referral by unique identifier
+    public Referral findById(String id) {
+        Referral r = byId.get(id);
+        // Not in memory yet, read just that row through the ID offset index
+        if (r == null && store.loadContaining(id)) r = byId.get(id);
+        return r;
+    }
+
+    // Generates next sequential referral identifier, scanning IDs without loading rows
+    public String generateNewId() {
+        return String.format("R%03d", store.nextSequence(1));
+    }
+
+    // Returns all referrals for a patient
+    public List<Referral> findByPatientId(String patientId) {
+        return find(Query.where(PATIENT.is(patientId)));
+    }
+
+    // Returns referrals received by a clinician
+    public List<Referral> getInbox(String clinicianId) {
+        return find(Query.where(RECEIVING_CLINICIAN.is(clinicianId)));
+    }
+
+    // Returns referrals sent by a clinician
+    public List<Referral> getOutbox(String clinicianId) {
+        return find(Query.where(REFERRING_CLINICIAN.is(clinicianId)));
+    }
+
+    // Returns referrals a clinician sent or received, each listed once
+    public List<Referral> findByClinicianId(String clinicianId) {
+        // A clinician's caseload is the union of both clinician columns
+        List<Referral> sent = getOutbox(clinicianId);
+        List<Referral> received = getInbox(clinicianId);
+        Set<Referral> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.addAll(sent);
+        List<Referral> result = new ArrayList<>(sent.size() + received.size());
+        result.addAll(sent);
+        for (Referral r : received) {
+            // Self-referrals already appear in the outbox
+            if (!seen.contains(r)) result.add(r);
+        }
+        return result;
+    }
+
+    // Returns referrals sent from a facility
+    public List<Referral> findByReferringFacilityId(String facilityId) {
+        return find(Query.where(REFERRING_FACILITY.is(facilityId)));
+    }
+
+    // Returns referrals sent to a facility
+    public List<Referral> findByReceivingFacilityId(String facilityId) {
+        return find(Query.where(RECEIVING_FACILITY.is(facilityId)));
+    }
+
+    // Returns the referrals passing every condition of the query, answered from the most
+    // selective index. A query on an offset-indexed column reads only those rows.
+    public List<Referral> find(Query<Referral> query) {
+        loadFor(query);
+        return queries.find(query);
+    }
+
+    // How find() would answer the query
+    public String explain(Query<Referral> query) {
+        return queries.explain(query);
+    }
+
+    // Reads the rows a query is limited to through the first offset-indexed column it names
+    private void loadFor(Query<Referral> query) {
+        for (int i = 0; i < LOADING_FIELDS.size(); i++) {
+            String value = query.valueOf(LOADING_FIELDS.get(i));
+            if (value != null) {
+                store.loadMatching(LOADING_COLUMNS[i], value);
+                return;
+            }
+        }
+        store.loadAll();
+    }
+
+    // Adds referral to every lookup index
+    private void index(Referral r) {
+        byId.put(r.getId(), r);
+        queries.add(r);
+    }
+
+    // Removes referral from every lookup index
+    private void unindex(Referral r) {
+        byId.remove(r.getId(), r);
+        queries.remove(r);
+    }
+
+    // Streams matching referrals to an export file in the requested format
+    public int export(String path, RecordExporter.Format format, Predicate<Referral> filter) throws IOException {
+        store.loadAll();
+        return RecordExporter.exportToFile(path, format, CSV_HEADER, referrals, ReferralRepository::toRow, filter);
+    }
+
+    // Converts referral to CSV column order (all 16 columns)
+    public static String[] toRow(Referral r) {
+        return new String[]{
+                r.getId(),
+                r.getPatientId(),
+                r.getReferringClinicianId(),
+                r.getReferredToClinicianId(),
+                r.getReferringFacilityId(),
+                r.getReferredToFacilityId(),
+                r.getReferralDate(),
+                r.getUrgencyLevel(),
+                r.getReferralReason(),
+                r.getClinicalSummary(),
+                r.getRequestedService(), // Note: CSV column name differs from field name
+                r.getStatus(),
+                r.getAppointmentId(),
+                r.getNotes(),
+                r.getCreatedDate(),
+                r.getLastUpdated()
+        };
+    }
 }
\ No newline at end of file
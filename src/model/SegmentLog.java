@@ -0,0 +1,541 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+class SegmentLog {
+
+    // Segment file layout: magic, id of the oldest segment it replaces, then records of
+    // [payload length][CRC32 of payload][op, key, field count, fields]
+    private static final int MAGIC = 0x484D534C;
+    private static final int SEGMENT_HEADER = 4 + 8;
+    private static final int RECORD_HEADER = 4 + 4;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String HINT_SUFFIX = ".hint";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    // Active segment size before a new one is started (-Dhms.log.segmentBytes)
+    private static final long SEGMENT_BYTES = Long.getLong("hms.log.segmentBytes", 8L << 20);
+    // Sealed segments that trigger a background compaction (-Dhms.log.compactAfter)
+    private static final int COMPACT_AFTER = Integer.getInteger("hms.log.compactAfter", 4);
+
+    // One compaction at a time across all logs, off the EDT
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "segment-log-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final File dir;
+    private final String name;
+    // Row columns copied into the in-memory index, e.g. facility and patient IDs
+    private final int[] tagColumns;
+
+    // Latest location of every live key
+    private final Map<String, Entry> index = new HashMap<>();
+    // Open read channels by segment id, the last one is the active segment
+    private final TreeMap<Long, FileChannel> segments = new TreeMap<>();
+    private long activeId;
+    private FileChannel active;
+    private long activeSize;
+    private Future<?> compaction;
+
+    // Where a key's latest record lives, plus its tag column values
+    static final class Entry {
+        final long segment;
+        final long offset;
+        final int length;
+        final String[] tags;
+
+        Entry(long segment, long offset, int length, String[] tags) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.tags = tags;
+        }
+    }
+
+    // Opens or creates the log in dir, recovering the index from hints and the log tail
+    SegmentLog(File dir, int[] tagColumns) throws IOException {
+        this.dir = dir;
+        this.name = dir.getName();
+        this.tagColumns = tagColumns;
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir.getPath());
+        recover();
+    }
+
+    private void recover() throws IOException {
+        TreeMap<Long, File> files = new TreeMap<>();
+        File[] listed = dir.listFiles();
+        if (listed != null) {
+            for (File f : listed) {
+                String n = f.getName();
+                if (n.endsWith(TMP_SUFFIX)) {
+                    // Unfinished compaction output
+                    Files.deleteIfExists(f.toPath());
+                } else if (n.endsWith(SEGMENT_SUFFIX)) {
+                    files.put(Long.parseLong(n.substring(0, n.length() - SEGMENT_SUFFIX.length())), f);
+                }
+            }
+        }
+        dropReplacedSegments(files);
+
+        long lastId = files.isEmpty() ? 0 : files.lastKey();
+        for (Map.Entry<Long, File> e : files.entrySet()) {
+            long id = e.getKey();
+            FileChannel ch = FileChannel.open(e.getValue().toPath(), StandardOpenOption.READ);
+            segments.put(id, ch);
+            if (id == lastId) {
+                // The tail may end in a record torn by a crash, keep only whole records
+                long end = scan(id, ch, this::apply);
+                if (end < ch.size()) {
+                    System.err.println("Recovered " + name + " log: dropped " + (ch.size() - end) + " torn bytes");
+                    try (FileChannel w = FileChannel.open(e.getValue().toPath(), StandardOpenOption.WRITE)) {
+                        w.truncate(end);
+                    }
+                }
+            } else if (!readHint(id, ch.size())) {
+                scan(id, ch, this::apply);
+                writeHint(id, ch.size());
+            }
+        }
+
+        if (files.isEmpty()) {
+            startSegment(1, 1);
+        } else {
+            activeId = lastId;
+            active = FileChannel.open(files.get(lastId).toPath(), StandardOpenOption.WRITE);
+            activeSize = active.size();
+        }
+    }
+
+    // A compacted segment names the oldest id it replaced; older files left by a crash go
+    private void dropReplacedSegments(TreeMap<Long, File> files) throws IOException {
+        for (Long id : new ArrayList<>(files.descendingKeySet())) {
+            File f = files.get(id);
+            if (f == null) continue;
+            long base;
+            try (DataInputStream in = new DataInputStream(new FileInputStream(f))) {
+                if (in.readInt() != MAGIC) throw new IOException("Not a segment file: " + f.getPath());
+                base = in.readLong();
+            } catch (EOFException ex) {
+                // Newest segment cut short while its header was written, it holds no records
+                Files.deleteIfExists(f.toPath());
+                files.remove(id);
+                continue;
+            }
+            for (Long older : new ArrayList<>(files.subMap(base, true, id, false).keySet())) {
+                deleteSegmentFiles(older);
+                files.remove(older);
+            }
+        }
+    }
+
+    private void apply(String key, Entry entry) {
+        if (entry == null) index.remove(key);
+        else index.put(key, entry);
+    }
+
+    // Reads records in order, returns the end of the last whole record
+    private long scan(long id, FileChannel ch, BiConsumer<String, Entry> sink) throws IOException {
+        long pos = SEGMENT_HEADER;
+        try (InputStream raw = Files.newInputStream(segmentFile(id).toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 64 * 1024))) {
+            if (in.skipBytes(SEGMENT_HEADER) < SEGMENT_HEADER) return SEGMENT_HEADER;
+            while (true) {
+                int payloadLength;
+                int crc;
+                byte[] payload;
+                try {
+                    payloadLength = in.readInt();
+                    crc = in.readInt();
+                    if (payloadLength <= 0 || pos + RECORD_HEADER + payloadLength > ch.size()) break;
+                    payload = new byte[payloadLength];
+                    in.readFully(payload);
+                } catch (EOFException ex) {
+                    break;
+                }
+                if (checksum(payload) != crc) break;
+                DataInputStream p = new DataInputStream(new ByteArrayInputStream(payload));
+                byte op = p.readByte();
+                String key = p.readUTF();
+                int length = RECORD_HEADER + payloadLength;
+                sink.accept(key, op == PUT ? new Entry(id, pos, length, tags(readRow(p))) : null);
+                pos += length;
+            }
+        }
+        return pos;
+    }
+
+    // Hint files hold a sealed segment's keys and offsets so it need not be scanned.
+    // A hint cut short is harmless: the scan that follows replays the same segment in order.
+    private boolean readHint(long id, long segmentLength) {
+        File hint = hintFile(id);
+        if (!hint.isFile()) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(hint)))) {
+            // A hint left from before a compaction describes a different file
+            if (in.readLong() != segmentLength) return false;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte op = in.readByte();
+                String key = in.readUTF();
+                if (op == DELETE) {
+                    apply(key, null);
+                    continue;
+                }
+                long offset = in.readLong();
+                int length = in.readInt();
+                String[] tags = new String[in.readShort()];
+                for (int t = 0; t < tags.length; t++) tags[t] = in.readUTF();
+                apply(key, new Entry(id, offset, length, tags));
+            }
+        } catch (IOException ex) {
+            System.err.println("Failed to read " + name + " hint " + hint.getName() + ": " + ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    // Writes the hint for a sealed segment from one sequential scan of it
+    private void writeHint(long id, long segmentLength) throws IOException {
+        List<String> keys = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+        scan(id, segments.get(id), (key, entry) -> {
+            keys.add(key);
+            entries.add(entry);
+        });
+        writeHint(id, segmentLength, keys, entries, hintFile(id));
+    }
+
+    private static void writeHint(long id, long segmentLength, List<String> keys, List<Entry> entries, File target)
+            throws IOException {
+        File tmp = new File(target.getPath() + TMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeLong(segmentLength);
+            out.writeInt(keys.size());
+            for (int i = 0; i < keys.size(); i++) {
+                Entry e = entries.get(i);
+                out.writeByte(e == null ? DELETE : PUT);
+                out.writeUTF(keys.get(i));
+                if (e == null) continue;
+                out.writeLong(e.offset);
+                out.writeInt(e.length);
+                out.writeShort(e.tags.length);
+                for (String tag : e.tags) out.writeUTF(tag);
+            }
+        }
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Row stored under the key with a single positioned read, or null
+    synchronized String[] get(String key) throws IOException {
+        Entry e = index.get(key);
+        if (e == null) return null;
+        ByteBuffer buf = ByteBuffer.allocate(e.length);
+        FileChannel ch = segments.get(e.segment);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, e.offset + buf.position()) < 0) throw new EOFException(name + " record cut short: " + key);
+        }
+        buf.flip();
+        int payloadLength = buf.getInt();
+        int crc = buf.getInt();
+        byte[] payload = new byte[payloadLength];
+        buf.get(payload);
+        if (checksum(payload) != crc) throw new IOException(name + " record is corrupt: " + key);
+        DataInputStream p = new DataInputStream(new ByteArrayInputStream(payload));
+        p.readByte();
+        p.readUTF();
+        return readRow(p);
+    }
+
+    // Tag values of every live key, read from memory only
+    synchronized Map<String, String[]> tags() {
+        Map<String, String[]> tags = new HashMap<>(index.size() * 2);
+        for (Map.Entry<String, Entry> e : index.entrySet()) tags.put(e.getKey(), e.getValue().tags);
+        return tags;
+    }
+
+    // Every live key, read from memory only
+    synchronized List<String> keys() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    // Appends new versions of rows in one sequential write
+    synchronized void putAll(Map<String, String[]> rows) throws IOException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        List<String> keys = new ArrayList<>(rows.size());
+        List<long[]> spans = new ArrayList<>(rows.size());
+        List<String[]> tags = new ArrayList<>(rows.size());
+        for (Map.Entry<String, String[]> e : rows.entrySet()) {
+            byte[] record = encode(PUT, e.getKey(), e.getValue());
+            // Start a new segment before this batch outgrows the active one
+            if (batch.size() > 0 && activeSize + batch.size() + record.length > SEGMENT_BYTES) {
+                flush(batch, keys, spans, tags);
+            }
+            spans.add(new long[]{batch.size(), record.length});
+            keys.add(e.getKey());
+            tags.add(tags(e.getValue()));
+            batch.write(record);
+        }
+        flush(batch, keys, spans, tags);
+    }
+
+    synchronized void put(String key, String[] row) throws IOException {
+        Map<String, String[]> one = new HashMap<>();
+        one.put(key, row);
+        putAll(one);
+    }
+
+    // Appends a tombstone so the key stays deleted after recovery
+    synchronized void delete(String key) throws IOException {
+        if (!index.containsKey(key)) return;
+        byte[] record = encode(DELETE, key, null);
+        rollIfFull(record.length);
+        write(record);
+        index.remove(key);
+    }
+
+    private void flush(ByteArrayOutputStream batch, List<String> keys, List<long[]> spans, List<String[]> tags)
+            throws IOException {
+        if (batch.size() == 0) return;
+        rollIfFull(batch.size());
+        long base = activeSize;
+        write(batch.toByteArray());
+        for (int i = 0; i < keys.size(); i++) {
+            long[] span = spans.get(i);
+            index.put(keys.get(i), new Entry(activeId, base + span[0], (int) span[1], tags.get(i)));
+        }
+        batch.reset();
+        keys.clear();
+        spans.clear();
+        tags.clear();
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        while (buf.hasRemaining()) active.write(buf, activeSize + buf.position());
+        activeSize += bytes.length;
+    }
+
+    // Seals the active segment when the next write would overflow it
+    private void rollIfFull(int incoming) throws IOException {
+        if (activeSize <= SEGMENT_HEADER || activeSize + incoming <= SEGMENT_BYTES) return;
+        active.force(false);
+        active.close();
+        writeHint(activeId, activeSize);
+        startSegment(activeId + 1, activeId + 1);
+        if (segments.size() - 1 >= COMPACT_AFTER && (compaction == null || compaction.isDone())) {
+            compaction = COMPACTOR.submit(this::compact);
+        }
+    }
+
+    private void startSegment(long id, long replacesFrom) throws IOException {
+        File f = segmentFile(id);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(f))) {
+            out.writeInt(MAGIC);
+            out.writeLong(replacesFrom);
+        }
+        activeId = id;
+        active = FileChannel.open(f.toPath(), StandardOpenOption.WRITE);
+        activeSize = SEGMENT_HEADER;
+        segments.put(id, FileChannel.open(f.toPath(), StandardOpenOption.READ));
+    }
+
+    // Seals the active segment and compacts everything written so far on the calling thread,
+    // after any background compaction still running
+    void compactNow() throws IOException {
+        Future<?> pending;
+        synchronized (this) {
+            pending = compaction;
+            if (activeSize > SEGMENT_HEADER) {
+                active.force(false);
+                active.close();
+                writeHint(activeId, activeSize);
+                startSegment(activeId + 1, activeId + 1);
+            }
+        }
+        if (pending != null) {
+            try {
+                pending.get();
+            } catch (Exception ex) {
+                System.err.println("Failed to finish " + name + " compaction: " + ex.getMessage());
+            }
+        }
+        compact();
+    }
+
+    // Copies the live records of all sealed segments into one, then drops the originals
+    private void compact() {
+        long first;
+        long last;
+        List<String> keys = new ArrayList<>();
+        List<Entry> sources = new ArrayList<>();
+        Map<Long, FileChannel> sealed;
+        synchronized (this) {
+            if (segments.size() < 2) return;
+            first = segments.firstKey();
+            last = segments.lowerKey(activeId);
+            sealed = new HashMap<>(segments.headMap(last, true));
+            for (Map.Entry<String, Entry> e : index.entrySet()) {
+                if (e.getValue().segment <= last) {
+                    keys.add(e.getKey());
+                    sources.add(e.getValue());
+                }
+            }
+        }
+
+        // Sealed segments never change, so copying needs no lock
+        File target = segmentFile(last);
+        File tmp = new File(target.getPath() + TMP_SUFFIX);
+        List<Entry> copies = new ArrayList<>(sources.size());
+        long length;
+        try {
+            try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER);
+                header.putInt(MAGIC).putLong(first).flip();
+                out.write(header);
+                long pos = SEGMENT_HEADER;
+                for (Entry src : sources) {
+                    ByteBuffer buf = ByteBuffer.allocate(src.length);
+                    FileChannel in = sealed.get(src.segment);
+                    while (buf.hasRemaining()) {
+                        if (in.read(buf, src.offset + buf.position()) < 0) throw new EOFException("Segment cut short");
+                    }
+                    buf.flip();
+                    out.write(buf);
+                    copies.add(new Entry(last, pos, src.length, src.tags));
+                    pos += src.length;
+                }
+                out.force(false);
+                length = pos;
+            }
+            writeHint(last, length, keys, copies, new File(hintFile(last).getPath() + TMP_SUFFIX));
+        } catch (IOException ex) {
+            System.err.println("Failed to compact " + name + " log: " + ex.getMessage());
+            tmp.delete();
+            return;
+        }
+
+        synchronized (this) {
+            try {
+                Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Files.move(new File(hintFile(last).getPath() + TMP_SUFFIX).toPath(), hintFile(last).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                for (Long id : new ArrayList<>(sealed.keySet())) {
+                    segments.remove(id).close();
+                    if (id != last) deleteSegmentFiles(id);
+                }
+                segments.put(last, FileChannel.open(target.toPath(), StandardOpenOption.READ));
+                // Keys written or deleted since the snapshot keep their newer state
+                for (int i = 0; i < keys.size(); i++) {
+                    if (index.get(keys.get(i)) == sources.get(i)) index.put(keys.get(i), copies.get(i));
+                }
+            } catch (IOException ex) {
+                System.err.println("Failed to switch " + name + " log to compacted segment: " + ex.getMessage());
+            }
+        }
+    }
+
+    // Forces appended records to disk
+    synchronized void sync() throws IOException {
+        active.force(false);
+    }
+
+    // Waits for compaction and flushes the active segment to disk
+    void close() throws IOException {
+        Future<?> pending;
+        synchronized (this) {
+            pending = compaction;
+        }
+        if (pending != null) {
+            try {
+                pending.get();
+            } catch (Exception ex) {
+                System.err.println("Failed to finish " + name + " compaction: " + ex.getMessage());
+            }
+        }
+        synchronized (this) {
+            active.force(false);
+            active.close();
+            for (FileChannel ch : segments.values()) ch.close();
+            segments.clear();
+        }
+    }
+
+    private static byte[] encode(byte op, String key, String[] row) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream p = new DataOutputStream(bytes);
+        p.writeByte(op);
+        p.writeUTF(key);
+        if (row != null) {
+            p.writeShort(row.length);
+            for (String value : row) p.writeUTF(value != null ? value : "");
+        }
+        byte[] payload = bytes.toByteArray();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload.length);
+        record.putInt(payload.length).putInt(checksum(payload)).put(payload);
+        return record.array();
+    }
+
+    private static String[] readRow(DataInputStream p) throws IOException {
+        String[] row = new String[p.readShort()];
+        for (int i = 0; i < row.length; i++) row[i] = p.readUTF();
+        return row;
+    }
+
+    private String[] tags(String[] row) {
+        String[] tags = new String[tagColumns.length];
+        for (int i = 0; i < tags.length; i++) {
+            int c = tagColumns[i];
+            tags[i] = c < row.length && row[c] != null ? row[c] : "";
+        }
+        return tags;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private File segmentFile(long id) {
+        return new File(dir, String.format("%010d", id) + SEGMENT_SUFFIX);
+    }
+
+    private File hintFile(long id) {
+        return new File(dir, String.format("%010d", id) + HINT_SUFFIX);
+    }
+
+    private void deleteSegmentFiles(long id) throws IOException {
+        Files.deleteIfExists(segmentFile(id).toPath());
+        Files.deleteIfExists(hintFile(id).toPath());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight recorder event for a login check or a referral manager operation
+@Name("hms.Service")
+@Label("Service Operation")
+@Category({"HMS", "Services"})
+@Description("A login check or a referral created, updated or deleted together with its text entry")
+@StackTrace(false)
+public class ServiceEvent extends jdk.jfr.Event {
+
+    @Label("Service")
+    String service;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Subject")
+    @Description("User or referral identifier, empty for logins turned away by the limits")
+    String subject;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    // Starts timing an operation
+    ServiceEvent(String service, String operation, String subject) {
+        this.service = service;
+        this.operation = operation;
+        this.subject = subject;
+        begin();
+    }
+
+    // Stops timing and records the event if a recording wants it
+    void finish(boolean succeeded) {
+        end();
+        if (shouldCommit()) {
+            this.succeeded = succeeded;
+            commit();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package model;
+
+// One logged-in user's context: who they are, their role and their home facility.
+// It never changes once opened, so any number of threads can read it without locking;
+// a different user or role is a different session.
+public final class Session {
+
+    private final String id;
+    private final String userId;
+    private final String role;
+    // Patient, Clinician or Staff record behind the login, null for the administrator
+    private final Object user;
+    // Facility the user works at or is registered with, null if none
+    private final String homeFacilityId;
+    private final long createdAt;
+
+    public Session(String id, String userId, String role, Object user, String homeFacilityId, long createdAt) {
+        this.id = id;
+        this.userId = userId;
+        this.role = role == null ? "" : role.toLowerCase();
+        this.user = user;
+        this.homeFacilityId = homeFacilityId == null || homeFacilityId.isEmpty() ? null : homeFacilityId;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() { return id; }
+    public String getUserId() { return userId; }
+    public String getRole() { return role; }
+    public Object getUser() { return user; }
+    public String getHomeFacilityId() { return homeFacilityId; }
+    public long getCreatedAt() { return createdAt; }
+
+    public boolean isPatient() { return "patient".equals(role); }
+    public boolean isClinician() { return "clinician".equals(role); }
+    public boolean isAdmin() { return "admin".equals(role); }
+
+    // Anyone who is not a patient, clinician or administrator is treated as staff
+    public boolean isStaff() {
+        return !isPatient() && !isClinician() && !isAdmin();
+    }
+
+    // The user's own record ID for their role, null for any other role
+    public String getPatientId() { return isPatient() ? userId : null; }
+    public String getClinicianId() { return isClinician() ? userId : null; }
+    public String getStaffId() { return isStaff() ? userId : null; }
+
+    // Facility a staff session is scoped to, null for other roles and staff without one
+    public String getSiteFacilityId() {
+        return isStaff() ? homeFacilityId : null;
+    }
+
+    @Override
+    public String toString() {
+        return role + " " + userId;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,136 @@
+package model;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Keeps every open session by ID, for a shared terminal or a server answering many users at
+// once. Sessions are immutable, so a lookup is one hash map read and touching it one field
+// write; no lock is held across users. A session unused for the idle timeout is dropped,
+// by the lookup that finds it stale or by a sweeper thread that runs once a minute.
+// Settings: -Dhms.session.idleMinutes (default 30).
+public class SessionManager {
+
+    private static final long IDLE_MINUTES = Long.getLong("hms.session.idleMinutes", 30L);
+    // Random bytes per session ID, enough that IDs cannot be guessed
+    private static final int ID_BYTES = 16;
+
+    // Shared by the login screen and anything serving requests in the same process
+    private static final SessionManager SHARED = new SessionManager(TimeUnit.MINUTES.toMillis(IDLE_MINUTES));
+
+    private final long idleMillis;
+    private final ConcurrentHashMap<String, Entry> sessions = new ConcurrentHashMap<>();
+    // Told about each session dropped for being idle, on the thread that noticed
+    private final List<Consumer<Session>> expiryListeners = new CopyOnWriteArrayList<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ScheduledExecutorService sweeper;
+
+    public SessionManager(long idleMillis) {
+        this.idleMillis = idleMillis;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1_000L, Math.min(idleMillis, TimeUnit.MINUTES.toMillis(1)));
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // The manager the login screen uses
+    public static SessionManager shared() {
+        return SHARED;
+    }
+
+    // Opens a session for a user who has just authenticated
+    public Session open(Login user) {
+        byte[] bytes = new byte[ID_BYTES];
+        random.nextBytes(bytes);
+        String id = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = System.currentTimeMillis();
+        Session session = new Session(id, user.getUserId(), user.getRole(), user.getUserObject(),
+                LoginRepository.getHomeFacilityId(user), now);
+        sessions.put(id, new Entry(session, now));
+        return session;
+    }
+
+    // The open session with this ID, null if there is none or it has been idle too long.
+    // Each successful lookup counts as use and restarts the idle timeout.
+    public Session get(String id) {
+        if (id == null) return null;
+        Entry entry = sessions.get(id);
+        if (entry == null) return null;
+        long now = System.currentTimeMillis();
+        if (now - entry.lastAccess > idleMillis) {
+            expire(id, entry);
+            return null;
+        }
+        entry.lastAccess = now;
+        return entry.session;
+    }
+
+    // Ends a session, e.g. on logout; returns false if it was not open
+    public boolean close(String id) {
+        return id != null && sessions.remove(id) != null;
+    }
+
+    // Sessions open now, including idle ones the sweeper has not reached yet
+    public int size() {
+        return sessions.size();
+    }
+
+    // Registers a listener for sessions dropped for being idle
+    public void addExpiryListener(Consumer<Session> listener) {
+        expiryListeners.add(listener);
+    }
+
+    // Stops telling a listener about expired sessions, e.g. once its window has closed
+    public void removeExpiryListener(Consumer<Session> listener) {
+        expiryListeners.remove(listener);
+    }
+
+    // Drops every session idle longer than the timeout, returns how many
+    public int sweep() {
+        long now = System.currentTimeMillis();
+        int dropped = 0;
+        for (Map.Entry<String, Entry> e : sessions.entrySet()) {
+            if (now - e.getValue().lastAccess > idleMillis && expire(e.getKey(), e.getValue())) dropped++;
+        }
+        return dropped;
+    }
+
+    // Removes the entry unless another thread already did, so listeners hear of it once
+    private boolean expire(String id, Entry entry) {
+        if (!sessions.remove(id, entry)) return false;
+        for (Consumer<Session> listener : expiryListeners) {
+            try {
+                listener.accept(entry.session);
+            } catch (RuntimeException ex) {
+                System.err.println("Failed to report expired session: " + ex.getMessage());
+            }
+        }
+        return true;
+    }
+
+    // Stops the sweeper, e.g. when a server using its own manager shuts down
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    // An open session and when it was last used
+    private static final class Entry {
+        private final Session session;
+        private volatile long lastAccess;
+
+        Entry(Session session, long lastAccess) {
+            this.session = session;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Answers each read for the session that asks, with the rows that session's role may see:
+// patients their own records, clinicians their caseload, staff their own facility, the
+// administrator everything. Nothing is remembered between calls, so one instance serves
+// every open session and a request never sees another user's scope.
+// The repositories are not thread-safe, so reads through here run one at a time; the
+// window's event thread still writes to them directly, so in the window call these there.
+public class SessionViews {
+
+    private final PatientRepository patients;
+    private final ClinicianRepository clinicians;
+    private final AppointmentRepository appointments;
+    private final PrescriptionRepository prescriptions;
+    private final ReferralRepository referrals;
+    private final StaffRepository staff;
+
+    public SessionViews(PatientRepository patients, ClinicianRepository clinicians,
+                        AppointmentRepository appointments, PrescriptionRepository prescriptions,
+                        ReferralRepository referrals, StaffRepository staff) {
+        this.patients = patients;
+        this.clinicians = clinicians;
+        this.appointments = appointments;
+        this.prescriptions = prescriptions;
+        this.referrals = referrals;
+        this.staff = staff;
+    }
+
+    // Patient records the session may see
+    public synchronized List<Patient> patients(Session session) {
+        if (session.isPatient()) return own(patients.findById(session.getUserId()));
+        if (session.isClinician()) return patients.findByClinicianId(session.getUserId(), appointments);
+        return new ArrayList<>(patients.getAll());
+    }
+
+    // Clinician records the session may see
+    public synchronized List<Clinician> clinicians(Session session) {
+        if (session.isClinician()) return own(clinicians.findById(session.getUserId()));
+        if (session.getSiteFacilityId() != null) return clinicians.findByFacilityId(session.getSiteFacilityId());
+        return new ArrayList<>(clinicians.getAll());
+    }
+
+    // Appointments the session may see, a page at a time
+    public synchronized PageSource<Appointment> appointments(Session session) {
+        if (session.isPatient()) return appointments.getPagesForPatient(session.getUserId());
+        if (session.isClinician()) return appointments.getPagesForClinician(session.getUserId());
+        if (session.getSiteFacilityId() != null) return appointments.getPagesForFacility(session.getSiteFacilityId());
+        return appointments.getPages();
+    }
+
+    // Prescriptions the session may see, a page at a time
+    public synchronized PageSource<Prescription> prescriptions(Session session) {
+        if (session.isPatient()) return prescriptions.getPagesForPatient(session.getUserId());
+        if (session.isClinician()) return prescriptions.getPagesForClinician(session.getUserId());
+        return prescriptions.getPages();
+    }
+
+    // Referrals the session may see: a clinician's sent and received, a patient's own
+    public synchronized List<Referral> referrals(Session session) {
+        if (session.isClinician()) return referrals.findByClinicianId(session.getUserId());
+        if (session.isPatient()) return referrals.findByPatientId(session.getUserId());
+        return new ArrayList<>(referrals.getAll());
+    }
+
+    // Staff records the session may see: a staff member only their own
+    public synchronized List<Staff> staff(Session session) {
+        if (session.isAdmin()) return new ArrayList<>(staff.getAll());
+        if (session.isStaff()) return own(staff.findById(session.getUserId()));
+        return Collections.emptyList();
+    }
+
+    private static <T> List<T> own(T record) {
+        List<T> list = new ArrayList<>();
+        if (record != null) list.add(record);
+        return list;
+    }
+}
\ No newline at end of file
@@ -1,161 +1,202 @@
-package model;
-
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-
-public class StaffRepository {
-
-    // In-memory storage for staff records
-    private final List<Staff> staff = new ArrayList<>();
-    // File system path for CSV persistence
-    private final String csvPath;
-
-    // Constructor - loads data from CSV file on initialization
-    public StaffRepository(String csvPath) {
-        this.csvPath = csvPath;
-        load();
-    }
-//Made By Misbah Al Rehman. SRN: 24173647
-    // Loads staff data from CSV file into memory
-    private void load() {
-        try {
-            // Read CSV data with header row skipping
-            List<String[]> rows = CsvUtils.readCsv(csvPath);
-            if (rows.isEmpty()) return;
-            
-            // Skip header row (index 0) and process data rows
-            for (int i = 1; i < rows.size(); i++) {
-                String[] row = rows.get(i);
-                String id = row[0];
-                String firstName = row[1];
-                String lastName = row[2];
-                String position = row[3];
-                String department = row[4];
-                String facilityId = row[5];
-                String phone = row[6];
-                String email = row[7];
-                String employmentStatus = row[8];
-                String startDate = row[9];
-                String lineManager = row[10];
-                String accessLevel = row[11];
-
-                // Create Staff object with all attributes
-                Staff s = new Staff(id, firstName, lastName, phone, email,
-                        position, department, facilityId, employmentStatus,
-                        startDate, lineManager, accessLevel);
-                staff.add(s);
-            }
-        } catch (IOException ex) {
-            System.err.println("Failed to load staff: " + ex.getMessage());
-        }
-    }
-
-    // Returns all staff records in the repository
-    public List<Staff> getAll() { 
-        return new ArrayList<>(staff); 
-    }
-    
-    // Retrieves staff by unique identifier
-    public Staff findById(String id) {
-        for (Staff s : staff) {
-            if (s.getId().equals(id)) {
-                return s;
-            }
-        }
-        return null;
-    }
-    
-    // Generates next sequential staff identifier
-    public String generateNewId() {
-        int max = 0;
-        for (Staff s : staff) {
-            try {
-                // Extract numeric portion from ID (e.g., "ST001" → 1)
-                int num = Integer.parseInt(s.getId().substring(2));
-                if (num > max) max = num;
-            } catch (Exception ignore) {}
-        }
-        return String.format("ST%03d", max + 1);
-    }
-    
-    // Adds staff to memory and appends to CSV file
-    public void addAndAppend(Staff s) {
-        staff.add(s);
-        try {
-            CsvUtils.appendLine(csvPath, new String[]{
-                    s.getId(),
-                    s.getFirstName(),
-                    s.getLastName(),
-                    s.getPosition(),
-                    s.getDepartment(),
-                    s.getFacilityId(),
-                    s.getPhone(),
-                    s.getEmail(),
-                    s.getEmploymentStatus(),
-                    s.getStartDate(),
-                    s.getLineManager(),
-                    s.getAccessLevel()
-            });
-        } catch (IOException ex) {
-            System.err.println("Failed to append staff: " + ex.getMessage());
-        }
-    }
-    
-    // Updates existing staff in memory and persists to CSV
-    public void update(Staff updatedStaff) {
-        for (int i = 0; i < staff.size(); i++) {
-            Staff s = staff.get(i);
-            if (s.getId().equals(updatedStaff.getId())) {
-                staff.set(i, updatedStaff);
-                updateCsvFile();
-                return;
-            }
-        }
-        System.err.println("Staff not found for update: " + updatedStaff.getId());
-    }
-    
-    // Removes staff from memory and updates CSV file
-    public void remove(Staff s) {
-        staff.remove(s);
-        updateCsvFile();
-    }
-    
-    // Writes all staff records to CSV file (full persistence)
-    private void updateCsvFile() {
-        try {
-            List<String[]> allData = new ArrayList<>();
-            
-            // Add CSV header row with column definitions
-            allData.add(new String[]{
-                "staff_id", "first_name", "last_name", "role", "department",
-                "facility_id", "phone_number", "email", "employment_status",
-                "start_date", "line_manager", "access_level"
-            });
-            
-            // Convert all staff to CSV row format
-            for (Staff s : staff) {
-                allData.add(new String[]{
-                    s.getId(),
-                    s.getFirstName(),
-                    s.getLastName(),
-                    s.getPosition(),
-                    s.getDepartment(),
-                    s.getFacilityId(),
-                    s.getPhone(),
-                    s.getEmail(),
-                    s.getEmploymentStatus(),
-                    s.getStartDate(),
-                    s.getLineManager(),
-                    s.getAccessLevel()
-                });
-            }
-            
-            // Write complete dataset to CSV file
-            CsvUtils.writeCsv(csvPath, allData);
-            
-        } catch (IOException ex) {
-            System.err.println("Failed to update CSV file: " + ex.getMessage());
-        }
-    }
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+public class StaffRepository {
+
+    // In-memory storage for staff records
+    private final List<Staff> staff = new ArrayList<>();
+    // Identifier lookup for records already in memory
+    private final Map<String, Staff> byId = new HashMap<>();
+    // Per-facility staff records, each facility read on first access
+    private RecordStore<Staff> store;
+
+    // CSV header row with column definitions
+    public static final String[] CSV_HEADER = {
+        "staff_id", "first_name", "last_name", "role", "department",
+        "facility_id", "phone_number", "email", "employment_status",
+        "start_date", "line_manager", "access_level"
+    };
+
+    // Table mapping shared by every storage engine, split by facility_id
+    public static final TableSchema<Staff> SCHEMA = new TableSchema<>("staff", CSV_HEADER,
+            StaffRepository::fromRow, StaffRepository::toRow, Staff::getId, 5);
+
+    // Constructor - opens the staff table, reading no facility until needed
+    public StaffRepository(StorageEngine engine) {
+        load(engine);
+    }
+//Made By Misbah Al Rehman. SRN: 24173647
+    // Opens staff data from the storage engine
+    private void load(StorageEngine engine) {
+        store = engine.open(SCHEMA, this::loaded);
+    }
+
+    // Creates Staff object from CSV column order
+    private static Staff fromRow(String[] row) {
+        return new Staff(
+                row[0],   // staff_id - unique identifier
+                row[1],   // first_name - given name
+                row[2],   // last_name - family name
+                row[6],   // phone_number - contact telephone
+                row[7],   // email - work email
+                row[3],   // role - job position
+                row[4],   // department - team
+                row[5],   // facility_id - workplace
+                row[8],   // employment_status - contract type
+                row[9],   // start_date - employment commencement
+                row[10],  // line_manager - reporting line
+                row[11]   // access_level - system permissions
+        );
+    }
+
+    // Adds a staff member read from disk to memory, unless already held
+    private Staff loaded(Staff s) {
+        Staff existing = byId.putIfAbsent(s.getId(), s);
+        if (existing != null) return existing;
+        staff.add(s);
+        return s;
+    }
+
+    // Reads one facility's staff ahead of use, e.g. the logged-in user's site
+    public void loadFacility(String facilityId) {
+        store.load(facilityId);
+    }
+
+    // Returns the staff based at one facility, reading only that segment
+    public List<Staff> findByFacilityId(String facilityId) {
+        return new ArrayList<>(store.get(facilityId));
+    }
+
+    // Reads one facility's staff, or all for null, ahead on a background thread; they join memory on first use
+    public void prefetch(String facilityId) {
+        store.prefetch(facilityId);
+    }
+
+    // Returns all staff records in the repository
+    public List<Staff> getAll() { 
+        store.loadAll();
+        return new ArrayList<>(staff); 
+    }
+    
+    // Retrieves staff by unique identifier
+    public Staff findById(String id) {
+        if (id == null) return null;
+        Staff s = byId.get(id);
+        // Not in memory yet, read just that row through the ID offset index
+        if (s == null && store.loadContaining(id)) s = byId.get(id);
+        return s;
+    }
+    
+    // Generates next sequential staff identifier
+    public String generateNewId() {
+        // Next number in the ID sequence (e.g., "ST001" → "ST002"), from the counter shared with other desks
+        return String.format("ST%03d", store.nextSequence(2));
+    }
+    
+    // Adds staff to memory and appends to CSV file
+    public void addAndAppend(Staff s) {
+        try {
+            addAndAppendDeferred(s).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to append staff: " + ex.getMessage());
+        }
+    }
+
+    // Adds the staff member to memory now and returns the append, to run off the event thread
+    public PendingWrite addAndAppendDeferred(Staff s) {
+        store.reserve(s);
+        staff.add(s);
+        byId.put(s.getId(), s);
+        // Appends to the facility's segment only
+        return PendingWrite.of(() -> store.append(s), () -> forget(s));
+    }
+    
+    // Updates existing staff in memory and persists to CSV
+    public void update(Staff updatedStaff) {
+        try {
+            updateDeferred(updatedStaff).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to update CSV file: " + ex.getMessage());
+        }
+    }
+
+    // Replaces the staff member in memory now and returns the rewrite, to run off the event thread
+    public PendingWrite updateDeferred(Staff updatedStaff) {
+        for (int i = 0; i < staff.size(); i++) {
+            Staff s = staff.get(i);
+            if (s.getId().equals(updatedStaff.getId())) {
+                // Segments are read here, so the rewrite never calls back into this repository
+                store.prepare(s);
+                store.prepare(updatedStaff);
+                staff.set(i, updatedStaff);
+                byId.put(updatedStaff.getId(), updatedStaff);
+                // Rewrite only the facility segments holding the old and new versions
+                return PendingWrite.of(() -> store.replace(s, updatedStaff), () -> {
+                    forget(updatedStaff);
+                    restore(s);
+                });
+            }
+        }
+        System.err.println("Staff not found for update: " + updatedStaff.getId());
+        return PendingWrite.NONE;
+    }
+    
+    // Removes staff from memory and updates CSV file
+    public void remove(Staff s) {
+        try {
+            removeDeferred(s).run();
+        } catch (IOException ex) {
+            System.err.println("Failed to update CSV file: " + ex.getMessage());
+        }
+    }
+
+    // Forgets the staff member now and returns the rewrite, to run off the event thread
+    public PendingWrite removeDeferred(Staff s) {
+        store.prepare(s);
+        staff.remove(s);
+        byId.remove(s.getId());
+        return PendingWrite.of(() -> store.remove(s), () -> restore(s));
+    }
+
+    // Puts back a staff member whose removal or replacement could not be written
+    private void restore(Staff s) {
+        if (byId.containsKey(s.getId())) return;
+        staff.add(s);
+        byId.put(s.getId(), s);
+    }
+
+    // Drops a staff member whose addition or new version could not be written
+    private void forget(Staff s) {
+        if (staff.remove(s)) byId.remove(s.getId(), s);
+    }
+    
+    // Streams matching staff to an export file in the requested format
+    public int export(String path, RecordExporter.Format format, Predicate<Staff> filter) throws IOException {
+        store.loadAll();
+        return RecordExporter.exportToFile(path, format, CSV_HEADER, staff, StaffRepository::toRow, filter);
+    }
+
+    // Converts staff member to CSV column order
+    public static String[] toRow(Staff s) {
+        return new String[]{
+                s.getId(),
+                s.getFirstName(),
+                s.getLastName(),
+                s.getPosition(),
+                s.getDepartment(),
+                s.getFacilityId(),
+                s.getPhone(),
+                s.getEmail(),
+                s.getEmploymentStatus(),
+                s.getStartDate(),
+                s.getLineManager(),
+                s.getAccessLevel()
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package model;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.function.UnaryOperator;
+
+public interface StorageEngine {
+
+    // Engine chosen with -Dhms.storage=csv|log|jdbc, CSV files by default
+    String ENGINE_PROPERTY = "hms.storage";
+    // JDBC settings, ${dir} in the URL is replaced by the data directory
+    String URL_PROPERTY = "hms.jdbc.url";
+    String USER_PROPERTY = "hms.jdbc.user";
+    String PASSWORD_PROPERTY = "hms.jdbc.password";
+    // Embedded file-based database used when no URL is given (driver jar on the classpath,
+    // e.g. lib/h2.jar as fetched by ant jdbc-driver)
+    String DEFAULT_URL = "jdbc:h2:file:${dir}/hms";
+
+    // Opens one table; onLoad is called for every record read and returns the
+    // instance already in memory for its ID, if any
+    <T> RecordStore<T> open(TableSchema<T> schema, UnaryOperator<T> onLoad);
+
+    // Short engine name for logs and benchmark output
+    String getName();
+
+    // Makes every change made so far durable, e.g. on an explicit save
+    void flush() throws IOException;
+
+    // Waits, without writing early, until every change made so far has been written by the
+    // background flusher, e.g. before a save reports success. Engines that write at once have
+    // nothing to wait for.
+    default void awaitWritten() {
+    }
+
+    // Rewrites the stored data without superseded or deleted records, e.g. from a nightly job.
+    // Only tables opened so far are compacted.
+    void compact() throws IOException;
+
+    // Flushes, then releases connections or file handles
+    void close();
+
+    // Engine selected by system properties for the given data directory
+    static StorageEngine configure(String dataDir) {
+        return create(System.getProperty(ENGINE_PROPERTY, "csv"), dataDir);
+    }
+
+    // Engine of the named kind. An engine asked for by name is never swapped for another:
+    // an unknown name or a database that cannot be opened, e.g. with no driver on the
+    // classpath, throws instead.
+    static StorageEngine create(String kind, String dataDir) {
+        if ("jdbc".equalsIgnoreCase(kind)) {
+            String url = System.getProperty(URL_PROPERTY, DEFAULT_URL).replace("${dir}", dataDir);
+            try {
+                return new JdbcStorageEngine(url,
+                        System.getProperty(USER_PROPERTY, ""),
+                        System.getProperty(PASSWORD_PROPERTY, ""),
+                        dataDir);
+            } catch (SQLException ex) {
+                throw new IllegalStateException("Cannot open database " + url + ": " + ex.getMessage()
+                        + " (is its JDBC driver on the classpath?)", ex);
+            }
+        } else if ("log".equalsIgnoreCase(kind)) {
+            return new LogStorageEngine(dataDir);
+        } else if (!"csv".equalsIgnoreCase(kind)) {
+            throw new IllegalArgumentException("Unknown storage engine " + kind + ", use csv, log or jdbc");
+        }
+        return new CsvStorageEngine(dataDir);
+    }
+}
\ No newline at end of file
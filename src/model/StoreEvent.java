@@ -0,0 +1,58 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+// Flight recorder event for a load or a write a repository asks its record store for.
+// Calls answered from memory in under a millisecond are left out of recordings.
+@Name("hms.Store")
+@Label("Repository Storage Call")
+@Category({"HMS", "Storage"})
+@Description("A repository loading records from or writing records to its storage engine")
+@Threshold("1 ms")
+@StackTrace(false)
+public class StoreEvent extends jdk.jfr.Event {
+
+    @Label("Table")
+    String table;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Key")
+    @Description("Facility, identifier or column value the call was for")
+    String key;
+
+    @Label("Records")
+    @Description("Records returned or written, -1 for calls such as loads that do not report how many they read")
+    int records;
+
+    // Recorded for calls that do not count their records
+    private static final int NOT_COUNTED = -1;
+
+    // Starts timing a call on a table
+    StoreEvent(String table, String operation, String key) {
+        this.table = table;
+        this.operation = operation;
+        this.key = key;
+        begin();
+    }
+
+    // Stops timing a call that does not count its records
+    void finish() {
+        finish(NOT_COUNTED);
+    }
+
+    // Stops timing and records the event if a recording wants it
+    void finish(int records) {
+        end();
+        if (shouldCommit()) {
+            this.records = records;
+            commit();
+        }
+    }
+}
\ No newline at end of file
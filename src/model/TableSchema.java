@@ -0,0 +1,73 @@
+package model;
+
+import java.util.function.Function;
+
+public final class TableSchema<T> {
+
+    // Table or file name, e.g. "appointments"
+    private final String name;
+    // Column names in row order, the first column is the record identifier
+    private final String[] header;
+    private final Function<String[], T> fromRow;
+    private final Function<T, String[]> toRow;
+    private final Function<T, String> idOf;
+    // Column holding the facility a record belongs to, or -1 when not split by facility
+    private final int facilityColumn;
+    // Columns looked up by key, e.g. patient_id, besides the identifier
+    private final int[] indexedColumns;
+    // Column stamped with the date of each record's last change, or -1 when records carry none
+    private final int versionColumn;
+
+    // Row mapping shared by every storage engine
+    TableSchema(String name, String[] header,
+                Function<String[], T> fromRow, Function<T, String[]> toRow,
+                Function<T, String> idOf, int facilityColumn, int... indexedColumns) {
+        this(name, header, fromRow, toRow, idOf, facilityColumn, -1, indexedColumns);
+    }
+
+    private TableSchema(String name, String[] header,
+                        Function<String[], T> fromRow, Function<T, String[]> toRow,
+                        Function<T, String> idOf, int facilityColumn, int versionColumn, int[] indexedColumns) {
+        this.name = name;
+        this.header = header;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.idOf = idOf;
+        this.facilityColumn = facilityColumn;
+        this.indexedColumns = indexedColumns;
+        this.versionColumn = versionColumn;
+    }
+
+    // The same mapping with a last-modified column, used to settle edits two instances made to one record
+    TableSchema<T> versioned(int column) {
+        return new TableSchema<>(name, header, fromRow, toRow, idOf, facilityColumn, column, indexedColumns);
+    }
+
+    public String getName() { return name; }
+
+    String[] header() { return header; }
+
+    String column(int index) { return header[index]; }
+
+    int columnCount() { return header.length; }
+
+    T fromRow(String[] row) { return fromRow.apply(row); }
+
+    String[] toRow(T record) { return toRow.apply(record); }
+
+    String idOf(T record) { return idOf.apply(record); }
+
+    // True when records are grouped by facility
+    boolean isPartitioned() { return facilityColumn >= 0; }
+
+    int facilityColumn() { return facilityColumn; }
+
+    // Facility of a record, null for schemas that are not split by facility
+    String facilityOf(T record) {
+        return isPartitioned() ? toRow.apply(record)[facilityColumn] : null;
+    }
+
+    int[] indexedColumns() { return indexedColumns.clone(); }
+
+    int versionColumn() { return versionColumn; }
+}
\ No newline at end of file
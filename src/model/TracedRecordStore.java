@@ -0,0 +1,156 @@
+package model;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// Wraps the record store every engine hands to a repository, timing its loads and writes
+// as flight recorder events. Bookkeeping calls that never touch storage are passed straight on.
+class TracedRecordStore<T> implements RecordStore<T> {
+
+    private final RecordStore<T> store;
+    private final TableSchema<T> schema;
+    private final String table;
+
+    private TracedRecordStore(RecordStore<T> store, TableSchema<T> schema) {
+        this.store = store;
+        this.schema = schema;
+        this.table = schema.getName();
+    }
+
+    // The store with its storage calls recorded under the table's name
+    static <T> RecordStore<T> wrap(RecordStore<T> store, TableSchema<T> schema) {
+        return new TracedRecordStore<>(store, schema);
+    }
+
+    @Override
+    public boolean load(String facilityId) {
+        StoreEvent event = new StoreEvent(table, "load", facilityId);
+        boolean read = store.load(facilityId);
+        event.finish();
+        return read;
+    }
+
+    @Override
+    public void loadAll() {
+        StoreEvent event = new StoreEvent(table, "load all", null);
+        store.loadAll();
+        event.finish();
+    }
+
+    @Override
+    public boolean isFullyLoaded() {
+        return store.isFullyLoaded();
+    }
+
+    @Override
+    public List<T> get(String facilityId) {
+        StoreEvent event = new StoreEvent(table, "get", facilityId);
+        List<T> records = store.get(facilityId);
+        event.finish(records.size());
+        return records;
+    }
+
+    @Override
+    public boolean loadContaining(String id) {
+        StoreEvent event = new StoreEvent(table, "load by id", id);
+        boolean read = store.loadContaining(id);
+        event.finish();
+        return read;
+    }
+
+    @Override
+    public boolean loadMatching(int column, String key) {
+        StoreEvent event = new StoreEvent(table, "load by column " + column, key);
+        boolean read = store.loadMatching(column, key);
+        event.finish();
+        return read;
+    }
+
+    @Override
+    public void prefetch(String facilityId) {
+        StoreEvent event = new StoreEvent(table, "prefetch", facilityId);
+        store.prefetch(facilityId);
+        event.finish();
+    }
+
+    @Override
+    public int maxSequence(int prefixLength) {
+        StoreEvent event = new StoreEvent(table, "max sequence", null);
+        int max = store.maxSequence(prefixLength);
+        event.finish();
+        return max;
+    }
+
+    @Override
+    public int nextSequence(int prefixLength) {
+        StoreEvent event = new StoreEvent(table, "next sequence", null);
+        int next = store.nextSequence(prefixLength);
+        event.finish();
+        return next;
+    }
+
+    @Override
+    public void reserve(T record) {
+        store.reserve(record);
+    }
+
+    @Override
+    public void track(T record) {
+        store.track(record);
+    }
+
+    @Override
+    public void append(T record) throws IOException {
+        StoreEvent event = new StoreEvent(table, "append", schema.idOf(record));
+        try {
+            store.append(record);
+        } finally {
+            event.finish(1);
+        }
+    }
+
+    @Override
+    public void appendAll(Collection<T> records) throws IOException {
+        StoreEvent event = new StoreEvent(table, "append all", null);
+        try {
+            store.appendAll(records);
+        } finally {
+            event.finish(records.size());
+        }
+    }
+
+    @Override
+    public void replace(T oldRecord, T newRecord) throws IOException {
+        StoreEvent event = new StoreEvent(table, "replace", schema.idOf(newRecord));
+        try {
+            store.replace(oldRecord, newRecord);
+        } finally {
+            event.finish(1);
+        }
+    }
+
+    @Override
+    public void remove(T record) throws IOException {
+        StoreEvent event = new StoreEvent(table, "remove", schema.idOf(record));
+        try {
+            store.remove(record);
+        } finally {
+            event.finish(1);
+        }
+    }
+
+    @Override
+    public void prepare(T record) {
+        StoreEvent event = new StoreEvent(table, "prepare", schema.idOf(record));
+        store.prepare(record);
+        event.finish(1);
+    }
+
+    @Override
+    public void watch(Executor deliverOn, Consumer<RecordDelta<T>> listener) {
+        store.watch(deliverOn, listener);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+class UsageCounter {
+
+    // Reference count per distinct value, kept in sorted order
+    private final TreeMap<String, Integer> counts = new TreeMap<>();
+
+    // Cached read-only views, rebuilt lazily after a change invalidates them
+    private List<String> sortedView;
+    private List<String> rankedView;
+
+    // Counts one more use of the value, blank values are ignored
+    void add(String value) {
+        if (value == null || value.isBlank()) return;
+        // Only a newly seen value changes the alphabetical view
+        if (counts.merge(value, 1, Integer::sum) == 1) sortedView = null;
+        rankedView = null;
+    }
+
+    // Drops one use of the value and forgets it when no longer referenced
+    void remove(String value) {
+        if (value == null || value.isBlank()) return;
+        Integer count = counts.get(value);
+        if (count == null) return;
+        if (count <= 1) {
+            counts.remove(value);
+            sortedView = null;
+        } else {
+            counts.put(value, count - 1);
+        }
+        rankedView = null;
+    }
+
+    // Number of records currently referencing the value
+    int count(String value) {
+        Integer count = counts.get(value);
+        return count == null ? 0 : count;
+    }
+
+    // Distinct values in alphabetical order
+    List<String> sorted() {
+        if (sortedView == null) {
+            sortedView = Collections.unmodifiableList(new ArrayList<>(counts.keySet()));
+        }
+        return sortedView;
+    }
+
+    // Distinct values with the most used first, ties alphabetical
+    List<String> ranked() {
+        if (rankedView == null) {
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+            // Stable sort keeps the alphabetical order among equal counts
+            entries.sort((a, b) -> b.getValue() - a.getValue());
+            List<String> values = new ArrayList<>(entries.size());
+            for (Map.Entry<String, Integer> e : entries) values.add(e.getKey());
+            rankedView = Collections.unmodifiableList(values);
+        }
+        return rankedView;
+    }
+
+    // Read-only value to count mapping
+    Map<String, Integer> counts() {
+        return Collections.unmodifiableMap(counts);
+    }
+}
\ No newline at end of file
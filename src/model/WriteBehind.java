@@ -0,0 +1,150 @@
+package model;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+class WriteBehind {
+
+    // Quiet period after the last change before pending writes go to disk (-Dhms.writeBehind.ms, 0 = write at once)
+    static final long WINDOW_MS = Long.getLong("hms.writeBehind.ms", 500);
+    // Longest a change may wait while edits keep arriving
+    private static final long MAX_DELAY_MS = WINDOW_MS * 4;
+
+    // One background thread flushes every store, never the EDT
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "write-behind-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Writes whatever is pending for one store
+    interface Flush {
+        void run() throws IOException;
+    }
+
+    private final String name;
+    private final Flush flush;
+    private long firstChange;
+    private long lastChange;
+    private ScheduledFuture<?> pending;
+    // Completed once a flush that started after the changes recorded so far has written them.
+    // A failed flush hands it on to the retry, since the changes are still waiting to be written.
+    private CompletableFuture<Void> flushed;
+    // The one taken by the flush running now, so waiters on changes it covers wait for it too
+    private CompletableFuture<Void> writing;
+
+    WriteBehind(String name, Flush flush) {
+        this.name = name;
+        this.flush = flush;
+    }
+
+    // Records a change; the flush runs once changes stop for the window
+    void changed() throws IOException {
+        if (WINDOW_MS <= 0) {
+            flush.run();
+            return;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            lastChange = now;
+            if (flushed == null) flushed = new CompletableFuture<>();
+            if (pending == null) {
+                firstChange = now;
+                pending = FLUSHER.schedule(this::due, WINDOW_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    // Runs on the flusher thread, waiting longer while edits are still arriving
+    private void due() {
+        CompletableFuture<Void> covered;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long wait = Math.min(lastChange + WINDOW_MS, firstChange + MAX_DELAY_MS) - now;
+            if (wait > 0) {
+                pending = FLUSHER.schedule(this::due, wait, TimeUnit.MILLISECONDS);
+                return;
+            }
+            pending = null;
+            covered = takeFlushed();
+        }
+        try {
+            flush.run();
+            if (covered != null) covered.complete(null);
+        } catch (IOException ex) {
+            System.err.println("Failed to write " + name + ", retrying: " + ex.getMessage());
+            retry(covered);
+        }
+    }
+
+    // Writes pending changes now, e.g. on an explicit save or at shutdown
+    void flushNow() throws IOException {
+        CompletableFuture<Void> covered;
+        synchronized (this) {
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+            covered = takeFlushed();
+        }
+        try {
+            flush.run();
+        } catch (IOException ex) {
+            if (covered != null) retry(covered);
+            throw ex;
+        }
+        if (covered != null) covered.complete(null);
+    }
+
+    // Taken before the flush reads what is pending, so every change it covers was recorded first
+    private CompletableFuture<Void> takeFlushed() {
+        CompletableFuture<Void> covered = flushed;
+        flushed = null;
+        if (covered != null) writing = covered;
+        return covered;
+    }
+
+    // Schedules another attempt, whose success also completes the failed flush's waiters
+    private void retry(CompletableFuture<Void> covered) {
+        try {
+            changed();
+        } catch (IOException ignore) {
+            // Only reached with a zero window, which never schedules
+        }
+        if (covered == null) return;
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            next = flushed;
+        }
+        if (next != null) next.thenRun(() -> covered.complete(null));
+        else covered.complete(null);
+    }
+
+    // Waits until the changes recorded so far have been written, however many attempts it takes
+    void awaitFlushed() {
+        CompletableFuture<Void> covered;
+        synchronized (this) {
+            // A later flush only starts once the running one is done, so the newest is enough
+            covered = flushed != null ? flushed : writing;
+        }
+        if (covered == null) return;
+        boolean interrupted = false;
+        while (true) {
+            try {
+                covered.get();
+                break;
+            } catch (InterruptedException ex) {
+                // The change is already in memory and will be written, so keep waiting for it
+                interrupted = true;
+            } catch (ExecutionException ex) {
+                break;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,444 @@
+package view;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+public class BackgroundRowSorter extends RowSorter<TableModel> {
+
+    // Number of sort keys kept when the user clicks through several columns
+    private static final int MAX_SORT_KEYS = 3;
+
+    private final TableModel model;
+    private List<SortKey> sortKeys = Collections.emptyList();
+
+    // Active filter: free text over every column plus an exact column match
+    private String filterText = "";
+    private int matchColumn = -1;
+    private String matchValue;
+
+    // View to model permutation, null while rows are shown in model order
+    private int[] viewToModel;
+    private int[] modelToView;
+
+    // Bumped on every change so stale background results are discarded
+    private int generation;
+    private boolean resortPending;
+
+    public BackgroundRowSorter(TableModel model) {
+        this.model = model;
+    }
+
+    // Creates a sorter for the table's model and installs it on the table
+    public static BackgroundRowSorter install(JTable table) {
+        BackgroundRowSorter sorter = new BackgroundRowSorter(table.getModel());
+        table.setRowSorter(sorter);
+        return sorter;
+    }
+
+    @Override
+    public TableModel getModel() {
+        return model;
+    }
+
+    // Header click cycles ascending, descending, unsorted
+    @Override
+    public void toggleSortOrder(int column) {
+        SortOrder next = SortOrder.ASCENDING;
+        if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column) {
+            SortOrder current = sortKeys.get(0).getSortOrder();
+            if (current == SortOrder.ASCENDING) {
+                next = SortOrder.DESCENDING;
+            } else if (current == SortOrder.DESCENDING) {
+                next = SortOrder.UNSORTED;
+            }
+        }
+
+        List<SortKey> keys = new ArrayList<>();
+        if (next != SortOrder.UNSORTED) {
+            keys.add(new SortKey(column, next));
+            // Previous keys become tie-breakers
+            for (SortKey k : sortKeys) {
+                if (keys.size() >= MAX_SORT_KEYS) break;
+                if (k.getColumn() != column) keys.add(k);
+            }
+        }
+        setSortKeys(keys);
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> copy = new ArrayList<>();
+        if (keys != null) {
+            for (SortKey k : keys) {
+                if (k.getSortOrder() != SortOrder.UNSORTED) copy.add(k);
+            }
+        }
+        sortKeys = Collections.unmodifiableList(copy);
+        fireSortOrderChanged();
+        scheduleResort();
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    // Filters rows containing the text in any column and, when column >= 0,
+    // whose value in that column equals the given value (null matches all)
+    public void setFilter(String text, int column, String value) {
+        filterText = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        matchColumn = column;
+        matchValue = value;
+        scheduleResort();
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (viewToModel == null) {
+            if (index < 0 || index >= model.getRowCount()) {
+                throw new IndexOutOfBoundsException("Invalid view row: " + index);
+            }
+            return index;
+        }
+        if (index < 0 || index >= viewToModel.length) {
+            throw new IndexOutOfBoundsException("Invalid view row: " + index);
+        }
+        return viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (modelToView == null) {
+            if (index < 0 || index >= model.getRowCount()) {
+                throw new IndexOutOfBoundsException("Invalid model row: " + index);
+            }
+            return index;
+        }
+        if (index < 0 || index >= modelToView.length) {
+            throw new IndexOutOfBoundsException("Invalid model row: " + index);
+        }
+        return modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? model.getRowCount() : viewToModel.length;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    // Structural changes invalidate the permutation until the next sort lands
+    @Override
+    public void modelStructureChanged() {
+        resetToModelOrder();
+        scheduleResort();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        resetToModelOrder();
+        scheduleResort();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        resetToModelOrder();
+        scheduleResort();
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        resetToModelOrder();
+        scheduleResort();
+    }
+
+    // Row count is unchanged, so the current permutation stays valid meanwhile
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        scheduleResort();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        scheduleResort();
+    }
+
+    // True while a sort or filter is in effect
+    public boolean isActive() {
+        return !sortKeys.isEmpty() || !filterText.isEmpty() || (matchColumn >= 0 && matchValue != null);
+    }
+
+    // Falls back to model order, notifying the table when rows moved
+    private void resetToModelOrder() {
+        generation++;
+        if (viewToModel == null) return;
+        int[] previous = viewToModel;
+        viewToModel = null;
+        modelToView = null;
+        fireRowSorterChanged(previous);
+    }
+
+    // Coalesces every change in the current EDT task into one background pass
+    private void scheduleResort() {
+        generation++;
+        if (!isActive()) {
+            resetToModelOrder();
+            return;
+        }
+        if (resortPending) return;
+        resortPending = true;
+        SwingUtilities.invokeLater(this::startResort);
+    }
+
+    // Snapshots rows on the EDT, orders them on a worker and swaps the result in
+    private void startResort() {
+        resortPending = false;
+        if (!isActive()) return;
+
+        final int gen = generation;
+        final Snapshot snapshot = Snapshot.of(model);
+        final List<SortKey> keys = sortKeys;
+        final String text = filterText;
+        final int column = matchColumn;
+        final String value = matchValue;
+
+        new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                return computeOrder(snapshot, keys, text, column, value);
+            }
+
+            @Override
+            protected void done() {
+                if (gen != generation) return;
+                try {
+                    apply(get());
+                } catch (InterruptedException | ExecutionException ex) {
+                    System.err.println("Failed to sort table: " + ex.getMessage());
+                }
+            }
+        }.execute();
+    }
+
+    // Installs a freshly computed permutation in one step
+    private void apply(int[] order) {
+        int[] previous = viewToModel;
+        if (previous == null) {
+            previous = new int[model.getRowCount()];
+            for (int i = 0; i < previous.length; i++) previous[i] = i;
+        }
+
+        int[] inverse = new int[model.getRowCount()];
+        Arrays.fill(inverse, -1);
+        for (int v = 0; v < order.length; v++) inverse[order[v]] = v;
+
+        viewToModel = order;
+        modelToView = inverse;
+        fireRowSorterChanged(previous);
+    }
+
+    // Filters then stably sorts row indexes, runs off the EDT
+    static int[] computeOrder(Snapshot snapshot, List<SortKey> keys,
+                              String text, int column, String value) {
+        int rowCount = snapshot.getRowCount();
+        int columnCount = snapshot.getColumnCount();
+        boolean matchColumn = column >= 0 && column < columnCount && value != null;
+
+        int[] rows = new int[rowCount];
+        int count = 0;
+        for (int r = 0; r < rowCount; r++) {
+            if (matchColumn && !value.equalsIgnoreCase(snapshot.getString(r, column))) continue;
+            if (!text.isEmpty() && !containsText(snapshot, r, columnCount, text)) continue;
+            rows[count++] = r;
+        }
+        if (count < rowCount) rows = Arrays.copyOf(rows, count);
+
+        if (!keys.isEmpty()) {
+            SortColumn[] columns = new SortColumn[keys.size()];
+            for (int i = 0; i < columns.length; i++) {
+                SortKey k = keys.get(i);
+                columns[i] = SortColumn.build(snapshot, k.getColumn(), k.getSortOrder() == SortOrder.DESCENDING);
+            }
+            mergeSort(rows, new int[rows.length], 0, rows.length, columns);
+        }
+        return rows;
+    }
+
+    // Case-insensitive search across every column of a row
+    private static boolean containsText(Snapshot snapshot, int row, int columnCount, String text) {
+        for (int c = 0; c < columnCount; c++) {
+            if (snapshot.getString(row, c).toLowerCase(Locale.ROOT).contains(text)) return true;
+        }
+        return false;
+    }
+
+    // Stable merge sort of model indexes using the precomputed keys
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, SortColumn[] columns) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                int row = rows[i];
+                int j = i - 1;
+                while (j >= from && compare(rows[j], row, columns) > 0) {
+                    rows[j + 1] = rows[j];
+                    j--;
+                }
+                rows[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, mid, columns);
+        mergeSort(rows, buffer, mid, to, columns);
+        if (compare(rows[mid - 1], rows[mid], columns) <= 0) return;
+
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from, right = mid, out = from;
+        while (left < mid && right < to) {
+            rows[out++] = compare(buffer[right], buffer[left], columns) < 0 ? buffer[right++] : buffer[left++];
+        }
+        while (left < mid) rows[out++] = buffer[left++];
+        while (right < to) rows[out++] = buffer[right++];
+    }
+
+    private static int compare(int a, int b, SortColumn[] columns) {
+        for (SortColumn c : columns) {
+            int result = c.compare(a, b);
+            if (result != 0) return result;
+        }
+        return 0;
+    }
+
+    // Typed sort key for one column, computed once per sort pass
+    private abstract static class SortColumn {
+        private final boolean descending;
+
+        SortColumn(boolean descending) {
+            this.descending = descending;
+        }
+
+        int compare(int a, int b) {
+            int result = compareAscending(a, b);
+            return descending ? -result : result;
+        }
+
+        abstract int compareAscending(int a, int b);
+
+        // Dates (yyyy-MM-dd) and numbers sort by value, everything else as text
+        static SortColumn build(Snapshot snapshot, int column, boolean descending) {
+            int rowCount = snapshot.getRowCount();
+            double[] numbers = new double[rowCount];
+            boolean numeric = true;
+            for (int r = 0; r < rowCount && numeric; r++) {
+                String s = snapshot.getString(r, column).trim();
+                if (s.isEmpty()) {
+                    // Blank cells sort after every value
+                    numbers[r] = Double.NaN;
+                } else if (s.length() == 10 && s.charAt(4) == '-' && s.charAt(7) == '-') {
+                    try {
+                        numbers[r] = LocalDate.parse(s).toEpochDay();
+                    } catch (DateTimeParseException ex) {
+                        numeric = false;
+                    }
+                } else {
+                    try {
+                        numbers[r] = Double.parseDouble(s);
+                    } catch (NumberFormatException ex) {
+                        numeric = false;
+                    }
+                }
+            }
+            if (numeric) return new NumberColumn(numbers, descending);
+
+            String[] text = new String[rowCount];
+            for (int r = 0; r < rowCount; r++) {
+                text[r] = snapshot.getString(r, column).toLowerCase(Locale.ROOT);
+            }
+            return new TextColumn(text, descending);
+        }
+    }
+
+    private static final class NumberColumn extends SortColumn {
+        private final double[] values;
+
+        NumberColumn(double[] values, boolean descending) {
+            super(descending);
+            this.values = values;
+        }
+
+        @Override
+        int compareAscending(int a, int b) {
+            return Double.compare(values[a], values[b]);
+        }
+    }
+
+    private static final class TextColumn extends SortColumn {
+        private final String[] values;
+
+        TextColumn(String[] values, boolean descending) {
+            super(descending);
+            this.values = values;
+        }
+
+        @Override
+        int compareAscending(int a, int b) {
+            return values[a].compareTo(values[b]);
+        }
+    }
+
+    // Point-in-time copy of the table rows that a worker can read safely
+    static final class Snapshot {
+        private final Object[] rows;
+        private final Object[][] cells;
+        private final int columnCount;
+
+        private Snapshot(Object[] rows, Object[][] cells, int columnCount) {
+            this.rows = rows;
+            this.cells = cells;
+            this.columnCount = columnCount;
+        }
+
+        // DefaultTableModel rows are copied by reference, other models cell by cell
+        static Snapshot of(TableModel model) {
+            int columnCount = model.getColumnCount();
+            if (model instanceof DefaultTableModel) {
+                return new Snapshot(((DefaultTableModel) model).getDataVector().toArray(), null, columnCount);
+            }
+            Object[][] cells = new Object[model.getRowCount()][columnCount];
+            for (int r = 0; r < cells.length; r++) {
+                for (int c = 0; c < columnCount; c++) cells[r][c] = model.getValueAt(r, c);
+            }
+            return new Snapshot(null, cells, columnCount);
+        }
+
+        int getRowCount() {
+            return rows != null ? rows.length : cells.length;
+        }
+
+        int getColumnCount() {
+            return columnCount;
+        }
+
+        String getString(int row, int column) {
+            Object value;
+            if (rows != null) {
+                List<?> cellsOfRow = (List<?>) rows[row];
+                value = column < cellsOfRow.size() ? cellsOfRow.get(column) : null;
+            } else {
+                value = cells[row][column];
+            }
+            return value == null ? "" : value.toString();
+        }
+    }
+}
\ No newline at end of file
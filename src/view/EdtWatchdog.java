@@ -0,0 +1,280 @@
+package view;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Times every event the Swing event thread dispatches and keeps a latency histogram.
+// A sampling thread takes the event thread's stack while a dispatch runs past the stall
+// threshold, and each stall is appended to a short report file together with the
+// histogram. Per event this costs two clock reads and a counter, so it stays on by default.
+// The report sits in the data directory; past its size limit it is moved to <report>.1,
+// replacing the one before, so at most twice the limit is kept.
+// Settings: -Dhms.edt.watchdog=false turns it off, -Dhms.edt.stallMs (default 500),
+// -Dhms.edt.hangMs (default 10000), -Dhms.edt.report (default <data dir>/hms-stalls.log),
+// -Dhms.edt.reportKb (default 256).
+public class EdtWatchdog extends EventQueue {
+
+    private static final boolean ENABLED = !"false".equals(System.getProperty("hms.edt.watchdog"));
+    private static final long STALL_MS = Long.getLong("hms.edt.stallMs", 500L);
+    // A dispatch still running this long is reported before it ends, in case it never does
+    private static final long HANG_MS = Long.getLong("hms.edt.hangMs", 10_000L);
+    private static final String REPORT = System.getProperty("hms.edt.report");
+    private static final String REPORT_NAME = "hms-stalls.log";
+    private static final long REPORT_BYTES = Long.getLong("hms.edt.reportKb", 256L) * 1024;
+    // Stack frames kept per report, the handler is near the top
+    private static final int MAX_FRAMES = 40;
+    // Modal dialogs dispatch inside a dispatch; deeper nesting than this is not timed
+    private static final int MAX_DEPTH = 32;
+    // Histogram buckets: under 1 ms, under 2 ms, under 4 ms ... the last holds everything longer
+    private static final int BUCKETS = 16;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static EdtWatchdog installed;
+
+    private final long stallNanos;
+    private final long hangNanos;
+    private final Path report;
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    // Stalls finished on the event thread, written out by the sampler
+    private final ConcurrentLinkedQueue<Stall> finished = new ConcurrentLinkedQueue<>();
+
+    // Event thread only: time spent so far and start of the running stretch per nesting level
+    private final long[] busy = new long[MAX_DEPTH];
+    private final long[] stretchStart = new long[MAX_DEPTH];
+    private final AWTEvent[] events = new AWTEvent[MAX_DEPTH];
+    private int depth;
+
+    // Read by the sampler: the running stretch, 0 when the event thread is idle, and its number
+    private volatile long runningSince;
+    private volatile long stretch;
+    private volatile AWTEvent runningEvent;
+    private volatile Thread eventThread;
+
+    // Sampler only: the stretch whose stack was taken, and whether it was reported as a hang
+    private long sampledStretch = -1;
+    private StackTraceElement[] sampledStack;
+    private boolean hangReported;
+    private volatile long stalls;
+
+    public EdtWatchdog(long stallMs, long hangMs, Path report) {
+        this.stallNanos = stallMs * 1_000_000L;
+        this.hangNanos = hangMs * 1_000_000L;
+        this.report = report;
+    }
+
+    // Replaces the system event queue with a watchdog unless turned off, reporting into the
+    // data directory; call once at startup
+    public static synchronized void install(String dataDir) {
+        if (!ENABLED || installed != null) return;
+        installed = new EdtWatchdog(STALL_MS, HANG_MS, REPORT != null ? Paths.get(REPORT) : Paths.get(dataDir, REPORT_NAME));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(installed);
+        installed.startSampler();
+        EdtWatchdog watchdog = installed;
+        // The histogram for the whole session ends the report
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> watchdog.write("exit, "
+                + watchdog.stalls + " stalls\n" + watchdog.histogramLine() + "\n")));
+    }
+
+    // The installed watchdog, null when it is turned off
+    public static synchronized EdtWatchdog get() {
+        return installed;
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long now = System.nanoTime();
+        if (depth >= MAX_DEPTH) {
+            super.dispatchEvent(event);
+            return;
+        }
+        // The event thread is replaced if it dies, so the sampler follows the current one
+        Thread current = Thread.currentThread();
+        if (current != eventThread) eventThread = current;
+        // A nested dispatch means the outer handler is running a modal dialog's loop; the
+        // time it spends waiting for events there is not counted as busy
+        if (depth > 0) busy[depth - 1] += now - stretchStart[depth - 1];
+        int level = depth++;
+        busy[level] = 0;
+        stretchStart[level] = now;
+        events[level] = event;
+        startStretch(now, event);
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            long end = System.nanoTime();
+            long took = busy[level] + end - stretchStart[level];
+            long lastStretch = stretch;
+            events[level] = null;
+            depth = level;
+            if (level > 0) {
+                stretchStart[level - 1] = end;
+                startStretch(end, events[level - 1]);
+            } else {
+                runningSince = 0;
+                runningEvent = null;
+            }
+            record(took);
+            if (took >= stallNanos) finished.add(new Stall(describe(event), took, lastStretch));
+        }
+    }
+
+    // Waiting here for the next event is idle time, also inside a modal dialog's loop
+    @Override
+    public AWTEvent getNextEvent() throws InterruptedException {
+        int level = depth - 1;
+        if (level < 0 || level >= MAX_DEPTH || Thread.currentThread() != eventThread) return super.getNextEvent();
+        busy[level] += System.nanoTime() - stretchStart[level];
+        runningSince = 0;
+        try {
+            return super.getNextEvent();
+        } finally {
+            long now = System.nanoTime();
+            stretchStart[level] = now;
+            startStretch(now, events[level]);
+        }
+    }
+
+    private void startStretch(long now, AWTEvent event) {
+        runningEvent = event;
+        stretch++;
+        runningSince = now;
+    }
+
+    private void record(long nanos) {
+        long ms = nanos / 1_000_000L;
+        int bucket = ms == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(ms));
+        histogram.incrementAndGet(bucket);
+    }
+
+    // Dispatches per bucket: index 0 under 1 ms, index i under 2^i ms, the last everything longer
+    public long[] getHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = histogram.get(i);
+        return counts;
+    }
+
+    // The histogram as one line, empty buckets left out
+    public String histogramLine() {
+        StringBuilder sb = new StringBuilder("latency");
+        long[] counts = getHistogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] == 0) continue;
+            sb.append(i == BUCKETS - 1 ? " >=" : " <").append(i == BUCKETS - 1 ? 1L << (i - 1) : 1L << i)
+              .append("ms:").append(counts[i]);
+        }
+        return sb.toString();
+    }
+
+    private void startSampler() {
+        long period = Math.max(10L, stallNanos / 4_000_000L);
+        Thread sampler = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(period);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                sample();
+            }
+        }, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    // Takes the event thread's stack once per stretch that runs past the threshold, and
+    // writes out the stalls that have finished since the last look
+    private void sample() {
+        long since = runningSince;
+        long current = stretch;
+        Thread edt = eventThread;
+        if (since != 0 && edt != null) {
+            long running = System.nanoTime() - since;
+            if (running >= stallNanos && current != sampledStretch) {
+                sampledStretch = current;
+                sampledStack = edt.getStackTrace();
+                hangReported = false;
+            }
+            if (running >= hangNanos && current == sampledStretch && !hangReported) {
+                hangReported = true;
+                write(header("still running after " + running / 1_000_000L + " ms in "
+                        + describe(runningEvent)) + frames(edt.getStackTrace()));
+            }
+        }
+        Stall stall;
+        while ((stall = finished.poll()) != null) {
+            stalls++;
+            StringBuilder sb = new StringBuilder(header("stall " + stall.nanos / 1_000_000L + " ms in " + stall.event));
+            if (stall.stretch == sampledStretch && sampledStack != null) {
+                sb.append(frames(sampledStack));
+            } else {
+                // Finished between two samples, or the time was spent before and after a modal dialog
+                sb.append("  (no stack, the dispatch ended before it was sampled)\n");
+            }
+            sb.append(histogramLine()).append('\n');
+            write(sb.toString());
+        }
+    }
+
+    private static String header(String text) {
+        return LocalDateTime.now().format(TIME) + " " + text + "\n";
+    }
+
+    private static String frames(StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        int shown = Math.min(stack.length, MAX_FRAMES);
+        for (int i = 0; i < shown; i++) sb.append("  at ").append(stack[i]).append('\n');
+        if (stack.length > shown) sb.append("  ... ").append(stack.length - shown).append(" more\n");
+        return sb.toString();
+    }
+
+    // Event class and where it came from, e.g. "ActionEvent Save on JButton"
+    private static String describe(AWTEvent event) {
+        if (event == null) return "unknown event";
+        StringBuilder sb = new StringBuilder(event.getClass().getSimpleName());
+        if (event instanceof ActionEvent && ((ActionEvent) event).getActionCommand() != null) {
+            sb.append(' ').append(((ActionEvent) event).getActionCommand());
+        }
+        Object source = event.getSource();
+        if (source instanceof Component) sb.append(" on ").append(source.getClass().getSimpleName());
+        return sb.toString();
+    }
+
+    private synchronized void write(String text) {
+        try {
+            if (Files.isRegularFile(report) && Files.size(report) >= REPORT_BYTES) {
+                Files.move(report, report.resolveSibling(report.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.write(report, text.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            System.err.println("Failed to write stall report: " + ex.getMessage());
+        }
+    }
+
+    // One dispatch that ran past the threshold
+    private static final class Stall {
+        private final String event;
+        private final long nanos;
+        private final long stretch;
+
+        Stall(String event, long nanos, long stretch) {
+            this.event = event;
+            this.nanos = nanos;
+            this.stretch = stretch;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package view;
+
+import model.RecordExporter;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import java.awt.*;
+import java.io.File;
+
+public class ExportChooser {
+
+    // Destination file and output format picked by the user
+    public static class Selection {
+        private final File file;
+        private final RecordExporter.Format format;
+
+        public Selection(File file, RecordExporter.Format format) {
+            this.file = file;
+            this.format = format;
+        }
+
+        public File getFile() { return file; }
+        public RecordExporter.Format getFormat() { return format; }
+    }
+
+    // Shows save dialog offering CSV and JSON Lines, returns null when cancelled
+    public static Selection choose(Component parent, String baseName) {
+        FileNameExtensionFilter csvFilter =
+                new FileNameExtensionFilter("CSV (*.csv)", RecordExporter.Format.CSV.getExtension());
+        FileNameExtensionFilter jsonlFilter =
+                new FileNameExtensionFilter("JSON Lines (*.jsonl)", RecordExporter.Format.JSONL.getExtension());
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export " + baseName);
+        chooser.setAcceptAllFileFilterUsed(false);
+        chooser.addChoosableFileFilter(csvFilter);
+        chooser.addChoosableFileFilter(jsonlFilter);
+        chooser.setFileFilter(csvFilter);
+        chooser.setSelectedFile(new File(baseName + "." + RecordExporter.Format.CSV.getExtension()));
+
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return null;
+        }
+
+        // Explicit extension wins, otherwise use the selected filter
+        File file = chooser.getSelectedFile();
+        String name = file.getName().toLowerCase();
+        RecordExporter.Format format;
+        if (name.endsWith("." + RecordExporter.Format.JSONL.getExtension())) {
+            format = RecordExporter.Format.JSONL;
+        } else if (name.endsWith("." + RecordExporter.Format.CSV.getExtension())) {
+            format = RecordExporter.Format.CSV;
+        } else {
+            format = chooser.getFileFilter() == jsonlFilter
+                    ? RecordExporter.Format.JSONL : RecordExporter.Format.CSV;
+            file = new File(file.getParentFile(), file.getName() + "." + format.getExtension());
+        }
+        return new Selection(file, format);
+    }
+}
\ No newline at end of file
@@ -1,184 +1,332 @@
-package view;
-
-import controller.*;
-import javax.swing.*;
-import java.awt.*;
-
-public class MainFrame extends JFrame {
-    private JTabbedPane tabs;
-    private String userRole;
-    
-    public MainFrame(
-            PatientController pc,
-            ClinicianController cc,
-            AppointmentController ac,
-            PrescriptionController prc,
-            ReferralController rc,
-            StaffController sc,
-            String userRole) {
-
-        super("Healthcare Management System");
-        this.userRole = userRole;
-
-        // Main panel with border layout for structured arrangement
-        JPanel mainPanel = new JPanel(new BorderLayout());
-        
-        // Top panel contains title and logout controls
-        JPanel topPanel = new JPanel(new BorderLayout(10, 10));
-        topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        topPanel.setBackground(new Color(240, 240, 240));
-        
-        // Application title with role context
-        JLabel titleLabel = new JLabel("HMS - " + userRole.toUpperCase() + " Portal");
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
-        titleLabel.setForeground(new Color(0, 102, 204));
-        topPanel.add(titleLabel, BorderLayout.WEST);
-        
-        // Logout button with visual prominence
-        JButton logoutButton = new JButton("Logout");
-        logoutButton.setBackground(new Color(220, 53, 69));
-        logoutButton.setForeground(Color.WHITE);
-        logoutButton.setFocusPainted(false);
-        logoutButton.addActionListener(e -> performLogout());
-        topPanel.add(logoutButton, BorderLayout.EAST);
-        
-        // Tabbed interface for module navigation
-        tabs = new JTabbedPane();
-        addTabsBasedOnRole(pc, cc, ac, prc, rc, sc, userRole);
-        
-        // Assemble complete interface layout
-        mainPanel.add(topPanel, BorderLayout.NORTH);
-        mainPanel.add(tabs, BorderLayout.CENTER);
-        
-        // Configure window properties and display
-        setContentPane(mainPanel);
-        setSize(1200, 700);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setLocationRelativeTo(null);
-        
-        // Display role-specific access information
-        showAccessMessage(userRole);
-    }
-    
-    // Handles user logout with confirmation
-    private void performLogout() {
-        int confirm = JOptionPane.showConfirmDialog(this,
-            "Are you sure you want to logout?\n\n" +
-            "User: " + userRole.toUpperCase(),
-            "Confirm Logout",
-            JOptionPane.YES_NO_OPTION,
-            JOptionPane.QUESTION_MESSAGE);
-        //Made By Misbah Al Rehman. SRN: 24173647
-        if (confirm == JOptionPane.YES_OPTION) {
-            this.dispose();
-            
-            JOptionPane.showMessageDialog(null,
-                "You have been logged out successfully.\n",
-                "Logout Complete",
-                JOptionPane.INFORMATION_MESSAGE);
-            
-            System.exit(0);
-        }
-    }
-    
-    // Configures tab visibility based on user role permissions
-    private void addTabsBasedOnRole(
-            PatientController pc,
-            ClinicianController cc,
-            AppointmentController ac,
-            PrescriptionController prc,
-            ReferralController rc,
-            StaffController sc,
-            String userRole) {
-        
-        if (userRole == null) {
-            userRole = "guest";
-        }
-        
-        String role = userRole.toLowerCase();
-        
-        switch (role) {
-            case "patient":
-                tabs.addTab("My Appointments", ac.getView());
-                tabs.addTab("My Prescriptions", prc.getView());
-                tabs.addTab("My Profile", pc.getView());
-                break;
-                
-            case "clinician":
-                tabs.addTab("Patients", pc.getView());
-                tabs.addTab("Appointments", ac.getView());
-                tabs.addTab("Prescriptions", prc.getView());
-                tabs.addTab("Referrals", rc.getView());
-                tabs.addTab("My Profile", cc.getView());
-                break;
-                
-            case "staff":
-                tabs.addTab("Patients", pc.getView());
-                tabs.addTab("Clinicians", cc.getView());
-                tabs.addTab("Appointments", ac.getView());
-                tabs.addTab("Prescriptions", prc.getView());
-                tabs.addTab("Referrals", rc.getView());
-                tabs.addTab("My Profile", sc.getView());
-                break;
-                
-            case "admin":
-                tabs.addTab("Patients", pc.getView());
-                tabs.addTab("Clinicians", cc.getView());
-                tabs.addTab("Appointments", ac.getView());
-                tabs.addTab("Prescriptions", prc.getView());
-                tabs.addTab("Referrals", rc.getView());
-                tabs.addTab("Staff", sc.getView());
-                break;
-                
-            default:
-                tabs.addTab("Patients", pc.getView());
-                tabs.addTab("Clinicians", cc.getView());
-                tabs.addTab("Appointments", ac.getView());
-                tabs.addTab("Prescriptions", prc.getView());
-                tabs.addTab("Referrals", rc.getView());
-                break;
-        }
-    }
-    
-    // Displays role-specific access information
-    private void showAccessMessage(String userRole) {
-        String role = (userRole != null) ? userRole.toLowerCase() : "guest";
-        String message = "";
-        int tabCount = tabs.getTabCount();
-        
-        switch (role) {
-            case "patient":
-                message = "Patient Access: You can manage your appointments and prescriptions.";
-                break;
-            case "clinician":
-                message = "Clinician Access: You can manage patients, appointments, prescriptions, and referrals.";
-                break;
-            case "staff":
-                message = "Staff Access: Access to view all modules.";
-                break;
-            case "admin":
-                message = "Admin Access: Full system administrator privileges.";
-                break;
-            default:
-                message = "Standard Access: All modules available.";
-                break;
-        }
-        
-        message += "\n\nAvailable tabs: " + tabCount;
-        
-        JOptionPane.showMessageDialog(this,
-            message,
-            "Access Level Information",
-            JOptionPane.INFORMATION_MESSAGE);
-    }
-    
-    // Programmatically switches to specified tab
-    public void switchToTab(String tabName) {
-        for (int i = 0; i < tabs.getTabCount(); i++) {
-            if (tabs.getTitleAt(i).equals(tabName)) {
-                tabs.setSelectedIndex(i);
-                break;
-            }
-        }
-    }
+package view;
+
+import controller.*;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.AWTEventListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+public class MainFrame extends JFrame {
+    private JTabbedPane tabs;
+    private String userRole;
+    // Controller behind each tab and the step that attaches its view, dropped once attached
+    private final List<LazyController<?>> tabControllers = new ArrayList<>();
+    private final List<Runnable> unboundTabs = new ArrayList<>();
+    // Flushes pending writes, supplied by the login controller
+    private Runnable saveAction;
+    // Ends the login session, supplied by the login controller
+    private Runnable logoutAction;
+    // Whether the login session is still open, and what to do once it is not; the window
+    // stays locked from then until unlock()
+    private BooleanSupplier sessionOpen;
+    private Runnable sessionExpired;
+    private boolean locked;
+    // Check the session on each mouse or key use of this window, removed on dispose
+    private AWTEventListener mouseCheck;
+    private KeyEventDispatcher keyCheck;
+    
+    public MainFrame(
+            LazyController<PatientController> pc,
+            LazyController<ClinicianController> cc,
+            LazyController<AppointmentController> ac,
+            LazyController<PrescriptionController> prc,
+            LazyController<ReferralController> rc,
+            LazyController<StaffController> sc,
+            LazyController<OccupancyController> oc,
+            String userRole) {
+
+        super("Healthcare Management System");
+        this.userRole = userRole;
+
+        // Main panel with border layout for structured arrangement
+        JPanel mainPanel = new JPanel(new BorderLayout());
+        
+        // Top panel contains title and logout controls
+        JPanel topPanel = new JPanel(new BorderLayout(10, 10));
+        topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        topPanel.setBackground(new Color(240, 240, 240));
+        
+        // Application title with role context
+        JLabel titleLabel = new JLabel("HMS - " + userRole.toUpperCase() + " Portal");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 16));
+        titleLabel.setForeground(new Color(0, 102, 204));
+        topPanel.add(titleLabel, BorderLayout.WEST);
+        
+        // Save writes pending changes at once instead of waiting for the background flush
+        JButton saveButton = new JButton("Save");
+        saveButton.setFocusPainted(false);
+        saveButton.addActionListener(e -> {
+            if (saveAction != null) saveAction.run();
+        });
+        
+        // Logout button with visual prominence
+        JButton logoutButton = new JButton("Logout");
+        logoutButton.setBackground(new Color(220, 53, 69));
+        logoutButton.setForeground(Color.WHITE);
+        logoutButton.setFocusPainted(false);
+        logoutButton.addActionListener(e -> performLogout());
+        // Shown while saves are being written in the background
+        JProgressBar savingBar = new JProgressBar();
+        savingBar.setIndeterminate(true);
+        savingBar.setStringPainted(true);
+        savingBar.setVisible(false);
+        CommandExecutor.shared().addProgressListener(running -> {
+            savingBar.setString("Saving " + running + "...");
+            savingBar.setVisible(running > 0);
+        });
+        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 8, 0));
+        actionPanel.setOpaque(false);
+        actionPanel.add(savingBar);
+        actionPanel.add(saveButton);
+        actionPanel.add(logoutButton);
+        topPanel.add(actionPanel, BorderLayout.EAST);
+        
+        // Tabbed interface for module navigation
+        tabs = new JTabbedPane();
+        addTabsBasedOnRole(pc, cc, ac, prc, rc, sc, oc, userRole);
+        // Only the tab on screen is built; the others are built the first time they are selected
+        bindSelectedTab();
+        tabs.addChangeListener(e -> bindSelectedTab());
+        
+        // Assemble complete interface layout
+        mainPanel.add(topPanel, BorderLayout.NORTH);
+        mainPanel.add(tabs, BorderLayout.CENTER);
+        
+        // Configure window properties and display
+        setContentPane(mainPanel);
+        setSize(1200, 700);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        
+        // Display role-specific access information
+        showAccessMessage(userRole);
+    }
+    
+    // Sets the action behind the Save button
+    public void setSaveAction(Runnable saveAction) {
+        this.saveAction = saveAction;
+    }
+    
+    // Sets what logging out does before the window closes
+    public void setLogoutAction(Runnable logoutAction) {
+        this.logoutAction = logoutAction;
+    }
+    
+    // Checks the login session on each mouse or key use of the window, which also counts as
+    // using it. Once the session has ended, the input that found out is dropped, the window
+    // locked and sessionExpired run; it stays locked until unlock() or logout.
+    public void setSessionCheck(BooleanSupplier sessionOpen, Runnable sessionExpired) {
+        this.sessionOpen = sessionOpen;
+        this.sessionExpired = sessionExpired;
+        // Shown over the window while it is locked, swallowing the mouse
+        JPanel lockPane = new JPanel();
+        lockPane.setOpaque(false);
+        lockPane.addMouseListener(new MouseAdapter() { });
+        lockPane.addMouseMotionListener(new MouseAdapter() { });
+        setGlassPane(lockPane);
+        mouseCheck = event -> {
+            if (!locked && event instanceof MouseEvent && isInWindow(((MouseEvent) event).getComponent())) {
+                if (!sessionOpen.getAsBoolean()) lock();
+            }
+        };
+        Toolkit.getDefaultToolkit().addAWTEventListener(mouseCheck,
+                AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_MOTION_EVENT_MASK);
+        // Key events can be dropped before they reach the focused field
+        keyCheck = event -> {
+            if (!isInWindow(event.getComponent())) return false;
+            if (locked) return true;
+            if (event.getID() == KeyEvent.KEY_PRESSED && !sessionOpen.getAsBoolean()) {
+                lock();
+                return true;
+            }
+            return false;
+        };
+        KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(keyCheck);
+    }
+
+    // Blocks the window and runs the expired-session action, e.g. when the session was
+    // dropped for being idle. Does nothing while already locked.
+    public void lock() {
+        if (locked) return;
+        locked = true;
+        getGlassPane().setVisible(true);
+        if (sessionExpired != null) SwingUtilities.invokeLater(sessionExpired);
+    }
+
+    // Lets the window be used again, e.g. once the user has logged in again
+    public void unlock() {
+        locked = false;
+        getGlassPane().setVisible(false);
+    }
+
+    // True for components of this window, not of the dialogs it opens
+    private boolean isInWindow(Component component) {
+        return component == this || (component != null && SwingUtilities.getWindowAncestor(component) == this);
+    }
+
+    @Override
+    public void dispose() {
+        if (mouseCheck != null) Toolkit.getDefaultToolkit().removeAWTEventListener(mouseCheck);
+        if (keyCheck != null) KeyboardFocusManager.getCurrentKeyboardFocusManager().removeKeyEventDispatcher(keyCheck);
+        super.dispose();
+    }
+    
+    // Handles user logout with confirmation
+    private void performLogout() {
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "Are you sure you want to logout?\n\n" +
+            "User: " + userRole.toUpperCase(),
+            "Confirm Logout",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.QUESTION_MESSAGE);
+        //Made By Misbah Al Rehman. SRN: 24173647
+        if (confirm == JOptionPane.YES_OPTION) {
+            logOut("You have been logged out successfully.\n");
+        }
+    }
+
+    // Ends the session, closes the window and exits
+    public void logOut(String message) {
+        if (logoutAction != null) logoutAction.run();
+        this.dispose();
+        
+        JOptionPane.showMessageDialog(null,
+            message,
+            "Logout Complete",
+            JOptionPane.INFORMATION_MESSAGE);
+        
+        System.exit(0);
+    }
+    
+    // Adds a placeholder tab whose controller and view are built when it is first selected
+    private <C> void addLazyTab(String title, LazyController<C> controller, Function<C, ? extends JComponent> view) {
+        JPanel placeholder = new JPanel(new BorderLayout());
+        tabs.addTab(title, placeholder);
+        tabControllers.add(controller);
+        unboundTabs.add(() -> {
+            placeholder.add(view.apply(controller.get()), BorderLayout.CENTER);
+            placeholder.revalidate();
+        });
+    }
+    
+    // Builds the selected tab if needed and reads the next tab's data ahead,
+    // since tabs are ordered the way users tend to work through them
+    private void bindSelectedTab() {
+        int selected = tabs.getSelectedIndex();
+        if (selected < 0) return;
+        Runnable bind = unboundTabs.set(selected, null);
+        if (bind != null) bind.run();
+        if (selected + 1 < tabControllers.size()) tabControllers.get(selected + 1).prefetch();
+    }
+    
+    // Configures tab visibility based on user role permissions
+    private void addTabsBasedOnRole(
+            LazyController<PatientController> pc,
+            LazyController<ClinicianController> cc,
+            LazyController<AppointmentController> ac,
+            LazyController<PrescriptionController> prc,
+            LazyController<ReferralController> rc,
+            LazyController<StaffController> sc,
+            LazyController<OccupancyController> oc,
+            String userRole) {
+        
+        if (userRole == null) {
+            userRole = "guest";
+        }
+        
+        String role = userRole.toLowerCase();
+        
+        switch (role) {
+            case "patient":
+                addLazyTab("My Appointments", ac, AppointmentController::getView);
+                addLazyTab("My Prescriptions", prc, PrescriptionController::getView);
+                addLazyTab("My Profile", pc, PatientController::getView);
+                break;
+                
+            case "clinician":
+                addLazyTab("Patients", pc, PatientController::getView);
+                addLazyTab("Appointments", ac, AppointmentController::getView);
+                addLazyTab("Prescriptions", prc, PrescriptionController::getView);
+                addLazyTab("Referrals", rc, ReferralController::getView);
+                addLazyTab("My Profile", cc, ClinicianController::getView);
+                break;
+                
+            case "staff":
+                addLazyTab("Patients", pc, PatientController::getView);
+                addLazyTab("Clinicians", cc, ClinicianController::getView);
+                addLazyTab("Appointments", ac, AppointmentController::getView);
+                addLazyTab("Prescriptions", prc, PrescriptionController::getView);
+                addLazyTab("Referrals", rc, ReferralController::getView);
+                addLazyTab("Occupancy", oc, OccupancyController::getView);
+                addLazyTab("My Profile", sc, StaffController::getView);
+                break;
+                
+            case "admin":
+                addLazyTab("Patients", pc, PatientController::getView);
+                addLazyTab("Clinicians", cc, ClinicianController::getView);
+                addLazyTab("Appointments", ac, AppointmentController::getView);
+                addLazyTab("Prescriptions", prc, PrescriptionController::getView);
+                addLazyTab("Referrals", rc, ReferralController::getView);
+                addLazyTab("Staff", sc, StaffController::getView);
+                addLazyTab("Occupancy", oc, OccupancyController::getView);
+                break;
+                
+            default:
+                addLazyTab("Patients", pc, PatientController::getView);
+                addLazyTab("Clinicians", cc, ClinicianController::getView);
+                addLazyTab("Appointments", ac, AppointmentController::getView);
+                addLazyTab("Prescriptions", prc, PrescriptionController::getView);
+                addLazyTab("Referrals", rc, ReferralController::getView);
+                addLazyTab("Occupancy", oc, OccupancyController::getView);
+                break;
+        }
+    }
+    
+    // Displays role-specific access information
+    private void showAccessMessage(String userRole) {
+        String role = (userRole != null) ? userRole.toLowerCase() : "guest";
+        String message = "";
+        int tabCount = tabs.getTabCount();
+        
+        switch (role) {
+            case "patient":
+                message = "Patient Access: You can manage your appointments and prescriptions.";
+                break;
+            case "clinician":
+                message = "Clinician Access: You can manage patients, appointments, prescriptions, and referrals.";
+                break;
+            case "staff":
+                message = "Staff Access: Access to view all modules.";
+                break;
+            case "admin":
+                message = "Admin Access: Full system administrator privileges.";
+                break;
+            default:
+                message = "Standard Access: All modules available.";
+                break;
+        }
+        
+        message += "\n\nAvailable tabs: " + tabCount;
+        
+        JOptionPane.showMessageDialog(this,
+            message,
+            "Access Level Information",
+            JOptionPane.INFORMATION_MESSAGE);
+    }
+    
+    // Programmatically switches to specified tab
+    public void switchToTab(String tabName) {
+        for (int i = 0; i < tabs.getTabCount(); i++) {
+            if (tabs.getTitleAt(i).equals(tabName)) {
+                tabs.setSelectedIndex(i);
+                break;
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package view;
+
+import controller.OccupancyController;
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+public class OccupancyView extends JPanel {
+
+    private OccupancyController controller;
+
+    // Table columns; capacity and appointments are compared to mark full facilities
+    private static final int CAPACITY_COLUMN = 3;
+    private static final int APPOINTMENTS_COLUMN = 4;
+    private static final Color OVER_CAPACITY = new Color(248, 215, 218);
+    private static final Color AT_CAPACITY = new Color(255, 243, 205);
+
+    private JTable table;
+    private DefaultTableModel tableModel;
+    // Day shown, as yyyy-MM-dd
+    private JTextField txtDate;
+    private JLabel summaryLabel;
+    private JLabel titleLabel;
+
+    public OccupancyView() {
+        setLayout(new BorderLayout(15, 15));
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // Title and day picker
+        JPanel top = new JPanel(new BorderLayout());
+        titleLabel = new JLabel("Facility Occupancy");
+        titleLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
+        titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        top.add(titleLabel, BorderLayout.NORTH);
+
+        JPanel dayPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 8, 5));
+        JButton btnPrevious = new JButton("<");
+        JButton btnNext = new JButton(">");
+        JButton btnToday = new JButton("Today");
+        JButton btnShow = new JButton("Show");
+        txtDate = new JTextField(10);
+        dayPanel.add(new JLabel("Day (yyyy-MM-dd):"));
+        dayPanel.add(btnPrevious);
+        dayPanel.add(txtDate);
+        dayPanel.add(btnNext);
+        dayPanel.add(btnToday);
+        dayPanel.add(btnShow);
+        top.add(dayPanel, BorderLayout.CENTER);
+        add(top, BorderLayout.NORTH);
+
+        btnPrevious.addActionListener(e -> controller.moveDays(-1));
+        btnNext.addActionListener(e -> controller.moveDays(1));
+        btnToday.addActionListener(e -> controller.showToday());
+        btnShow.addActionListener(e -> controller.showDay(txtDate.getText().trim()));
+        txtDate.addActionListener(e -> controller.showDay(txtDate.getText().trim()));
+
+        // One row per facility for the chosen day
+        tableModel = new DefaultTableModel(
+                new Object[]{"Facility ID", "Name", "Type", "Capacity", "Appointments", "Booked Minutes", "Full"}, 0
+        ) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        table = new JTable(tableModel);
+        table.setRowHeight(22);
+        table.setDefaultRenderer(Object.class, new CapacityRenderer());
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        summaryLabel = new JLabel(" ");
+        add(summaryLabel, BorderLayout.SOUTH);
+    }
+
+    public void setController(OccupancyController controller) {
+        this.controller = controller;
+    }
+
+    public void setTitle(String title) {
+        titleLabel.setText(title);
+    }
+
+    public void setDate(String date) {
+        txtDate.setText(date);
+    }
+
+    // Shows one row per facility: id, name, type, capacity, appointments, minutes, percent full
+    public void showOccupancy(List<Object[]> rows, String summary) {
+        tableModel.setRowCount(0);
+        for (Object[] row : rows) tableModel.addRow(row);
+        summaryLabel.setText(summary);
+    }
+
+    public void showMessage(String message) {
+        JOptionPane.showMessageDialog(this, message, "Facility Occupancy", JOptionPane.WARNING_MESSAGE);
+    }
+
+    // Red for facilities over capacity, amber for those exactly full
+    private class CapacityRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (isSelected) return c;
+            int capacity = (Integer) tableModel.getValueAt(row, CAPACITY_COLUMN);
+            int booked = (Integer) tableModel.getValueAt(row, APPOINTMENTS_COLUMN);
+            if (capacity > 0 && booked > capacity) c.setBackground(OVER_CAPACITY);
+            else if (capacity > 0 && booked == capacity) c.setBackground(AT_CAPACITY);
+            else c.setBackground(table.getBackground());
+            return c;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package view;
+
+import model.PageSource;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class PagedTableModel<T> extends AbstractTableModel {
+
+    // Rows fetched per request and the most pages kept in memory at once
+    public static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 5;
+    // Fetch more once the viewport is this many rows from either edge
+    private static final int PREFETCH_ROWS = PAGE_SIZE / 2;
+
+    private final String[] columns;
+    private final Function<T, Object[]> toRow;
+
+    private PageSource<T> source;
+    // Sliding window of records currently materialised
+    private final List<T> window = new ArrayList<>();
+    private final List<Object[]> rows = new ArrayList<>();
+    private boolean atStart = true;
+    private boolean atEnd = true;
+    private boolean loading;
+
+    public PagedTableModel(String[] columns, Function<T, Object[]> toRow) {
+        this.columns = columns;
+        this.toRow = toRow;
+    }
+
+    // Starts over from the first page of a new source
+    public void setSource(PageSource<T> source) {
+        this.source = source;
+        window.clear();
+        rows.clear();
+        List<T> page = source.after(null, PAGE_SIZE);
+        append(page);
+        atStart = true;
+        atEnd = page.size() < PAGE_SIZE;
+        fireTableDataChanged();
+    }
+
+    // Total records behind the window, e.g. for a "showing n of m" label
+    public int getSourceSize() {
+        return source == null ? 0 : source.size();
+    }
+
+    // Record shown at a window row
+    public T getItem(int row) {
+        return window.get(row);
+    }
+
+    // Loads further pages as the scroll position nears either end of the window
+    public void attach(JTable table, JScrollPane scrollPane) {
+        JScrollBar bar = scrollPane.getVerticalScrollBar();
+        bar.addAdjustmentListener(e -> {
+            if (loading || table.getModel() != this || source == null) return;
+            int rowHeight = table.getRowHeight();
+            int margin = PREFETCH_ROWS * rowHeight;
+            int value = bar.getValue();
+
+            loading = true;
+            try {
+                if (!atEnd && value + bar.getVisibleAmount() >= bar.getMaximum() - margin) {
+                    int dropped = loadNext();
+                    if (dropped > 0) {
+                        // Keep the same records under the viewport after trimming the top
+                        scrollPane.validate();
+                        bar.setValue(value - dropped * rowHeight);
+                    }
+                } else if (!atStart && value <= margin) {
+                    int added = loadPrevious();
+                    if (added > 0) {
+                        scrollPane.validate();
+                        bar.setValue(value + added * rowHeight);
+                    }
+                }
+            } finally {
+                loading = false;
+            }
+        });
+    }
+
+    // Appends the next page and trims the head, returning rows dropped
+    private int loadNext() {
+        List<T> page = source.after(window.get(window.size() - 1), PAGE_SIZE);
+        atEnd = page.size() < PAGE_SIZE;
+        if (page.isEmpty()) return 0;
+
+        int first = window.size();
+        append(page);
+        fireTableRowsInserted(first, window.size() - 1);
+
+        int excess = window.size() - MAX_PAGES * PAGE_SIZE;
+        if (excess <= 0) return 0;
+        window.subList(0, excess).clear();
+        rows.subList(0, excess).clear();
+        atStart = false;
+        fireTableRowsDeleted(0, excess - 1);
+        return excess;
+    }
+
+    // Prepends the previous page and trims the tail, returning rows added
+    private int loadPrevious() {
+        List<T> page = source.before(window.get(0), PAGE_SIZE);
+        atStart = page.size() < PAGE_SIZE;
+        if (page.isEmpty()) return 0;
+
+        List<Object[]> pageRows = new ArrayList<>(page.size());
+        for (T item : page) pageRows.add(toRow.apply(item));
+        window.addAll(0, page);
+        rows.addAll(0, pageRows);
+        fireTableRowsInserted(0, page.size() - 1);
+
+        int excess = window.size() - MAX_PAGES * PAGE_SIZE;
+        if (excess > 0) {
+            int keep = window.size() - excess;
+            window.subList(keep, window.size()).clear();
+            rows.subList(keep, rows.size()).clear();
+            atEnd = false;
+            fireTableRowsDeleted(keep, keep + excess - 1);
+        }
+        return page.size();
+    }
+
+    private void append(List<T> page) {
+        for (T item : page) {
+            window.add(item);
+            rows.add(toRow.apply(item));
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return rows.get(row)[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package view;
+
+import javax.swing.*;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+public class SearchableComboBoxModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+
+    // Upper bound on items materialised in the dropdown at any time
+    public static final int MAX_VISIBLE = 300;
+    // Pause after which the next keystroke starts a new search
+    private static final long TYPE_AHEAD_RESET_MS = 1000;
+
+    // Sorted identifier index supplied by the repository
+    private NavigableSet<String> source = Collections.emptyNavigableSet();
+    // Matches currently shown in the dropdown
+    private List<String> window = Collections.emptyList();
+    private Object selectedItem;
+    private String filterText = "";
+
+    // Latest search wins, older background results are discarded
+    private volatile int generation;
+    private SwingWorker<List<String>, Void> pending;
+
+    // Binds the model to a combo box and enables type-ahead search
+    public void install(JComboBox<String> comboBox) {
+        comboBox.setModel(this);
+        comboBox.setKeySelectionManager(new TypeAhead(comboBox));
+        comboBox.addPopupMenuListener(new PopupMenuListener() {
+            @Override
+            public void popupMenuWillBecomeVisible(PopupMenuEvent e) {}
+
+            @Override
+            public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+                // Back to the unfiltered first page once the user is done
+                if (!filterText.isEmpty()) filter("", null);
+            }
+
+            @Override
+            public void popupMenuCanceled(PopupMenuEvent e) {}
+        });
+    }
+
+    // Replaces the backing index and keeps the selection when still valid
+    public void setSource(NavigableSet<String> ids) {
+        source = ids != null ? ids : Collections.emptyNavigableSet();
+        if (selectedItem == null || !source.contains(selectedItem.toString())) {
+            setSelectedItem(source.isEmpty() ? null : source.first());
+        }
+        filter("", null);
+    }
+
+    // True when the identifier exists in the backing index
+    public boolean contains(String id) {
+        return id != null && source.contains(id);
+    }
+
+    // Recomputes matches on a background thread and swaps them in on the EDT
+    public void filter(String text, Consumer<List<String>> onResult) {
+        final String query = text == null ? "" : text;
+        final NavigableSet<String> ids = source;
+        final int gen = ++generation;
+        filterText = query;
+
+        if (pending != null) pending.cancel(false);
+        pending = new SwingWorker<List<String>, Void>() {
+            @Override
+            protected List<String> doInBackground() {
+                return findMatches(ids, query, gen);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || gen != generation) return;
+                try {
+                    List<String> matches = get();
+                    // Keep the previous matches so typing can continue after a miss
+                    if (matches.isEmpty() && !query.isEmpty()) return;
+                    replaceWindow(matches);
+                    if (onResult != null) onResult.accept(matches);
+                } catch (InterruptedException | ExecutionException ex) {
+                    System.err.println("Failed to filter dropdown: " + ex.getMessage());
+                }
+            }
+        };
+        pending.execute();
+    }
+
+    // Prefix matches come from the sorted index, substring scan is the fallback
+    private List<String> findMatches(NavigableSet<String> ids, String query, int gen) {
+        List<String> matches = new ArrayList<>();
+        Iterable<String> candidates = query.isEmpty()
+                ? ids : ids.subSet(query, true, query + Character.MAX_VALUE, true);
+        for (String id : candidates) {
+            if (matches.size() >= MAX_VISIBLE) return matches;
+            matches.add(id);
+        }
+        if (!matches.isEmpty() || query.isEmpty()) return matches;
+
+        String needle = query.toLowerCase(Locale.ROOT);
+        for (String id : ids) {
+            // Stop early when a newer search has superseded this one
+            if (matches.size() >= MAX_VISIBLE || gen != generation) break;
+            if (id.toLowerCase(Locale.ROOT).contains(needle)) matches.add(id);
+        }
+        return matches;
+    }
+
+    // Swaps the visible matches and notifies the combo box
+    private void replaceWindow(List<String> matches) {
+        int oldSize = window.size();
+        window = Collections.emptyList();
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        window = matches;
+        if (!matches.isEmpty()) fireIntervalAdded(this, 0, matches.size() - 1);
+    }
+
+    @Override
+    public int getSize() {
+        return window.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return window.get(index);
+    }
+
+    // Selection may be outside the visible window, e.g. when loaded from a table row
+    @Override
+    public void setSelectedItem(Object item) {
+        if (Objects.equals(selectedItem, item)) return;
+        selectedItem = item;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+
+    // Accumulates typed characters and selects the first match when ready
+    private class TypeAhead implements JComboBox.KeySelectionManager {
+        private final JComboBox<String> comboBox;
+        private final StringBuilder typed = new StringBuilder();
+        private long lastKeyTime;
+
+        TypeAhead(JComboBox<String> comboBox) {
+            this.comboBox = comboBox;
+        }
+
+        @Override
+        public int selectionForKey(char key, ComboBoxModel<?> model) {
+            long now = System.currentTimeMillis();
+            if (now - lastKeyTime > TYPE_AHEAD_RESET_MS) typed.setLength(0);
+            lastKeyTime = now;
+
+            if (key == '\b') {
+                if (typed.length() > 0) typed.setLength(typed.length() - 1);
+            } else {
+                typed.append(key);
+            }
+
+            filter(typed.toString(), matches -> {
+                if (matches.isEmpty()) return;
+                setSelectedItem(matches.get(0));
+                if (comboBox.isShowing() && !comboBox.isPopupVisible()) comboBox.showPopup();
+            });
+            // Selection happens asynchronously once the search completes
+            return -1;
+        }
+    }
+}
\ No newline at end of file
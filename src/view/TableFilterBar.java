@@ -0,0 +1,105 @@
+package view;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+
+public class TableFilterBar extends JPanel {
+
+    // Delay after the last keystroke before the filter is applied
+    private static final int TYPING_DELAY_MS = 250;
+    private static final String ALL = "All";
+
+    private final BackgroundRowSorter sorter;
+    private final JTextField txtSearch = new JTextField(18);
+    private final JComboBox<String> cbMatch;
+    private final int matchColumn;
+    private final JLabel lblCount = new JLabel();
+    private final Timer typingTimer;
+    private boolean countPending;
+
+    // Search box only
+    public TableFilterBar(BackgroundRowSorter sorter) {
+        this(sorter, -1, null, new String[0]);
+    }
+
+    // Search box plus an exact-match dropdown for one column (e.g. status)
+    public TableFilterBar(BackgroundRowSorter sorter, int matchColumn, String matchLabel, String[] matchValues) {
+        super(new FlowLayout(FlowLayout.LEFT, 8, 2));
+        this.sorter = sorter;
+        this.matchColumn = matchColumn;
+
+        JLabel lblSearch = new JLabel("Search:");
+        lblSearch.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        txtSearch.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        add(lblSearch);
+        add(txtSearch);
+
+        if (matchColumn >= 0) {
+            cbMatch = new JComboBox<>();
+            cbMatch.addItem(ALL);
+            for (String v : matchValues) cbMatch.addItem(v);
+            cbMatch.setFont(new Font("SansSerif", Font.PLAIN, 12));
+            cbMatch.addActionListener(e -> applyFilter());
+            JLabel lblMatch = new JLabel(matchLabel);
+            lblMatch.setFont(new Font("SansSerif", Font.PLAIN, 12));
+            add(lblMatch);
+            add(cbMatch);
+        } else {
+            cbMatch = null;
+        }
+
+        lblCount.setFont(new Font("SansSerif", Font.ITALIC, 11));
+        add(lblCount);
+
+        // Restart the timer on each keystroke so filtering runs once typing pauses
+        typingTimer = new Timer(TYPING_DELAY_MS, e -> applyFilter());
+        typingTimer.setRepeats(false);
+        txtSearch.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { typingTimer.restart(); }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) { typingTimer.restart(); }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) { typingTimer.restart(); }
+        });
+
+        sorter.addRowSorterListener(e -> scheduleCount());
+        sorter.getModel().addTableModelListener(e -> scheduleCount());
+        updateCount();
+    }
+
+    // Returns the items of an existing combo box, e.g. the form's status choices
+    public static String[] itemsOf(JComboBox<String> comboBox) {
+        String[] items = new String[comboBox.getItemCount()];
+        for (int i = 0; i < items.length; i++) items[i] = comboBox.getItemAt(i);
+        return items;
+    }
+
+    // Pushes the current search text and dropdown choice to the sorter
+    private void applyFilter() {
+        String value = null;
+        if (cbMatch != null && !ALL.equals(cbMatch.getSelectedItem())) {
+            value = (String) cbMatch.getSelectedItem();
+        }
+        sorter.setFilter(txtSearch.getText(), matchColumn, value);
+    }
+
+    // Refreshes the row count once after a burst of table changes
+    private void scheduleCount() {
+        if (countPending) return;
+        countPending = true;
+        SwingUtilities.invokeLater(this::updateCount);
+    }
+
+    // Shows how many rows pass the filter
+    private void updateCount() {
+        countPending = false;
+        int shown = sorter.getViewRowCount();
+        int total = sorter.getModelRowCount();
+        lblCount.setText(shown == total ? total + " rows" : shown + " of " + total + " rows");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package view;
+
+import javax.swing.table.DefaultTableModel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TableRows {
+
+    // Updates a table whose first column is the record ID in place: rows with a removed ID go,
+    // changed rows are overwritten cell by cell and new IDs are added, so untouched rows keep
+    // their selection and position
+    public static void apply(DefaultTableModel model, List<Object[]> changed, Set<String> removedIds) {
+        for (int row = model.getRowCount() - 1; row >= 0; row--) {
+            if (removedIds.contains(String.valueOf(model.getValueAt(row, 0)))) model.removeRow(row);
+        }
+        Map<String, Integer> rowById = new HashMap<>();
+        for (int row = 0; row < model.getRowCount(); row++) {
+            rowById.put(String.valueOf(model.getValueAt(row, 0)), row);
+        }
+        for (Object[] values : changed) {
+            Integer row = rowById.get(String.valueOf(values[0]));
+            if (row == null) {
+                model.addRow(values);
+                continue;
+            }
+            for (int column = 0; column < values.length; column++) {
+                Object current = model.getValueAt(row, column);
+                if (current == null ? values[column] != null : !current.equals(values[column])) {
+                    model.setValueAt(values[column], row, column);
+                }
+            }
+        }
+    }
+}
\ No newline at end of file